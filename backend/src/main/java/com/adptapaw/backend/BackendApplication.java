@@ -4,12 +4,10 @@ package com.adptapaw.backend;
 import com.cloudinary.Cloudinary;
 import com.cloudinary.SingletonManager;
 import com.cloudinary.utils.ObjectUtils;
-import org.modelmapper.ModelMapper;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
-import org.springframework.context.annotation.Bean;
 import org.springframework.context.event.EventListener;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 
@@ -22,12 +20,6 @@ import javax.mail.MessagingException;
 @EnableWebMvc
 public class BackendApplication {
 
-    @Bean
-    public ModelMapper modelMapper(){
-        return new ModelMapper();
-    }
-
-
     public static void main(String[] args) {
 
         Cloudinary cloudinary = new Cloudinary(ObjectUtils.asMap(
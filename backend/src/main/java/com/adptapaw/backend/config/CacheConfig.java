@@ -0,0 +1,34 @@
+package com.adptapaw.backend.config;
+
+import com.adptapaw.backend.payload.adoption.AdoptionAnimalDTO;
+import com.adptapaw.backend.payload.donations.DonationPostDTO;
+import com.adptapaw.backend.payload.missing.MissingAnimalDTO;
+import com.adptapaw.backend.service.cache.DtoCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class CacheConfig {
+
+    @Value("${cache.dto.max-size:1000}")
+    private int maxSize;
+
+    @Value("${cache.dto.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Bean
+    public DtoCache<Long, AdoptionAnimalDTO> adoptionAnimalCache() {
+        return new DtoCache<>("adoptionAnimal", maxSize, ttlSeconds * 1000);
+    }
+
+    @Bean
+    public DtoCache<Long, MissingAnimalDTO> missingAnimalCache() {
+        return new DtoCache<>("missingAnimal", maxSize, ttlSeconds * 1000);
+    }
+
+    @Bean
+    public DtoCache<Long, DonationPostDTO> donationPostCache() {
+        return new DtoCache<>("donationPost", maxSize, ttlSeconds * 1000);
+    }
+}
@@ -2,6 +2,7 @@ package com.adptapaw.backend.config;
 
 import com.adptapaw.backend.security.JWTAuthenticationEntryPoint;
 import com.adptapaw.backend.security.JWTAuthenticationFilter;
+import com.adptapaw.backend.security.RateLimitFilter;
 import com.adptapaw.backend.security.UserServiceSecurity;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
@@ -36,6 +37,10 @@ public class SecurityConfig {
         return  new JWTAuthenticationFilter();
     }
     @Bean
+    public RateLimitFilter rateLimitFilter(){
+        return new RateLimitFilter();
+    }
+    @Bean
     PasswordEncoder passwordEncoder(){
         return new BCryptPasswordEncoder();
     }
@@ -57,6 +62,10 @@ public class SecurityConfig {
                 .antMatchers(HttpMethod.GET, "/api/ping").permitAll()
                 .antMatchers(HttpMethod.GET, "/api/adoption/{id}").permitAll()
                 .antMatchers(HttpMethod.GET, "/api/adoption/all").permitAll()
+                .antMatchers(HttpMethod.GET, "/api/adoption/search").permitAll()
+                .antMatchers(HttpMethod.GET, "/api/adoption/search/text").permitAll()
+                .antMatchers(HttpMethod.GET, "/api/adoption/near").permitAll()
+                .antMatchers(HttpMethod.GET, "/api/adoption/{id}/possible-matches").permitAll()
                 .antMatchers(HttpMethod.GET, "/api/donationpost/{id}").permitAll()
                 .antMatchers(HttpMethod.GET, "/api/donationpost/all").permitAll()
                 .antMatchers(HttpMethod.GET, "/api/missing/**").permitAll()
@@ -70,6 +79,7 @@ public class SecurityConfig {
                 .antMatchers("/webjars/**").permitAll()
                 .anyRequest()
                 .authenticated();
+        http.addFilterBefore(rateLimitFilter(), UsernamePasswordAuthenticationFilter.class);
         http.addFilterBefore(jWTAuthenticationFilter(), UsernamePasswordAuthenticationFilter.class);
         http.cors();
         return http.build();
@@ -0,0 +1,12 @@
+package com.adptapaw.backend.context;
+
+public class SavedSearchDigestEmailContext extends AbstractEmailContext {
+    @Override
+    public <T> void init(T context){
+
+        setTemplateLocation("savedsearchdigest.html");
+        setSubject("New animals matching your saved searches");
+        setFrom("no-reply@pawconnect.com");
+    }
+
+}
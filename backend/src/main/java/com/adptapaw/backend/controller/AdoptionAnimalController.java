@@ -1,13 +1,37 @@
 package com.adptapaw.backend.controller;
 
+import com.adptapaw.backend.exception.BadRequestException;
+import com.adptapaw.backend.payload.NearbyAnimalDTO;
+import com.adptapaw.backend.payload.PossibleMatchDTO;
 import com.adptapaw.backend.payload.adoption.AdoptionAnimalDTO;
 import com.adptapaw.backend.payload.adoption.AdoptionAnimalResponseDTO;
+import com.adptapaw.backend.payload.adoption.AdoptionCardDTO;
+import com.adptapaw.backend.payload.adoption.AdoptionImportResultDTO;
+import com.adptapaw.backend.payload.adoption.AdoptionSearchResponseDTO;
+import com.adptapaw.backend.payload.adoption.AdoptionTextSearchResponseDTO;
 import com.adptapaw.backend.payload.donations.DonationPostDTO;
 import com.adptapaw.backend.service.AdoptionAnimalService;
+import com.adptapaw.backend.service.ETagService;
+import com.adptapaw.backend.service.archive.ArchiveService;
+import com.adptapaw.backend.service.bulk.AdoptionImportService;
+import com.adptapaw.backend.service.geo.GeoSearchService;
+import com.adptapaw.backend.service.matching.AnimalMatchService;
+import com.adptapaw.backend.service.recommendation.RecommendationService;
+import com.adptapaw.backend.service.search.AdoptionSearchService;
+import com.adptapaw.backend.service.trending.ViewCounterService;
+import com.adptapaw.backend.service.trending.ViewTarget;
 import com.adptapaw.backend.utils.AdoptapawConstants;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.InputStream;
+import java.util.List;
 
 @CrossOrigin(origins  = ("${site.base.url.https}"))
 @RestController
@@ -16,8 +40,34 @@ public class AdoptionAnimalController {
 
     private final AdoptionAnimalService adoptionAnimalService;
 
-    public AdoptionAnimalController(AdoptionAnimalService adoptionAnimalService) {
+    private final AdoptionSearchService adoptionSearchService;
+
+    private final GeoSearchService geoSearchService;
+
+    private final AdoptionImportService adoptionImportService;
+
+    private final ETagService eTagService;
+
+    private final RecommendationService recommendationService;
+
+    private final AnimalMatchService animalMatchService;
+
+    private final ArchiveService archiveService;
+
+    private final ViewCounterService viewCounterService;
+
+    public AdoptionAnimalController(AdoptionAnimalService adoptionAnimalService, AdoptionSearchService adoptionSearchService, GeoSearchService geoSearchService,
+                                    AdoptionImportService adoptionImportService, ETagService eTagService, RecommendationService recommendationService,
+                                    AnimalMatchService animalMatchService, ArchiveService archiveService, ViewCounterService viewCounterService) {
         this.adoptionAnimalService = adoptionAnimalService;
+        this.adoptionSearchService = adoptionSearchService;
+        this.geoSearchService = geoSearchService;
+        this.adoptionImportService = adoptionImportService;
+        this.eTagService = eTagService;
+        this.recommendationService = recommendationService;
+        this.animalMatchService = animalMatchService;
+        this.archiveService = archiveService;
+        this.viewCounterService = viewCounterService;
     }
 
 
@@ -27,20 +77,100 @@ public class AdoptionAnimalController {
 
     }
 
+    @PostMapping(value = "/{id}/import", consumes = {AdoptapawConstants.CSV_MEDIA_TYPE, AdoptapawConstants.NDJSON_MEDIA_TYPE})
+    public AdoptionImportResultDTO importAdoptionAnimals(@PathVariable(name = "id") String id,
+                                                         @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                         InputStream body){
+        return adoptionImportService.importAdoptionAnimals(id, contentType, body);
+    }
+
 
     @GetMapping("/all")
-    public AdoptionAnimalResponseDTO getAdoptionAnimals(@RequestParam(value = "pageNo", defaultValue = AdoptapawConstants.DEFAULT_PAGE_NUMBER, required = false) int pageNo,
-                                                        @RequestParam(value = "pageSize", defaultValue = AdoptapawConstants.DEFAULT_PAGE_SIZE, required = false) int pageSize,
-                                                        @RequestParam(value = "sortBy", defaultValue = AdoptapawConstants.DEFAULT_SORT_BY, required = false) String sortBy,
-                                                        @RequestParam(value = "sortDir", defaultValue = AdoptapawConstants.DEFAULT_SORT_DIRECTION, required = false) String sortDir){
-        return adoptionAnimalService.getAllAdoptionAnimals( pageNo,  pageSize, sortBy,sortDir);
+    public ResponseEntity<?> getAdoptionAnimals(@RequestParam(value = "pageNo", defaultValue = AdoptapawConstants.DEFAULT_PAGE_NUMBER, required = false) int pageNo,
+                                                @RequestParam(value = "pageSize", defaultValue = AdoptapawConstants.DEFAULT_PAGE_SIZE, required = false) int pageSize,
+                                                @RequestParam(value = "sortBy", defaultValue = AdoptapawConstants.DEFAULT_SORT_BY, required = false) String sortBy,
+                                                @RequestParam(value = "sortDir", defaultValue = AdoptapawConstants.DEFAULT_SORT_DIRECTION, required = false) String sortDir,
+                                                @RequestParam(value = "cursor", required = false) String cursor,
+                                                @RequestParam(value = "view", defaultValue = AdoptapawConstants.CARD_VIEW, required = false) String view,
+                                                @RequestParam(value = "includeArchived", defaultValue = "false", required = false) boolean includeArchived,
+                                                WebRequest webRequest){
+        // trending order moves with view counts, which the list tag does not track
+        if (!AdoptapawConstants.TRENDING_SORT.equalsIgnoreCase(sortBy) && webRequest.checkNotModified(eTagService.adoptionAnimalListTag())) {
+            return null;
+        }
+        if (AdoptapawConstants.FULL_VIEW.equalsIgnoreCase(view)) {
+            if (includeArchived) {
+                throw new BadRequestException("includeArchived is only supported with the card view");
+            }
+            return ResponseEntity.ok(adoptionAnimalService.getAllAdoptionAnimals( pageNo,  pageSize, sortBy,sortDir, cursor));
+        }
+        if (!AdoptapawConstants.CARD_VIEW.equalsIgnoreCase(view)) {
+            throw new BadRequestException("Unsupported view: " + view);
+        }
+        if (includeArchived) {
+            if (cursor != null) {
+                throw new BadRequestException("Cursor pagination is not supported with includeArchived");
+            }
+            return ResponseEntity.ok(archiveService.getAdoptionAnimalCardsWithArchive(pageNo, pageSize, sortBy, sortDir));
+        }
+        return ResponseEntity.ok(adoptionAnimalService.getAdoptionAnimalCards(pageNo, pageSize, sortBy, sortDir, cursor));
+    }
+
+    @GetMapping("/search")
+    public AdoptionSearchResponseDTO searchAdoptionAnimals(@RequestParam(value = "type", required = false) List<String> type,
+                                                           @RequestParam(value = "breed", required = false) List<String> breed,
+                                                           @RequestParam(value = "gender", required = false) List<String> gender,
+                                                           @RequestParam(value = "location", required = false) List<String> location,
+                                                           @RequestParam(value = "availability", required = false) List<String> availability,
+                                                           @RequestParam(value = "pageNo", defaultValue = AdoptapawConstants.DEFAULT_PAGE_NUMBER, required = false) int pageNo,
+                                                           @RequestParam(value = "pageSize", defaultValue = AdoptapawConstants.DEFAULT_PAGE_SIZE, required = false) int pageSize,
+                                                           @RequestParam(value = "sortBy", defaultValue = AdoptapawConstants.DEFAULT_SORT_BY, required = false) String sortBy,
+                                                           @RequestParam(value = "sortDir", defaultValue = AdoptapawConstants.DEFAULT_SORT_DIRECTION, required = false) String sortDir){
+        return adoptionSearchService.search(type, breed, gender, location, availability, pageNo, pageSize, sortBy, sortDir);
+    }
+
+    @GetMapping("/search/text")
+    public AdoptionTextSearchResponseDTO searchAdoptionAnimalsByText(@RequestParam(value = "q") String query,
+                                                                     @RequestParam(value = "pageNo", defaultValue = AdoptapawConstants.DEFAULT_PAGE_NUMBER, required = false) int pageNo,
+                                                                     @RequestParam(value = "pageSize", defaultValue = AdoptapawConstants.DEFAULT_PAGE_SIZE, required = false) int pageSize){
+        return adoptionAnimalService.searchByText(query, pageNo, pageSize);
+    }
+
+    @GetMapping("/near")
+    public List<NearbyAnimalDTO> getAdoptionAnimalsNear(@RequestParam(value = "lat", required = false) Double latitude,
+                                                        @RequestParam(value = "lon", required = false) Double longitude,
+                                                        @RequestParam(value = "location", required = false) String location,
+                                                        @RequestParam(value = "radiusKm", defaultValue = AdoptapawConstants.DEFAULT_RADIUS_KM, required = false) double radiusKm,
+                                                        @RequestParam(value = "limit", defaultValue = AdoptapawConstants.DEFAULT_NEARBY_LIMIT, required = false) int limit){
+        return geoSearchService.nearAdoptionAnimals(latitude, longitude, location, radiusKm, limit);
+    }
+
+    @GetMapping("/recommended")
+    public List<AdoptionCardDTO> getRecommendedAdoptionAnimals(@RequestParam(value = "limit", defaultValue = AdoptapawConstants.DEFAULT_RECOMMENDATION_LIMIT, required = false) int limit){
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String email = authentication == null || authentication instanceof AnonymousAuthenticationToken ? null : authentication.getName();
+        return recommendationService.recommendFor(email, limit);
     }
 
 
 
 
+    @GetMapping("/{id}/possible-matches")
+    public List<PossibleMatchDTO> getPossibleMatches(@PathVariable(name = "id") Long id,
+                                                     @RequestParam(value = "limit", defaultValue = AdoptapawConstants.DEFAULT_MATCH_LIMIT, required = false) int limit){
+        return animalMatchService.matchesForAdoptionAnimal(id, limit);
+    }
+
     @GetMapping("/{id}")
-    public AdoptionAnimalDTO getAdoptionAnimalById(@PathVariable(name = "id") String id){
+    public AdoptionAnimalDTO getAdoptionAnimalById(@PathVariable(name = "id") String id, WebRequest webRequest){
+        String tag = eTagService.adoptionAnimalTag(id);
+        if (tag != null) {
+            // before the conditional check, so a returning visitor's 304 revalidation still counts as a view
+            viewCounterService.recordView(ViewTarget.ADOPTION_ANIMAL, Long.valueOf(id));
+        }
+        if (webRequest.checkNotModified(tag)) {
+            return null;
+        }
         return adoptionAnimalService.getAllById(id);
     }
 
@@ -48,7 +178,12 @@ public class AdoptionAnimalController {
     public ResponseEntity<?> getAdoptionAnimalByCreator(@PathVariable(name = "id")String id,@RequestParam(value = "pageNo", defaultValue = AdoptapawConstants.DEFAULT_PAGE_NUMBER, required = false) int pageNo,
             @RequestParam(value = "pageSize", defaultValue = AdoptapawConstants.DEFAULT_PAGE_SIZE, required = false) int pageSize,
             @RequestParam(value = "sortBy", defaultValue = AdoptapawConstants.DEFAULT_SORT_BY, required = false) String sortBy,
-            @RequestParam(value = "sortDir", defaultValue = AdoptapawConstants.DEFAULT_SORT_DIRECTION, required = false) String sortDir ){
+            @RequestParam(value = "sortDir", defaultValue = AdoptapawConstants.DEFAULT_SORT_DIRECTION, required = false) String sortDir,
+            @RequestParam(value = "includeArchived", defaultValue = "false", required = false) boolean includeArchived){
+        if (includeArchived) {
+            // archived posts are only available as cards, as with /all
+            return ResponseEntity.ok(archiveService.getAdoptionAnimalCardsByCreatorWithArchive(id, pageNo, pageSize, sortBy, sortDir));
+        }
         return adoptionAnimalService.getAllByCreator(id,pageNo, pageSize, sortBy,sortDir);
     }
 
@@ -58,8 +193,9 @@ public class AdoptionAnimalController {
     }
 
     @DeleteMapping("/{id}")
-    public String DeleteAdoptionAnimal(@PathVariable (name="id") String  id){
-        return adoptionAnimalService.DeleteById(id);
+    public String DeleteAdoptionAnimal(@PathVariable (name="id") String  id,
+                                       @RequestParam(value = "soft", defaultValue = "false", required = false) boolean soft){
+        return adoptionAnimalService.DeleteById(id, soft);
     }
 
 }
@@ -1,8 +1,11 @@
 package com.adptapaw.backend.controller;
 
+import com.adptapaw.backend.exception.BadRequestException;
 import com.adptapaw.backend.payload.adoption.AdoptionRequestDTO;
 import com.adptapaw.backend.payload.adoption.AdoptionRequestListDTO;
+import com.adptapaw.backend.payload.adoption.AdoptionReviewQueueDTO;
 import com.adptapaw.backend.service.AdoptionRequestService;
+import com.adptapaw.backend.service.archive.ArchiveService;
 import com.adptapaw.backend.utils.AdoptapawConstants;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -16,8 +19,11 @@ public class AdoptionRequestController {
 
     private final AdoptionRequestService adoptionRequestService;
 
-    public AdoptionRequestController(AdoptionRequestService adoptionRequestService) {
+    private final ArchiveService archiveService;
+
+    public AdoptionRequestController(AdoptionRequestService adoptionRequestService, ArchiveService archiveService) {
         this.adoptionRequestService = adoptionRequestService;
+        this.archiveService = archiveService;
     }
 
     @PreAuthorize("hasAuthority('ROLE_ADMIN')")
@@ -37,8 +43,20 @@ public class AdoptionRequestController {
     }
 
     @GetMapping("/user/{id}/adoption/request")
-    public AdoptionRequestListDTO getAdoptionRequestsByCreator(@PathVariable(name = "id") String id){
-        return adoptionRequestService.getAllByCreator(id);
+    public AdoptionRequestListDTO getAdoptionRequestsByCreator(@PathVariable(name = "id") String id,
+                                                               @RequestParam(value = "pageNo", defaultValue = AdoptapawConstants.DEFAULT_PAGE_NUMBER, required = false) int pageNo,
+                                                               @RequestParam(value = "pageSize", defaultValue = AdoptapawConstants.DEFAULT_PAGE_SIZE, required = false) int pageSize,
+                                                               @RequestParam(value = "sortBy", defaultValue = AdoptapawConstants.DEFAULT_SORT_BY, required = false) String sortBy,
+                                                               @RequestParam(value = "sortDir", defaultValue = AdoptapawConstants.DEFAULT_SORT_DIRECTION, required = false) String sortDir,
+                                                               @RequestParam(value = "cursor", required = false) String cursor,
+                                                               @RequestParam(value = "includeArchived", defaultValue = "false", required = false) boolean includeArchived){
+        if (includeArchived) {
+            if (cursor != null) {
+                throw new BadRequestException("Cursor pagination is not supported with includeArchived");
+            }
+            return archiveService.getAdoptionRequestsBySeekerWithArchive(id, pageNo, pageSize, sortBy, sortDir);
+        }
+        return adoptionRequestService.getAllByCreator(id, pageNo, pageSize, sortBy, sortDir, cursor);
     }
 
 
@@ -48,8 +66,26 @@ public class AdoptionRequestController {
     public AdoptionRequestListDTO getAllAdoptionRequest(@PathVariable(name = "id")String id,@RequestParam(value = "pageNo", defaultValue = AdoptapawConstants.DEFAULT_PAGE_NUMBER, required = false) int pageNo,
                                                  @RequestParam(value = "pageSize", defaultValue = AdoptapawConstants.DEFAULT_PAGE_SIZE, required = false) int pageSize,
                                                  @RequestParam(value = "sortBy", defaultValue = AdoptapawConstants.DEFAULT_SORT_BY, required = false) String sortBy,
-                                                 @RequestParam(value = "sortDir", defaultValue = AdoptapawConstants.DEFAULT_SORT_DIRECTION, required = false) String sortDir){
-        return adoptionRequestService.getAll(id,pageNo, pageSize, sortBy,sortDir);
+                                                 @RequestParam(value = "sortDir", defaultValue = AdoptapawConstants.DEFAULT_SORT_DIRECTION, required = false) String sortDir,
+                                                 @RequestParam(value = "cursor", required = false) String cursor){
+        return adoptionRequestService.getAll(id,pageNo, pageSize, sortBy,sortDir, cursor);
+
+    }
 
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @GetMapping("/admin/{id}/adoption/request/queue")
+    public AdoptionReviewQueueDTO getAdoptionReviewQueue(@PathVariable(name = "id") String id,
+                                                         @RequestParam(value = "pageNo", defaultValue = AdoptapawConstants.DEFAULT_PAGE_NUMBER, required = false) int pageNo,
+                                                         @RequestParam(value = "pageSize", defaultValue = AdoptapawConstants.DEFAULT_PAGE_SIZE, required = false) int pageSize){
+        return adoptionRequestService.getReviewQueue(pageNo, pageSize);
+    }
+
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @GetMapping("/admin/{id}/adoption/request/queue/{petId}")
+    public AdoptionRequestListDTO getPendingAdoptionRequestsByPet(@PathVariable(name = "id") String id,
+                                                                  @PathVariable(name = "petId") String petId,
+                                                                  @RequestParam(value = "pageNo", defaultValue = AdoptapawConstants.DEFAULT_PAGE_NUMBER, required = false) int pageNo,
+                                                                  @RequestParam(value = "pageSize", defaultValue = AdoptapawConstants.DEFAULT_PAGE_SIZE, required = false) int pageSize){
+        return adoptionRequestService.getPendingByPet(petId, pageNo, pageSize);
     }
-}
\ No newline at end of file
+}
@@ -16,6 +16,8 @@ import com.adptapaw.backend.repository.UserRepository;
 import com.adptapaw.backend.security.JWTTokenProvider;
 import com.adptapaw.backend.security.UserServiceSecurity;
 import com.adptapaw.backend.service.email.EmailService;
+import com.adptapaw.backend.service.geo.GeoPoint;
+import com.adptapaw.backend.service.geo.GeoSearchService;
 import com.adptapaw.backend.service.token.TokenService;
 import com.adptapaw.backend.utils.AdoptapawConstants;
 import org.slf4j.Logger;
@@ -70,6 +72,9 @@ public class AuthController {
     @Autowired
     private TokenService tokenService;
 
+    @Autowired
+    private GeoSearchService geoSearchService;
+
     @Value("${site.base.url.https}")
     private String baseURL;
 
@@ -116,6 +121,9 @@ public class AuthController {
         user.setBanned(false);
         user.setDp(signupDTO.getDp());
         user.setLocation(signupDTO.getLocation());
+        GeoPoint point = geoSearchService.resolve(null, null, signupDTO.getLocation());
+        user.setLatitude(point == null ? null : point.getLatitude());
+        user.setLongitude(point == null ? null : point.getLongitude());
         user.setAccountVerified(false);
 
         Roles roles = roleRepository.findByName("ROLE_USER")
@@ -235,6 +243,9 @@ public class AuthController {
         }
         user.setBio(signupDTO.getBio());
         user.setLocation(signupDTO.getLocation());
+        GeoPoint point = geoSearchService.resolve(null, null, signupDTO.getLocation());
+        user.setLatitude(point == null ? null : point.getLatitude());
+        user.setLongitude(point == null ? null : point.getLongitude());
         user.setDp(signupDTO.getDp());
 
         userRepository.save(user);
@@ -308,7 +319,8 @@ public class AuthController {
             @RequestParam(value = "pageNo", defaultValue = AdoptapawConstants.DEFAULT_PAGE_NUMBER, required = false) int pageNo,
             @RequestParam(value = "pageSize", defaultValue = AdoptapawConstants.DEFAULT_PAGE_SIZE, required = false) int pageSize,
             @RequestParam(value = "sortBy", defaultValue = AdoptapawConstants.DEFAULT_SORT_BY, required = false) String sortBy,
-            @RequestParam(value = "sortDir", defaultValue = AdoptapawConstants.DEFAULT_SORT_DIRECTION, required = false) String sortDir) {
-        return userServiceSecurity.getAllUsers(pageNo, pageSize, sortBy, sortDir);
+            @RequestParam(value = "sortDir", defaultValue = AdoptapawConstants.DEFAULT_SORT_DIRECTION, required = false) String sortDir,
+            @RequestParam(value = "cursor", required = false) String cursor) {
+        return userServiceSecurity.getAllUsers(pageNo, pageSize, sortBy, sortDir, cursor);
     }
 }
@@ -2,12 +2,18 @@ package com.adptapaw.backend.controller;
 
 
 
+import com.adptapaw.backend.exception.BadRequestException;
 import com.adptapaw.backend.payload.donations.DonationPostDTO;
 import com.adptapaw.backend.payload.donations.DonationPostResponseDTO;
 import com.adptapaw.backend.service.DonationPostService;
+import com.adptapaw.backend.service.ETagService;
+import com.adptapaw.backend.service.trending.ViewCounterService;
+import com.adptapaw.backend.service.trending.ViewTarget;
 import com.adptapaw.backend.utils.AdoptapawConstants;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 @CrossOrigin(origins  = ("${site.base.url.https}"))
 @RestController
@@ -15,8 +21,14 @@ import org.springframework.web.bind.annotation.*;
 public class DonationPostController {
     private final DonationPostService donationPostService;
 
-    public DonationPostController(DonationPostService donationPostService) {
+    private final ETagService eTagService;
+
+    private final ViewCounterService viewCounterService;
+
+    public DonationPostController(DonationPostService donationPostService, ETagService eTagService, ViewCounterService viewCounterService) {
         this.donationPostService = donationPostService;
+        this.eTagService = eTagService;
+        this.viewCounterService = viewCounterService;
     }
 
 
@@ -29,11 +41,24 @@ public class DonationPostController {
 
 
     @GetMapping("/all")
-    public DonationPostResponseDTO getDonationPosts(@RequestParam(value = "pageNo", defaultValue = AdoptapawConstants.DEFAULT_PAGE_NUMBER, required = false) int pageNo,
-                                                    @RequestParam(value = "pageSize", defaultValue = AdoptapawConstants.DEFAULT_PAGE_SIZE, required = false) int pageSize,
-                                                    @RequestParam(value = "sortBy", defaultValue = AdoptapawConstants.DEFAULT_SORT_BY, required = false) String sortBy,
-                                                    @RequestParam(value = "sortDir", defaultValue = AdoptapawConstants.DEFAULT_SORT_DIRECTION, required = false) String sortDir){
-        return donationPostService.getAllDonationsPosts(pageNo,  pageSize, sortBy,sortDir);
+    public ResponseEntity<?> getDonationPosts(@RequestParam(value = "pageNo", defaultValue = AdoptapawConstants.DEFAULT_PAGE_NUMBER, required = false) int pageNo,
+                                              @RequestParam(value = "pageSize", defaultValue = AdoptapawConstants.DEFAULT_PAGE_SIZE, required = false) int pageSize,
+                                              @RequestParam(value = "sortBy", defaultValue = AdoptapawConstants.DEFAULT_SORT_BY, required = false) String sortBy,
+                                              @RequestParam(value = "sortDir", defaultValue = AdoptapawConstants.DEFAULT_SORT_DIRECTION, required = false) String sortDir,
+                                              @RequestParam(value = "cursor", required = false) String cursor,
+                                              @RequestParam(value = "view", defaultValue = AdoptapawConstants.CARD_VIEW, required = false) String view,
+                                              WebRequest webRequest){
+        // trending order moves with view counts, which the list tag does not track
+        if (!AdoptapawConstants.TRENDING_SORT.equalsIgnoreCase(sortBy) && webRequest.checkNotModified(eTagService.donationPostListTag())) {
+            return null;
+        }
+        if (AdoptapawConstants.FULL_VIEW.equalsIgnoreCase(view)) {
+            return ResponseEntity.ok(donationPostService.getAllDonationsPosts(pageNo,  pageSize, sortBy,sortDir, cursor));
+        }
+        if (!AdoptapawConstants.CARD_VIEW.equalsIgnoreCase(view)) {
+            throw new BadRequestException("Unsupported view: " + view);
+        }
+        return ResponseEntity.ok(donationPostService.getDonationPostCards(pageNo, pageSize, sortBy, sortDir, cursor));
     }
 
 
@@ -44,7 +69,15 @@ public class DonationPostController {
 
 
     @GetMapping("/{id}")
-    public DonationPostDTO getDonationPostById(@PathVariable(name = "id") String id){
+    public DonationPostDTO getDonationPostById(@PathVariable(name = "id") String id, WebRequest webRequest){
+        String tag = eTagService.donationPostTag(id);
+        if (tag != null) {
+            // before the conditional check, so a returning visitor's 304 revalidation still counts as a view
+            viewCounterService.recordView(ViewTarget.DONATION_POST, Long.valueOf(id));
+        }
+        if (webRequest.checkNotModified(tag)) {
+            return null;
+        }
         return donationPostService.getAllById(id);
     }
     @PreAuthorize("hasAuthority('ROLE_ADMIN')")
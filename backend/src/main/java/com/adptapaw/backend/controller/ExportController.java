@@ -0,0 +1,40 @@
+package com.adptapaw.backend.controller;
+
+import com.adptapaw.backend.service.export.ExportDataset;
+import com.adptapaw.backend.service.export.ExportFormat;
+import com.adptapaw.backend.service.export.ExportService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@CrossOrigin(origins  = ("${site.base.url.https}"))
+@RestController
+@RequestMapping("/api/admin/export")
+public class ExportController {
+
+    private final ExportService exportService;
+
+    public ExportController(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @GetMapping("/{dataset}")
+    public ResponseEntity<StreamingResponseBody> export(@PathVariable(name = "dataset") String dataset,
+                                                        @RequestParam(value = "format", defaultValue = "ndjson", required = false) String format){
+        ExportDataset exportDataset = ExportDataset.from(dataset);
+        ExportFormat exportFormat = ExportFormat.from(format);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getMediaType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + exportDataset.getName() + "." + exportFormat.getExtension() + "\"")
+                .body(exportService.export(exportDataset, exportFormat));
+    }
+}
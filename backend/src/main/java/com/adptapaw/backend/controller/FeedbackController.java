@@ -33,7 +33,8 @@ public class FeedbackController {
     public FeedbackListDTO getAllFeedbacks(@RequestParam(value = "pageNo", defaultValue = AdoptapawConstants.DEFAULT_PAGE_NUMBER, required = false) int pageNo,
                                               @RequestParam(value = "pageSize", defaultValue = AdoptapawConstants.DEFAULT_PAGE_SIZE, required = false) int pageSize,
                                               @RequestParam(value = "sortBy", defaultValue = AdoptapawConstants.DEFAULT_SORT_BY, required = false) String sortBy,
-                                              @RequestParam(value = "sortDir", defaultValue = AdoptapawConstants.DEFAULT_SORT_DIRECTION, required = false) String sortDir){
-        return feedbackService.getAllFeedbacks( pageNo,  pageSize, sortBy,sortDir);
+                                              @RequestParam(value = "sortDir", defaultValue = AdoptapawConstants.DEFAULT_SORT_DIRECTION, required = false) String sortDir,
+                                              @RequestParam(value = "cursor", required = false) String cursor){
+        return feedbackService.getAllFeedbacks( pageNo,  pageSize, sortBy,sortDir, cursor);
     }
 }
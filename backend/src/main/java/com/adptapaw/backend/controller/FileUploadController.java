@@ -1,5 +1,6 @@
 package com.adptapaw.backend.controller;
 
+import com.adptapaw.backend.service.imagematch.ImageMatchService;
 import com.adptapaw.backend.service.implementation.CloudinaryService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
@@ -19,6 +20,9 @@ public class FileUploadController {
         @Autowired
         CloudinaryService cloudinaryService;
 
+        @Autowired
+        ImageMatchService imageMatchService;
+
         public static final String DIRECTORY = System.getProperty("user.root") + "/Uploads";
 
         @PostMapping("/upload")
@@ -26,7 +30,10 @@ public class FileUploadController {
                 if (multipartFile == null || multipartFile.isEmpty()) {
                     throw new IllegalArgumentException("File is required");
                 }
-                return cloudinaryService.upload(multipartFile);
+                String url = cloudinaryService.upload(multipartFile);
+                // hashed off the request thread so a sighting posted with this URL can be matched at once
+                imageMatchService.fingerprintUpload(url, multipartFile.getContentType(), multipartFile.getSize());
+                return url;
         }
 
 }
@@ -2,12 +2,27 @@ package com.adptapaw.backend.controller;
 
 
 
+import com.adptapaw.backend.exception.BadRequestException;
+import com.adptapaw.backend.payload.NearbyAnimalDTO;
+import com.adptapaw.backend.payload.PossibleMatchDTO;
+import com.adptapaw.backend.payload.SightingHeatmapDTO;
 import com.adptapaw.backend.payload.missing.MissingAnimalDTO;
 import com.adptapaw.backend.payload.missing.MissingAnimalResponseDTO;
+import com.adptapaw.backend.payload.missing.MissingTextSearchResponseDTO;
+import com.adptapaw.backend.service.ETagService;
 import com.adptapaw.backend.service.MissingAnimalService;
+import com.adptapaw.backend.service.archive.ArchiveService;
+import com.adptapaw.backend.service.feed.MissingFeedService;
+import com.adptapaw.backend.service.geo.GeoSearchService;
+import com.adptapaw.backend.service.matching.AnimalMatchService;
 import com.adptapaw.backend.utils.AdoptapawConstants;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
 
 @CrossOrigin(origins  = ("${site.base.url.https}"))
 @RestController
@@ -15,8 +30,25 @@ import org.springframework.web.bind.annotation.*;
 public class MissingAnimalController {
     private final MissingAnimalService missingAnimalService;
 
-    public MissingAnimalController(MissingAnimalService missingAnimalService) {
+    private final GeoSearchService geoSearchService;
+
+    private final ETagService eTagService;
+
+    private final AnimalMatchService animalMatchService;
+
+    private final MissingFeedService missingFeedService;
+
+    private final ArchiveService archiveService;
+
+    public MissingAnimalController(MissingAnimalService missingAnimalService, GeoSearchService geoSearchService, ETagService eTagService,
+                                   AnimalMatchService animalMatchService, MissingFeedService missingFeedService,
+                                   ArchiveService archiveService) {
         this.missingAnimalService = missingAnimalService;
+        this.geoSearchService = geoSearchService;
+        this.eTagService = eTagService;
+        this.animalMatchService = animalMatchService;
+        this.missingFeedService = missingFeedService;
+        this.archiveService = archiveService;
     }
 
 
@@ -28,17 +60,105 @@ public class MissingAnimalController {
 
 
     @GetMapping("/all")
-    public MissingAnimalResponseDTO getMissingAnimals(@RequestParam(value = "pageNo", defaultValue = AdoptapawConstants.DEFAULT_PAGE_NUMBER, required = false) int pageNo,
-                                                      @RequestParam(value = "pageSize", defaultValue = AdoptapawConstants.DEFAULT_PAGE_SIZE, required = false) int pageSize,
-                                                      @RequestParam(value = "sortBy", defaultValue = AdoptapawConstants.DEFAULT_SORT_BY, required = false) String sortBy,
-                                                      @RequestParam(value = "sortDir", defaultValue = AdoptapawConstants.DEFAULT_SORT_DIRECTION, required = false) String sortDir){
-        return missingAnimalService.getAllMissingAnimals( pageNo,  pageSize, sortBy,sortDir);
+    public ResponseEntity<?> getMissingAnimals(@RequestParam(value = "pageNo", defaultValue = AdoptapawConstants.DEFAULT_PAGE_NUMBER, required = false) int pageNo,
+                                               @RequestParam(value = "pageSize", defaultValue = AdoptapawConstants.DEFAULT_PAGE_SIZE, required = false) int pageSize,
+                                               @RequestParam(value = "sortBy", defaultValue = AdoptapawConstants.DEFAULT_SORT_BY, required = false) String sortBy,
+                                               @RequestParam(value = "sortDir", defaultValue = AdoptapawConstants.DEFAULT_SORT_DIRECTION, required = false) String sortDir,
+                                               @RequestParam(value = "cursor", required = false) String cursor,
+                                               @RequestParam(value = "view", defaultValue = AdoptapawConstants.CARD_VIEW, required = false) String view,
+                                               @RequestParam(value = "includeArchived", defaultValue = "false", required = false) boolean includeArchived,
+                                               WebRequest webRequest){
+        if (webRequest.checkNotModified(eTagService.missingAnimalListTag())) {
+            return null;
+        }
+        if (AdoptapawConstants.FULL_VIEW.equalsIgnoreCase(view)) {
+            if (includeArchived) {
+                throw new BadRequestException("includeArchived is only supported with the card view");
+            }
+            return ResponseEntity.ok(missingAnimalService.getAllMissingAnimals( pageNo,  pageSize, sortBy,sortDir, cursor));
+        }
+        if (!AdoptapawConstants.CARD_VIEW.equalsIgnoreCase(view)) {
+            throw new BadRequestException("Unsupported view: " + view);
+        }
+        if (includeArchived) {
+            if (cursor != null) {
+                throw new BadRequestException("Cursor pagination is not supported with includeArchived");
+            }
+            return ResponseEntity.ok(archiveService.getMissingAnimalCardsWithArchive(pageNo, pageSize, sortBy, sortDir));
+        }
+        return ResponseEntity.ok(missingAnimalService.getMissingAnimalCards(pageNo, pageSize, sortBy, sortDir, cursor));
+    }
+
+    // EventSource sends Last-Event-ID on reconnect; the query parameter covers a first connect that resumes a saved position
+    @GetMapping(value = "/feed", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter getMissingFeed(@RequestParam(value = "type", required = false) String type,
+                                     @RequestParam(value = "location", required = false) String location,
+                                     @RequestParam(value = "lat", required = false) Double latitude,
+                                     @RequestParam(value = "lon", required = false) Double longitude,
+                                     @RequestParam(value = "radiusKm", required = false) Double radiusKm,
+                                     @RequestParam(value = "lastEventId", required = false) String lastEventId,
+                                     @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader){
+        return missingFeedService.subscribe(type, location, latitude, longitude, radiusKm,
+                lastEventIdHeader != null ? lastEventIdHeader : lastEventId);
+    }
+
+    @GetMapping("/search/text")
+    public MissingTextSearchResponseDTO searchMissingAnimalsByText(@RequestParam(value = "q") String query,
+                                                                   @RequestParam(value = "pageNo", defaultValue = AdoptapawConstants.DEFAULT_PAGE_NUMBER, required = false) int pageNo,
+                                                                   @RequestParam(value = "pageSize", defaultValue = AdoptapawConstants.DEFAULT_PAGE_SIZE, required = false) int pageSize){
+        return missingAnimalService.searchByText(query, pageNo, pageSize);
+    }
+
+    @GetMapping("/near")
+    public List<NearbyAnimalDTO> getMissingAnimalsNear(@RequestParam(value = "lat", required = false) Double latitude,
+                                                       @RequestParam(value = "lon", required = false) Double longitude,
+                                                       @RequestParam(value = "location", required = false) String location,
+                                                       @RequestParam(value = "radiusKm", defaultValue = AdoptapawConstants.DEFAULT_RADIUS_KM, required = false) double radiusKm,
+                                                       @RequestParam(value = "limit", defaultValue = AdoptapawConstants.DEFAULT_NEARBY_LIMIT, required = false) int limit){
+        return geoSearchService.nearMissingAnimals(latitude, longitude, location, radiusKm, limit);
+    }
+
+    @GetMapping("/sightings/near")
+    public List<NearbyAnimalDTO> getSightingsNear(@RequestParam(value = "lat", required = false) Double latitude,
+                                                  @RequestParam(value = "lon", required = false) Double longitude,
+                                                  @RequestParam(value = "location", required = false) String location,
+                                                  @RequestParam(value = "radiusKm", defaultValue = AdoptapawConstants.DEFAULT_RADIUS_KM, required = false) double radiusKm,
+                                                  @RequestParam(value = "limit", defaultValue = AdoptapawConstants.DEFAULT_NEARBY_LIMIT, required = false) int limit){
+        return geoSearchService.nearSightings(latitude, longitude, location, radiusKm, limit);
+    }
+
+    @GetMapping("/sightings/heatmap")
+    public SightingHeatmapDTO getSightingHeatmap(@RequestParam(value = "zoom", defaultValue = AdoptapawConstants.DEFAULT_HEATMAP_ZOOM, required = false) int zoom,
+                                                 @RequestParam(value = "south", required = false) Double south,
+                                                 @RequestParam(value = "west", required = false) Double west,
+                                                 @RequestParam(value = "north", required = false) Double north,
+                                                 @RequestParam(value = "east", required = false) Double east){
+        return geoSearchService.sightingHeatmap(null, zoom, south, west, north, east);
+    }
+
+    @GetMapping("/{id}/possible-matches")
+    public List<PossibleMatchDTO> getPossibleMatches(@PathVariable(name = "id") Long id,
+                                                     @RequestParam(value = "limit", defaultValue = AdoptapawConstants.DEFAULT_MATCH_LIMIT, required = false) int limit){
+        return animalMatchService.matchesForMissingAnimal(id, limit);
+    }
+
+    @GetMapping("/{id}/sightings/heatmap")
+    public SightingHeatmapDTO getSightingHeatmapForAnimal(@PathVariable(name = "id") Long id,
+                                                          @RequestParam(value = "zoom", defaultValue = AdoptapawConstants.DEFAULT_HEATMAP_ZOOM, required = false) int zoom,
+                                                          @RequestParam(value = "south", required = false) Double south,
+                                                          @RequestParam(value = "west", required = false) Double west,
+                                                          @RequestParam(value = "north", required = false) Double north,
+                                                          @RequestParam(value = "east", required = false) Double east){
+        return geoSearchService.sightingHeatmap(id, zoom, south, west, north, east);
     }
 
 
 
     @GetMapping("/{id}")
-    public MissingAnimalDTO getMissingAnimalById(@PathVariable(name = "id") String id){
+    public MissingAnimalDTO getMissingAnimalById(@PathVariable(name = "id") String id, WebRequest webRequest){
+        if (webRequest.checkNotModified(eTagService.missingAnimalTag(id))) {
+            return null;
+        }
         return missingAnimalService.getAllById(id);
     }
 
@@ -46,7 +166,12 @@ public class MissingAnimalController {
     public ResponseEntity<?> getMissingAnimalByCreator(@PathVariable(name = "id")String id, @RequestParam(value = "pageNo", defaultValue = AdoptapawConstants.DEFAULT_PAGE_NUMBER, required = false) int pageNo,
                                                         @RequestParam(value = "pageSize", defaultValue = AdoptapawConstants.DEFAULT_PAGE_SIZE, required = false) int pageSize,
                                                         @RequestParam(value = "sortBy", defaultValue = AdoptapawConstants.DEFAULT_SORT_BY, required = false) String sortBy,
-                                                        @RequestParam(value = "sortDir", defaultValue = AdoptapawConstants.DEFAULT_SORT_DIRECTION, required = false) String sortDir ){
+                                                        @RequestParam(value = "sortDir", defaultValue = AdoptapawConstants.DEFAULT_SORT_DIRECTION, required = false) String sortDir,
+                                                        @RequestParam(value = "includeArchived", defaultValue = "false", required = false) boolean includeArchived){
+        if (includeArchived) {
+            // archived posts are only available as cards, as with /all
+            return ResponseEntity.ok(archiveService.getMissingAnimalCardsByCreatorWithArchive(id, pageNo, pageSize, sortBy, sortDir));
+        }
         return missingAnimalService.getAllByCreator(id,pageNo, pageSize, sortBy,sortDir);
     }
 
@@ -56,7 +181,8 @@ public class MissingAnimalController {
     }
 
     @DeleteMapping("/{id}")
-    public String DeleteMissingAnimal(@PathVariable (name="id") String  id){
-        return missingAnimalService.DeleteById(id);
+    public String DeleteMissingAnimal(@PathVariable (name="id") String  id,
+                                       @RequestParam(value = "soft", defaultValue = "false", required = false) boolean soft){
+        return missingAnimalService.DeleteById(id, soft);
     }
 }
@@ -3,6 +3,7 @@ package com.adptapaw.backend.controller;
 
 
 
+import com.adptapaw.backend.payload.missing.ImageMatchDTO;
 import com.adptapaw.backend.payload.missing.MissingRequestDTO;
 import com.adptapaw.backend.payload.missing.MissingRequestListDTO;
 import com.adptapaw.backend.service.MissingRequestService;
@@ -10,6 +11,8 @@ import com.adptapaw.backend.utils.AdoptapawConstants;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @CrossOrigin(origins  = ("${site.base.url.https}"))
 @RestController
 @RequestMapping("/api")
@@ -30,13 +33,19 @@ public class MissingRequestController {
         return missingRequestService.getById(id);
     }
 
+    @GetMapping("/missing/request/{id}/matches")
+    public List<ImageMatchDTO> getMissingRequestImageMatches(@PathVariable(name="id") String id){
+        return missingRequestService.getImageMatches(id);
+    }
+
     @PreAuthorize("hasAuthority('ROLE_ADMIN')")
     @GetMapping("/admin/{id}/missing/request/all")
     public MissingRequestListDTO getAllMissingRequest(@PathVariable(name = "id")String id, @RequestParam(value = "pageNo", defaultValue = AdoptapawConstants.DEFAULT_PAGE_NUMBER, required = false) int pageNo,
                                                       @RequestParam(value = "pageSize", defaultValue = AdoptapawConstants.DEFAULT_PAGE_SIZE, required = false) int pageSize,
                                                       @RequestParam(value = "sortBy", defaultValue = AdoptapawConstants.DEFAULT_SORT_BY, required = false) String sortBy,
-                                                      @RequestParam(value = "sortDir", defaultValue = AdoptapawConstants.DEFAULT_SORT_DIRECTION, required = false) String sortDir){
-        return missingRequestService.getAll(id,pageNo, pageSize, sortBy,sortDir);
+                                                      @RequestParam(value = "sortDir", defaultValue = AdoptapawConstants.DEFAULT_SORT_DIRECTION, required = false) String sortDir,
+                                                      @RequestParam(value = "cursor", required = false) String cursor){
+        return missingRequestService.getAll(id,pageNo, pageSize, sortBy,sortDir, cursor);
 
     }
     @PreAuthorize("hasAuthority('ROLE_ADMIN')")
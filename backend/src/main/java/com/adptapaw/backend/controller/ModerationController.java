@@ -0,0 +1,25 @@
+package com.adptapaw.backend.controller;
+
+import com.adptapaw.backend.payload.ModerationRequestDTO;
+import com.adptapaw.backend.payload.ModerationResultDTO;
+import com.adptapaw.backend.service.moderation.ModerationService;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@CrossOrigin(origins  = ("${site.base.url.https}"))
+@RestController
+@RequestMapping("/api/admin")
+public class ModerationController {
+
+    private final ModerationService moderationService;
+
+    public ModerationController(ModerationService moderationService) {
+        this.moderationService = moderationService;
+    }
+
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @PostMapping("/{id}/requests/moderate")
+    public ModerationResultDTO moderateRequests(@PathVariable(name = "id") String id, @RequestBody ModerationRequestDTO moderationRequestDTO){
+        return moderationService.moderate(moderationRequestDTO);
+    }
+}
@@ -0,0 +1,34 @@
+package com.adptapaw.backend.controller;
+
+import com.adptapaw.backend.payload.SavedSearchDTO;
+import com.adptapaw.backend.service.savedsearch.SavedSearchService;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@CrossOrigin(origins  = ("${site.base.url.https}"))
+@RestController
+@RequestMapping("/api/savedsearch")
+public class SavedSearchController {
+
+    private final SavedSearchService savedSearchService;
+
+    public SavedSearchController(SavedSearchService savedSearchService) {
+        this.savedSearchService = savedSearchService;
+    }
+
+    @PostMapping("/create")
+    public SavedSearchDTO createSavedSearch(@RequestBody SavedSearchDTO savedSearchDTO){
+        return savedSearchService.createSavedSearch(savedSearchDTO);
+    }
+
+    @GetMapping("/mine")
+    public List<SavedSearchDTO> getMySavedSearches(){
+        return savedSearchService.getMySavedSearches();
+    }
+
+    @DeleteMapping("/{id}")
+    public String deleteSavedSearch(@PathVariable(name = "id") String id){
+        return savedSearchService.deleteSavedSearch(id);
+    }
+}
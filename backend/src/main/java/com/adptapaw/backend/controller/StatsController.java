@@ -1,7 +1,9 @@
 package com.adptapaw.backend.controller;
 
+import com.adptapaw.backend.payload.CacheStatsDTO;
 import com.adptapaw.backend.service.AdoptionRequestService;
 import com.adptapaw.backend.service.StatsService;
+import com.adptapaw.backend.service.cache.DtoCache;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -9,6 +11,9 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+import java.util.stream.Collectors;
+
 @CrossOrigin(origins  = ("${site.base.url.https}"))
 @RestController
 @RequestMapping("/api/admin")
@@ -16,8 +21,11 @@ public class StatsController {
 
     private final StatsService statsService;
 
-    public StatsController(StatsService statsService) {
+    private final List<DtoCache<?, ?>> caches;
+
+    public StatsController(StatsService statsService, List<DtoCache<?, ?>> caches) {
         this.statsService = statsService;
+        this.caches = caches;
     }
 
     @PreAuthorize("hasAuthority('ROLE_ADMIN')")
@@ -26,4 +34,10 @@ public class StatsController {
         return statsService.getAllStats();
     }
 
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @GetMapping("/cache/stats")
+    public List<CacheStatsDTO> getCacheStats(){
+        return caches.stream().map(DtoCache::stats).collect(Collectors.toList());
+    }
+
 }
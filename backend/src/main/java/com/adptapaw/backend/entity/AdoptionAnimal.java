@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.Where;
 
 
 import javax.persistence.*;
@@ -16,12 +17,17 @@ import java.util.Set;
 @Entity
 
 @Table(name = "adoptionanimal")
+@Where(clause = "deleted = false")
 public class AdoptionAnimal {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(nullable = false)
     private Long id;
 
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     @Column(nullable = false)
     private String name;
 
@@ -76,6 +82,16 @@ public class AdoptionAnimal {
     @Column(nullable = false)
     private Boolean availability;
 
+    @Column
+    private Double latitude;
+
+    @Column
+    private Double longitude;
+
+    // soft-deleted posts stay in the table but are hidden from every entity query
+    @Column(nullable = false, columnDefinition = "boolean default false")
+    private Boolean deleted = false;
+
     @ManyToOne(cascade = CascadeType.ALL)
     @JoinColumn(name = "user_id",referencedColumnName = "id")
     private User user;
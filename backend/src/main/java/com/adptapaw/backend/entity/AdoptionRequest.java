@@ -3,8 +3,10 @@ package com.adptapaw.backend.entity;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.CreationTimestamp;
 
 import javax.persistence.*;
+import java.sql.Timestamp;
 
 @Getter
 @Setter
@@ -12,21 +14,50 @@ import javax.persistence.*;
 @Entity
 
 @Table(name = "adoptionrequests")
+@NamedEntityGraph(
+    name = AdoptionRequest.WITH_PET_AND_USERS,
+    attributeNodes = {
+        @NamedAttributeNode("adoptionseeker"),
+        @NamedAttributeNode(value = "pet", subgraph = "pet")
+    },
+    subgraphs = @NamedSubgraph(name = "pet", attributeNodes = {
+        @NamedAttributeNode("user"),
+        @NamedAttributeNode("owner")
+    })
+)
 public class AdoptionRequest {
+
+    // everything AdoptionMapper.toRequestDTO reads, fetched in the same select
+    public static final String WITH_PET_AND_USERS = "AdoptionRequest.withPetAndUsers";
+
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(nullable = false)
     private Long id;
 
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     @Column(nullable = false)
     private String requestdate;
 
+    // sortable twin of requestdate; drives the admin review queue
+    @CreationTimestamp
+    @Column(updatable = false)
+    private Timestamp requestedAt;
+
     @Column(nullable = false)
     private String approveddate;
 
     @Column(nullable = false)
     private Boolean status;
 
+    // set when another request for the same pet was approved; pending = !status && !rejected
+    @Column(nullable = false, columnDefinition = "boolean default false")
+    private Boolean rejected = false;
+
     @Column(nullable = false,length = 1000)
     private String rfa;
 
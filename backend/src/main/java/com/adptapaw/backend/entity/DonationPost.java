@@ -21,6 +21,10 @@ public class DonationPost {
     @Column(nullable = false)
     private Long id;
 
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     @Column(nullable = false)
     private String name;
 
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.Where;
 
 
 import javax.persistence.*;
@@ -16,6 +17,7 @@ import java.util.Set;
 @Entity
 
 @Table(name = "missinganimal")
+@Where(clause = "deleted = false")
 public class MissingAnimal {
 
     @Id
@@ -23,6 +25,10 @@ public class MissingAnimal {
     @Column(nullable = false)
     private Long id;
 
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     @Column(nullable = false)
     private String name;
 
@@ -43,6 +49,10 @@ public class MissingAnimal {
     @Column(length = 1000)
     private String image;
 
+    // 64-bit dHash of image, filled in the background by the image matcher
+    @Column
+    private Long imagehash;
+
     @Column(nullable = false,length = 1000)
     private String specificattribute;
 
@@ -64,6 +74,16 @@ public class MissingAnimal {
     @Column(nullable = false)
     private Boolean stillmissing;
 
+    @Column
+    private Double latitude;
+
+    @Column
+    private Double longitude;
+
+    // soft-deleted posts stay in the table but are hidden from every entity query
+    @Column(nullable = false, columnDefinition = "boolean default false")
+    private Boolean deleted = false;
+
     @ManyToOne(cascade = CascadeType.ALL)
     @JoinColumn(name = "user_id",referencedColumnName = "id")
     private User creator;
@@ -17,6 +17,10 @@ public class MissingRequest {
     @Column(nullable = false)
     private Long id;
 
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     @Column(nullable = false)
     private String requestdate;
 
@@ -26,12 +30,26 @@ public class MissingRequest {
     @Column(nullable = false)
     private Boolean status;
 
+    // set by moderation; pending = !status && !rejected
+    @Column(nullable = false, columnDefinition = "boolean default false")
+    private Boolean rejected = false;
+
     @Column(nullable = false)
     private String location;
 
+    @Column
+    private Double latitude;
+
+    @Column
+    private Double longitude;
+
     @Column(length = 1000)
     private String image;
 
+    // 64-bit dHash of image, filled in the background by the image matcher
+    @Column
+    private Long imagehash;
+
     @Column(nullable = false)
     private String mobile;
 
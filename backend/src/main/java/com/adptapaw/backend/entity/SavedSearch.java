@@ -0,0 +1,50 @@
+package com.adptapaw.backend.entity;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.CreationTimestamp;
+
+import javax.persistence.*;
+import java.sql.Timestamp;
+
+@Getter
+@Setter
+@ToString
+@Entity
+@Table(name = "savedsearches", indexes = @Index(name = "idx_savedsearches_user", columnList = "user_id"))
+public class SavedSearch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(nullable = false)
+    private Long id;
+
+    // "adoption" or "missing"; a null criterion matches any value
+    @Column(nullable = false)
+    private String target;
+
+    @Column
+    private String type;
+
+    @Column
+    private String breed;
+
+    @Column
+    private String gender;
+
+    @Column
+    private String color;
+
+    @Column
+    private String location;
+
+    @CreationTimestamp
+    @Column(updatable = false)
+    private Timestamp createdAt;
+
+    @ToString.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", referencedColumnName = "id", nullable = false)
+    private User user;
+}
@@ -0,0 +1,55 @@
+package com.adptapaw.backend.entity;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.CreationTimestamp;
+
+import javax.persistence.*;
+import java.sql.Timestamp;
+
+@Getter
+@Setter
+@ToString
+@Entity
+@Table(name = "savedsearchnotifications", indexes = @Index(name = "idx_savedsearchnotifications_pending", columnList = "sent_at, id"))
+public class SavedSearchNotification {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(nullable = false)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long savedSearchId;
+
+    @Column(nullable = false)
+    private String target;
+
+    @Column(nullable = false)
+    private Long postId;
+
+    @Column(nullable = false)
+    private String postName;
+
+    @CreationTimestamp
+    @Column(updatable = false)
+    private Timestamp createdAt;
+
+    // null until the notification went out in a digest email
+    @Column
+    private Timestamp sentAt;
+
+    // failed digest sends; the row is given up on once this reaches saved-search.digest-max-attempts
+    @Column(nullable = false, columnDefinition = "integer default 0")
+    private int attempts;
+
+    // back-off after a failed send; null while the row has never failed
+    @Column
+    private Timestamp nextAttemptAt;
+
+    @ToString.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", referencedColumnName = "id", nullable = false)
+    private User user;
+}
@@ -47,6 +47,12 @@ public class User {
     @Column
     private String location;
 
+    @Column
+    private Double latitude;
+
+    @Column
+    private Double longitude;
+
     @Column(length = 1000)
     private String bio;
 
@@ -0,0 +1,12 @@
+package com.adptapaw.backend.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Exception for requests that lost a race or hit a state change (409)
+ */
+public class ConflictException extends AdoptapawAPIExceptions {
+    public ConflictException(String message) {
+        super(HttpStatus.CONFLICT, message);
+    }
+}
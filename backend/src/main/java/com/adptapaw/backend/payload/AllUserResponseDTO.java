@@ -13,4 +13,5 @@ public class AllUserResponseDTO {
     private long totalElements;
     private int totalPages;
     private boolean last;
+    private String nextCursor;
 }
@@ -0,0 +1,17 @@
+package com.adptapaw.backend.payload;
+
+import lombok.Data;
+
+@Data
+public class CacheStatsDTO {
+    private String name;
+    private int size;
+    private int maxSize;
+    private long ttlSeconds;
+    private long hits;
+    private long misses;
+    private double hitRate;
+    private long evictions;
+    private long expirations;
+    private long invalidations;
+}
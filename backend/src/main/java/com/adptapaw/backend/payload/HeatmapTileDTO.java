@@ -0,0 +1,12 @@
+package com.adptapaw.backend.payload;
+
+import lombok.Data;
+
+@Data
+public class HeatmapTileDTO {
+    private int x;
+    private int y;
+    private int count;
+    private double latitude;
+    private double longitude;
+}
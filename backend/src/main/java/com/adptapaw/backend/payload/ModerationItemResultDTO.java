@@ -0,0 +1,15 @@
+package com.adptapaw.backend.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ModerationItemResultDTO {
+    private Long id;
+    // approved, rejected, not_found or conflict
+    private String outcome;
+    private String message;
+}
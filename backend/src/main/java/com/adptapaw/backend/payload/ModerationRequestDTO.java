@@ -0,0 +1,14 @@
+package com.adptapaw.backend.payload;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class ModerationRequestDTO {
+    // "adoption" or "missing"
+    private String type;
+    // "approve" or "reject"
+    private String action;
+    private List<Long> ids;
+}
@@ -0,0 +1,16 @@
+package com.adptapaw.backend.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ModerationResultDTO {
+    private List<ModerationItemResultDTO> results;
+    private int succeeded;
+    private int failed;
+}
@@ -0,0 +1,17 @@
+package com.adptapaw.backend.payload;
+
+import lombok.Data;
+
+@Data
+public class NearbyAnimalDTO {
+    private Long id;
+    private Long petId;
+    private String name;
+    private String type;
+    private String breed;
+    private String location;
+    private String image;
+    private Double latitude;
+    private Double longitude;
+    private double distanceKm;
+}
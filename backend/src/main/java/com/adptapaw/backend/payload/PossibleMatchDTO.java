@@ -0,0 +1,17 @@
+package com.adptapaw.backend.payload;
+
+import lombok.Data;
+
+@Data
+public class PossibleMatchDTO {
+    private Long id;
+    private String name;
+    private String type;
+    private String breed;
+    private String color;
+    private String gender;
+    private String location;
+    private String image;
+    private Double distanceKm;
+    private double score;
+}
@@ -0,0 +1,17 @@
+package com.adptapaw.backend.payload;
+
+import lombok.Data;
+
+import java.sql.Timestamp;
+
+@Data
+public class SavedSearchDTO {
+    private Long id;
+    private String target;
+    private String type;
+    private String breed;
+    private String gender;
+    private String color;
+    private String location;
+    private Timestamp createdAt;
+}
@@ -0,0 +1,13 @@
+package com.adptapaw.backend.payload;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class SightingHeatmapDTO {
+    private Long petId;
+    private int zoom;
+    private long total;
+    private List<HeatmapTileDTO> tiles;
+}
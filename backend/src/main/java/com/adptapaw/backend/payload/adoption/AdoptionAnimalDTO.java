@@ -50,6 +50,10 @@ public class AdoptionAnimalDTO {
     @NotBlank(message = "Location is required")
     @Size(max = 200, message = "Location must not exceed 200 characters")
     private String location;
+
+    private Double latitude;
+
+    private Double longitude;
     
     @NotBlank(message = "Behaviour information is required")
     @Size(max = 200, message = "Behaviour information must not exceed 200 characters")
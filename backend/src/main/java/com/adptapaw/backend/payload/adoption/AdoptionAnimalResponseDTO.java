@@ -16,4 +16,5 @@ public class AdoptionAnimalResponseDTO {
     private long totalElements;
     private int totalPages;
     private boolean last;
+    private String nextCursor;
 }
\ No newline at end of file
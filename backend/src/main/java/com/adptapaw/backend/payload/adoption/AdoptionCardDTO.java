@@ -0,0 +1,20 @@
+package com.adptapaw.backend.payload.adoption;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// field order is the constructor order used by the card projection queries
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AdoptionCardDTO {
+    private Long id;
+    private String name;
+    private String type;
+    private String breed;
+    private String gender;
+    private String location;
+    private String imageone;
+    private Boolean availability;
+}
@@ -0,0 +1,14 @@
+package com.adptapaw.backend.payload.adoption;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AdoptionImportErrorDTO {
+    private long row;
+    private String field;
+    private String message;
+}
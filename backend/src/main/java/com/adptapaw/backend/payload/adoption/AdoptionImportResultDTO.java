@@ -0,0 +1,15 @@
+package com.adptapaw.backend.payload.adoption;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class AdoptionImportResultDTO {
+    private long totalRows;
+    private long imported;
+    private long failed;
+    private List<AdoptionImportErrorDTO> errors = new ArrayList<>();
+    private boolean errorsTruncated;
+}
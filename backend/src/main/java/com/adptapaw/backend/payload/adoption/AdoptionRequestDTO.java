@@ -17,6 +17,8 @@ public class AdoptionRequestDTO {
 
     private Boolean status;
 
+    private Boolean rejected;
+
     private String rfa;
 
     private Boolean hadpet;
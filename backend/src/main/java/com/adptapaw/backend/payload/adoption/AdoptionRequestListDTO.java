@@ -15,5 +15,6 @@ public class AdoptionRequestListDTO {
     private long totalElements;
     private int totalPages;
     private boolean last;
+    private String nextCursor;
 }
 
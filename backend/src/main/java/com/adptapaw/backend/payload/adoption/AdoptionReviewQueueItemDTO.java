@@ -0,0 +1,18 @@
+package com.adptapaw.backend.payload.adoption;
+
+import lombok.Data;
+
+import java.sql.Timestamp;
+
+@Data
+public class AdoptionReviewQueueItemDTO {
+    private Long petId;
+    private String petName;
+    private String type;
+    private String imageone;
+    private Boolean availability;
+    private long pendingCount;
+    private Timestamp oldestRequestedAt;
+    // null when the oldest pending request predates requested_at and could not be recovered
+    private Long oldestAgeSeconds;
+}
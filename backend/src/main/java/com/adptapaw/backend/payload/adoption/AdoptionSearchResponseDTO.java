@@ -0,0 +1,21 @@
+package com.adptapaw.backend.payload.adoption;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AdoptionSearchResponseDTO {
+    private List<AdoptionAnimalDTO> content;
+    private Map<String, Map<String, Long>> facets;
+    private int pageNo;
+    private int pageSize;
+    private long totalElements;
+    private int totalPages;
+    private boolean last;
+}
@@ -0,0 +1,18 @@
+package com.adptapaw.backend.payload.adoption;
+
+import lombok.Data;
+
+@Data
+public class AdoptionTextSearchDTO {
+    private Long id;
+    private String name;
+    private String type;
+    private String breed;
+    private String gender;
+    private String location;
+    private String imageone;
+    private Boolean availability;
+    private float rank;
+    // HTML: the post text is escaped, only the <mark> highlight tags are markup
+    private String snippet;
+}
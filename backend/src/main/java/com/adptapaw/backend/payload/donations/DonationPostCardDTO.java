@@ -0,0 +1,19 @@
+package com.adptapaw.backend.payload.donations;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// field order is the constructor order used by the card projection queries
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DonationPostCardDTO {
+    private Long id;
+    private String name;
+    private String type;
+    private String image;
+    private String location;
+    private Long targetamount;
+    private Long remainingamount;
+}
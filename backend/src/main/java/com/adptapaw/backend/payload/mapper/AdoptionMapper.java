@@ -0,0 +1,117 @@
+package com.adptapaw.backend.payload.mapper;
+
+import com.adptapaw.backend.entity.AdoptionAnimal;
+import com.adptapaw.backend.entity.AdoptionRequest;
+import com.adptapaw.backend.entity.User;
+import com.adptapaw.backend.payload.adoption.AdoptionAnimalDTO;
+import com.adptapaw.backend.payload.adoption.AdoptionRequestDTO;
+import com.adptapaw.backend.payload.adoption.AdoptionUserDTO;
+import org.springframework.stereotype.Component;
+
+/**
+ * Explicit entity/DTO conversions for the adoption payloads. Produces the same
+ * output the reflective ModelMapper did, property for property, without
+ * resolving mappings at runtime.
+ */
+@Component
+public class AdoptionMapper {
+
+    public AdoptionAnimalDTO toDTO(AdoptionAnimal adoptionAnimal) {
+        if (adoptionAnimal == null) {
+            return null;
+        }
+        AdoptionAnimalDTO dto = new AdoptionAnimalDTO();
+        dto.setId(adoptionAnimal.getId());
+        dto.setName(adoptionAnimal.getName());
+        dto.setBreed(adoptionAnimal.getBreed());
+        dto.setTraining(adoptionAnimal.getTraining());
+        dto.setVaccine(adoptionAnimal.getVaccine());
+        dto.setColor(adoptionAnimal.getColor());
+        dto.setDescription(adoptionAnimal.getDescription());
+        dto.setPhysicalcondition(adoptionAnimal.getPhysicalcondition());
+        dto.setImageone(adoptionAnimal.getImageone());
+        dto.setImagetwo(adoptionAnimal.getImagetwo());
+        dto.setImagethree(adoptionAnimal.getImagethree());
+        dto.setLocation(adoptionAnimal.getLocation());
+        dto.setLatitude(adoptionAnimal.getLatitude());
+        dto.setLongitude(adoptionAnimal.getLongitude());
+        dto.setBehaviour(adoptionAnimal.getBehaviour());
+        dto.setFood(adoptionAnimal.getFood());
+        dto.setGender(adoptionAnimal.getGender());
+        dto.setType(adoptionAnimal.getType());
+        dto.setAvailability(adoptionAnimal.getAvailability());
+        dto.setUser(toUserDTO(adoptionAnimal.getUser()));
+        dto.setMobile(adoptionAnimal.getMobile());
+        dto.setPostedon(adoptionAnimal.getPostedon());
+        return dto;
+    }
+
+    public AdoptionAnimal toEntity(AdoptionAnimalDTO dto) {
+        if (dto == null) {
+            return null;
+        }
+        AdoptionAnimal adoptionAnimal = new AdoptionAnimal();
+        adoptionAnimal.setId(dto.getId());
+        adoptionAnimal.setName(dto.getName());
+        adoptionAnimal.setBreed(dto.getBreed());
+        adoptionAnimal.setTraining(dto.getTraining());
+        adoptionAnimal.setVaccine(dto.getVaccine());
+        adoptionAnimal.setColor(dto.getColor());
+        adoptionAnimal.setDescription(dto.getDescription());
+        adoptionAnimal.setPhysicalcondition(dto.getPhysicalcondition());
+        adoptionAnimal.setImageone(dto.getImageone());
+        adoptionAnimal.setImagetwo(dto.getImagetwo());
+        adoptionAnimal.setImagethree(dto.getImagethree());
+        adoptionAnimal.setLocation(dto.getLocation());
+        adoptionAnimal.setLatitude(dto.getLatitude());
+        adoptionAnimal.setLongitude(dto.getLongitude());
+        adoptionAnimal.setBehaviour(dto.getBehaviour());
+        adoptionAnimal.setFood(dto.getFood());
+        adoptionAnimal.setGender(dto.getGender());
+        adoptionAnimal.setType(dto.getType());
+        adoptionAnimal.setAvailability(dto.getAvailability());
+        adoptionAnimal.setMobile(dto.getMobile());
+        adoptionAnimal.setPostedon(dto.getPostedon());
+        if (dto.getUser() != null) {
+            User user = new User();
+            if (dto.getUser().getId() != null) {
+                user.setId(dto.getUser().getId());
+            }
+            user.setUsername(dto.getUser().getUsername());
+            user.setEmail(dto.getUser().getEmail());
+            adoptionAnimal.setUser(user);
+        }
+        return adoptionAnimal;
+    }
+
+    public AdoptionRequestDTO toRequestDTO(AdoptionRequest adoptionRequest) {
+        if (adoptionRequest == null) {
+            return null;
+        }
+        AdoptionRequestDTO dto = new AdoptionRequestDTO();
+        dto.setId(adoptionRequest.getId());
+        dto.setRequestdate(adoptionRequest.getRequestdate());
+        dto.setApproveddate(adoptionRequest.getApproveddate());
+        dto.setStatus(adoptionRequest.getStatus());
+        dto.setRejected(adoptionRequest.getRejected());
+        dto.setRfa(adoptionRequest.getRfa());
+        dto.setHadpet(adoptionRequest.getHadpet());
+        dto.setPickup(adoptionRequest.getPickup());
+        dto.setMobile(adoptionRequest.getMobile());
+        dto.setEmail(adoptionRequest.getEmail());
+        dto.setAdoptionseeker(toUserDTO(adoptionRequest.getAdoptionseeker()));
+        dto.setPet(toDTO(adoptionRequest.getPet()));
+        return dto;
+    }
+
+    public AdoptionUserDTO toUserDTO(User user) {
+        if (user == null) {
+            return null;
+        }
+        AdoptionUserDTO dto = new AdoptionUserDTO();
+        dto.setId(user.getId());
+        dto.setUsername(user.getUsername());
+        dto.setEmail(user.getEmail());
+        return dto;
+    }
+}
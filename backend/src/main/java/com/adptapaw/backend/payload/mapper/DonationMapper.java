@@ -0,0 +1,75 @@
+package com.adptapaw.backend.payload.mapper;
+
+import com.adptapaw.backend.entity.Donation;
+import com.adptapaw.backend.entity.DonationPost;
+import com.adptapaw.backend.entity.User;
+import com.adptapaw.backend.payload.donations.DonationDTO;
+import com.adptapaw.backend.payload.donations.DonationPostDTO;
+import com.adptapaw.backend.payload.donations.DonationUserDTO;
+import org.springframework.stereotype.Component;
+
+/**
+ * Explicit entity/DTO conversions for the donation payloads.
+ */
+@Component
+public class DonationMapper {
+
+    public DonationPostDTO toPostDTO(DonationPost donationPost) {
+        if (donationPost == null) {
+            return null;
+        }
+        DonationPostDTO dto = new DonationPostDTO();
+        dto.setId(donationPost.getId());
+        dto.setName(donationPost.getName());
+        dto.setType(donationPost.getType());
+        dto.setDescription(donationPost.getDescription());
+        dto.setTargetamount(donationPost.getTargetamount());
+        dto.setRemainingamount(donationPost.getRemainingamount());
+        dto.setPeopledonated(donationPost.getPeopledonated());
+        dto.setImage(donationPost.getImage());
+        dto.setLocation(donationPost.getLocation());
+        dto.setCreationtime(donationPost.getCreationtime());
+        return dto;
+    }
+
+    public DonationPost toPostEntity(DonationPostDTO dto) {
+        if (dto == null) {
+            return null;
+        }
+        DonationPost donationPost = new DonationPost();
+        donationPost.setId(dto.getId());
+        donationPost.setName(dto.getName());
+        donationPost.setType(dto.getType());
+        donationPost.setDescription(dto.getDescription());
+        donationPost.setTargetamount(dto.getTargetamount());
+        donationPost.setRemainingamount(dto.getRemainingamount());
+        donationPost.setPeopledonated(dto.getPeopledonated());
+        donationPost.setImage(dto.getImage());
+        donationPost.setLocation(dto.getLocation());
+        donationPost.setCreationtime(dto.getCreationtime());
+        return donationPost;
+    }
+
+    public DonationDTO toDonationDTO(Donation donation) {
+        if (donation == null) {
+            return null;
+        }
+        DonationDTO dto = new DonationDTO();
+        dto.setId(donation.getId());
+        dto.setDonationdate(donation.getDonationdate());
+        dto.setAmountofmoney(donation.getAmountofmoney());
+        dto.setDonator(toUserDTO(donation.getDonator()));
+        dto.setDonationpost(toPostDTO(donation.getDonationpost()));
+        return dto;
+    }
+
+    public DonationUserDTO toUserDTO(User user) {
+        if (user == null) {
+            return null;
+        }
+        DonationUserDTO dto = new DonationUserDTO();
+        dto.setId(user.getId());
+        dto.setUsername(user.getUsername());
+        return dto;
+    }
+}
@@ -0,0 +1,24 @@
+package com.adptapaw.backend.payload.mapper;
+
+import com.adptapaw.backend.entity.Feedback;
+import com.adptapaw.backend.payload.FeedbackDTO;
+import org.springframework.stereotype.Component;
+
+/**
+ * Explicit entity/DTO conversion for feedback entries.
+ */
+@Component
+public class FeedbackMapper {
+
+    public FeedbackDTO toDTO(Feedback feedback) {
+        if (feedback == null) {
+            return null;
+        }
+        FeedbackDTO dto = new FeedbackDTO();
+        dto.setId(feedback.getId());
+        dto.setRating(feedback.getRating());
+        dto.setDescription(feedback.getDescription());
+        dto.setFeedbackdate(feedback.getFeedbackdate());
+        return dto;
+    }
+}
@@ -0,0 +1,103 @@
+package com.adptapaw.backend.payload.mapper;
+
+import com.adptapaw.backend.entity.MissingAnimal;
+import com.adptapaw.backend.entity.MissingRequest;
+import com.adptapaw.backend.entity.User;
+import com.adptapaw.backend.payload.missing.MissingAnimalDTO;
+import com.adptapaw.backend.payload.missing.MissingRequestDTO;
+import com.adptapaw.backend.payload.missing.MissingUserDTO;
+import org.springframework.stereotype.Component;
+
+/**
+ * Explicit entity/DTO conversions for the missing animal payloads.
+ */
+@Component
+public class MissingMapper {
+
+    public MissingAnimalDTO toDTO(MissingAnimal missingAnimal) {
+        if (missingAnimal == null) {
+            return null;
+        }
+        MissingAnimalDTO dto = new MissingAnimalDTO();
+        dto.setId(missingAnimal.getId());
+        dto.setName(missingAnimal.getName());
+        dto.setBreed(missingAnimal.getBreed());
+        dto.setVaccine(missingAnimal.getVaccine());
+        dto.setColor(missingAnimal.getColor());
+        dto.setDatemissing(missingAnimal.getDatemissing());
+        dto.setSpecificattribute(missingAnimal.getSpecificattribute());
+        dto.setLocation(missingAnimal.getLocation());
+        dto.setLatitude(missingAnimal.getLatitude());
+        dto.setLongitude(missingAnimal.getLongitude());
+        dto.setAccessorieslastworn(missingAnimal.getAccessorieslastworn());
+        dto.setImage(missingAnimal.getImage());
+        dto.setRewards(missingAnimal.getRewards());
+        dto.setGender(missingAnimal.getGender());
+        dto.setType(missingAnimal.getType());
+        dto.setStillmissing(missingAnimal.getStillmissing());
+        dto.setCreator(toUserDTO(missingAnimal.getCreator()));
+        return dto;
+    }
+
+    public MissingAnimal toEntity(MissingAnimalDTO dto) {
+        if (dto == null) {
+            return null;
+        }
+        MissingAnimal missingAnimal = new MissingAnimal();
+        missingAnimal.setId(dto.getId());
+        missingAnimal.setName(dto.getName());
+        missingAnimal.setBreed(dto.getBreed());
+        missingAnimal.setVaccine(dto.getVaccine());
+        missingAnimal.setColor(dto.getColor());
+        missingAnimal.setDatemissing(dto.getDatemissing());
+        missingAnimal.setSpecificattribute(dto.getSpecificattribute());
+        missingAnimal.setLocation(dto.getLocation());
+        missingAnimal.setLatitude(dto.getLatitude());
+        missingAnimal.setLongitude(dto.getLongitude());
+        missingAnimal.setAccessorieslastworn(dto.getAccessorieslastworn());
+        missingAnimal.setImage(dto.getImage());
+        missingAnimal.setRewards(dto.getRewards());
+        missingAnimal.setGender(dto.getGender());
+        missingAnimal.setType(dto.getType());
+        missingAnimal.setStillmissing(dto.getStillmissing());
+        if (dto.getCreator() != null) {
+            User creator = new User();
+            if (dto.getCreator().getId() != null) {
+                creator.setId(dto.getCreator().getId());
+            }
+            creator.setUsername(dto.getCreator().getUsername());
+            missingAnimal.setCreator(creator);
+        }
+        return missingAnimal;
+    }
+
+    public MissingRequestDTO toRequestDTO(MissingRequest missingRequest) {
+        if (missingRequest == null) {
+            return null;
+        }
+        MissingRequestDTO dto = new MissingRequestDTO();
+        dto.setId(missingRequest.getId());
+        dto.setRequestdate(missingRequest.getRequestdate());
+        dto.setApproveddate(missingRequest.getApproveddate());
+        dto.setStatus(missingRequest.getStatus());
+        dto.setRejected(missingRequest.getRejected());
+        dto.setLocation(missingRequest.getLocation());
+        dto.setLatitude(missingRequest.getLatitude());
+        dto.setLongitude(missingRequest.getLongitude());
+        dto.setImage(missingRequest.getImage());
+        dto.setMobile(missingRequest.getMobile());
+        dto.setEmail(missingRequest.getEmail());
+        dto.setPet(toDTO(missingRequest.getPet()));
+        return dto;
+    }
+
+    public MissingUserDTO toUserDTO(User user) {
+        if (user == null) {
+            return null;
+        }
+        MissingUserDTO dto = new MissingUserDTO();
+        dto.setId(user.getId());
+        dto.setUsername(user.getUsername());
+        return dto;
+    }
+}
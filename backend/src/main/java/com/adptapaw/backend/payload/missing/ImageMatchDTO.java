@@ -0,0 +1,15 @@
+package com.adptapaw.backend.payload.missing;
+
+import lombok.Data;
+
+@Data
+public class ImageMatchDTO {
+    private Long petId;
+    private String name;
+    private String type;
+    private String breed;
+    private String location;
+    private String image;
+    private int distance;
+    private double similarity;
+}
@@ -13,6 +13,8 @@ public class MissingAnimalDTO {
     private String datemissing;
     private String specificattribute;
     private String location;
+    private Double latitude;
+    private Double longitude;
     private String accessorieslastworn;
     private  String image;
     private String rewards;
@@ -0,0 +1,20 @@
+package com.adptapaw.backend.payload.missing;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// field order is the constructor order used by the card projection queries
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MissingCardDTO {
+    private Long id;
+    private String name;
+    private String type;
+    private String breed;
+    private String location;
+    private String image;
+    private Boolean stillmissing;
+    private String datemissing;
+}
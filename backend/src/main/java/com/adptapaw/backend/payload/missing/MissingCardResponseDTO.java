@@ -0,0 +1,20 @@
+package com.adptapaw.backend.payload.missing;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MissingCardResponseDTO {
+    private List<MissingCardDTO> content;
+    private int pageNo;
+    private int pageSize;
+    private long totalElements;
+    private int totalPages;
+    private boolean last;
+    private String nextCursor;
+}
@@ -2,6 +2,8 @@ package com.adptapaw.backend.payload.missing;
 
 import lombok.Data;
 
+import java.util.List;
+
 @Data
 public class MissingRequestDTO {
 
@@ -11,11 +13,17 @@ public class MissingRequestDTO {
     private String approveddate;
 
     private Boolean status;
+    private Boolean rejected;
     private String location;
+    private Double latitude;
+    private Double longitude;
     private  String image;
     private String mobile;
 
     private String email;
 
     private MissingAnimalDTO pet;
+
+    // open cases whose photo looks like this sighting's, closest first
+    private List<ImageMatchDTO> matches;
 }
@@ -16,4 +16,5 @@ public class MissingRequestListDTO {
     private long totalElements;
     private int totalPages;
     private boolean last;
+    private String nextCursor;
 }
@@ -0,0 +1,18 @@
+package com.adptapaw.backend.payload.missing;
+
+import lombok.Data;
+
+@Data
+public class MissingTextSearchDTO {
+    private Long id;
+    private String name;
+    private String type;
+    private String breed;
+    private String location;
+    private String image;
+    private Boolean stillmissing;
+    private String datemissing;
+    private float rank;
+    // HTML: the post text is escaped, only the <mark> highlight tags are markup
+    private String snippet;
+}
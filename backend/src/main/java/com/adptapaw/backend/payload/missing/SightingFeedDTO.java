@@ -0,0 +1,19 @@
+package com.adptapaw.backend.payload.missing;
+
+import lombok.Data;
+
+// public feed payload: the finder's email and mobile are deliberately left out
+@Data
+public class SightingFeedDTO {
+    private Long id;
+    private Long petId;
+    private String name;
+    private String type;
+    private String breed;
+    private String location;
+    private Double latitude;
+    private Double longitude;
+    private String image;
+    private String approveddate;
+    private Boolean stillmissing;
+}
@@ -2,13 +2,75 @@ package com.adptapaw.backend.repository;
 
 import com.adptapaw.backend.entity.AdoptionAnimal;
 import com.adptapaw.backend.entity.User;
+import com.adptapaw.backend.payload.adoption.AdoptionCardDTO;
+import com.adptapaw.backend.repository.projection.AdoptionAnimalFeatures;
+import com.adptapaw.backend.repository.projection.AdoptionAnimalTextMatch;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import javax.transaction.Transactional;
 import java.util.List;
 
 public interface AdoptionAnimalRepository extends JpaRepository<AdoptionAnimal,Long> {
 
     Page<AdoptionAnimal> findByUser(User user, Pageable pageable);
+
+    @Query(value = "SELECT new com.adptapaw.backend.payload.adoption.AdoptionCardDTO(a.id, a.name, a.type, a.breed, a.gender, a.location, a.imageone, a.availability) " +
+            "FROM AdoptionAnimal a",
+            countQuery = "SELECT count(a) FROM AdoptionAnimal a")
+    Page<AdoptionCardDTO> findAllCards(Pageable pageable);
+
+    // search_vector and its GIN index are created by db/search-schema.sql
+    @Query(value = "SELECT a.id AS id, a.name AS name, a.type AS type, a.breed AS breed, a.gender AS gender, " +
+            "a.location AS location, a.imageone AS imageone, a.availability AS availability, " +
+            "ts_rank_cd(a.search_vector, q) AS rank, " +
+            "ts_headline('english', concat_ws(' ', a.description, a.behaviour, a.training), q, " +
+            "'StartSel=<mark>, StopSel=</mark>, MaxFragments=2, MaxWords=25, MinWords=8') AS snippet " +
+            "FROM adoptionanimal a, websearch_to_tsquery('english', :query) q " +
+            "WHERE a.search_vector @@ q AND a.deleted = false " +
+            "ORDER BY rank DESC, a.id ASC",
+            countQuery = "SELECT count(*) FROM adoptionanimal a WHERE a.search_vector @@ websearch_to_tsquery('english', :query) AND a.deleted = false",
+            nativeQuery = true)
+    Page<AdoptionAnimalTextMatch> searchByText(@Param("query") String query, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE AdoptionAnimal e SET e.latitude = :latitude, e.longitude = :longitude, e.version = e.version + 1 WHERE e.id = :id")
+    void updateCoordinates(@Param("id") Long id, @Param("latitude") Double latitude, @Param("longitude") Double longitude);
+
+    // native so the row is removed even when it was soft-deleted earlier
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM adoptionanimal WHERE id = :id", nativeQuery = true)
+    int deletePostById(@Param("id") Long id);
+
+    // one statement flags the post and rejects its pending requests, so neither can be approved afterwards
+    @Transactional
+    @Query(value = "WITH pet AS (UPDATE adoptionanimal SET deleted = true, version = version + 1 WHERE id = :id RETURNING id), " +
+            "rejected AS (UPDATE adoptionrequests SET rejected = true, version = version + 1 " +
+            "WHERE pet_id IN (SELECT id FROM pet) AND status = false AND rejected = false RETURNING id) " +
+            "SELECT CAST(count(*) AS int) FROM pet", nativeQuery = true)
+    int softDeleteById(@Param("id") Long id);
+
+    @Query("SELECT e.version FROM AdoptionAnimal e WHERE e.id = :id")
+    Long findVersionById(@Param("id") Long id);
+
+    @Query("SELECT new com.adptapaw.backend.payload.adoption.AdoptionCardDTO(a.id, a.name, a.type, a.breed, a.gender, a.location, a.imageone, a.availability) " +
+            "FROM AdoptionAnimal a WHERE a.id IN :ids")
+    List<AdoptionCardDTO> findCardsByIdIn(@Param("ids") List<Long> ids);
+
+    @Query("SELECT a.id AS id, a.type AS type, a.breed AS breed, a.gender AS gender, a.latitude AS latitude, " +
+            "a.longitude AS longitude, a.user.id AS ownerId FROM AdoptionAnimal a WHERE a.availability = true")
+    List<AdoptionAnimalFeatures> findAvailableFeatures();
+
+    // compare-and-set on availability and version: at most one approval can flip a pet, never a deleted one
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE AdoptionAnimal a SET a.availability = false, a.owner = :owner, a.version = a.version + 1 " +
+            "WHERE a.id = :id AND a.availability = true AND a.deleted = false AND a.version = :version")
+    int markAdopted(@Param("id") Long id, @Param("owner") User owner, @Param("version") Long version);
 }
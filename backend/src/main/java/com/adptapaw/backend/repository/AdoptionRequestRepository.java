@@ -3,7 +3,15 @@ package com.adptapaw.backend.repository;
 import com.adptapaw.backend.entity.AdoptionAnimal;
 import com.adptapaw.backend.entity.AdoptionRequest;
 import com.adptapaw.backend.entity.User;
+import com.adptapaw.backend.repository.projection.AdoptionRequestHistory;
+import com.adptapaw.backend.repository.projection.PendingPetSummary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import javax.transaction.Transactional;
 import java.util.List;
@@ -11,7 +19,12 @@ import java.util.List;
 public interface AdoptionRequestRepository extends JpaRepository<AdoptionRequest,Long> {
 
     List<AdoptionRequest> findAllByAdoptionseeker(User user);
-    
+
+    // served by uq_adoptionrequests_active (db/adoption-request-schema.sql)
+    boolean existsByAdoptionseekerIdAndPetIdAndRejectedFalse(Long adoptionseekerId, Long petId);
+
+    @EntityGraph(AdoptionRequest.WITH_PET_AND_USERS)
+    Page<AdoptionRequest> findByAdoptionseeker(User user, Pageable pageable);
 
     void deleteAllById(Long id);
 
@@ -27,4 +40,40 @@ public interface AdoptionRequestRepository extends JpaRepository<AdoptionRequest
 
     @Transactional
     void deleteAllByPet(AdoptionAnimal animal);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM adoptionrequests WHERE pet_id = :petId", nativeQuery = true)
+    int deleteAllRequestsByPetId(@Param("petId") Long petId);
+
+    @Query("SELECT r.adoptionseeker.id AS seekerId, r.adoptionseeker.email AS seekerEmail, r.pet.id AS petId, " +
+            "r.pet.type AS type, r.pet.breed AS breed, r.pet.gender AS gender FROM AdoptionRequest r")
+    List<AdoptionRequestHistory> findAllHistory();
+
+    // pending rows are aggregated from idx_adoptionrequests_open (db/review-schema.sql) before joining the pets
+    @Query(value = "SELECT q.pet_id AS petId, a.name AS petName, a.type AS type, a.imageone AS imageone, a.availability AS availability, " +
+            "q.pending AS pendingCount, q.oldest AS oldestRequestedAt " +
+            "FROM (SELECT pet_id, COUNT(*) AS pending, MIN(requested_at) AS oldest FROM adoptionrequests " +
+            "WHERE status = false AND rejected = false GROUP BY pet_id) q " +
+            "JOIN adoptionanimal a ON a.id = q.pet_id AND a.deleted = false " +
+            "ORDER BY q.oldest ASC NULLS FIRST, q.pet_id ASC",
+            countQuery = "SELECT COUNT(DISTINCT r.pet_id) FROM adoptionrequests r JOIN adoptionanimal a ON a.id = r.pet_id AND a.deleted = false " +
+                    "WHERE r.status = false AND r.rejected = false",
+            nativeQuery = true)
+    Page<PendingPetSummary> findPendingByPet(Pageable pageable);
+
+    @EntityGraph(AdoptionRequest.WITH_PET_AND_USERS)
+    Page<AdoptionRequest> findByPetIdAndStatusFalseAndRejectedFalse(Long petId, Pageable pageable);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE AdoptionRequest r SET r.status = true, r.approveddate = :approveddate, r.version = r.version + 1 " +
+            "WHERE r.id = :id AND r.status = false AND r.rejected = false")
+    int markApproved(@Param("id") Long id, @Param("approveddate") String approveddate);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE AdoptionRequest r SET r.rejected = true, r.version = r.version + 1 " +
+            "WHERE r.pet.id = :petId AND r.id <> :approvedId AND r.status = false AND r.rejected = false")
+    int rejectCompeting(@Param("petId") Long petId, @Param("approvedId") Long approvedId);
 }
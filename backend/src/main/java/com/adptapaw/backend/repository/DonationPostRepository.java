@@ -1,9 +1,26 @@
 package com.adptapaw.backend.repository;
 
 import com.adptapaw.backend.entity.DonationPost;
+import com.adptapaw.backend.payload.donations.DonationPostCardDTO;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
 
 public interface DonationPostRepository extends JpaRepository<DonationPost, Long> {
 
+    @Query(value = "SELECT new com.adptapaw.backend.payload.donations.DonationPostCardDTO(d.id, d.name, d.type, d.image, d.location, d.targetamount, d.remainingamount) " +
+            "FROM DonationPost d",
+            countQuery = "SELECT count(d) FROM DonationPost d")
+    Page<DonationPostCardDTO> findAllCards(Pageable pageable);
+
+    @Query("SELECT e.version FROM DonationPost e WHERE e.id = :id")
+    Long findVersionById(@Param("id") Long id);
 
+    @Query("SELECT new com.adptapaw.backend.payload.donations.DonationPostCardDTO(d.id, d.name, d.type, d.image, d.location, d.targetamount, d.remainingamount) " +
+            "FROM DonationPost d WHERE d.id IN :ids")
+    List<DonationPostCardDTO> findCardsByIdIn(@Param("ids") List<Long> ids);
 }
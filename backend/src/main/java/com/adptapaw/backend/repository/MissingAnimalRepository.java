@@ -3,13 +3,73 @@ package com.adptapaw.backend.repository;
 
 import com.adptapaw.backend.entity.MissingAnimal;
 import com.adptapaw.backend.entity.User;
+import com.adptapaw.backend.payload.missing.MissingCardDTO;
+import com.adptapaw.backend.repository.projection.MissingAnimalTextMatch;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import javax.transaction.Transactional;
 import java.util.List;
 
 public interface MissingAnimalRepository extends JpaRepository<MissingAnimal,Long> {
 
     Page<MissingAnimal> findByCreator(User user, Pageable pageable);
+
+    @Query(value = "SELECT new com.adptapaw.backend.payload.missing.MissingCardDTO(m.id, m.name, m.type, m.breed, m.location, m.image, m.stillmissing, m.datemissing) " +
+            "FROM MissingAnimal m",
+            countQuery = "SELECT count(m) FROM MissingAnimal m")
+    Page<MissingCardDTO> findAllCards(Pageable pageable);
+
+    // search_vector and its GIN index are created by db/search-schema.sql
+    @Query(value = "SELECT m.id AS id, m.name AS name, m.type AS type, m.breed AS breed, m.location AS location, " +
+            "m.image AS image, m.stillmissing AS stillmissing, m.datemissing AS datemissing, " +
+            "ts_rank_cd(m.search_vector, q) AS rank, " +
+            "ts_headline('english', concat_ws(' ', m.specificattribute, m.accessorieslastworn), q, " +
+            "'StartSel=<mark>, StopSel=</mark>, MaxFragments=2, MaxWords=25, MinWords=8') AS snippet " +
+            "FROM missinganimal m, websearch_to_tsquery('english', :query) q " +
+            "WHERE m.search_vector @@ q AND m.deleted = false " +
+            "ORDER BY rank DESC, m.id ASC",
+            countQuery = "SELECT count(*) FROM missinganimal m WHERE m.search_vector @@ websearch_to_tsquery('english', :query) AND m.deleted = false",
+            nativeQuery = true)
+    Page<MissingAnimalTextMatch> searchByText(@Param("query") String query, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE MissingAnimal e SET e.latitude = :latitude, e.longitude = :longitude, e.version = e.version + 1 WHERE e.id = :id")
+    void updateCoordinates(@Param("id") Long id, @Param("latitude") Double latitude, @Param("longitude") Double longitude);
+
+    // not part of any DTO, so the version (and with it the ETag) is left alone
+    @Transactional
+    @Modifying
+    @Query("UPDATE MissingAnimal e SET e.imagehash = :imagehash WHERE e.id = :id")
+    void updateImageHash(@Param("id") Long id, @Param("imagehash") Long imagehash);
+
+    @Query("SELECT e FROM MissingAnimal e WHERE e.stillmissing = true AND e.image IS NOT NULL")
+    Page<MissingAnimal> findOpenWithImage(Pageable pageable);
+
+    // native so the row is removed even when it was soft-deleted earlier
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM missinganimal WHERE id = :id", nativeQuery = true)
+    int deletePostById(@Param("id") Long id);
+
+    // one statement flags the post and rejects its pending sightings, so neither can be approved afterwards
+    @Transactional
+    @Query(value = "WITH pet AS (UPDATE missinganimal SET deleted = true, version = version + 1 WHERE id = :id RETURNING id), " +
+            "rejected AS (UPDATE missingrequests SET rejected = true, version = version + 1 " +
+            "WHERE pet_id IN (SELECT id FROM pet) AND status = false AND rejected = false RETURNING id) " +
+            "SELECT CAST(count(*) AS int) FROM pet", nativeQuery = true)
+    int softDeleteById(@Param("id") Long id);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE MissingAnimal e SET e.stillmissing = false, e.version = e.version + 1 WHERE e.id = :id AND e.deleted = false")
+    int markFound(@Param("id") Long id);
+
+    @Query("SELECT e.version FROM MissingAnimal e WHERE e.id = :id")
+    Long findVersionById(@Param("id") Long id);
 }
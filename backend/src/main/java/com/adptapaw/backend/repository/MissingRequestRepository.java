@@ -5,6 +5,9 @@ package com.adptapaw.backend.repository;
 import com.adptapaw.backend.entity.MissingAnimal;
 import com.adptapaw.backend.entity.MissingRequest;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import javax.transaction.Transactional;
 import java.util.List;
@@ -25,4 +28,28 @@ public interface MissingRequestRepository extends JpaRepository<MissingRequest,L
 
     @Transactional
     void deleteAllByPet(MissingAnimal animal);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE MissingRequest e SET e.latitude = :latitude, e.longitude = :longitude, e.version = e.version + 1 WHERE e.id = :id")
+    void updateCoordinates(@Param("id") Long id, @Param("latitude") Double latitude, @Param("longitude") Double longitude);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE MissingRequest e SET e.imagehash = :imagehash WHERE e.id = :id")
+    void updateImageHash(@Param("id") Long id, @Param("imagehash") Long imagehash);
+
+    @Query("SELECT r.id FROM MissingRequest r WHERE r.pet.id = :petId")
+    List<Long> findIdsByPetId(@Param("petId") Long petId);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM missingrequests WHERE pet_id = :petId", nativeQuery = true)
+    int deleteAllRequestsByPetId(@Param("petId") Long petId);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE MissingRequest r SET r.status = true, r.approveddate = :approveddate, r.version = r.version + 1 " +
+            "WHERE r.id = :id AND r.status = false AND r.rejected = false")
+    int markApproved(@Param("id") Long id, @Param("approveddate") String approveddate);
 }
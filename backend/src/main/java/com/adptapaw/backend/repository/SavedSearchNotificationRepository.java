@@ -0,0 +1,32 @@
+package com.adptapaw.backend.repository;
+
+import com.adptapaw.backend.entity.SavedSearchNotification;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import javax.transaction.Transactional;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+
+public interface SavedSearchNotificationRepository extends JpaRepository<SavedSearchNotification, Long> {
+
+    // keyset paged by id so a run moves past rows it failed to send instead of reading them again
+    @Query("SELECT n FROM SavedSearchNotification n JOIN FETCH n.user WHERE n.sentAt IS NULL AND n.id > :afterId " +
+            "AND n.attempts < :maxAttempts AND (n.nextAttemptAt IS NULL OR n.nextAttemptAt <= :now) ORDER BY n.id")
+    List<SavedSearchNotification> findPending(@Param("afterId") Long afterId, @Param("maxAttempts") int maxAttempts,
+                                              @Param("now") Timestamp now, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE SavedSearchNotification n SET n.sentAt = :sentAt WHERE n.id IN :ids")
+    int markSent(@Param("ids") Collection<Long> ids, @Param("sentAt") Timestamp sentAt);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE SavedSearchNotification n SET n.attempts = n.attempts + 1, n.nextAttemptAt = :nextAttemptAt WHERE n.id IN :ids")
+    int markFailed(@Param("ids") Collection<Long> ids, @Param("nextAttemptAt") Timestamp nextAttemptAt);
+}
@@ -0,0 +1,18 @@
+package com.adptapaw.backend.repository;
+
+import com.adptapaw.backend.entity.SavedSearch;
+import com.adptapaw.backend.entity.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface SavedSearchRepository extends JpaRepository<SavedSearch, Long> {
+
+    List<SavedSearch> findByUserOrderByIdDesc(User user);
+
+    long countByUser(User user);
+
+    @Query("SELECT s FROM SavedSearch s JOIN FETCH s.user")
+    List<SavedSearch> findAllWithUser();
+}
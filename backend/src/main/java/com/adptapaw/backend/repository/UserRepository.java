@@ -1,9 +1,14 @@
 package com.adptapaw.backend.repository;
 
 import com.adptapaw.backend.entity.User;
+import com.adptapaw.backend.repository.projection.UserLocation;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.transaction.Transactional;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,5 +20,12 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Boolean existsByUsername(String username);
     Boolean existsByEmail(String email);
 
+    @Transactional
+    @Modifying
+    @Query("UPDATE User e SET e.latitude = :latitude, e.longitude = :longitude WHERE e.id = :id")
+    void updateCoordinates(@Param("id") Long id, @Param("latitude") Double latitude, @Param("longitude") Double longitude);
 
+    @Query("SELECT u.id AS id, u.email AS email, u.latitude AS latitude, u.longitude AS longitude FROM User u " +
+            "WHERE u.latitude IS NOT NULL AND u.longitude IS NOT NULL")
+    List<UserLocation> findAllLocated();
 }
@@ -0,0 +1,11 @@
+package com.adptapaw.backend.repository.projection;
+
+public interface AdoptionAnimalFeatures {
+    Long getId();
+    String getType();
+    String getBreed();
+    String getGender();
+    Double getLatitude();
+    Double getLongitude();
+    Long getOwnerId();
+}
@@ -0,0 +1,14 @@
+package com.adptapaw.backend.repository.projection;
+
+public interface AdoptionAnimalTextMatch {
+    Long getId();
+    String getName();
+    String getType();
+    String getBreed();
+    String getGender();
+    String getLocation();
+    String getImageone();
+    Boolean getAvailability();
+    Float getRank();
+    String getSnippet();
+}
@@ -0,0 +1,10 @@
+package com.adptapaw.backend.repository.projection;
+
+public interface AdoptionRequestHistory {
+    Long getSeekerId();
+    String getSeekerEmail();
+    Long getPetId();
+    String getType();
+    String getBreed();
+    String getGender();
+}
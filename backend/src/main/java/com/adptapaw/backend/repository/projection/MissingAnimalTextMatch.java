@@ -0,0 +1,14 @@
+package com.adptapaw.backend.repository.projection;
+
+public interface MissingAnimalTextMatch {
+    Long getId();
+    String getName();
+    String getType();
+    String getBreed();
+    String getLocation();
+    String getImage();
+    Boolean getStillmissing();
+    String getDatemissing();
+    Float getRank();
+    String getSnippet();
+}
@@ -0,0 +1,20 @@
+package com.adptapaw.backend.repository.projection;
+
+import java.sql.Timestamp;
+
+public interface PendingPetSummary {
+
+    Long getPetId();
+
+    String getPetName();
+
+    String getType();
+
+    String getImageone();
+
+    Boolean getAvailability();
+
+    Long getPendingCount();
+
+    Timestamp getOldestRequestedAt();
+}
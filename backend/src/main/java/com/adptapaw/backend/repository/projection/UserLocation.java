@@ -0,0 +1,8 @@
+package com.adptapaw.backend.repository.projection;
+
+public interface UserLocation {
+    Long getId();
+    String getEmail();
+    Double getLatitude();
+    Double getLongitude();
+}
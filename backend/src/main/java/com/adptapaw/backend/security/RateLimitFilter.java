@@ -0,0 +1,130 @@
+package com.adptapaw.backend.security;
+
+import com.adptapaw.backend.dto.response.ApiResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.util.UrlPathHelper;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.annotation.PostConstruct;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-client throttling for the write endpoints anonymous users can reach.
+ * Each route in rate-limit.routes is "METHOD /ant/pattern capacity/seconds":
+ * a client may send capacity requests at once, then one more every
+ * seconds / capacity. Runs before authentication and before the multipart
+ * body is parsed, so a rejected upload costs neither.
+ *
+ * Routes are matched against the decoded path within the application (no
+ * ;params, no duplicate or trailing slash), the same path Spring Security and
+ * MVC route on, so an encoded or padded URI cannot reach a limited handler
+ * unlimited.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    private final List<Route> routes = new ArrayList<>();
+
+    private RateLimiter rateLimiter;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${rate-limit.max-clients:100000}")
+    private int maxClients;
+
+    @Value("${rate-limit.routes:}")
+    private String routeSpecs;
+
+    @PostConstruct
+    public void init() {
+        rateLimiter = new RateLimiter(maxClients);
+        for (String spec : routeSpecs.split(",")) {
+            if (!spec.trim().isEmpty()) {
+                routes.add(Route.parse(routes.size(), spec.trim()));
+            }
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || routes.isEmpty();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        String path = urlPathHelper.getPathWithinApplication(request);
+        if (path.length() > 1 && path.endsWith("/")) {
+            // MVC matches /create/ to /create
+            path = path.substring(0, path.length() - 1);
+        }
+        for (Route route : routes) {
+            if (!route.method.equalsIgnoreCase(request.getMethod()) || !pathMatcher.match(route.pattern, path)) {
+                continue;
+            }
+            long wait = rateLimiter.acquire(route.index + "|" + request.getRemoteAddr(), route.capacity, route.intervalNanos, System.nanoTime());
+            if (wait > 0) {
+                long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + TimeUnit.SECONDS.toNanos(1) - 1));
+                response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+                response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                objectMapper.writeValue(response.getOutputStream(), ApiResponse.error("Too many requests, retry in " + retryAfter + " seconds"));
+                return;
+            }
+            break;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private static final class Route {
+        private final int index;
+        private final String method;
+        private final String pattern;
+        private final int capacity;
+        private final long intervalNanos;
+
+        private Route(int index, String method, String pattern, int capacity, long intervalNanos) {
+            this.index = index;
+            this.method = method;
+            this.pattern = pattern;
+            this.capacity = capacity;
+            this.intervalNanos = intervalNanos;
+        }
+
+        private static Route parse(int index, String spec) {
+            String[] parts = spec.split("\\s+");
+            String[] limit = parts.length == 3 ? parts[2].split("/") : new String[0];
+            if (limit.length != 2) {
+                throw new IllegalArgumentException("Invalid rate-limit route, expected \"METHOD /pattern capacity/seconds\": " + spec);
+            }
+            int capacity = Integer.parseInt(limit[0]);
+            long seconds = Long.parseLong(limit[1]);
+            if (capacity < 1 || seconds < 1) {
+                throw new IllegalArgumentException("Invalid rate-limit route, capacity and seconds must be positive: " + spec);
+            }
+            return new Route(index, parts[0], parts[1], capacity, TimeUnit.SECONDS.toNanos(seconds) / capacity);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.adptapaw.backend.security;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets keyed by an arbitrary string (route + client address).
+ *
+ * A bucket is a single AtomicLong holding the time at which it will be full
+ * again (the GCRA form of a token bucket): a request is allowed if taking one
+ * token's worth of time still leaves that point within capacity * interval of
+ * now, and is recorded with one compare-and-set. No locks are taken on the
+ * request path.
+ *
+ * Buckets live in a fixed number of stripes, each capped at its share of
+ * maxBuckets. A full stripe first drops its idle buckets (already refilled,
+ * so forgetting them changes nothing); if a flood of distinct clients leaves
+ * none idle, it drops an eighth of the stripe, which only ever errs towards
+ * letting those clients through again.
+ */
+public class RateLimiter {
+
+    private static final int STRIPES = 64;
+
+    private final Map<String, AtomicLong>[] stripes;
+
+    private final int maxPerStripe;
+
+    @SuppressWarnings("unchecked")
+    public RateLimiter(int maxBuckets) {
+        this.stripes = new Map[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+        this.maxPerStripe = Math.max(1, maxBuckets / STRIPES);
+    }
+
+    /**
+     * Takes one token from the bucket for key.
+     *
+     * @return 0 if the request is allowed, otherwise the nanoseconds until a token is available
+     */
+    public long acquire(String key, int capacity, long intervalNanos, long now) {
+        Map<String, AtomicLong> stripe = stripes[(key.hashCode() & 0x7fffffff) % STRIPES];
+        AtomicLong fullAt = stripe.get(key);
+        if (fullAt == null) {
+            if (stripe.size() >= maxPerStripe) {
+                evict(stripe, now);
+            }
+            fullAt = stripe.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+        long burst = capacity * intervalNanos;
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + intervalNanos;
+            long wait = next - burst - now;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Map<String, AtomicLong> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    private void evict(Map<String, AtomicLong> stripe, long now) {
+        stripe.values().removeIf(fullAt -> fullAt.get() <= now);
+        int excess = stripe.size() - maxPerStripe + Math.max(1, maxPerStripe / 8);
+        Iterator<AtomicLong> buckets = stripe.values().iterator();
+        while (excess-- > 0 && buckets.hasNext()) {
+            buckets.next();
+            buckets.remove();
+        }
+    }
+}
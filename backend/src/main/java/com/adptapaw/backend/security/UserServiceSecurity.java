@@ -13,6 +13,8 @@ import com.adptapaw.backend.payload.adoption.AdoptionAnimalDTO;
 import com.adptapaw.backend.payload.adoption.AdoptionAnimalResponseDTO;
 import com.adptapaw.backend.repository.UserRepository;
 import com.adptapaw.backend.service.email.EmailService;
+import com.adptapaw.backend.service.pagination.KeysetPage;
+import com.adptapaw.backend.service.pagination.KeysetPaginator;
 import com.adptapaw.backend.service.token.TokenService;
 import org.apache.catalina.mapper.Mapper;
 import org.apache.commons.lang3.StringUtils;
@@ -54,6 +56,9 @@ public  class UserServiceSecurity implements UserDetailsService {
     @Autowired
     private EmailService emailService;
 
+    @Autowired
+    private KeysetPaginator keysetPaginator;
+
     public UserServiceSecurity(UserRepository userRepository, TokenService tokenService) {
         this.userRepository = userRepository;
         this.tokenService = tokenService;
@@ -152,7 +157,31 @@ public  class UserServiceSecurity implements UserDetailsService {
     }
 
 
-    public ResponseEntity<?> getAllUsers(int pageNo,  int pageSize, String sortBy,String sortDir) {
+    private UserDetailsDTO mapToUserDetailsDTO(User user) {
+        UserDetailsDTO userDetailsDTO = new UserDetailsDTO();
+        userDetailsDTO.setId(user.getId());
+        userDetailsDTO.setDp(user.getDp());
+        userDetailsDTO.setEmail(user.getEmail());
+        userDetailsDTO.setUsername(user.getUsername());
+        userDetailsDTO.setName(user.getName());
+        userDetailsDTO.setLocation(user.getLocation());
+        userDetailsDTO.setBanned(user.isBanned());
+        return userDetailsDTO;
+    }
+
+    public ResponseEntity<?> getAllUsers(int pageNo,  int pageSize, String sortBy,String sortDir, String cursor) {
+
+        if (cursor != null) {
+            KeysetPage<User> page = keysetPaginator.fetch(User.class, sortBy, sortDir, cursor, pageSize);
+
+            AllUserResponseDTO allUserResponseDTO = new AllUserResponseDTO();
+            allUserResponseDTO.setContent(page.getContent().stream().map(this::mapToUserDetailsDTO).collect(Collectors.toList()));
+            allUserResponseDTO.setPageSize(pageSize);
+            allUserResponseDTO.setLast(page.isLast());
+            allUserResponseDTO.setNextCursor(page.getNextCursor());
+
+            return new ResponseEntity<>(allUserResponseDTO,HttpStatus.OK);
+        }
 
         Sort sort = sortDir.equalsIgnoreCase(Sort.Direction.ASC.name()) ? Sort.by(sortBy).ascending()
                 : Sort.by(sortBy).descending();
@@ -160,17 +189,7 @@ public  class UserServiceSecurity implements UserDetailsService {
         Pageable pageable = PageRequest.of(pageNo, pageSize, sort);
         Page<User> userList =  userRepository.findAll(pageable);
         List<User> userListContent = userList.getContent();
-        List<UserDetailsDTO> userListDTO = userListContent.stream().map(user -> {
-            UserDetailsDTO userDetailsDTO = new UserDetailsDTO();
-            userDetailsDTO.setId(user.getId());
-            userDetailsDTO.setDp(user.getDp());
-            userDetailsDTO.setEmail(user.getEmail());
-            userDetailsDTO.setUsername(user.getUsername());
-            userDetailsDTO.setName(user.getName());
-            userDetailsDTO.setLocation(user.getLocation());
-            userDetailsDTO.setBanned(user.isBanned());
-            return userDetailsDTO;
-        }).collect(Collectors.toList());
+        List<UserDetailsDTO> userListDTO = userListContent.stream().map(this::mapToUserDetailsDTO).collect(Collectors.toList());
 
         AllUserResponseDTO allUserResponseDTO = new AllUserResponseDTO();
         allUserResponseDTO.setContent(userListDTO);
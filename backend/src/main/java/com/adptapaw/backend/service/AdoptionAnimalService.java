@@ -2,13 +2,19 @@ package com.adptapaw.backend.service;
 
 import com.adptapaw.backend.payload.adoption.AdoptionAnimalDTO;
 import com.adptapaw.backend.payload.adoption.AdoptionAnimalResponseDTO;
+import com.adptapaw.backend.payload.adoption.AdoptionCardResponseDTO;
+import com.adptapaw.backend.payload.adoption.AdoptionTextSearchResponseDTO;
 import org.springframework.http.ResponseEntity;
 
 public interface AdoptionAnimalService {
 
     ResponseEntity<?> getAllByCreator(String id,int pageNo,  int pageSize, String sortBy,String sortDir);
 
-    AdoptionAnimalResponseDTO getAllAdoptionAnimals(int pageNo, int pageSize, String sortBy, String sortDir);
+    AdoptionAnimalResponseDTO getAllAdoptionAnimals(int pageNo, int pageSize, String sortBy, String sortDir, String cursor);
+
+    AdoptionCardResponseDTO getAdoptionAnimalCards(int pageNo, int pageSize, String sortBy, String sortDir, String cursor);
+
+    AdoptionTextSearchResponseDTO searchByText(String query, int pageNo, int pageSize);
 
     AdoptionAnimalDTO createAdoptionAnimal(String id,AdoptionAnimalDTO adoptionAnimalDTO);
 
@@ -17,5 +23,5 @@ public interface AdoptionAnimalService {
 
     ResponseEntity<?> updateById(String id, AdoptionAnimalDTO adoptionAnimalPostDTO);
 
-    String DeleteById(String id);
+    String DeleteById(String id, boolean soft);
 }
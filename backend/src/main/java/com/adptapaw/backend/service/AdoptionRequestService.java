@@ -2,6 +2,7 @@ package com.adptapaw.backend.service;
 
 import com.adptapaw.backend.payload.adoption.AdoptionRequestDTO;
 import com.adptapaw.backend.payload.adoption.AdoptionRequestListDTO;
+import com.adptapaw.backend.payload.adoption.AdoptionReviewQueueDTO;
 import org.springframework.http.ResponseEntity;
 
 
@@ -9,11 +10,15 @@ public interface AdoptionRequestService {
     ResponseEntity<?> createAdoptionRequest(String uid, String id, AdoptionRequestDTO adoptionRequestDTO);
 
 
-    AdoptionRequestListDTO getAllByCreator(String id);
+    AdoptionRequestListDTO getAllByCreator(String id, int pageNo, int pageSize, String sortBy, String sortDir, String cursor);
 
     AdoptionRequestDTO getById(String uid,String id);
 
     AdoptionRequestDTO approveRequest(String uid,String id);
 
-    AdoptionRequestListDTO getAll(String id, int pageNo, int pageSize, String sortBy, String sortDir);
+    AdoptionRequestListDTO getAll(String id, int pageNo, int pageSize, String sortBy, String sortDir, String cursor);
+
+    AdoptionReviewQueueDTO getReviewQueue(int pageNo, int pageSize);
+
+    AdoptionRequestListDTO getPendingByPet(String petId, int pageNo, int pageSize);
 }
@@ -2,11 +2,14 @@ package com.adptapaw.backend.service;
 
 
 
+import com.adptapaw.backend.payload.donations.DonationPostCardResponseDTO;
 import com.adptapaw.backend.payload.donations.DonationPostDTO;
 import com.adptapaw.backend.payload.donations.DonationPostResponseDTO;
 
 public interface DonationPostService {
-    DonationPostResponseDTO getAllDonationsPosts(int pageNo, int pageSize, String sortBy, String sortDir);
+    DonationPostResponseDTO getAllDonationsPosts(int pageNo, int pageSize, String sortBy, String sortDir, String cursor);
+
+    DonationPostCardResponseDTO getDonationPostCards(int pageNo, int pageSize, String sortBy, String sortDir, String cursor);
 
     DonationPostDTO createDonationsPost(DonationPostDTO donationsDTO);
 
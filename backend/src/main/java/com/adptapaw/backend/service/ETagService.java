@@ -0,0 +1,16 @@
+package com.adptapaw.backend.service;
+
+public interface ETagService {
+
+    String adoptionAnimalTag(String id);
+
+    String adoptionAnimalListTag();
+
+    String missingAnimalTag(String id);
+
+    String missingAnimalListTag();
+
+    String donationPostTag(String id);
+
+    String donationPostListTag();
+}
@@ -7,7 +7,7 @@ import com.adptapaw.backend.payload.FeedbackListDTO;
 
 public interface FeedbackService {
     FeedbackDTO createFeedback(FeedbackDTO feedbackPageDTO);
-    FeedbackListDTO getAllFeedbacks(int pageNo, int pageSize, String sortBy, String sortDir);
+    FeedbackListDTO getAllFeedbacks(int pageNo, int pageSize, String sortBy, String sortDir, String cursor);
 
 
 
@@ -4,12 +4,18 @@ import com.adptapaw.backend.payload.adoption.AdoptionAnimalDTO;
 import com.adptapaw.backend.payload.adoption.AdoptionAnimalResponseDTO;
 import com.adptapaw.backend.payload.missing.MissingAnimalDTO;
 import com.adptapaw.backend.payload.missing.MissingAnimalResponseDTO;
+import com.adptapaw.backend.payload.missing.MissingCardResponseDTO;
+import com.adptapaw.backend.payload.missing.MissingTextSearchResponseDTO;
 import org.springframework.http.ResponseEntity;
 
 public interface MissingAnimalService {
     ResponseEntity<?> getAllByCreator(String id, int pageNo, int pageSize, String sortBy, String sortDir);
 
-    MissingAnimalResponseDTO getAllMissingAnimals(int pageNo, int pageSize, String sortBy, String sortDir);
+    MissingAnimalResponseDTO getAllMissingAnimals(int pageNo, int pageSize, String sortBy, String sortDir, String cursor);
+
+    MissingCardResponseDTO getMissingAnimalCards(int pageNo, int pageSize, String sortBy, String sortDir, String cursor);
+
+    MissingTextSearchResponseDTO searchByText(String query, int pageNo, int pageSize);
 
     MissingAnimalDTO createMissingAnimal(String id, MissingAnimalDTO missingAnimalDTO);
 
@@ -17,5 +23,5 @@ public interface MissingAnimalService {
 
     MissingAnimalDTO updateById(String id, MissingAnimalDTO missingAnimalDTO);
 
-    String DeleteById(String id);
+    String DeleteById(String id, boolean soft);
 }
@@ -4,6 +4,7 @@ package com.adptapaw.backend.service;
 import com.adptapaw.backend.entity.MissingRequest;
 
 
+import com.adptapaw.backend.payload.missing.ImageMatchDTO;
 import com.adptapaw.backend.payload.missing.MissingRequestDTO;
 import com.adptapaw.backend.payload.missing.MissingRequestListDTO;
 
@@ -14,7 +15,9 @@ public interface MissingRequestService {
 
 
     MissingRequestDTO getById(String id);
-    MissingRequestListDTO getAll(String id, int pageNo, int pageSize, String sortBy, String sortDir);
+    MissingRequestListDTO getAll(String id, int pageNo, int pageSize, String sortBy, String sortDir, String cursor);
     MissingRequestDTO approveInfo(String uid, String id);
 
+    List<ImageMatchDTO> getImageMatches(String id);
+
 }
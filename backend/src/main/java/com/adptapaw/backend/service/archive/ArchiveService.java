@@ -0,0 +1,22 @@
+package com.adptapaw.backend.service.archive;
+
+import com.adptapaw.backend.payload.adoption.AdoptionCardResponseDTO;
+import com.adptapaw.backend.payload.adoption.AdoptionRequestListDTO;
+import com.adptapaw.backend.payload.missing.MissingCardResponseDTO;
+
+public interface ArchiveService {
+
+    void archiveResolved();
+
+    AdoptionCardResponseDTO getAdoptionAnimalCardsWithArchive(int pageNo, int pageSize, String sortBy, String sortDir);
+
+    MissingCardResponseDTO getMissingAnimalCardsWithArchive(int pageNo, int pageSize, String sortBy, String sortDir);
+
+    AdoptionCardResponseDTO getAdoptionAnimalCardsByCreatorWithArchive(String userId, int pageNo, int pageSize, String sortBy, String sortDir);
+
+    MissingCardResponseDTO getMissingAnimalCardsByCreatorWithArchive(String userId, int pageNo, int pageSize, String sortBy, String sortDir);
+
+    AdoptionRequestListDTO getAdoptionRequestsBySeekerWithArchive(String userId, int pageNo, int pageSize, String sortBy, String sortDir);
+
+    void syncArchiveColumns();
+}
@@ -0,0 +1,487 @@
+package com.adptapaw.backend.service.archive.implementation;
+
+import com.adptapaw.backend.exception.BadRequestException;
+import com.adptapaw.backend.exception.ForbiddenException;
+import com.adptapaw.backend.exception.ResourceNotFoundException;
+import com.adptapaw.backend.payload.adoption.AdoptionAnimalDTO;
+import com.adptapaw.backend.payload.adoption.AdoptionCardDTO;
+import com.adptapaw.backend.payload.adoption.AdoptionCardResponseDTO;
+import com.adptapaw.backend.payload.adoption.AdoptionRequestDTO;
+import com.adptapaw.backend.payload.adoption.AdoptionRequestListDTO;
+import com.adptapaw.backend.payload.missing.MissingAnimalDTO;
+import com.adptapaw.backend.payload.missing.MissingCardDTO;
+import com.adptapaw.backend.payload.missing.MissingCardResponseDTO;
+import com.adptapaw.backend.service.archive.ArchiveService;
+import com.adptapaw.backend.service.cache.DtoCache;
+import com.adptapaw.backend.service.geo.GeoSearchService;
+import com.adptapaw.backend.service.imagematch.ImageMatchService;
+import com.adptapaw.backend.service.matching.AnimalMatchService;
+import com.adptapaw.backend.service.search.AdoptionSearchService;
+import com.adptapaw.backend.service.trending.ViewTarget;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Moves resolved posts and requests out of the hot tables into their
+ * *_archive twins, so listings, indexes and the startup rebuilds only ever
+ * touch live rows.
+ *
+ * A row is resolved when it is adopted, found, rejected or soft-deleted. The
+ * job stamps resolved_at the first time it sees a row in that state (and
+ * clears it if the row is reopened), then moves rows whose stamp is older
+ * than the retention period. Each batch is one transaction: candidate rows
+ * are locked with SKIP LOCKED, a pet's requests move with it because of the
+ * foreign key, and each table is moved with a single DELETE ... RETURNING
+ * feeding an INSERT. In-memory indexes and caches are cleared after commit.
+ *
+ * Listings only see archived rows when asked (includeArchived): the card
+ * view of all posts, a user's own posts and a seeker's own requests are read
+ * as a UNION ALL of the hot table and its archive.
+ */
+@Service
+public class ArchiveServiceImplementation implements ArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArchiveServiceImplementation.class);
+
+    private static final String ARCHIVE_SUFFIX = "_archive";
+
+    private static final String ADOPTION_ANIMAL = "adoptionanimal";
+    private static final String MISSING_ANIMAL = "missinganimal";
+    private static final String ADOPTION_REQUEST = "adoptionrequests";
+    private static final String MISSING_REQUEST = "missingrequests";
+
+    // table -> the state that makes a row eligible for archiving
+    private static final String[][] RESOLVED_WHEN = {
+            {ADOPTION_ANIMAL, "availability = false OR deleted = true"},
+            {MISSING_ANIMAL, "stillmissing = false OR deleted = true"},
+            {ADOPTION_REQUEST, "rejected = true"},
+            {MISSING_REQUEST, "rejected = true"}
+    };
+
+    // field order is the constructor order of the card DTOs
+    private static final List<String> ADOPTION_CARD_COLUMNS = Arrays.asList("id", "name", "type", "breed", "gender", "location", "imageone", "availability");
+    private static final List<String> MISSING_CARD_COLUMNS = Arrays.asList("id", "name", "type", "breed", "location", "image", "stillmissing", "datemissing");
+    private static final List<String> ADOPTION_REQUEST_COLUMNS = Arrays.asList("id", "requestdate", "approveddate", "status", "rejected",
+            "rfa", "hadpet", "pickup", "mobile", "email", "pet_id");
+    private static final List<String> ADOPTION_REQUEST_SORTS = Arrays.asList("id", "requestdate", "approveddate", "status", "rejected");
+
+    private static final String NOT_DELETED = "deleted = false";
+    private static final String BY_CREATOR = "deleted = false AND user_id = :userId";
+    private static final String BY_SEEKER = "adoptionseeker_id = :userId";
+
+    private static final RowMapper<AdoptionCardDTO> ADOPTION_CARD = (rs, rowNum) -> new AdoptionCardDTO(rs.getLong("id"), rs.getString("name"),
+            rs.getString("type"), rs.getString("breed"), rs.getString("gender"), rs.getString("location"), rs.getString("imageone"),
+            (Boolean) rs.getObject("availability"));
+
+    private static final RowMapper<MissingCardDTO> MISSING_CARD = (rs, rowNum) -> new MissingCardDTO(rs.getLong("id"), rs.getString("name"),
+            rs.getString("type"), rs.getString("breed"), rs.getString("location"), rs.getString("image"), (Boolean) rs.getObject("stillmissing"),
+            rs.getString("datemissing"));
+
+    private static final String COLUMNS_SQL =
+            "SELECT a.attname AS name, format_type(a.atttypid, a.atttypmod) AS type FROM pg_attribute a "
+                    + "WHERE a.attrelid = CAST(:table AS regclass) AND a.attnum > 0 AND NOT a.attisdropped ORDER BY a.attnum";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final AdoptionSearchService adoptionSearchService;
+
+    private final GeoSearchService geoSearchService;
+
+    private final ImageMatchService imageMatchService;
+
+    private final AnimalMatchService animalMatchService;
+
+    private final DtoCache<Long, AdoptionAnimalDTO> adoptionAnimalCache;
+
+    private final DtoCache<Long, MissingAnimalDTO> missingAnimalCache;
+
+    // table -> "col, col, ..." shared by the hot table and its archive
+    private final Map<String, String> archiveColumns = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${archive.resolved-after-days:90}")
+    private int resolvedAfterDays;
+
+    @Value("${archive.batch-size:500}")
+    private int batchSize;
+
+    @Value("${archive.max-batches-per-run:200}")
+    private int maxBatchesPerRun;
+
+    public ArchiveServiceImplementation(NamedParameterJdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                        AdoptionSearchService adoptionSearchService, GeoSearchService geoSearchService,
+                                        ImageMatchService imageMatchService, AnimalMatchService animalMatchService,
+                                        DtoCache<Long, AdoptionAnimalDTO> adoptionAnimalCache, DtoCache<Long, MissingAnimalDTO> missingAnimalCache) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.adoptionSearchService = adoptionSearchService;
+        this.geoSearchService = geoSearchService;
+        this.imageMatchService = imageMatchService;
+        this.animalMatchService = animalMatchService;
+        this.adoptionAnimalCache = adoptionAnimalCache;
+        this.missingAnimalCache = missingAnimalCache;
+    }
+
+    /**
+     * Hibernate adds columns to the hot tables on startup; copy any the
+     * archive does not have yet, then fix the column list the move uses, so
+     * the INSERT never depends on column order.
+     */
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public void syncArchiveColumns() {
+        for (String table : Arrays.asList(ADOPTION_ANIMAL, MISSING_ANIMAL, ADOPTION_REQUEST, MISSING_REQUEST)) {
+            String archive = table + ARCHIVE_SUFFIX;
+            Set<String> archived = new HashSet<>();
+            for (Map<String, Object> column : jdbcTemplate.queryForList(COLUMNS_SQL, new MapSqlParameterSource("table", archive))) {
+                archived.add((String) column.get("name"));
+            }
+            List<String> columns = new ArrayList<>();
+            for (Map<String, Object> column : jdbcTemplate.queryForList(COLUMNS_SQL, new MapSqlParameterSource("table", table))) {
+                String name = quote((String) column.get("name"));
+                if (!archived.contains(column.get("name"))) {
+                    jdbcTemplate.getJdbcOperations().execute("ALTER TABLE " + archive + " ADD COLUMN IF NOT EXISTS " + name + " " + column.get("type"));
+                    logger.info("Added column {} to {}", name, archive);
+                }
+                columns.add(name);
+            }
+            archiveColumns.put(table, String.join(", ", columns));
+        }
+    }
+
+    @Override
+    @Scheduled(initialDelayString = "${archive.initial-delay-ms:60000}", fixedDelayString = "${archive.interval-ms:3600000}")
+    public void archiveResolved() {
+        if (archiveColumns.isEmpty() || !running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            for (String[] resolved : RESOLVED_WHEN) {
+                stamp(resolved[0], resolved[1]);
+            }
+            Timestamp cutoff = new Timestamp(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(resolvedAfterDays));
+
+            int adoptionAnimals = 0;
+            int missingAnimals = 0;
+            int requests = 0;
+            for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+                Moved moved = transactionTemplate.execute(status -> moveAdoptionAnimals(cutoff));
+                evictAdoptionAnimals(moved.pets);
+                adoptionAnimals += moved.pets.size();
+                requests += moved.requests.size();
+                if (moved.pets.size() < batchSize) {
+                    break;
+                }
+            }
+            for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+                Moved moved = transactionTemplate.execute(status -> moveMissingAnimals(cutoff));
+                evictMissingAnimals(moved.pets, moved.requests);
+                missingAnimals += moved.pets.size();
+                requests += moved.requests.size();
+                if (moved.pets.size() < batchSize) {
+                    break;
+                }
+            }
+            // rejected requests whose pet is still live
+            for (String table : Arrays.asList(ADOPTION_REQUEST, MISSING_REQUEST)) {
+                for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+                    List<Long> moved = transactionTemplate.execute(status -> moveRequests(table, cutoff));
+                    if (MISSING_REQUEST.equals(table)) {
+                        moved.forEach(geoSearchService::removeSighting);
+                    }
+                    requests += moved.size();
+                    if (moved.size() < batchSize) {
+                        break;
+                    }
+                }
+            }
+            if (adoptionAnimals + missingAnimals + requests > 0) {
+                logger.info("Archived {} adoption posts, {} missing posts and {} requests resolved before {}",
+                        adoptionAnimals, missingAnimals, requests, cutoff);
+            }
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void stamp(String table, String resolvedWhen) {
+        jdbcTemplate.getJdbcOperations().update("UPDATE " + table + " SET resolved_at = now() WHERE resolved_at IS NULL AND (" + resolvedWhen + ")");
+        // reopened (made available again, still missing again, ...)
+        jdbcTemplate.getJdbcOperations().update("UPDATE " + table + " SET resolved_at = NULL WHERE resolved_at IS NOT NULL AND NOT (" + resolvedWhen + ")");
+    }
+
+    private Moved moveAdoptionAnimals(Timestamp cutoff) {
+        List<Long> pets = lockResolved(ADOPTION_ANIMAL, cutoff);
+        if (pets.isEmpty()) {
+            return new Moved(pets, pets);
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", pets);
+        List<Long> requests = move(ADOPTION_REQUEST, "pet_id IN (:ids)", params);
+        move(ADOPTION_ANIMAL, "id IN (:ids)", params);
+        jdbcTemplate.update("DELETE FROM view_counters WHERE target = :target AND entity_id IN (:ids)",
+                params.addValue("target", ViewTarget.ADOPTION_ANIMAL.getKey()));
+        return new Moved(pets, requests);
+    }
+
+    private Moved moveMissingAnimals(Timestamp cutoff) {
+        List<Long> pets = lockResolved(MISSING_ANIMAL, cutoff);
+        if (pets.isEmpty()) {
+            return new Moved(pets, pets);
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", pets);
+        List<Long> requests = move(MISSING_REQUEST, "pet_id IN (:ids)", params);
+        move(MISSING_ANIMAL, "id IN (:ids)", params);
+        return new Moved(pets, requests);
+    }
+
+    private List<Long> moveRequests(String table, Timestamp cutoff) {
+        List<Long> ids = lockResolved(table, cutoff);
+        if (ids.isEmpty()) {
+            return ids;
+        }
+        return move(table, "id IN (:ids)", new MapSqlParameterSource("ids", ids));
+    }
+
+    // concurrent runs on other instances skip what this one holds instead of queueing behind it
+    private List<Long> lockResolved(String table, Timestamp cutoff) {
+        return jdbcTemplate.queryForList("SELECT id FROM " + table + " WHERE resolved_at < :cutoff ORDER BY resolved_at, id LIMIT :limit FOR UPDATE SKIP LOCKED",
+                new MapSqlParameterSource("cutoff", cutoff).addValue("limit", batchSize), Long.class);
+    }
+
+    private List<Long> move(String table, String where, MapSqlParameterSource params) {
+        String columns = archiveColumns.get(table);
+        return jdbcTemplate.queryForList("WITH moved AS (DELETE FROM " + table + " WHERE " + where + " RETURNING " + columns + ") "
+                + "INSERT INTO " + table + ARCHIVE_SUFFIX + " (" + columns + ") SELECT " + columns + " FROM moved RETURNING id", params, Long.class);
+    }
+
+    private void evictAdoptionAnimals(List<Long> ids) {
+        for (Long id : ids) {
+            adoptionAnimalCache.invalidate(id);
+            adoptionSearchService.remove(id);
+            geoSearchService.removeAdoptionAnimal(id);
+            animalMatchService.removeAdoptionAnimal(id);
+        }
+    }
+
+    private void evictMissingAnimals(List<Long> ids, List<Long> sightingIds) {
+        for (Long id : ids) {
+            missingAnimalCache.invalidate(id);
+            geoSearchService.removeMissingAnimal(id);
+            imageMatchService.removeMissingAnimal(id);
+            animalMatchService.removeMissingAnimal(id);
+        }
+        sightingIds.forEach(geoSearchService::removeSighting);
+    }
+
+    @Override
+    public AdoptionCardResponseDTO getAdoptionAnimalCardsWithArchive(int pageNo, int pageSize, String sortBy, String sortDir) {
+        return adoptionCards(NOT_DELETED, pageParams(pageNo, pageSize), pageNo, pageSize, sortBy, sortDir);
+    }
+
+    @Override
+    public MissingCardResponseDTO getMissingAnimalCardsWithArchive(int pageNo, int pageSize, String sortBy, String sortDir) {
+        return missingCards(NOT_DELETED, pageParams(pageNo, pageSize), pageNo, pageSize, sortBy, sortDir);
+    }
+
+    @Override
+    public AdoptionCardResponseDTO getAdoptionAnimalCardsByCreatorWithArchive(String userId, int pageNo, int pageSize, String sortBy, String sortDir) {
+        MapSqlParameterSource params = pageParams(pageNo, pageSize).addValue("userId", requireSelf(userId));
+        return adoptionCards(BY_CREATOR, params, pageNo, pageSize, sortBy, sortDir);
+    }
+
+    @Override
+    public MissingCardResponseDTO getMissingAnimalCardsByCreatorWithArchive(String userId, int pageNo, int pageSize, String sortBy, String sortDir) {
+        MapSqlParameterSource params = pageParams(pageNo, pageSize).addValue("userId", requireSelf(userId));
+        return missingCards(BY_CREATOR, params, pageNo, pageSize, sortBy, sortDir);
+    }
+
+    /**
+     * A seeker's requests, archived ones included. Each request carries its
+     * pet as a card (the pet may itself be archived), not the full post.
+     */
+    @Override
+    public AdoptionRequestListDTO getAdoptionRequestsBySeekerWithArchive(String userId, int pageNo, int pageSize, String sortBy, String sortDir) {
+        if (!ADOPTION_REQUEST_SORTS.contains(sortBy)) {
+            throw new BadRequestException("Unsupported sort field: " + sortBy);
+        }
+        MapSqlParameterSource params = pageParams(pageNo, pageSize).addValue("userId", requireSelf(userId));
+        long total = countWithArchive(ADOPTION_REQUEST, BY_SEEKER, params);
+        List<Long> petIds = new ArrayList<>();
+        List<AdoptionRequestDTO> content = jdbcTemplate.query(unionPage(ADOPTION_REQUEST, ADOPTION_REQUEST_COLUMNS, BY_SEEKER, sortBy, sortDir), params, (rs, rowNum) -> {
+            AdoptionRequestDTO adoptionRequestDTO = new AdoptionRequestDTO();
+            adoptionRequestDTO.setId(rs.getLong("id"));
+            adoptionRequestDTO.setRequestdate(rs.getString("requestdate"));
+            adoptionRequestDTO.setApproveddate(rs.getString("approveddate"));
+            adoptionRequestDTO.setStatus((Boolean) rs.getObject("status"));
+            adoptionRequestDTO.setRejected((Boolean) rs.getObject("rejected"));
+            adoptionRequestDTO.setRfa(rs.getString("rfa"));
+            adoptionRequestDTO.setHadpet((Boolean) rs.getObject("hadpet"));
+            adoptionRequestDTO.setPickup((Boolean) rs.getObject("pickup"));
+            adoptionRequestDTO.setMobile(rs.getString("mobile"));
+            adoptionRequestDTO.setEmail(rs.getString("email"));
+            long petId = rs.getLong("pet_id");
+            if (!rs.wasNull()) {
+                AdoptionAnimalDTO pet = new AdoptionAnimalDTO();
+                pet.setId(petId);
+                adoptionRequestDTO.setPet(pet);
+                petIds.add(petId);
+            }
+            return adoptionRequestDTO;
+        });
+        if (!petIds.isEmpty()) {
+            String select = String.join(", ", ADOPTION_CARD_COLUMNS);
+            Map<Long, AdoptionCardDTO> pets = new HashMap<>();
+            jdbcTemplate.query("SELECT " + select + " FROM " + ADOPTION_ANIMAL + " WHERE id IN (:ids) "
+                            + "UNION ALL SELECT " + select + " FROM " + ADOPTION_ANIMAL + ARCHIVE_SUFFIX + " WHERE id IN (:ids)",
+                    new MapSqlParameterSource("ids", petIds), ADOPTION_CARD).forEach(card -> pets.put(card.getId(), card));
+            for (AdoptionRequestDTO adoptionRequestDTO : content) {
+                AdoptionAnimalDTO pet = adoptionRequestDTO.getPet();
+                AdoptionCardDTO card = pet == null ? null : pets.get(pet.getId());
+                if (card != null) {
+                    pet.setName(card.getName());
+                    pet.setType(card.getType());
+                    pet.setBreed(card.getBreed());
+                    pet.setGender(card.getGender());
+                    pet.setLocation(card.getLocation());
+                    pet.setImageone(card.getImageone());
+                    pet.setAvailability(card.getAvailability());
+                }
+            }
+        }
+
+        AdoptionRequestListDTO adoptionRequestListDTO = new AdoptionRequestListDTO();
+        adoptionRequestListDTO.setContent(content);
+        adoptionRequestListDTO.setPageNo(pageNo);
+        adoptionRequestListDTO.setPageSize(pageSize);
+        adoptionRequestListDTO.setTotalElements(total);
+        adoptionRequestListDTO.setTotalPages(totalPages(total, pageSize));
+        adoptionRequestListDTO.setLast(pageNo + 1 >= totalPages(total, pageSize));
+        return adoptionRequestListDTO;
+    }
+
+    private AdoptionCardResponseDTO adoptionCards(String filter, MapSqlParameterSource params, int pageNo, int pageSize, String sortBy, String sortDir) {
+        String query = unionPage(ADOPTION_ANIMAL, ADOPTION_CARD_COLUMNS, filter, sortBy, sortDir);
+        long total = countWithArchive(ADOPTION_ANIMAL, filter, params);
+        List<AdoptionCardDTO> content = jdbcTemplate.query(query, params, ADOPTION_CARD);
+
+        AdoptionCardResponseDTO adoptionCardResponse = new AdoptionCardResponseDTO();
+        adoptionCardResponse.setContent(content);
+        adoptionCardResponse.setPageNo(pageNo);
+        adoptionCardResponse.setPageSize(pageSize);
+        adoptionCardResponse.setTotalElements(total);
+        adoptionCardResponse.setTotalPages(totalPages(total, pageSize));
+        adoptionCardResponse.setLast(pageNo + 1 >= totalPages(total, pageSize));
+
+        return adoptionCardResponse;
+    }
+
+    private MissingCardResponseDTO missingCards(String filter, MapSqlParameterSource params, int pageNo, int pageSize, String sortBy, String sortDir) {
+        String query = unionPage(MISSING_ANIMAL, MISSING_CARD_COLUMNS, filter, sortBy, sortDir);
+        long total = countWithArchive(MISSING_ANIMAL, filter, params);
+        List<MissingCardDTO> content = jdbcTemplate.query(query, params, MISSING_CARD);
+
+        MissingCardResponseDTO missingCardResponse = new MissingCardResponseDTO();
+        missingCardResponse.setContent(content);
+        missingCardResponse.setPageNo(pageNo);
+        missingCardResponse.setPageSize(pageSize);
+        missingCardResponse.setTotalElements(total);
+        missingCardResponse.setTotalPages(totalPages(total, pageSize));
+        missingCardResponse.setLast(pageNo + 1 >= totalPages(total, pageSize));
+
+        return missingCardResponse;
+    }
+
+    // history is an explicit opt-in, so plain offset paging over the union is enough here
+    private static String unionPage(String table, List<String> columns, String filter, String sortBy, String sortDir) {
+        if (!columns.contains(sortBy)) {
+            throw new BadRequestException("Unsupported sort field: " + sortBy);
+        }
+        String direction = sortDir.equalsIgnoreCase(Sort.Direction.ASC.name()) ? "ASC" : "DESC";
+        String select = String.join(", ", columns);
+        return "SELECT " + select + " FROM " + table + " WHERE " + filter + " "
+                + "UNION ALL SELECT " + select + " FROM " + table + ARCHIVE_SUFFIX + " WHERE " + filter + " "
+                + "ORDER BY " + sortBy + " " + direction + ("id".equals(sortBy) ? "" : ", id " + direction)
+                + " LIMIT :limit OFFSET :offset";
+    }
+
+    // per-user history is private, as the hot-table listings are
+    private Long requireSelf(String userId) {
+        Long id;
+        try {
+            id = Long.valueOf(userId);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid user ID format: " + userId);
+        }
+        List<String> emails = jdbcTemplate.queryForList("SELECT email FROM users WHERE id = :id", new MapSqlParameterSource("id", id), String.class);
+        if (emails.isEmpty()) {
+            throw new ResourceNotFoundException("User", "id", id);
+        }
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !Objects.equals(emails.get(0), auth.getName())) {
+            throw new ForbiddenException("You can only list your own history");
+        }
+        return id;
+    }
+
+    private static MapSqlParameterSource pageParams(int pageNo, int pageSize) {
+        if (pageNo < 0) {
+            throw new BadRequestException("Invalid page number: " + pageNo);
+        }
+        if (pageSize < 1) {
+            throw new BadRequestException("Invalid page size: " + pageSize);
+        }
+        return new MapSqlParameterSource("limit", pageSize).addValue("offset", (long) pageNo * pageSize);
+    }
+
+    private long countWithArchive(String table, String filter, MapSqlParameterSource params) {
+        Long total = jdbcTemplate.queryForObject("SELECT (SELECT count(*) FROM " + table + " WHERE " + filter + ") + "
+                + "(SELECT count(*) FROM " + table + ARCHIVE_SUFFIX + " WHERE " + filter + ")", params, Long.class);
+        return total == null ? 0 : total;
+    }
+
+    private static int totalPages(long total, int pageSize) {
+        return (int) ((total + pageSize - 1) / pageSize);
+    }
+
+    private static String quote(String identifier) {
+        return "\"" + identifier.replace("\"", "\"\"") + "\"";
+    }
+
+    private static final class Moved {
+        private final List<Long> pets;
+        private final List<Long> requests;
+
+        private Moved(List<Long> pets, List<Long> requests) {
+            this.pets = pets;
+            this.requests = requests;
+        }
+    }
+}
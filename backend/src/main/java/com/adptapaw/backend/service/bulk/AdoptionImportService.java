@@ -0,0 +1,10 @@
+package com.adptapaw.backend.service.bulk;
+
+import com.adptapaw.backend.payload.adoption.AdoptionImportResultDTO;
+
+import java.io.InputStream;
+
+public interface AdoptionImportService {
+
+    AdoptionImportResultDTO importAdoptionAnimals(String id, String contentType, InputStream input);
+}
@@ -0,0 +1,401 @@
+package com.adptapaw.backend.service.bulk.implementation;
+
+import com.adptapaw.backend.entity.AdoptionAnimal;
+import com.adptapaw.backend.entity.User;
+import com.adptapaw.backend.exception.BadRequestException;
+import com.adptapaw.backend.exception.ForbiddenException;
+import com.adptapaw.backend.exception.ResourceNotFoundException;
+import com.adptapaw.backend.payload.adoption.AdoptionAnimalDTO;
+import com.adptapaw.backend.payload.adoption.AdoptionImportErrorDTO;
+import com.adptapaw.backend.payload.adoption.AdoptionImportResultDTO;
+import com.adptapaw.backend.repository.UserRepository;
+import com.adptapaw.backend.service.bulk.AdoptionImportService;
+import com.adptapaw.backend.service.bulk.CsvRecordReader;
+import com.adptapaw.backend.service.geo.GeoPoint;
+import com.adptapaw.backend.service.geo.GeoSearchService;
+import com.adptapaw.backend.service.matching.AnimalMatchService;
+import com.adptapaw.backend.service.savedsearch.SavedSearchService;
+import com.adptapaw.backend.service.search.AdoptionSearchService;
+import com.adptapaw.backend.utils.AdoptapawConstants;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Streams a CSV or NDJSON upload row by row. Valid rows are collected into
+ * chunks of a fixed size; each chunk is written with one JDBC batch in its own
+ * transaction and then added to the search and geo indexes. Only the current
+ * chunk and the capped error list are held in memory, whatever the file size.
+ *
+ * A chunk that fails in the database is rolled back and reported as a whole;
+ * earlier chunks stay committed.
+ */
+@Service
+public class AdoptionImportServiceImplementation implements AdoptionImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdoptionImportServiceImplementation.class);
+
+    private static final List<String> IMPORT_COLUMNS = Arrays.asList(
+            "name", "breed", "training", "vaccine", "color", "description", "physicalcondition",
+            "imageone", "imagetwo", "imagethree", "location", "latitude", "longitude",
+            "behaviour", "food", "gender", "type", "mobile");
+
+    private static final String ALLOCATE_IDS_SQL =
+            "select nextval(pg_get_serial_sequence('adoptionanimal', 'id')) from generate_series(1, ?)";
+
+    private static final String INSERT_SQL =
+            "insert into adoptionanimal (id, name, breed, training, vaccine, color, description, physicalcondition, "
+                    + "imageone, imagetwo, imagethree, location, latitude, longitude, behaviour, food, gender, type, "
+                    + "mobile, postedon, availability, user_id) "
+                    + "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final AdoptionSearchService adoptionSearchService;
+    private final GeoSearchService geoSearchService;
+    private final AnimalMatchService animalMatchService;
+    private final SavedSearchService savedSearchService;
+
+    @Value("${import.adoption.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${import.adoption.max-reported-errors:200}")
+    private int maxReportedErrors;
+
+    @Value("${import.adoption.max-row-length:65536}")
+    private int maxRowLength;
+
+    public AdoptionImportServiceImplementation(UserRepository userRepository, JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                               Validator validator, ObjectMapper objectMapper,
+                                               AdoptionSearchService adoptionSearchService, GeoSearchService geoSearchService,
+                                               AnimalMatchService animalMatchService, SavedSearchService savedSearchService) {
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.adoptionSearchService = adoptionSearchService;
+        this.geoSearchService = geoSearchService;
+        this.animalMatchService = animalMatchService;
+        this.savedSearchService = savedSearchService;
+    }
+
+    @Override
+    public AdoptionImportResultDTO importAdoptionAnimals(String id, String contentType, InputStream input) {
+
+        boolean csv = isMediaType(contentType, AdoptapawConstants.CSV_MEDIA_TYPE);
+        if (!csv && !isMediaType(contentType, AdoptapawConstants.NDJSON_MEDIA_TYPE)) {
+            throw new BadRequestException("Unsupported import format: " + contentType);
+        }
+
+        Long userId;
+        try {
+            userId = Long.valueOf(id);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid user ID format: " + id);
+        }
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
+
+        // posts are created as {id}: only that user, or an admin, may import for them
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        boolean admin = auth != null && auth.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+        if (!admin && (auth == null || !Objects.equals(user.getEmail(), auth.getName()))) {
+            throw new ForbiddenException("Not authorized to import posts for this user");
+        }
+
+        AdoptionImportResultDTO result = new AdoptionImportResultDTO();
+        Chunk chunk = new Chunk();
+        Reader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+
+        try {
+            if (csv) {
+                readCsv(reader, user, chunk, result);
+            } else {
+                readNdjson(reader, user, chunk, result);
+            }
+        } catch (IOException e) {
+            // the stream is unusable past this point; keep what was committed and say where it stopped
+            result.setTotalRows(result.getTotalRows() + 1);
+            reject(result, result.getTotalRows(), null, e.getMessage(), true);
+        }
+        flush(chunk, user, result);
+
+        logger.info("Adoption import for user {}: {} rows, {} imported, {} failed",
+                userId, result.getTotalRows(), result.getImported(), result.getFailed());
+        return result;
+    }
+
+    private void readCsv(Reader reader, User user, Chunk chunk, AdoptionImportResultDTO result) throws IOException {
+        CsvRecordReader records = new CsvRecordReader(reader, maxRowLength);
+        List<String> header = records.next();
+        if (header == null) {
+            throw new BadRequestException("Missing header row");
+        }
+        String[] columns = new String[header.size()];
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = header.get(i).trim().toLowerCase(Locale.ROOT);
+            if (!IMPORT_COLUMNS.contains(columns[i])) {
+                throw new BadRequestException("Unsupported column: " + header.get(i));
+            }
+            if (!seen.add(columns[i])) {
+                throw new BadRequestException("Duplicate column: " + header.get(i));
+            }
+        }
+
+        List<String> record;
+        while ((record = records.next()) != null) {
+            if (record.size() == 1 && record.get(0).trim().isEmpty()) {
+                continue;
+            }
+            long row = result.getTotalRows() + 1;
+            result.setTotalRows(row);
+
+            if (record.size() != columns.length) {
+                reject(result, row, null, "Expected " + columns.length + " fields but found " + record.size()
+                        + " (line " + records.getRecordLine() + ")", true);
+                continue;
+            }
+
+            AdoptionAnimalDTO dto = new AdoptionAnimalDTO();
+            BeanWrapper wrapper = new BeanWrapperImpl(dto);
+            boolean converted = true;
+            for (int i = 0; i < columns.length; i++) {
+                String value = record.get(i).trim();
+                try {
+                    wrapper.setPropertyValue(columns[i], value.isEmpty() ? null : value);
+                } catch (BeansException e) {
+                    reject(result, row, columns[i], "Invalid value: " + value, converted);
+                    converted = false;
+                }
+            }
+            if (converted) {
+                accept(row, dto, user, chunk, result);
+            }
+        }
+    }
+
+    private void readNdjson(Reader reader, User user, Chunk chunk, AdoptionImportResultDTO result) throws IOException {
+        String line;
+        while ((line = readLine(reader)) != null) {
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            long row = result.getTotalRows() + 1;
+            result.setTotalRows(row);
+
+            AdoptionAnimalDTO dto;
+            try {
+                dto = objectMapper.readValue(line, AdoptionAnimalDTO.class);
+            } catch (JsonProcessingException e) {
+                reject(result, row, null, "Malformed JSON: " + e.getOriginalMessage(), true);
+                continue;
+            }
+            if (dto == null) {
+                reject(result, row, null, "Expected a JSON object", true);
+                continue;
+            }
+            accept(row, dto, user, chunk, result);
+        }
+    }
+
+    private String readLine(Reader reader) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int c;
+        while ((c = reader.read()) != -1) {
+            if (c == '\n') {
+                return line.toString();
+            }
+            if (c != '\r') {
+                if (line.length() == maxRowLength) {
+                    throw new IOException("Row exceeds " + maxRowLength + " characters");
+                }
+                line.append((char) c);
+            }
+        }
+        return line.length() == 0 ? null : line.toString();
+    }
+
+    private void accept(long row, AdoptionAnimalDTO dto, User user, Chunk chunk, AdoptionImportResultDTO result) {
+        Set<ConstraintViolation<AdoptionAnimalDTO>> violations = validator.validate(dto);
+        if (!violations.isEmpty()) {
+            boolean firstViolation = true;
+            for (ConstraintViolation<AdoptionAnimalDTO> violation : violations) {
+                reject(result, row, violation.getPropertyPath().toString(), violation.getMessage(), firstViolation);
+                firstViolation = false;
+            }
+            return;
+        }
+
+        GeoPoint point = geoSearchService.resolve(dto.getLatitude(), dto.getLongitude(), dto.getLocation());
+        dto.setLatitude(point == null ? null : point.getLatitude());
+        dto.setLongitude(point == null ? null : point.getLongitude());
+
+        chunk.rows.add(row);
+        chunk.animals.add(dto);
+        if (chunk.animals.size() >= chunkSize) {
+            flush(chunk, user, result);
+        }
+    }
+
+    private void flush(Chunk chunk, User user, AdoptionImportResultDTO result) {
+        if (chunk.animals.isEmpty()) {
+            return;
+        }
+        final List<AdoptionAnimalDTO> animals = chunk.animals;
+        final String postedon = String.valueOf(new Date());
+
+        List<Long> ids;
+        try {
+            ids = transactionTemplate.execute(status -> {
+                final List<Long> allocated = jdbcTemplate.queryForList(ALLOCATE_IDS_SQL, Long.class, animals.size());
+                jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        AdoptionAnimalDTO dto = animals.get(i);
+                        ps.setLong(1, allocated.get(i));
+                        ps.setString(2, dto.getName());
+                        ps.setString(3, dto.getBreed());
+                        ps.setString(4, dto.getTraining());
+                        ps.setString(5, dto.getVaccine());
+                        ps.setString(6, dto.getColor());
+                        ps.setString(7, dto.getDescription());
+                        ps.setString(8, dto.getPhysicalcondition());
+                        ps.setString(9, dto.getImageone());
+                        ps.setString(10, dto.getImagetwo());
+                        ps.setString(11, dto.getImagethree());
+                        ps.setString(12, dto.getLocation());
+                        ps.setObject(13, dto.getLatitude(), Types.DOUBLE);
+                        ps.setObject(14, dto.getLongitude(), Types.DOUBLE);
+                        ps.setString(15, dto.getBehaviour());
+                        ps.setString(16, dto.getFood());
+                        ps.setString(17, dto.getGender());
+                        ps.setString(18, dto.getType());
+                        ps.setString(19, dto.getMobile());
+                        ps.setString(20, postedon);
+                        ps.setBoolean(21, true);
+                        ps.setLong(22, user.getId());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return animals.size();
+                    }
+                });
+                return allocated;
+            });
+        } catch (DataAccessException e) {
+            logger.warn("Adoption import chunk of {} rows rolled back", animals.size(), e);
+            String message = "Rows " + chunk.rows.get(0) + "-" + chunk.rows.get(chunk.rows.size() - 1)
+                    + " rolled back: " + e.getMostSpecificCause().getMessage();
+            for (Long row : chunk.rows) {
+                reject(result, row, null, message, true);
+            }
+            chunk.clear();
+            return;
+        }
+
+        for (int i = 0; i < animals.size(); i++) {
+            AdoptionAnimal animal = toEntity(ids.get(i), animals.get(i), postedon, user);
+            adoptionSearchService.index(animal);
+            geoSearchService.indexAdoptionAnimal(animal);
+            animalMatchService.indexAdoptionAnimal(animal);
+            savedSearchService.percolate(animal);
+        }
+        result.setImported(result.getImported() + animals.size());
+        chunk.clear();
+    }
+
+    private AdoptionAnimal toEntity(Long id, AdoptionAnimalDTO dto, String postedon, User user) {
+        AdoptionAnimal animal = new AdoptionAnimal();
+        animal.setId(id);
+        animal.setName(dto.getName());
+        animal.setBreed(dto.getBreed());
+        animal.setTraining(dto.getTraining());
+        animal.setVaccine(dto.getVaccine());
+        animal.setColor(dto.getColor());
+        animal.setDescription(dto.getDescription());
+        animal.setPhysicalcondition(dto.getPhysicalcondition());
+        animal.setImageone(dto.getImageone());
+        animal.setImagetwo(dto.getImagetwo());
+        animal.setImagethree(dto.getImagethree());
+        animal.setLocation(dto.getLocation());
+        animal.setLatitude(dto.getLatitude());
+        animal.setLongitude(dto.getLongitude());
+        animal.setBehaviour(dto.getBehaviour());
+        animal.setFood(dto.getFood());
+        animal.setGender(dto.getGender());
+        animal.setType(dto.getType());
+        animal.setMobile(dto.getMobile());
+        animal.setPostedon(postedon);
+        animal.setAvailability(true);
+        animal.setUser(user);
+        return animal;
+    }
+
+    /**
+     * Records an error for a row. countRow is false for the second and later
+     * errors of the same row so failed counts rows, not messages.
+     */
+    private void reject(AdoptionImportResultDTO result, long row, String field, String message, boolean countRow) {
+        if (countRow) {
+            result.setFailed(result.getFailed() + 1);
+        }
+        if (result.getErrors().size() < maxReportedErrors) {
+            result.getErrors().add(new AdoptionImportErrorDTO(row, field, message));
+        } else {
+            result.setErrorsTruncated(true);
+        }
+    }
+
+    private boolean isMediaType(String contentType, String mediaType) {
+        return contentType != null && contentType.toLowerCase(Locale.ROOT).startsWith(mediaType);
+    }
+
+    private static class Chunk {
+        private final List<Long> rows = new ArrayList<>();
+        private final List<AdoptionAnimalDTO> animals = new ArrayList<>();
+
+        private void clear() {
+            rows.clear();
+            animals.clear();
+        }
+    }
+}
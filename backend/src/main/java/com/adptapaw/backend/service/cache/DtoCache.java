@@ -0,0 +1,127 @@
+package com.adptapaw.backend.service.cache;
+
+import com.adptapaw.backend.payload.CacheStatsDTO;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache for response DTOs. Entries are evicted in
+ * least-recently-used order once maxSize is reached and expire ttlMillis
+ * after they were loaded. Cached values are shared between requests and
+ * must not be mutated by callers.
+ */
+public class DtoCache<K, V> {
+
+    private final String name;
+    private final int maxSize;
+    private final long ttlMillis;
+
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    private final AtomicLong invalidationEpoch = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public DtoCache(String name, int maxSize, long ttlMillis) {
+        this.name = name;
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public V get(K key, Function<K, V> loader) {
+        long now = System.currentTimeMillis();
+        long epoch;
+        synchronized (this) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null) {
+                if (entry.expiresAt > now) {
+                    hits.increment();
+                    return entry.value;
+                }
+                entries.remove(key);
+                expirations.increment();
+            }
+            misses.increment();
+            epoch = invalidationEpoch.get();
+        }
+
+        V value = loader.apply(key);
+
+        synchronized (this) {
+            // an invalidation while we were loading means the value may already be stale
+            if (value != null && epoch == invalidationEpoch.get()) {
+                entries.put(key, new Entry<>(value, System.currentTimeMillis() + ttlMillis));
+                evictOverflow();
+            }
+        }
+        return value;
+    }
+
+    public synchronized void invalidate(K key) {
+        invalidationEpoch.incrementAndGet();
+        if (entries.remove(key) != null) {
+            invalidations.increment();
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        invalidationEpoch.incrementAndGet();
+        invalidations.add(entries.size());
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public CacheStatsDTO stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+
+        CacheStatsDTO cacheStatsDTO = new CacheStatsDTO();
+        cacheStatsDTO.setName(name);
+        cacheStatsDTO.setSize(size());
+        cacheStatsDTO.setMaxSize(maxSize);
+        cacheStatsDTO.setTtlSeconds(ttlMillis / 1000);
+        cacheStatsDTO.setHits(hitCount);
+        cacheStatsDTO.setMisses(missCount);
+        cacheStatsDTO.setHitRate(hitCount + missCount == 0 ? 0 : (double) hitCount / (hitCount + missCount));
+        cacheStatsDTO.setEvictions(evictions.sum());
+        cacheStatsDTO.setExpirations(expirations.sum());
+        cacheStatsDTO.setInvalidations(invalidations.sum());
+        return cacheStatsDTO;
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<K, Entry<V>>> eldest = entries.entrySet().iterator();
+        while (entries.size() > maxSize && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    private static class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
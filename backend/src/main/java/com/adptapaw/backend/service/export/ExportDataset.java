@@ -0,0 +1,61 @@
+package com.adptapaw.backend.service.export;
+
+import com.adptapaw.backend.exception.BadRequestException;
+
+/**
+ * Tables that can be exported, with the flat column list streamed for each.
+ * Associations are exported as foreign key ids. Password hashes are never
+ * selected. Tables with an *_archive twin export both, with an archived
+ * column telling them apart.
+ */
+public enum ExportDataset {
+
+    ADOPTION_ANIMALS("adoption-animals", withArchive("adoptionanimal",
+            "id, name, breed, training, vaccine, color, description, physicalcondition, imageone, imagetwo, imagethree, "
+                    + "location, latitude, longitude, behaviour, food, gender, type, mobile, postedon, availability, deleted, user_id, owner_id")),
+    ADOPTION_REQUESTS("adoption-requests", withArchive("adoptionrequests",
+            "id, requestdate, requested_at, approveddate, status, rejected, rfa, hadpet, pickup, mobile, email, adoptionseeker_id, pet_id")),
+    MISSING_ANIMALS("missing-animals", withArchive("missinganimal",
+            "id, name, breed, vaccine, color, datemissing, image, specificattribute, location, latitude, longitude, "
+                    + "accessorieslastworn, rewards, gender, type, stillmissing, deleted, user_id")),
+    MISSING_REQUESTS("missing-requests", withArchive("missingrequests",
+            "id, requestdate, approveddate, status, rejected, location, latitude, longitude, image, mobile, email, pet_id")),
+    DONATIONS("donations",
+            "select id, donationdate, amountofmoney, donator_id, donationpost_id "
+                    + "from donation order by id"),
+    USERS("users",
+            "select u.id, u.name, u.username, u.email, u.account_verified, u.banned, u.location, u.latitude, u.longitude, u.bio, u.dp, "
+                    + "(select string_agg(r.name, ';' order by r.name) from user_roles ur join roles r on r.id = ur.role_id "
+                    + "where ur.user_id = u.id) as roles "
+                    + "from users u order by u.id");
+
+    private final String name;
+    private final String query;
+
+    ExportDataset(String name, String query) {
+        this.name = name;
+        this.query = query;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    private static String withArchive(String table, String columns) {
+        return "select " + columns + ", false as archived from " + table
+                + " union all select " + columns + ", true as archived from " + table + "_archive order by id";
+    }
+
+    public static ExportDataset from(String name) {
+        for (ExportDataset dataset : values()) {
+            if (dataset.name.equalsIgnoreCase(name)) {
+                return dataset;
+            }
+        }
+        throw new BadRequestException("Unsupported export: " + name);
+    }
+}
@@ -0,0 +1,35 @@
+package com.adptapaw.backend.service.export;
+
+import com.adptapaw.backend.exception.BadRequestException;
+import com.adptapaw.backend.utils.AdoptapawConstants;
+
+public enum ExportFormat {
+
+    NDJSON("ndjson", AdoptapawConstants.NDJSON_MEDIA_TYPE),
+    CSV("csv", AdoptapawConstants.CSV_MEDIA_TYPE);
+
+    private final String extension;
+    private final String mediaType;
+
+    ExportFormat(String extension, String mediaType) {
+        this.extension = extension;
+        this.mediaType = mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public static ExportFormat from(String name) {
+        for (ExportFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        throw new BadRequestException("Unsupported export format: " + name);
+    }
+}
@@ -0,0 +1,8 @@
+package com.adptapaw.backend.service.export;
+
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+public interface ExportService {
+
+    StreamingResponseBody export(ExportDataset dataset, ExportFormat format);
+}
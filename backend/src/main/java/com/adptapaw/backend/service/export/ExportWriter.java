@@ -0,0 +1,15 @@
+package com.adptapaw.backend.service.export;
+
+import java.io.IOException;
+
+/**
+ * Writes one exported row at a time. Implementations must not retain rows.
+ */
+public interface ExportWriter {
+
+    void start(String[] columns) throws IOException;
+
+    void row(Object[] values) throws IOException;
+
+    void finish() throws IOException;
+}
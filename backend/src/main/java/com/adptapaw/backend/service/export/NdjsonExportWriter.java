@@ -0,0 +1,43 @@
+package com.adptapaw.backend.service.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.Writer;
+
+public class NdjsonExportWriter implements ExportWriter {
+
+    private final Writer out;
+    private final JsonGenerator generator;
+    private String[] columns;
+
+    public NdjsonExportWriter(Writer out, ObjectMapper objectMapper) throws IOException {
+        this.out = out;
+        this.generator = objectMapper.getFactory().createGenerator(out);
+        this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // rows are separated by the newline written after each object, not by Jackson's default space
+        this.generator.setRootValueSeparator(null);
+    }
+
+    @Override
+    public void start(String[] columns) {
+        this.columns = columns;
+    }
+
+    @Override
+    public void row(Object[] values) throws IOException {
+        generator.writeStartObject();
+        for (int i = 0; i < columns.length; i++) {
+            generator.writeObjectField(columns[i], values[i]);
+        }
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    @Override
+    public void finish() throws IOException {
+        generator.close();
+        out.flush();
+    }
+}
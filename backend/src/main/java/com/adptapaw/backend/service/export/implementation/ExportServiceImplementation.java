@@ -0,0 +1,90 @@
+package com.adptapaw.backend.service.export.implementation;
+
+import com.adptapaw.backend.service.export.CsvExportWriter;
+import com.adptapaw.backend.service.export.ExportDataset;
+import com.adptapaw.backend.service.export.ExportFormat;
+import com.adptapaw.backend.service.export.ExportService;
+import com.adptapaw.backend.service.export.ExportWriter;
+import com.adptapaw.backend.service.export.NdjsonExportWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSetMetaData;
+
+/**
+ * Streams a table straight from a server-side cursor to the response. The
+ * PostgreSQL driver only honours the fetch size inside a transaction, so each
+ * export runs in a read-only one and holds at most one fetch of rows.
+ */
+@Service
+public class ExportServiceImplementation implements ExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportServiceImplementation.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    public ExportServiceImplementation(DataSource dataSource, PlatformTransactionManager transactionManager, ObjectMapper objectMapper,
+                                       @Value("${export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public StreamingResponseBody export(ExportDataset dataset, ExportFormat format) {
+        return outputStream -> {
+            Writer out = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            ExportWriter writer = format == ExportFormat.CSV ? new CsvExportWriter(out) : new NdjsonExportWriter(out, objectMapper);
+            long[] rows = new long[1];
+            try {
+                transactionTemplate.execute(status -> {
+                    jdbcTemplate.query(dataset.getQuery(), resultSet -> {
+                        ResultSetMetaData metaData = resultSet.getMetaData();
+                        int columnCount = metaData.getColumnCount();
+                        Object[] values = new Object[columnCount];
+                        try {
+                            if (rows[0] == 0) {
+                                String[] columns = new String[columnCount];
+                                for (int i = 0; i < columnCount; i++) {
+                                    columns[i] = metaData.getColumnLabel(i + 1);
+                                }
+                                writer.start(columns);
+                            }
+                            for (int i = 0; i < columnCount; i++) {
+                                values[i] = resultSet.getObject(i + 1);
+                            }
+                            writer.row(values);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        rows[0]++;
+                    });
+                    return null;
+                });
+            } catch (UncheckedIOException e) {
+                logger.warn("Export of {} aborted after {} rows", dataset.getName(), rows[0]);
+                throw e.getCause();
+            }
+            writer.finish();
+            logger.info("Exported {} {} rows as {}", rows[0], dataset.getName(), format.getExtension());
+        };
+    }
+}
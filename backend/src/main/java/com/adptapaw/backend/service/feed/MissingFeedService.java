@@ -0,0 +1,14 @@
+package com.adptapaw.backend.service.feed;
+
+import com.adptapaw.backend.entity.MissingAnimal;
+import com.adptapaw.backend.entity.MissingRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public interface MissingFeedService {
+
+    SseEmitter subscribe(String type, String location, Double latitude, Double longitude, Double radiusKm, String lastEventId);
+
+    void publishMissingAnimal(MissingAnimal missingAnimal);
+
+    void publishSighting(MissingRequest missingRequest);
+}
@@ -0,0 +1,447 @@
+package com.adptapaw.backend.service.feed.implementation;
+
+import com.adptapaw.backend.entity.MissingAnimal;
+import com.adptapaw.backend.entity.MissingRequest;
+import com.adptapaw.backend.exception.BadRequestException;
+import com.adptapaw.backend.payload.missing.MissingCardDTO;
+import com.adptapaw.backend.payload.missing.SightingFeedDTO;
+import com.adptapaw.backend.service.feed.MissingFeedService;
+import com.adptapaw.backend.service.geo.GeoPoint;
+import com.adptapaw.backend.service.search.FacetIndex;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Server-sent events for new missing-animal posts and approved sightings.
+ *
+ * Connections are servlet async requests, so an idle subscriber holds a
+ * socket but no thread. Every state change (publish, subscribe with replay)
+ * runs on one dispatcher thread: events are serialised once and queued to
+ * each matching subscriber in order, and a new subscriber's replay and
+ * registration cannot interleave with a live event, so a resumed client sees
+ * neither gaps nor duplicates while the event is still buffered.
+ *
+ * The dispatcher never writes to a socket. Each subscriber has a bounded
+ * outbox that a small writer pool drains, one subscriber at a time, so a
+ * client that stops reading only holds up its own outbox (and, while its
+ * write is blocked, one writer thread). A subscriber whose outbox overflows,
+ * or whose write has been stuck longer than feed.stall-ms, is disconnected;
+ * its EventSource reconnects with its Last-Event-ID and is caught up from the
+ * replay buffer or told to reset. Heartbeats run on their own thread so a
+ * busy application scheduler cannot starve them.
+ *
+ * Event ids start at the process start time shifted left, so ids keep
+ * increasing across restarts. A Last-Event-ID issued before this process
+ * started, or above any id it has issued (another node, a clock step back),
+ * gets a reset (the client is told to reload), even while the buffer is
+ * still empty.
+ */
+@Service
+public class MissingFeedServiceImplementation implements MissingFeedService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MissingFeedServiceImplementation.class);
+
+    private static final String MISSING_EVENT = "missing";
+    private static final String SIGHTING_EVENT = "sighting";
+    private static final String RESET_EVENT = "reset";
+
+    private static final double MAX_RADIUS_KM = 500;
+
+    private final ObjectMapper objectMapper;
+
+    // events a writer sends before letting other subscribers' outboxes have the thread
+    private static final int WRITE_BATCH = 64;
+
+    private final ThreadPoolExecutor dispatcher;
+
+    private final ExecutorService writers;
+
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "missing-feed-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // ids at or below this were issued by an earlier process
+    private final long firstSequence = System.currentTimeMillis() << 20;
+
+    // only advanced on the dispatcher thread
+    private final AtomicLong sequence = new AtomicLong(firstSequence);
+
+    // touched only on the dispatcher thread
+    private final Deque<FeedEvent> replay = new ArrayDeque<>();
+
+    private final Map<Long, Subscriber> subscribers = new ConcurrentHashMap<>();
+
+    private final AtomicLong subscriberIds = new AtomicLong();
+
+    private final AtomicInteger connections = new AtomicInteger();
+
+    @Value("${feed.replay-size:1000}")
+    private int replaySize;
+
+    @Value("${feed.max-subscribers:10000}")
+    private int maxSubscribers;
+
+    @Value("${feed.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${feed.busy-retry-ms:30000}")
+    private long busyRetryMs;
+
+    @Value("${feed.heartbeat-ms:20000}")
+    private long heartbeatMs;
+
+    @Value("${feed.outbox-size:100}")
+    private int outboxSize;
+
+    @Value("${feed.stall-ms:60000}")
+    private long stallMs;
+
+    public MissingFeedServiceImplementation(ObjectMapper objectMapper,
+                                            @Value("${feed.dispatch-queue-size:10000}") int dispatchQueueSize,
+                                            @Value("${feed.writer-threads:4}") int writerThreads) {
+        this.objectMapper = objectMapper;
+        this.dispatcher = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(dispatchQueueSize), runnable -> {
+            Thread thread = new Thread(runnable, "missing-feed");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+        AtomicInteger writerIds = new AtomicInteger();
+        this.writers = Executors.newFixedThreadPool(writerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "missing-feed-writer-" + writerIds.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void startHeartbeat() {
+        heartbeats.scheduleWithFixedDelay(this::heartbeat, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public SseEmitter subscribe(String type, String location, Double latitude, Double longitude, Double radiusKm, String lastEventId) {
+
+        GeoPoint center = null;
+        if (latitude != null || longitude != null || radiusKm != null) {
+            if (!GeoPoint.isValid(latitude, longitude) || radiusKm == null || radiusKm <= 0 || radiusKm > MAX_RADIUS_KM) {
+                throw new BadRequestException("lat, lon and radiusKm (up to " + (int) MAX_RADIUS_KM + ") must be given together");
+            }
+            center = new GeoPoint(latitude, longitude);
+        }
+        Long resumeFrom = null;
+        if (lastEventId != null && !lastEventId.trim().isEmpty()) {
+            try {
+                resumeFrom = Long.valueOf(lastEventId.trim());
+            } catch (NumberFormatException e) {
+                throw new BadRequestException("Invalid Last-Event-ID: " + lastEventId);
+            }
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        if (connections.incrementAndGet() > maxSubscribers) {
+            connections.decrementAndGet();
+            // EventSource clients honour retry, so a full server turns into a delayed reconnect
+            try {
+                emitter.send(SseEmitter.event().reconnectTime(busyRetryMs).comment("busy"));
+            } catch (IOException ignored) {
+                // the client is gone already
+            }
+            emitter.complete();
+            return emitter;
+        }
+
+        // room for a full replay plus what a healthy client may lag behind by
+        Subscriber subscriber = new Subscriber(subscriberIds.incrementAndGet(), emitter, replaySize + outboxSize,
+                FacetIndex.normalize(type), FacetIndex.normalize(location), center, radiusKm);
+        Runnable unsubscribe = () -> {
+            subscriber.closed = true;
+            subscribers.remove(subscriber.id);
+        };
+        emitter.onCompletion(() -> {
+            unsubscribe.run();
+            connections.decrementAndGet();
+        });
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> unsubscribe.run());
+
+        Long from = resumeFrom;
+        if (!dispatch(() -> register(subscriber, from))) {
+            emitter.complete();
+        }
+        return emitter;
+    }
+
+    @Override
+    public void publishMissingAnimal(MissingAnimal missingAnimal) {
+        MissingCardDTO card = new MissingCardDTO(missingAnimal.getId(), missingAnimal.getName(), missingAnimal.getType(),
+                missingAnimal.getBreed(), missingAnimal.getLocation(), missingAnimal.getImage(), missingAnimal.getStillmissing(),
+                missingAnimal.getDatemissing());
+        publish(MISSING_EVENT, card, missingAnimal.getType(), missingAnimal.getLocation(),
+                missingAnimal.getLatitude(), missingAnimal.getLongitude());
+    }
+
+    @Override
+    public void publishSighting(MissingRequest missingRequest) {
+        MissingAnimal pet = missingRequest.getPet();
+        SightingFeedDTO sightingFeedDTO = new SightingFeedDTO();
+        sightingFeedDTO.setId(missingRequest.getId());
+        sightingFeedDTO.setLocation(missingRequest.getLocation());
+        sightingFeedDTO.setLatitude(missingRequest.getLatitude());
+        sightingFeedDTO.setLongitude(missingRequest.getLongitude());
+        sightingFeedDTO.setApproveddate(missingRequest.getApproveddate());
+        sightingFeedDTO.setImage(missingRequest.getImage() != null ? missingRequest.getImage() : pet == null ? null : pet.getImage());
+        if (pet != null) {
+            sightingFeedDTO.setPetId(pet.getId());
+            sightingFeedDTO.setName(pet.getName());
+            sightingFeedDTO.setType(pet.getType());
+            sightingFeedDTO.setBreed(pet.getBreed());
+            sightingFeedDTO.setStillmissing(pet.getStillmissing());
+        }
+        publish(SIGHTING_EVENT, sightingFeedDTO, sightingFeedDTO.getType(), missingRequest.getLocation(),
+                missingRequest.getLatitude(), missingRequest.getLongitude());
+    }
+
+    private void publish(String name, Object payload, String type, String location, Double latitude, Double longitude) {
+        String data;
+        try {
+            data = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            logger.warn("Could not serialise {} feed event: {}", name, e.getMessage());
+            return;
+        }
+        String eventType = FacetIndex.normalize(type);
+        String eventLocation = FacetIndex.normalize(location);
+        GeoPoint point = GeoPoint.isValid(latitude, longitude) ? new GeoPoint(latitude, longitude) : null;
+        boolean queued = dispatch(() -> {
+            // numbered on the dispatcher so ids follow delivery order even with concurrent publishers
+            FeedEvent event = new FeedEvent(sequence.incrementAndGet(), name, data, eventType, eventLocation, point);
+            replay.addLast(event);
+            while (replay.size() > replaySize) {
+                replay.removeFirst();
+            }
+            for (Subscriber subscriber : subscribers.values()) {
+                if (subscriber.accepts(event)) {
+                    enqueue(subscriber, eventFor(event));
+                }
+            }
+        });
+        if (!queued) {
+            logger.warn("Missing feed dispatcher is backed up, dropped a {} event", name);
+        }
+    }
+
+    private boolean dispatch(Runnable task) {
+        try {
+            dispatcher.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    private void register(Subscriber subscriber, Long resumeFrom) {
+        if (subscriber.closed) {
+            return;
+        }
+        if (resumeFrom != null) {
+            FeedEvent oldest = replay.peekFirst();
+            boolean unknown = resumeFrom < firstSequence || resumeFrom > sequence.get();
+            if (unknown || (oldest != null && resumeFrom < oldest.id - 1)) {
+                // the client missed more than we buffer, or its id is not ours: ask it to reload the list, then replay what we have
+                enqueue(subscriber, SseEmitter.event().name(RESET_EVENT).data("{}"));
+            }
+            long after = unknown ? firstSequence : resumeFrom;
+            for (FeedEvent event : replay) {
+                if (event.id > after && subscriber.accepts(event)) {
+                    enqueue(subscriber, eventFor(event));
+                }
+            }
+        }
+        subscribers.put(subscriber.id, subscriber);
+        if (subscriber.closed) {
+            // completed while the replay was queued
+            subscribers.remove(subscriber.id);
+        }
+    }
+
+    private static SseEmitter.SseEventBuilder eventFor(FeedEvent event) {
+        return SseEmitter.event().id(String.valueOf(event.id)).name(event.name).data(event.data);
+    }
+
+    private void enqueue(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        if (subscriber.closed) {
+            return;
+        }
+        if (!subscriber.outbox.offer(event)) {
+            logger.debug("Missing feed subscriber {} fell {} events behind, disconnecting", subscriber.id, subscriber.outbox.size());
+            disconnect(subscriber);
+            return;
+        }
+        drain(subscriber);
+    }
+
+    // stops delivery; the emitter is completed by a writer, never here, since completing waits for an in-flight send
+    private void disconnect(Subscriber subscriber) {
+        subscriber.closed = true;
+        subscribers.remove(subscriber.id);
+        subscriber.outbox.clear();
+        drain(subscriber);
+    }
+
+    private void drain(Subscriber subscriber) {
+        if (!subscriber.draining.compareAndSet(false, true)) {
+            // a writer already owns this subscriber and rechecks the outbox before letting go
+            return;
+        }
+        try {
+            writers.execute(() -> write(subscriber));
+        } catch (RejectedExecutionException e) {
+            // shutting down
+            subscriber.draining.set(false);
+        }
+    }
+
+    private void write(Subscriber subscriber) {
+        try {
+            SseEmitter.SseEventBuilder event;
+            int written = 0;
+            while (!subscriber.closed && written < WRITE_BATCH && (event = subscriber.outbox.poll()) != null) {
+                subscriber.writingSince = System.nanoTime();
+                try {
+                    subscriber.emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    // client went away; the container fires onError/onCompletion, this just stops further writes
+                    subscriber.closed = true;
+                    subscribers.remove(subscriber.id);
+                    subscriber.outbox.clear();
+                    subscriber.completed = true;
+                    subscriber.emitter.completeWithError(e);
+                    return;
+                } finally {
+                    subscriber.writingSince = 0;
+                }
+                written++;
+            }
+            if (subscriber.closed && !subscriber.completed) {
+                subscriber.outbox.clear();
+                subscriber.completed = true;
+                subscriber.emitter.complete();
+            }
+        } finally {
+            subscriber.draining.set(false);
+        }
+        if (subscriber.closed ? !subscriber.completed : !subscriber.outbox.isEmpty()) {
+            drain(subscriber);
+        }
+    }
+
+    /**
+     * A comment line every interval keeps proxies from closing idle streams
+     * and surfaces dead sockets, which are otherwise only noticed on write.
+     * Subscribers with events still queued need no ping; one whose write has
+     * been blocked for longer than feed.stall-ms is disconnected.
+     */
+    private void heartbeat() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers.values()) {
+            long writingSince = subscriber.writingSince;
+            if (writingSince != 0 && now - writingSince > TimeUnit.MILLISECONDS.toNanos(stallMs)) {
+                logger.debug("Missing feed subscriber {} stalled, disconnecting", subscriber.id);
+                disconnect(subscriber);
+            } else if (subscriber.outbox.isEmpty()) {
+                enqueue(subscriber, SseEmitter.event().comment("ping"));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeats.shutdownNow();
+        dispatcher.shutdownNow();
+        writers.shutdownNow();
+        for (Subscriber subscriber : subscribers.values()) {
+            subscriber.emitter.complete();
+        }
+        subscribers.clear();
+    }
+
+    private static final class FeedEvent {
+        private final long id;
+        private final String name;
+        private final String data;
+        private final String type;
+        private final String location;
+        private final GeoPoint point;
+
+        private FeedEvent(long id, String name, String data, String type, String location, GeoPoint point) {
+            this.id = id;
+            this.name = name;
+            this.data = data;
+            this.type = type;
+            this.location = location;
+            this.point = point;
+        }
+    }
+
+    private static final class Subscriber {
+        private final long id;
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> outbox;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final String type;
+        private final String location;
+        private final GeoPoint center;
+        private final Double radiusKm;
+        private volatile boolean closed;
+        // only set by the writer that owns the subscriber
+        private volatile boolean completed;
+        // System.nanoTime() when the current send started, 0 when none is in flight
+        private volatile long writingSince;
+
+        private Subscriber(long id, SseEmitter emitter, int outboxSize, String type, String location, GeoPoint center, Double radiusKm) {
+            this.id = id;
+            this.emitter = emitter;
+            this.outbox = new ArrayBlockingQueue<>(outboxSize);
+            this.type = type;
+            this.location = location;
+            this.center = center;
+            this.radiusKm = radiusKm;
+        }
+
+        private boolean accepts(FeedEvent event) {
+            if (type != null && !type.equals(event.type)) {
+                return false;
+            }
+            if (location != null && (event.location == null || !event.location.contains(location))) {
+                return false;
+            }
+            return center == null || (event.point != null && center.distanceKm(event.point) <= radiusKm);
+        }
+    }
+}
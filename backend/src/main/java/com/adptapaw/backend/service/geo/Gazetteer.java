@@ -0,0 +1,92 @@
+package com.adptapaw.backend.service.geo;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Offline geocoder backed by geo/gazetteer.csv. Free-text locations such as
+ * "Warsaw, Poland - City Center" resolve to the first known place name in
+ * the text; "lat,lon" pairs are taken as-is.
+ */
+@Component
+public class Gazetteer {
+
+    private static final Logger logger = LoggerFactory.getLogger(Gazetteer.class);
+
+    private static final String GAZETTEER_LOCATION = "geo/gazetteer.csv";
+
+    private static final int MAX_NAME_WORDS = 3;
+
+    private static final Pattern COORDINATES = Pattern.compile("^\\s*(-?\\d{1,2}(?:\\.\\d+)?)\\s*[,;]\\s*(-?\\d{1,3}(?:\\.\\d+)?)\\s*$");
+
+    private final Map<String, GeoPoint> places = new HashMap<>();
+
+    public Gazetteer() throws IOException {
+        ClassPathResource resource = new ClassPathResource(GAZETTEER_LOCATION);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] columns = line.split(",");
+                places.put(normalize(columns[0]), new GeoPoint(Double.parseDouble(columns[1]), Double.parseDouble(columns[2])));
+            }
+        }
+        logger.info("Gazetteer loaded with {} place names", places.size());
+    }
+
+    public static String normalize(String text) {
+        String stripped = Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .replace('\u0142', 'l')
+                .replace('\u0141', 'L')
+                .toLowerCase(Locale.ROOT);
+        return stripped.replaceAll("[^a-z0-9]+", " ").trim();
+    }
+
+    /**
+     * @return the coordinates of the location, or null when nothing in the
+     * text is a known place
+     */
+    public GeoPoint locate(String location) {
+        if (location == null || location.trim().isEmpty()) {
+            return null;
+        }
+
+        Matcher coordinates = COORDINATES.matcher(location);
+        if (coordinates.matches()) {
+            Double latitude = Double.valueOf(coordinates.group(1));
+            Double longitude = Double.valueOf(coordinates.group(2));
+            return GeoPoint.isValid(latitude, longitude) ? new GeoPoint(latitude, longitude) : null;
+        }
+
+        String[] words = normalize(location).split(" ");
+        for (int start = 0; start < words.length; start++) {
+            for (int length = Math.min(MAX_NAME_WORDS, words.length - start); length > 0; length--) {
+                StringBuilder name = new StringBuilder(words[start]);
+                for (int i = start + 1; i < start + length; i++) {
+                    name.append(' ').append(words[i]);
+                }
+                GeoPoint point = places.get(name.toString());
+                if (point != null) {
+                    return point;
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,167 @@
+package com.adptapaw.backend.service.geo;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory spatial index bucketing points into fixed-size lat/lon cells.
+ * A radius query only visits the cells overlapping the search circle's
+ * bounding box, then filters and sorts the candidates by exact distance.
+ *
+ * @param <T> the document type stored with each point
+ */
+public class GeoGridIndex<T> {
+
+    private static final double CELL_DEGREES = 0.1;
+
+    private static final double KM_PER_DEGREE = 111.32;
+
+    private static final long LON_CELLS = (long) Math.ceil(360 / CELL_DEGREES) + 1;
+
+    private final Map<Long, Set<Long>> cells = new HashMap<>();
+
+    private final Map<Long, Entry<T>> entries = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void put(Long id, GeoPoint point, T document) {
+        lock.writeLock().lock();
+        try {
+            unlink(id);
+            long cell = cellOf(point.getLatitude(), point.getLongitude());
+            entries.put(id, new Entry<>(point, cell, document));
+            cells.computeIfAbsent(cell, key -> new HashSet<>()).add(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            unlink(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Hit<T>> near(GeoPoint center, double radiusKm, int limit) {
+        lock.readLock().lock();
+        try {
+            double latSpan = radiusKm / KM_PER_DEGREE;
+            double cosLat = Math.cos(Math.toRadians(center.getLatitude()));
+            double lonSpan = cosLat < 1e-6 ? 360 : Math.min(360, radiusKm / (KM_PER_DEGREE * cosLat));
+
+            long minLat = latIndex(Math.max(-90, center.getLatitude() - latSpan));
+            long maxLat = latIndex(Math.min(90, center.getLatitude() + latSpan));
+            long minLon = lonIndex(Math.max(-180, center.getLongitude() - lonSpan));
+            long maxLon = lonIndex(Math.min(180, center.getLongitude() + lonSpan));
+
+            List<Hit<T>> hits = new ArrayList<>();
+            if ((maxLat - minLat + 1) * (maxLon - minLon + 1) > cells.size()) {
+                for (Entry<T> entry : entries.values()) {
+                    collect(entry, center, radiusKm, hits);
+                }
+            } else {
+                for (long lat = minLat; lat <= maxLat; lat++) {
+                    for (long lon = minLon; lon <= maxLon; lon++) {
+                        Set<Long> ids = cells.get(lat * LON_CELLS + lon);
+                        if (ids == null) {
+                            continue;
+                        }
+                        for (Long id : ids) {
+                            collect(entries.get(id), center, radiusKm, hits);
+                        }
+                    }
+                }
+            }
+
+            hits.sort((a, b) -> Double.compare(a.getDistanceKm(), b.getDistanceKm()));
+            return hits.size() > limit ? new ArrayList<>(hits.subList(0, limit)) : hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void collect(Entry<T> entry, GeoPoint center, double radiusKm, List<Hit<T>> hits) {
+        double distance = center.distanceKm(entry.point);
+        if (distance <= radiusKm) {
+            hits.add(new Hit<>(entry.document, entry.point, distance));
+        }
+    }
+
+    private void unlink(Long id) {
+        Entry<T> previous = entries.remove(id);
+        if (previous == null) {
+            return;
+        }
+        Set<Long> ids = cells.get(previous.cell);
+        ids.remove(id);
+        if (ids.isEmpty()) {
+            cells.remove(previous.cell);
+        }
+    }
+
+    private static long cellOf(double latitude, double longitude) {
+        return latIndex(latitude) * LON_CELLS + lonIndex(longitude);
+    }
+
+    private static long latIndex(double latitude) {
+        return (long) Math.floor((latitude + 90) / CELL_DEGREES);
+    }
+
+    private static long lonIndex(double longitude) {
+        return (long) Math.floor((longitude + 180) / CELL_DEGREES);
+    }
+
+    private static class Entry<T> {
+        private final GeoPoint point;
+        private final long cell;
+        private final T document;
+
+        private Entry(GeoPoint point, long cell, T document) {
+            this.point = point;
+            this.cell = cell;
+            this.document = document;
+        }
+    }
+
+    public static class Hit<T> {
+        private final T document;
+        private final GeoPoint point;
+        private final double distanceKm;
+
+        public Hit(T document, GeoPoint point, double distanceKm) {
+            this.document = document;
+            this.point = point;
+            this.distanceKm = distanceKm;
+        }
+
+        public T getDocument() {
+            return document;
+        }
+
+        public GeoPoint getPoint() {
+            return point;
+        }
+
+        public double getDistanceKm() {
+            return distanceKm;
+        }
+    }
+}
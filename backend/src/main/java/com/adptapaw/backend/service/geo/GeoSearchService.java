@@ -0,0 +1,36 @@
+package com.adptapaw.backend.service.geo;
+
+import com.adptapaw.backend.entity.AdoptionAnimal;
+import com.adptapaw.backend.entity.MissingAnimal;
+import com.adptapaw.backend.entity.MissingRequest;
+import com.adptapaw.backend.payload.NearbyAnimalDTO;
+import com.adptapaw.backend.payload.SightingHeatmapDTO;
+
+import java.util.List;
+
+public interface GeoSearchService {
+
+    GeoPoint resolve(Double latitude, Double longitude, String location);
+
+    void indexAdoptionAnimal(AdoptionAnimal adoptionAnimal);
+
+    void removeAdoptionAnimal(Long id);
+
+    void indexMissingAnimal(MissingAnimal missingAnimal);
+
+    void removeMissingAnimal(Long id);
+
+    void indexSighting(MissingRequest missingRequest);
+
+    void removeSighting(Long id);
+
+    List<NearbyAnimalDTO> nearAdoptionAnimals(Double latitude, Double longitude, String location, double radiusKm, int limit);
+
+    List<NearbyAnimalDTO> nearMissingAnimals(Double latitude, Double longitude, String location, double radiusKm, int limit);
+
+    List<NearbyAnimalDTO> nearSightings(Double latitude, Double longitude, String location, double radiusKm, int limit);
+
+    SightingHeatmapDTO sightingHeatmap(Long petId, int zoom, Double south, Double west, Double north, Double east);
+
+    void rebuild();
+}
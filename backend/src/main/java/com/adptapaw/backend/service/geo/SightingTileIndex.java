@@ -0,0 +1,258 @@
+package com.adptapaw.backend.service.geo;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Pre-aggregated sighting counts on web-mercator (slippy map) tiles at a
+ * fixed set of zoom levels, both for all sightings and per missing animal.
+ * Adding or removing a sighting touches one tile per level, so a heatmap
+ * query is a read of the already-summed tiles instead of a scan of points.
+ * Each tile also keeps the sum of its coordinates so clients can place a
+ * cluster marker at the centroid rather than the tile corner.
+ */
+public class SightingTileIndex {
+
+    public static final int[] ZOOM_LEVELS = {3, 6, 9, 12, 15};
+
+    private static final double MAX_MERCATOR_LATITUDE = 85.05112878;
+
+    // one map per zoom level, keyed by packed tile x/y
+    private final List<Map<Long, Tile>> global = new ArrayList<>();
+
+    private final Map<Long, List<Map<Long, Tile>>> byPet = new HashMap<>();
+
+    private final Map<Long, Placed> sightings = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public SightingTileIndex() {
+        for (int level = 0; level < ZOOM_LEVELS.length; level++) {
+            global.add(new HashMap<>());
+        }
+    }
+
+    public void put(Long id, Long petId, GeoPoint point) {
+        lock.writeLock().lock();
+        try {
+            unlink(id);
+            long[] keys = new long[ZOOM_LEVELS.length];
+            List<Map<Long, Tile>> petTiles = byPet.computeIfAbsent(petId, key -> {
+                List<Map<Long, Tile>> levels = new ArrayList<>(ZOOM_LEVELS.length);
+                for (int level = 0; level < ZOOM_LEVELS.length; level++) {
+                    levels.add(new HashMap<>());
+                }
+                return levels;
+            });
+            for (int level = 0; level < ZOOM_LEVELS.length; level++) {
+                int zoom = ZOOM_LEVELS[level];
+                keys[level] = pack(tileX(point.getLongitude(), zoom), tileY(point.getLatitude(), zoom));
+                add(global.get(level), keys[level], point, 1);
+                add(petTiles.get(level), keys[level], point, 1);
+            }
+            sightings.put(id, new Placed(petId, point, keys));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            unlink(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return sightings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Snaps a requested map zoom to the finest precomputed level not deeper
+     * than it, so a client never receives more tiles than it can draw. Zooms
+     * coarser than the first level (a world view) get the first level, which
+     * is at most 2^3 x 2^3 = 64 tiles; callers report the level's zoom back.
+     */
+    public static int levelFor(int zoom) {
+        if (zoom < 0) {
+            throw new IllegalArgumentException("zoom " + zoom + " is negative");
+        }
+        int level = 0;
+        for (int i = 0; i < ZOOM_LEVELS.length; i++) {
+            if (ZOOM_LEVELS[i] <= zoom) {
+                level = i;
+            }
+        }
+        return level;
+    }
+
+    /**
+     * Tiles at the given level, optionally limited to one animal and to a
+     * bounding box. A box whose west edge is east of its east edge is read
+     * as crossing the antimeridian.
+     */
+    public List<TileCount> tiles(Long petId, int level, GeoPoint southWest, GeoPoint northEast) {
+        lock.readLock().lock();
+        try {
+            Map<Long, Tile> tiles;
+            if (petId == null) {
+                tiles = global.get(level);
+            } else {
+                List<Map<Long, Tile>> petTiles = byPet.get(petId);
+                tiles = petTiles == null ? null : petTiles.get(level);
+            }
+            List<TileCount> result = new ArrayList<>();
+            if (tiles == null || tiles.isEmpty()) {
+                return result;
+            }
+
+            int zoom = ZOOM_LEVELS[level];
+            int max = (1 << zoom) - 1;
+            int minX = 0, maxX = max, minY = 0, maxY = max;
+            if (southWest != null && northEast != null) {
+                minX = tileX(southWest.getLongitude(), zoom);
+                maxX = tileX(northEast.getLongitude(), zoom);
+                minY = tileY(northEast.getLatitude(), zoom);
+                maxY = tileY(southWest.getLatitude(), zoom);
+            }
+
+            long xSpan = minX <= maxX ? maxX - minX + 1 : (max - minX + 1) + (maxX + 1);
+            if (xSpan * (maxY - minY + 1) <= tiles.size()) {
+                // small box: probe the tiles it covers
+                for (long i = 0; i < xSpan; i++) {
+                    int x = (int) ((minX + i) % (max + 1));
+                    for (int y = minY; y <= maxY; y++) {
+                        Tile tile = tiles.get(pack(x, y));
+                        if (tile != null) {
+                            result.add(tile.toCount(x, y));
+                        }
+                    }
+                }
+            } else {
+                for (Map.Entry<Long, Tile> entry : tiles.entrySet()) {
+                    int x = (int) (entry.getKey() >>> 32);
+                    int y = (int) (long) entry.getKey();
+                    boolean inX = minX <= maxX ? x >= minX && x <= maxX : x >= minX || x <= maxX;
+                    if (inX && y >= minY && y <= maxY) {
+                        result.add(entry.getValue().toCount(x, y));
+                    }
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void unlink(Long id) {
+        Placed previous = sightings.remove(id);
+        if (previous == null) {
+            return;
+        }
+        List<Map<Long, Tile>> petTiles = byPet.get(previous.petId);
+        for (int level = 0; level < ZOOM_LEVELS.length; level++) {
+            add(global.get(level), previous.keys[level], previous.point, -1);
+            add(petTiles.get(level), previous.keys[level], previous.point, -1);
+        }
+        if (petTiles.get(0).isEmpty()) {
+            byPet.remove(previous.petId);
+        }
+    }
+
+    private static void add(Map<Long, Tile> tiles, long key, GeoPoint point, int delta) {
+        Tile tile = tiles.computeIfAbsent(key, k -> new Tile());
+        tile.count += delta;
+        tile.latitudeSum += delta * point.getLatitude();
+        tile.longitudeSum += delta * point.getLongitude();
+        if (tile.count <= 0) {
+            tiles.remove(key);
+        }
+    }
+
+    private static long pack(int x, int y) {
+        return ((long) x << 32) | (y & 0xffffffffL);
+    }
+
+    private static int tileX(double longitude, int zoom) {
+        int n = 1 << zoom;
+        int x = (int) Math.floor((longitude + 180) / 360 * n);
+        return Math.max(0, Math.min(n - 1, x));
+    }
+
+    private static int tileY(double latitude, int zoom) {
+        int n = 1 << zoom;
+        double clamped = Math.max(-MAX_MERCATOR_LATITUDE, Math.min(MAX_MERCATOR_LATITUDE, latitude));
+        double radians = Math.toRadians(clamped);
+        int y = (int) Math.floor((1 - Math.log(Math.tan(radians) + 1 / Math.cos(radians)) / Math.PI) / 2 * n);
+        return Math.max(0, Math.min(n - 1, y));
+    }
+
+    private static class Tile {
+        private int count;
+        private double latitudeSum;
+        private double longitudeSum;
+
+        private TileCount toCount(int x, int y) {
+            return new TileCount(x, y, count, latitudeSum / count, longitudeSum / count);
+        }
+    }
+
+    private static class Placed {
+        private final Long petId;
+        private final GeoPoint point;
+        private final long[] keys;
+
+        private Placed(Long petId, GeoPoint point, long[] keys) {
+            this.petId = petId;
+            this.point = point;
+            this.keys = keys;
+        }
+    }
+
+    public static class TileCount {
+        private final int x;
+        private final int y;
+        private final int count;
+        private final double latitude;
+        private final double longitude;
+
+        public TileCount(int x, int y, int count, double latitude, double longitude) {
+            this.x = x;
+            this.y = y;
+            this.count = count;
+            this.latitude = latitude;
+            this.longitude = longitude;
+        }
+
+        public int getX() {
+            return x;
+        }
+
+        public int getY() {
+            return y;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public double getLatitude() {
+            return latitude;
+        }
+
+        public double getLongitude() {
+            return longitude;
+        }
+    }
+}
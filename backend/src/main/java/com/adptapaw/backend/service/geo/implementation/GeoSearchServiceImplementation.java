@@ -0,0 +1,319 @@
+package com.adptapaw.backend.service.geo.implementation;
+
+import com.adptapaw.backend.entity.AdoptionAnimal;
+import com.adptapaw.backend.entity.MissingAnimal;
+import com.adptapaw.backend.entity.MissingRequest;
+import com.adptapaw.backend.entity.User;
+import com.adptapaw.backend.exception.BadRequestException;
+import com.adptapaw.backend.payload.HeatmapTileDTO;
+import com.adptapaw.backend.payload.NearbyAnimalDTO;
+import com.adptapaw.backend.payload.SightingHeatmapDTO;
+import com.adptapaw.backend.repository.AdoptionAnimalRepository;
+import com.adptapaw.backend.repository.MissingAnimalRepository;
+import com.adptapaw.backend.repository.MissingRequestRepository;
+import com.adptapaw.backend.repository.UserRepository;
+import com.adptapaw.backend.service.geo.Gazetteer;
+import com.adptapaw.backend.service.geo.GeoGridIndex;
+import com.adptapaw.backend.service.geo.GeoPoint;
+import com.adptapaw.backend.service.geo.GeoSearchService;
+import com.adptapaw.backend.service.geo.SightingTileIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+public class GeoSearchServiceImplementation implements GeoSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GeoSearchServiceImplementation.class);
+
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    private static final double MAX_RADIUS_KM = 500;
+
+    private static final int MAX_LIMIT = 200;
+
+    private static final int MAX_ZOOM = 22;
+
+    private final Gazetteer gazetteer;
+
+    private final AdoptionAnimalRepository adoptionAnimalRepository;
+
+    private final MissingAnimalRepository missingAnimalRepository;
+
+    private final MissingRequestRepository missingRequestRepository;
+
+    private final UserRepository userRepository;
+
+    private final GeoGridIndex<NearbyAnimalDTO> adoptionIndex = new GeoGridIndex<>();
+
+    private final GeoGridIndex<NearbyAnimalDTO> missingIndex = new GeoGridIndex<>();
+
+    private final GeoGridIndex<NearbyAnimalDTO> sightingIndex = new GeoGridIndex<>();
+
+    private final SightingTileIndex sightingTiles = new SightingTileIndex();
+
+    public GeoSearchServiceImplementation(Gazetteer gazetteer, AdoptionAnimalRepository adoptionAnimalRepository,
+                                          MissingAnimalRepository missingAnimalRepository, MissingRequestRepository missingRequestRepository,
+                                          UserRepository userRepository) {
+        this.gazetteer = gazetteer;
+        this.adoptionAnimalRepository = adoptionAnimalRepository;
+        this.missingAnimalRepository = missingAnimalRepository;
+        this.missingRequestRepository = missingRequestRepository;
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public GeoPoint resolve(Double latitude, Double longitude, String location) {
+        if (GeoPoint.isValid(latitude, longitude)) {
+            return new GeoPoint(latitude, longitude);
+        }
+        return gazetteer.locate(location);
+    }
+
+    @Override
+    public void indexAdoptionAnimal(AdoptionAnimal adoptionAnimal) {
+        if (!Boolean.TRUE.equals(adoptionAnimal.getAvailability()) || !GeoPoint.isValid(adoptionAnimal.getLatitude(), adoptionAnimal.getLongitude())) {
+            adoptionIndex.remove(adoptionAnimal.getId());
+            return;
+        }
+        NearbyAnimalDTO nearbyAnimalDTO = new NearbyAnimalDTO();
+        nearbyAnimalDTO.setId(adoptionAnimal.getId());
+        nearbyAnimalDTO.setName(adoptionAnimal.getName());
+        nearbyAnimalDTO.setType(adoptionAnimal.getType());
+        nearbyAnimalDTO.setBreed(adoptionAnimal.getBreed());
+        nearbyAnimalDTO.setLocation(adoptionAnimal.getLocation());
+        nearbyAnimalDTO.setImage(adoptionAnimal.getImageone());
+        adoptionIndex.put(adoptionAnimal.getId(), new GeoPoint(adoptionAnimal.getLatitude(), adoptionAnimal.getLongitude()), nearbyAnimalDTO);
+    }
+
+    @Override
+    public void removeAdoptionAnimal(Long id) {
+        adoptionIndex.remove(id);
+    }
+
+    @Override
+    public void indexMissingAnimal(MissingAnimal missingAnimal) {
+        if (!Boolean.TRUE.equals(missingAnimal.getStillmissing()) || !GeoPoint.isValid(missingAnimal.getLatitude(), missingAnimal.getLongitude())) {
+            missingIndex.remove(missingAnimal.getId());
+            return;
+        }
+        NearbyAnimalDTO nearbyAnimalDTO = new NearbyAnimalDTO();
+        nearbyAnimalDTO.setId(missingAnimal.getId());
+        nearbyAnimalDTO.setName(missingAnimal.getName());
+        nearbyAnimalDTO.setType(missingAnimal.getType());
+        nearbyAnimalDTO.setBreed(missingAnimal.getBreed());
+        nearbyAnimalDTO.setLocation(missingAnimal.getLocation());
+        nearbyAnimalDTO.setImage(missingAnimal.getImage());
+        missingIndex.put(missingAnimal.getId(), new GeoPoint(missingAnimal.getLatitude(), missingAnimal.getLongitude()), nearbyAnimalDTO);
+    }
+
+    @Override
+    public void removeMissingAnimal(Long id) {
+        missingIndex.remove(id);
+    }
+
+    @Override
+    public void indexSighting(MissingRequest missingRequest) {
+        MissingAnimal pet = missingRequest.getPet();
+        if (pet == null || !Boolean.TRUE.equals(pet.getStillmissing()) || !GeoPoint.isValid(missingRequest.getLatitude(), missingRequest.getLongitude())) {
+            sightingIndex.remove(missingRequest.getId());
+            sightingTiles.remove(missingRequest.getId());
+            return;
+        }
+        NearbyAnimalDTO nearbyAnimalDTO = new NearbyAnimalDTO();
+        nearbyAnimalDTO.setId(missingRequest.getId());
+        nearbyAnimalDTO.setPetId(pet.getId());
+        nearbyAnimalDTO.setName(pet.getName());
+        nearbyAnimalDTO.setType(pet.getType());
+        nearbyAnimalDTO.setBreed(pet.getBreed());
+        nearbyAnimalDTO.setLocation(missingRequest.getLocation());
+        nearbyAnimalDTO.setImage(missingRequest.getImage() != null ? missingRequest.getImage() : pet.getImage());
+        GeoPoint point = new GeoPoint(missingRequest.getLatitude(), missingRequest.getLongitude());
+        sightingIndex.put(missingRequest.getId(), point, nearbyAnimalDTO);
+        sightingTiles.put(missingRequest.getId(), pet.getId(), point);
+    }
+
+    @Override
+    public void removeSighting(Long id) {
+        sightingIndex.remove(id);
+        sightingTiles.remove(id);
+    }
+
+    @Override
+    public List<NearbyAnimalDTO> nearAdoptionAnimals(Double latitude, Double longitude, String location, double radiusKm, int limit) {
+        return near(adoptionIndex, latitude, longitude, location, radiusKm, limit);
+    }
+
+    @Override
+    public List<NearbyAnimalDTO> nearMissingAnimals(Double latitude, Double longitude, String location, double radiusKm, int limit) {
+        return near(missingIndex, latitude, longitude, location, radiusKm, limit);
+    }
+
+    @Override
+    public List<NearbyAnimalDTO> nearSightings(Double latitude, Double longitude, String location, double radiusKm, int limit) {
+        return near(sightingIndex, latitude, longitude, location, radiusKm, limit);
+    }
+
+    @Override
+    public SightingHeatmapDTO sightingHeatmap(Long petId, int zoom, Double south, Double west, Double north, Double east) {
+        if (zoom < 0 || zoom > MAX_ZOOM) {
+            throw new BadRequestException("zoom must be between 0 and " + MAX_ZOOM);
+        }
+        GeoPoint southWest = null;
+        GeoPoint northEast = null;
+        if (south != null || west != null || north != null || east != null) {
+            if (!GeoPoint.isValid(south, west) || !GeoPoint.isValid(north, east) || south > north) {
+                throw new BadRequestException("south, west, north and east must all be valid coordinates with south <= north");
+            }
+            southWest = new GeoPoint(south, west);
+            northEast = new GeoPoint(north, east);
+        }
+
+        int level = SightingTileIndex.levelFor(zoom);
+        long total = 0;
+        List<HeatmapTileDTO> tiles = new ArrayList<>();
+        for (SightingTileIndex.TileCount tile : sightingTiles.tiles(petId, level, southWest, northEast)) {
+            HeatmapTileDTO heatmapTileDTO = new HeatmapTileDTO();
+            heatmapTileDTO.setX(tile.getX());
+            heatmapTileDTO.setY(tile.getY());
+            heatmapTileDTO.setCount(tile.getCount());
+            heatmapTileDTO.setLatitude(tile.getLatitude());
+            heatmapTileDTO.setLongitude(tile.getLongitude());
+            tiles.add(heatmapTileDTO);
+            total += tile.getCount();
+        }
+
+        SightingHeatmapDTO sightingHeatmapDTO = new SightingHeatmapDTO();
+        sightingHeatmapDTO.setPetId(petId);
+        sightingHeatmapDTO.setZoom(SightingTileIndex.ZOOM_LEVELS[level]);
+        sightingHeatmapDTO.setTotal(total);
+        sightingHeatmapDTO.setTiles(tiles);
+        return sightingHeatmapDTO;
+    }
+
+    private List<NearbyAnimalDTO> near(GeoGridIndex<NearbyAnimalDTO> index, Double latitude, Double longitude, String location,
+                                       double radiusKm, int limit) {
+
+        if (radiusKm <= 0 || radiusKm > MAX_RADIUS_KM) {
+            throw new BadRequestException("radiusKm must be between 0 and " + (int) MAX_RADIUS_KM);
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new BadRequestException("limit must be between 1 and " + MAX_LIMIT);
+        }
+
+        GeoPoint center;
+        if (latitude != null || longitude != null) {
+            if (!GeoPoint.isValid(latitude, longitude)) {
+                throw new BadRequestException("Both lat and lon are required and must be valid coordinates");
+            }
+            center = new GeoPoint(latitude, longitude);
+        } else {
+            if (location == null || location.trim().isEmpty()) {
+                throw new BadRequestException("Either lat and lon or location is required");
+            }
+            center = gazetteer.locate(location);
+            if (center == null) {
+                throw new BadRequestException("Unknown location: " + location);
+            }
+        }
+
+        return index.near(center, radiusKm, limit).stream().map(hit -> {
+            NearbyAnimalDTO indexed = hit.getDocument();
+            NearbyAnimalDTO nearbyAnimalDTO = new NearbyAnimalDTO();
+            nearbyAnimalDTO.setId(indexed.getId());
+            nearbyAnimalDTO.setPetId(indexed.getPetId());
+            nearbyAnimalDTO.setName(indexed.getName());
+            nearbyAnimalDTO.setType(indexed.getType());
+            nearbyAnimalDTO.setBreed(indexed.getBreed());
+            nearbyAnimalDTO.setLocation(indexed.getLocation());
+            nearbyAnimalDTO.setImage(indexed.getImage());
+            nearbyAnimalDTO.setLatitude(hit.getPoint().getLatitude());
+            nearbyAnimalDTO.setLongitude(hit.getPoint().getLongitude());
+            nearbyAnimalDTO.setDistanceKm(Math.round(hit.getDistanceKm() * 100) / 100.0);
+            return nearbyAnimalDTO;
+        }).collect(Collectors.toList());
+    }
+
+    /**
+     * Geocodes rows saved before coordinates existed (or with a location the
+     * gazetteer did not know at the time) and loads the spatial indexes.
+     */
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        int geocoded = 0;
+
+        Page<AdoptionAnimal> adoptionAnimals;
+        int pageNo = 0;
+        do {
+            adoptionAnimals = adoptionAnimalRepository.findAll(PageRequest.of(pageNo++, REBUILD_BATCH_SIZE, Sort.by("id")));
+            for (AdoptionAnimal adoptionAnimal : adoptionAnimals.getContent()) {
+                GeoPoint point = adoptionAnimal.getLatitude() == null ? gazetteer.locate(adoptionAnimal.getLocation()) : null;
+                if (point != null) {
+                    adoptionAnimalRepository.updateCoordinates(adoptionAnimal.getId(), point.getLatitude(), point.getLongitude());
+                    adoptionAnimal.setLatitude(point.getLatitude());
+                    adoptionAnimal.setLongitude(point.getLongitude());
+                    geocoded++;
+                }
+                indexAdoptionAnimal(adoptionAnimal);
+            }
+        } while (adoptionAnimals.hasNext());
+
+        Page<MissingAnimal> missingAnimals;
+        pageNo = 0;
+        do {
+            missingAnimals = missingAnimalRepository.findAll(PageRequest.of(pageNo++, REBUILD_BATCH_SIZE, Sort.by("id")));
+            for (MissingAnimal missingAnimal : missingAnimals.getContent()) {
+                GeoPoint point = missingAnimal.getLatitude() == null ? gazetteer.locate(missingAnimal.getLocation()) : null;
+                if (point != null) {
+                    missingAnimalRepository.updateCoordinates(missingAnimal.getId(), point.getLatitude(), point.getLongitude());
+                    missingAnimal.setLatitude(point.getLatitude());
+                    missingAnimal.setLongitude(point.getLongitude());
+                    geocoded++;
+                }
+                indexMissingAnimal(missingAnimal);
+            }
+        } while (missingAnimals.hasNext());
+
+        Page<MissingRequest> sightings;
+        pageNo = 0;
+        do {
+            sightings = missingRequestRepository.findAll(PageRequest.of(pageNo++, REBUILD_BATCH_SIZE, Sort.by("id")));
+            for (MissingRequest sighting : sightings.getContent()) {
+                GeoPoint point = sighting.getLatitude() == null ? gazetteer.locate(sighting.getLocation()) : null;
+                if (point != null) {
+                    missingRequestRepository.updateCoordinates(sighting.getId(), point.getLatitude(), point.getLongitude());
+                    sighting.setLatitude(point.getLatitude());
+                    sighting.setLongitude(point.getLongitude());
+                    geocoded++;
+                }
+                indexSighting(sighting);
+            }
+        } while (sightings.hasNext());
+
+        Page<User> users;
+        pageNo = 0;
+        do {
+            users = userRepository.findAll(PageRequest.of(pageNo++, REBUILD_BATCH_SIZE, Sort.by("id")));
+            for (User user : users.getContent()) {
+                GeoPoint point = user.getLatitude() == null ? gazetteer.locate(user.getLocation()) : null;
+                if (point != null) {
+                    userRepository.updateCoordinates(user.getId(), point.getLatitude(), point.getLongitude());
+                    geocoded++;
+                }
+            }
+        } while (users.hasNext());
+
+        logger.info("Geo indexes built with {} adoption, {} missing and {} sighting points ({} rows geocoded)",
+                adoptionIndex.size(), missingIndex.size(), sightingIndex.size(), geocoded);
+    }
+}
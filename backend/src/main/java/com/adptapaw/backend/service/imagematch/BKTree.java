@@ -0,0 +1,186 @@
+package com.adptapaw.backend.service.imagematch;
+
+import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Burkhard-Keller tree over 64-bit perceptual hashes. Each child edge is
+ * labelled with its Hamming distance to the parent, so a radius query can
+ * skip every subtree whose edge lies outside [d - radius, d + radius] by the
+ * triangle inequality and typically visits a small fraction of the nodes.
+ *
+ * Ids sharing a hash share a node. Removing an id only unlinks it from its
+ * node; emptied nodes stay as routing points until the next rebuild.
+ *
+ * @param <T> the document type stored with each id
+ */
+public class BKTree<T> {
+
+    private Node root;
+
+    private final Map<Long, Entry<T>> entries = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void put(Long id, long hash, T document) {
+        lock.writeLock().lock();
+        try {
+            unlink(id);
+            entries.put(id, new Entry<>(hash, document));
+            if (root == null) {
+                root = new Node(hash);
+                root.ids.add(id);
+                return;
+            }
+            Node node = root;
+            while (true) {
+                int distance = PerceptualHash.distance(hash, node.hash);
+                if (distance == 0) {
+                    node.ids.add(id);
+                    return;
+                }
+                Node child = node.children[distance];
+                if (child == null) {
+                    child = new Node(hash);
+                    child.ids.add(id);
+                    node.children[distance] = child;
+                    return;
+                }
+                node = child;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            unlink(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean contains(Long id) {
+        lock.readLock().lock();
+        try {
+            return entries.containsKey(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Documents within radius of the hash, closest first, at most limit.
+     */
+    public List<Hit<T>> search(long hash, int radius, int limit) {
+        lock.readLock().lock();
+        try {
+            List<Hit<T>> hits = new ArrayList<>();
+            if (root == null) {
+                return hits;
+            }
+            Deque<Node> pending = new ArrayDeque<>();
+            pending.push(root);
+            while (!pending.isEmpty()) {
+                Node node = pending.pop();
+                int distance = PerceptualHash.distance(hash, node.hash);
+                if (distance <= radius) {
+                    for (Long id : node.ids) {
+                        hits.add(new Hit<>(id, entries.get(id).document, distance));
+                    }
+                }
+                // triangle inequality: only edges within radius of this distance can hold matches
+                int to = Math.min(PerceptualHash.BITS, distance + radius);
+                for (int edge = Math.max(1, distance - radius); edge <= to; edge++) {
+                    if (node.children[edge] != null) {
+                        pending.push(node.children[edge]);
+                    }
+                }
+            }
+            hits.sort((a, b) -> a.distance != b.distance ? Integer.compare(a.distance, b.distance) : Long.compare(a.id, b.id));
+            return hits.size() > limit ? new ArrayList<>(hits.subList(0, limit)) : hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void unlink(Long id) {
+        Entry<T> previous = entries.remove(id);
+        if (previous == null) {
+            return;
+        }
+        Node node = root;
+        while (node != null) {
+            int distance = PerceptualHash.distance(previous.hash, node.hash);
+            if (distance == 0) {
+                node.ids.remove(id);
+                return;
+            }
+            node = node.children[distance];
+        }
+    }
+
+    private static class Node {
+        private final long hash;
+        private final Set<Long> ids = new LinkedHashSet<>();
+        // indexed by Hamming distance to this node, 1..64
+        private final Node[] children = new Node[PerceptualHash.BITS + 1];
+
+        private Node(long hash) {
+            this.hash = hash;
+        }
+    }
+
+    private static class Entry<T> {
+        private final long hash;
+        private final T document;
+
+        private Entry(long hash, T document) {
+            this.hash = hash;
+            this.document = document;
+        }
+    }
+
+    public static class Hit<T> {
+        private final Long id;
+        private final T document;
+        private final int distance;
+
+        public Hit(Long id, T document, int distance) {
+            this.id = id;
+            this.document = document;
+            this.distance = distance;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public T getDocument() {
+            return document;
+        }
+
+        public int getDistance() {
+            return distance;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.adptapaw.backend.service.imagematch;
+
+import com.adptapaw.backend.entity.MissingAnimal;
+import com.adptapaw.backend.entity.MissingRequest;
+import com.adptapaw.backend.payload.missing.ImageMatchDTO;
+
+import java.util.List;
+
+public interface ImageMatchService {
+
+    void fingerprintUpload(String url, String contentType, long size);
+
+    void indexMissingAnimal(MissingAnimal missingAnimal);
+
+    void removeMissingAnimal(Long id);
+
+    List<ImageMatchDTO> matchSighting(MissingRequest missingRequest);
+
+    List<ImageMatchDTO> matchesForRequest(Long requestId);
+
+    void rebuild();
+}
@@ -0,0 +1,380 @@
+package com.adptapaw.backend.service.imagematch.implementation;
+
+import com.adptapaw.backend.entity.MissingAnimal;
+import com.adptapaw.backend.entity.MissingRequest;
+import com.adptapaw.backend.exception.ResourceNotFoundException;
+import com.adptapaw.backend.payload.missing.ImageMatchDTO;
+import com.adptapaw.backend.repository.MissingAnimalRepository;
+import com.adptapaw.backend.repository.MissingRequestRepository;
+import com.adptapaw.backend.service.imagematch.BKTree;
+import com.adptapaw.backend.service.imagematch.ImageMatchService;
+import com.adptapaw.backend.service.imagematch.PerceptualHash;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Fingerprints photos with a 64-bit dHash and keeps the open missing-animal
+ * photos in a BK-tree, so a sighting's photo can be compared against every
+ * open case with a Hamming-radius lookup instead of a pass over all images.
+ *
+ * Hashing runs on a small worker pool. An image upload queues its returned
+ * URL, so by the time a finder submits the sighting form its hash is normally
+ * waiting; images not seen at upload (older rows, edited URLs) are queued the
+ * same way when first needed. Only URLs on the configured image hosts are
+ * fetched, and for Cloudinary the fetch asks for a small derived thumbnail,
+ * since a 9x8 hash needs nothing more. Whatever is fetched is capped in bytes,
+ * its dimensions are checked from the header before any pixel is decoded,
+ * and it is decoded subsampled, so a large or hostile image costs a bounded
+ * amount of memory. Hashes are stored on the rows so a restart reloads the
+ * tree without downloading anything.
+ */
+@Service
+public class ImageMatchServiceImplementation implements ImageMatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageMatchServiceImplementation.class);
+
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    private static final int FETCH_TIMEOUT_MS = 5000;
+
+    // longest side, in pixels, images are decoded at; dHash itself only needs 9x8
+    private static final int DECODE_SIZE = 256;
+
+    private static final String CLOUDINARY_UPLOAD_PATH = "/image/upload/";
+
+    private static final String CLOUDINARY_THUMBNAIL = "c_limit,w_" + DECODE_SIZE + ",h_" + DECODE_SIZE + "/";
+
+    private final MissingAnimalRepository missingAnimalRepository;
+
+    private final MissingRequestRepository missingRequestRepository;
+
+    private final ThreadPoolExecutor workers;
+
+    private final Map<String, CompletableFuture<Long>> fingerprints;
+
+    private final Set<String> fetchHosts;
+
+    private volatile BKTree<ImageMatchDTO> openCases = new BKTree<>();
+
+    @Value("${image-match.max-distance:8}")
+    private int maxDistance;
+
+    @Value("${image-match.max-candidates:5}")
+    private int maxCandidates;
+
+    @Value("${image-match.wait-ms:300}")
+    private long waitMs;
+
+    @Value("${image-match.max-upload-bytes:5242880}")
+    private long maxUploadBytes;
+
+    @Value("${image-match.max-fetch-bytes:5242880}")
+    private int maxFetchBytes;
+
+    @Value("${image-match.max-pixels:40000000}")
+    private long maxPixels;
+
+    public ImageMatchServiceImplementation(MissingAnimalRepository missingAnimalRepository, MissingRequestRepository missingRequestRepository,
+                                           @Value("${image-match.threads:2}") int threads,
+                                           @Value("${image-match.queue-size:1000}") int queueSize,
+                                           @Value("${image-match.url-cache-size:10000}") int urlCacheSize,
+                                           @Value("${image-match.fetch-hosts:res.cloudinary.com}") String fetchHosts) {
+        this.missingAnimalRepository = missingAnimalRepository;
+        this.missingRequestRepository = missingRequestRepository;
+        AtomicInteger counter = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueSize), runnable -> {
+            Thread thread = new Thread(runnable, "image-match-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+        this.fingerprints = Collections.synchronizedMap(new LinkedHashMap<String, CompletableFuture<Long>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompletableFuture<Long>> eldest) {
+                return size() > urlCacheSize;
+            }
+        });
+        this.fetchHosts = Arrays.stream(fetchHosts.split(","))
+                .map(host -> host.trim().toLowerCase(Locale.ROOT))
+                .filter(host -> !host.isEmpty())
+                .collect(Collectors.toSet());
+    }
+
+    @Override
+    public void fingerprintUpload(String url, String contentType, long size) {
+        if (url == null || contentType == null || !contentType.toLowerCase(Locale.ROOT).startsWith("image/") || size > maxUploadBytes) {
+            return;
+        }
+        fingerprint(url);
+    }
+
+    @Override
+    public void indexMissingAnimal(MissingAnimal missingAnimal) {
+        Long id = missingAnimal.getId();
+        if (!Boolean.TRUE.equals(missingAnimal.getStillmissing()) || missingAnimal.getImage() == null) {
+            openCases.remove(id);
+            return;
+        }
+        ImageMatchDTO document = document(missingAnimal);
+        BKTree<ImageMatchDTO> tree = openCases;
+        fingerprint(missingAnimal.getImage()).thenAccept(hash -> {
+            if (hash == null) {
+                tree.remove(id);
+                return;
+            }
+            tree.put(id, hash, document);
+            if (!hash.equals(missingAnimal.getImagehash())) {
+                missingAnimalRepository.updateImageHash(id, hash);
+            }
+        });
+    }
+
+    @Override
+    public void removeMissingAnimal(Long id) {
+        openCases.remove(id);
+    }
+
+    @Override
+    public List<ImageMatchDTO> matchSighting(MissingRequest missingRequest) {
+        if (missingRequest.getImage() == null) {
+            return Collections.emptyList();
+        }
+        Long requestId = missingRequest.getId();
+        CompletableFuture<Long> fingerprint = fingerprint(missingRequest.getImage());
+        fingerprint.thenAccept(hash -> {
+            if (hash != null) {
+                missingRequestRepository.updateImageHash(requestId, hash);
+            }
+        });
+
+        // the upload endpoint started hashing seconds ago; wait briefly rather than not at all
+        Long hash;
+        try {
+            hash = fingerprint.get(waitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            logger.debug("Fingerprint for sighting {} not ready, matches available later", requestId);
+            return Collections.emptyList();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Collections.emptyList();
+        } catch (ExecutionException e) {
+            return Collections.emptyList();
+        }
+        return hash == null ? Collections.emptyList() : search(hash);
+    }
+
+    @Override
+    public List<ImageMatchDTO> matchesForRequest(Long requestId) {
+        MissingRequest missingRequest = missingRequestRepository.findById(requestId)
+                .orElseThrow(() -> new ResourceNotFoundException("MissingRequest", "id", requestId));
+        if (missingRequest.getImagehash() != null) {
+            return search(missingRequest.getImagehash());
+        }
+        return matchSighting(missingRequest);
+    }
+
+    private List<ImageMatchDTO> search(long hash) {
+        return openCases.search(hash, maxDistance, maxCandidates).stream().map(hit -> {
+            ImageMatchDTO indexed = hit.getDocument();
+            ImageMatchDTO imageMatchDTO = new ImageMatchDTO();
+            imageMatchDTO.setPetId(indexed.getPetId());
+            imageMatchDTO.setName(indexed.getName());
+            imageMatchDTO.setType(indexed.getType());
+            imageMatchDTO.setBreed(indexed.getBreed());
+            imageMatchDTO.setLocation(indexed.getLocation());
+            imageMatchDTO.setImage(indexed.getImage());
+            imageMatchDTO.setDistance(hit.getDistance());
+            imageMatchDTO.setSimilarity(Math.round((1 - hit.getDistance() / (double) PerceptualHash.BITS) * 1000) / 1000.0);
+            return imageMatchDTO;
+        }).collect(Collectors.toList());
+    }
+
+    private CompletableFuture<Long> fingerprint(String url) {
+        CompletableFuture<Long> cached = fingerprints.get(url);
+        if (cached != null && !cached.isCompletedExceptionally()) {
+            return cached;
+        }
+        CompletableFuture<Long> fetched = submit(() -> fetch(url));
+        fingerprints.put(url, fetched);
+        return fetched;
+    }
+
+    private CompletableFuture<Long> submit(HashTask task) {
+        CompletableFuture<Long> future = new CompletableFuture<>();
+        try {
+            workers.execute(() -> {
+                try {
+                    future.complete(task.run());
+                } catch (Exception e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RuntimeException e) {
+            // queue full: skip this image rather than slow down the caller
+            logger.warn("Image fingerprint queue is full, skipping one image");
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private Long fetch(String url) throws IOException {
+        URL location = new URL(url);
+        String protocol = location.getProtocol().toLowerCase(Locale.ROOT);
+        if (!("http".equals(protocol) || "https".equals(protocol)) || !fetchHosts.contains(location.getHost().toLowerCase(Locale.ROOT))) {
+            logger.debug("Not fetching image from untrusted host {}", location.getHost());
+            return null;
+        }
+        URLConnection connection = new URL(thumbnail(url)).openConnection();
+        connection.setConnectTimeout(FETCH_TIMEOUT_MS);
+        connection.setReadTimeout(FETCH_TIMEOUT_MS);
+        if (connection.getContentLengthLong() > maxFetchBytes) {
+            logger.debug("Not fetching image of {} bytes from {}", connection.getContentLengthLong(), location.getHost());
+            return null;
+        }
+        byte[] content;
+        try (InputStream inputStream = connection.getInputStream()) {
+            content = readAtMost(inputStream, maxFetchBytes);
+        }
+        return content == null ? null : decode(content);
+    }
+
+    // Cloudinary derives the thumbnail on its side: /image/upload/<id> -> /image/upload/c_limit,w_256,h_256/<id>
+    private static String thumbnail(String url) {
+        int upload = url.indexOf(CLOUDINARY_UPLOAD_PATH);
+        if (upload < 0 || !url.contains("cloudinary.com/")) {
+            return url;
+        }
+        int at = upload + CLOUDINARY_UPLOAD_PATH.length();
+        return url.substring(0, at) + CLOUDINARY_THUMBNAIL + url.substring(at);
+    }
+
+    private static byte[] readAtMost(InputStream inputStream, int limit) throws IOException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            if (content.size() + read > limit) {
+                return null;
+            }
+            content.write(buffer, 0, read);
+        }
+        return content.toByteArray();
+    }
+
+    /**
+     * Reads the dimensions from the header first and refuses anything above
+     * max-pixels (decompression bombs), then decodes with subsampling so the
+     * raster never holds much more than DECODE_SIZE pixels per side.
+     */
+    private Long decode(byte[] content) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(content))) {
+            Iterator<ImageReader> readers = input == null ? Collections.<ImageReader>emptyIterator() : ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                long width = reader.getWidth(0);
+                long height = reader.getHeight(0);
+                if (width <= 0 || height <= 0 || width * height > maxPixels) {
+                    logger.debug("Not decoding {}x{} image", width, height);
+                    return null;
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = (int) Math.max(1, Math.max(width, height) / DECODE_SIZE);
+                param.setSourceSubsampling(step, step, 0, 0);
+                BufferedImage image = reader.read(0, param);
+                return image == null ? null : PerceptualHash.dHash(image);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static ImageMatchDTO document(MissingAnimal missingAnimal) {
+        ImageMatchDTO imageMatchDTO = new ImageMatchDTO();
+        imageMatchDTO.setPetId(missingAnimal.getId());
+        imageMatchDTO.setName(missingAnimal.getName());
+        imageMatchDTO.setType(missingAnimal.getType());
+        imageMatchDTO.setBreed(missingAnimal.getBreed());
+        imageMatchDTO.setLocation(missingAnimal.getLocation());
+        imageMatchDTO.setImage(missingAnimal.getImage());
+        return imageMatchDTO;
+    }
+
+    /**
+     * Loads stored hashes into a fresh tree (dropping nodes emptied by
+     * removals) and queues a fingerprint for open cases that have none yet.
+     */
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        BKTree<ImageMatchDTO> tree = new BKTree<>();
+        List<MissingAnimal> unhashed = new ArrayList<>();
+
+        Page<MissingAnimal> missingAnimals;
+        int pageNo = 0;
+        do {
+            missingAnimals = missingAnimalRepository.findOpenWithImage(PageRequest.of(pageNo++, REBUILD_BATCH_SIZE, Sort.by("id")));
+            for (MissingAnimal missingAnimal : missingAnimals.getContent()) {
+                if (missingAnimal.getImagehash() != null) {
+                    tree.put(missingAnimal.getId(), missingAnimal.getImagehash(), document(missingAnimal));
+                } else {
+                    unhashed.add(missingAnimal);
+                }
+            }
+        } while (missingAnimals.hasNext());
+
+        openCases = tree;
+        for (MissingAnimal missingAnimal : unhashed) {
+            indexMissingAnimal(missingAnimal);
+        }
+        logger.info("Image match index built with {} open cases, {} queued for fingerprinting", tree.size(), unhashed.size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private interface HashTask {
+        Long run() throws Exception;
+    }
+}
@@ -2,18 +2,34 @@ package com.adptapaw.backend.service.implementation;
 
 import com.adptapaw.backend.entity.AdoptionAnimal;
 import com.adptapaw.backend.entity.AdoptionRequest;
-import com.adptapaw.backend.entity.Roles;
 import com.adptapaw.backend.entity.User;
 import com.adptapaw.backend.exception.BadRequestException;
 import com.adptapaw.backend.exception.ResourceNotFoundException;
 import com.adptapaw.backend.payload.adoption.AdoptionAnimalDTO;
 import com.adptapaw.backend.payload.adoption.AdoptionAnimalResponseDTO;
+import com.adptapaw.backend.payload.adoption.AdoptionCardDTO;
+import com.adptapaw.backend.payload.adoption.AdoptionCardResponseDTO;
+import com.adptapaw.backend.payload.adoption.AdoptionTextSearchDTO;
+import com.adptapaw.backend.payload.adoption.AdoptionTextSearchResponseDTO;
 import com.adptapaw.backend.payload.adoption.AdoptionUserDTO;
+import com.adptapaw.backend.payload.mapper.AdoptionMapper;
 import com.adptapaw.backend.repository.AdoptionAnimalRepository;
 import com.adptapaw.backend.repository.AdoptionRequestRepository;
 import com.adptapaw.backend.repository.UserRepository;
+import com.adptapaw.backend.repository.projection.AdoptionAnimalTextMatch;
 import com.adptapaw.backend.service.AdoptionAnimalService;
-import org.modelmapper.ModelMapper;
+import com.adptapaw.backend.service.cache.DtoCache;
+import com.adptapaw.backend.service.geo.GeoPoint;
+import com.adptapaw.backend.service.geo.GeoSearchService;
+import com.adptapaw.backend.service.matching.AnimalMatchService;
+import com.adptapaw.backend.service.pagination.KeysetPage;
+import com.adptapaw.backend.service.pagination.KeysetPaginator;
+import com.adptapaw.backend.service.savedsearch.SavedSearchService;
+import com.adptapaw.backend.service.search.AdoptionSearchService;
+import com.adptapaw.backend.service.search.Snippets;
+import com.adptapaw.backend.service.trending.ViewCounterService;
+import com.adptapaw.backend.service.trending.ViewTarget;
+import com.adptapaw.backend.utils.AdoptapawConstants;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -24,41 +40,69 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import javax.transaction.Transactional;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class AdoptionAnimalServiceImplementation implements AdoptionAnimalService {
-    private String currentRole ;
-    private final ModelMapper mapper;
+
+    private static final String[] CARD_COLUMNS = {"id", "name", "type", "breed", "gender", "location", "imageone", "availability"};
+
+    private final AdoptionMapper mapper;
 
     private final AdoptionAnimalRepository adoptionAnimalRepository;
 
     private final AdoptionRequestRepository adoptionRequestRepository;
 
+    private final AdoptionSearchService adoptionSearchService;
+
+    private final GeoSearchService geoSearchService;
+
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private KeysetPaginator keysetPaginator;
+
+    @Autowired
+    private DtoCache<Long, AdoptionAnimalDTO> adoptionAnimalCache;
+
+    @Autowired
+    private ViewCounterService viewCounterService;
+
+    @Autowired
+    private SavedSearchService savedSearchService;
+
+    @Autowired
+    private AnimalMatchService animalMatchService;
+
 
-    public AdoptionAnimalServiceImplementation(ModelMapper mapper, AdoptionAnimalRepository adoptionAnimalRepository, AdoptionRequestRepository adoptionRequestRepository) {
+    public AdoptionAnimalServiceImplementation(AdoptionMapper mapper, AdoptionAnimalRepository adoptionAnimalRepository, AdoptionRequestRepository adoptionRequestRepository, AdoptionSearchService adoptionSearchService, GeoSearchService geoSearchService) {
         this.mapper = mapper;
         this.adoptionAnimalRepository = adoptionAnimalRepository;
         this.adoptionRequestRepository = adoptionRequestRepository;
+        this.adoptionSearchService = adoptionSearchService;
+        this.geoSearchService = geoSearchService;
     }
 
     private AdoptionAnimalDTO mapToDTO(AdoptionAnimal adoptionAnimal){
-        AdoptionAnimalDTO adoptionAnimalDTO = mapper.map(adoptionAnimal, AdoptionAnimalDTO.class);
+        AdoptionAnimalDTO adoptionAnimalDTO = mapper.toDTO(adoptionAnimal);
         return adoptionAnimalDTO;
     }
 
     // convert DTO to entity
     private AdoptionAnimal mapToEntity(AdoptionAnimalDTO adoptionAnimalDTO){
-        AdoptionAnimal adoptionAnimal = mapper.map(adoptionAnimalDTO, AdoptionAnimal.class);
+        AdoptionAnimal adoptionAnimal = mapper.toEntity(adoptionAnimalDTO);
         return adoptionAnimal;
     }
 
@@ -93,7 +137,38 @@ public class AdoptionAnimalServiceImplementation implements AdoptionAnimalServic
 
 
     @Override
-    public AdoptionAnimalResponseDTO getAllAdoptionAnimals(int pageNo,  int pageSize, String sortBy,String sortDir) {
+    public AdoptionAnimalResponseDTO getAllAdoptionAnimals(int pageNo,  int pageSize, String sortBy,String sortDir, String cursor) {
+
+        if (AdoptapawConstants.TRENDING_SORT.equalsIgnoreCase(sortBy)) {
+            Page<Long> trending = viewCounterService.trendingIds(ViewTarget.ADOPTION_ANIMAL, cursor, pageNo, pageSize);
+            Map<Long, AdoptionAnimal> byId = adoptionAnimalRepository.findAllById(trending.getContent()).stream()
+                    .collect(Collectors.toMap(AdoptionAnimal::getId, Function.identity()));
+            List<AdoptionAnimalDTO> content = trending.getContent().stream().map(byId::get).filter(Objects::nonNull)
+                    .map(adoptionAnimalItem -> mapToDTO(adoptionAnimalItem)).collect(Collectors.toList());
+
+            AdoptionAnimalResponseDTO adoptionAnimalResponse = new AdoptionAnimalResponseDTO();
+            adoptionAnimalResponse.setContent(content);
+            adoptionAnimalResponse.setPageNo(trending.getNumber());
+            adoptionAnimalResponse.setPageSize(trending.getSize());
+            adoptionAnimalResponse.setTotalElements(trending.getTotalElements());
+            adoptionAnimalResponse.setTotalPages(trending.getTotalPages());
+            adoptionAnimalResponse.setLast(trending.isLast());
+
+            return adoptionAnimalResponse;
+        }
+
+        if (cursor != null) {
+            KeysetPage<AdoptionAnimal> page = keysetPaginator.fetch(AdoptionAnimal.class, sortBy, sortDir, cursor, pageSize);
+            List<AdoptionAnimalDTO> content = page.getContent().stream().map(adoptionAnimalItem -> mapToDTO(adoptionAnimalItem)).collect(Collectors.toList());
+
+            AdoptionAnimalResponseDTO adoptionAnimalResponse = new AdoptionAnimalResponseDTO();
+            adoptionAnimalResponse.setContent(content);
+            adoptionAnimalResponse.setPageSize(pageSize);
+            adoptionAnimalResponse.setLast(page.isLast());
+            adoptionAnimalResponse.setNextCursor(page.getNextCursor());
+
+            return adoptionAnimalResponse;
+        }
 
 
         Sort sort = sortDir.equalsIgnoreCase(Sort.Direction.ASC.name()) ? Sort.by(sortBy).ascending()
@@ -119,6 +194,90 @@ public class AdoptionAnimalServiceImplementation implements AdoptionAnimalServic
         return adoptionAnimalResponse;
     }
 
+    @Override
+    public AdoptionCardResponseDTO getAdoptionAnimalCards(int pageNo, int pageSize, String sortBy, String sortDir, String cursor) {
+
+        if (AdoptapawConstants.TRENDING_SORT.equalsIgnoreCase(sortBy)) {
+            Page<Long> trending = viewCounterService.trendingIds(ViewTarget.ADOPTION_ANIMAL, cursor, pageNo, pageSize);
+            Map<Long, AdoptionCardDTO> cardsById = adoptionAnimalRepository.findCardsByIdIn(trending.getContent()).stream()
+                    .collect(Collectors.toMap(AdoptionCardDTO::getId, Function.identity()));
+
+            AdoptionCardResponseDTO adoptionCardResponse = new AdoptionCardResponseDTO();
+            adoptionCardResponse.setContent(trending.getContent().stream().map(cardsById::get).filter(Objects::nonNull).collect(Collectors.toList()));
+            adoptionCardResponse.setPageNo(trending.getNumber());
+            adoptionCardResponse.setPageSize(trending.getSize());
+            adoptionCardResponse.setTotalElements(trending.getTotalElements());
+            adoptionCardResponse.setTotalPages(trending.getTotalPages());
+            adoptionCardResponse.setLast(trending.isLast());
+
+            return adoptionCardResponse;
+        }
+
+        if (cursor != null) {
+            KeysetPage<AdoptionCardDTO> page = keysetPaginator.fetch(AdoptionAnimal.class, AdoptionCardDTO.class, CARD_COLUMNS, sortBy, sortDir, cursor, pageSize);
+
+            AdoptionCardResponseDTO adoptionCardResponse = new AdoptionCardResponseDTO();
+            adoptionCardResponse.setContent(page.getContent());
+            adoptionCardResponse.setPageSize(pageSize);
+            adoptionCardResponse.setLast(page.isLast());
+            adoptionCardResponse.setNextCursor(page.getNextCursor());
+
+            return adoptionCardResponse;
+        }
+
+        Sort sort = sortDir.equalsIgnoreCase(Sort.Direction.ASC.name()) ? Sort.by(sortBy).ascending()
+                : Sort.by(sortBy).descending();
+
+        Pageable pageable = PageRequest.of(pageNo, pageSize, sort);
+        Page<AdoptionCardDTO> cards = adoptionAnimalRepository.findAllCards(pageable);
+
+        AdoptionCardResponseDTO adoptionCardResponse = new AdoptionCardResponseDTO();
+        adoptionCardResponse.setContent(cards.getContent());
+        adoptionCardResponse.setPageNo(cards.getNumber());
+        adoptionCardResponse.setPageSize(cards.getSize());
+        adoptionCardResponse.setTotalElements(cards.getTotalElements());
+        adoptionCardResponse.setTotalPages(cards.getTotalPages());
+        adoptionCardResponse.setLast(cards.isLast());
+
+        return adoptionCardResponse;
+    }
+
+    @Override
+    public AdoptionTextSearchResponseDTO searchByText(String query, int pageNo, int pageSize) {
+
+        if (query == null || query.trim().isEmpty()) {
+            throw new BadRequestException("Search query is required");
+        }
+
+        Pageable pageable = PageRequest.of(pageNo, pageSize);
+        Page<AdoptionAnimalTextMatch> matches = adoptionAnimalRepository.searchByText(query.trim(), pageable);
+
+        List<AdoptionTextSearchDTO> content = matches.getContent().stream().map(match -> {
+            AdoptionTextSearchDTO adoptionTextSearchDTO = new AdoptionTextSearchDTO();
+            adoptionTextSearchDTO.setId(match.getId());
+            adoptionTextSearchDTO.setName(match.getName());
+            adoptionTextSearchDTO.setType(match.getType());
+            adoptionTextSearchDTO.setBreed(match.getBreed());
+            adoptionTextSearchDTO.setGender(match.getGender());
+            adoptionTextSearchDTO.setLocation(match.getLocation());
+            adoptionTextSearchDTO.setImageone(match.getImageone());
+            adoptionTextSearchDTO.setAvailability(match.getAvailability());
+            adoptionTextSearchDTO.setRank(match.getRank());
+            adoptionTextSearchDTO.setSnippet(Snippets.toSafeHtml(match.getSnippet()));
+            return adoptionTextSearchDTO;
+        }).collect(Collectors.toList());
+
+        AdoptionTextSearchResponseDTO adoptionTextSearchResponse = new AdoptionTextSearchResponseDTO();
+        adoptionTextSearchResponse.setContent(content);
+        adoptionTextSearchResponse.setPageNo(matches.getNumber());
+        adoptionTextSearchResponse.setPageSize(matches.getSize());
+        adoptionTextSearchResponse.setTotalElements(matches.getTotalElements());
+        adoptionTextSearchResponse.setTotalPages(matches.getTotalPages());
+        adoptionTextSearchResponse.setLast(matches.isLast());
+
+        return adoptionTextSearchResponse;
+    }
+
     @Override
     public AdoptionAnimalDTO createAdoptionAnimal(String id, AdoptionAnimalDTO adoptionAnimalDTO) {
 
@@ -133,6 +292,9 @@ public class AdoptionAnimalServiceImplementation implements AdoptionAnimalServic
         animal.setGender(adoptionAnimalDTO.getGender());
         animal.setType(adoptionAnimalDTO.getType());
         animal.setLocation(adoptionAnimalDTO.getLocation());
+        GeoPoint point = geoSearchService.resolve(adoptionAnimalDTO.getLatitude(), adoptionAnimalDTO.getLongitude(), adoptionAnimalDTO.getLocation());
+        animal.setLatitude(point == null ? null : point.getLatitude());
+        animal.setLongitude(point == null ? null : point.getLongitude());
         animal.setName(adoptionAnimalDTO.getName());
         animal.setPhysicalcondition(adoptionAnimalDTO.getPhysicalcondition());
         animal.setTraining(adoptionAnimalDTO.getTraining());
@@ -159,6 +321,10 @@ public class AdoptionAnimalServiceImplementation implements AdoptionAnimalServic
         animal.setUser(user);
 
         adoptionAnimalRepository.save(animal);
+        adoptionSearchService.index(animal);
+        geoSearchService.indexAdoptionAnimal(animal);
+        animalMatchService.indexAdoptionAnimal(animal);
+        savedSearchService.percolate(animal);
 
         AdoptionUserDTO adoptionUserDTO = new AdoptionUserDTO();
 
@@ -169,6 +335,8 @@ public class AdoptionAnimalServiceImplementation implements AdoptionAnimalServic
 
 
         adoptionAnimalDTO.setId(animal.getId());
+        adoptionAnimalDTO.setLatitude(animal.getLatitude());
+        adoptionAnimalDTO.setLongitude(animal.getLongitude());
 
         return adoptionAnimalDTO;
 
@@ -177,9 +345,8 @@ public class AdoptionAnimalServiceImplementation implements AdoptionAnimalServic
     @Override
     public AdoptionAnimalDTO getAllById(String id) {
 
-        AdoptionAnimal adoptionAnimal = adoptionAnimalRepository.findById(Long.valueOf(id)).get();
-
-        return mapToDTO(adoptionAnimal);
+        AdoptionAnimalDTO adoptionAnimalDTO = adoptionAnimalCache.get(Long.valueOf(id), animalId -> mapToDTO(adoptionAnimalRepository.findById(animalId).get()));
+        return adoptionAnimalDTO;
     }
 
     @Override
@@ -188,15 +355,10 @@ public class AdoptionAnimalServiceImplementation implements AdoptionAnimalServic
         AdoptionAnimal adoptionAnimal = adoptionAnimalRepository.findById(Long.valueOf(id)).get();
 
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        boolean admin = auth.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
 
-        User user = userRepository.findByEmail(auth.getName()).get();
-
-        for (Roles authority : user.getRoles()) {
-            currentRole = authority.getName();
-        }
-
-
-        if(!Objects.equals(currentRole, "ROLE_ADMIN") && !Objects.equals(adoptionAnimal.getUser().getEmail(), auth.getName())){
+        if(!admin && !Objects.equals(adoptionAnimal.getUser().getEmail(), auth.getName())){
             return new ResponseEntity<>("Not authorized to make changes",HttpStatus.BAD_REQUEST);
         }
 
@@ -209,6 +371,9 @@ public class AdoptionAnimalServiceImplementation implements AdoptionAnimalServic
         adoptionAnimal.setGender(adoptionAnimalDTO.getGender());
         adoptionAnimal.setType(adoptionAnimalDTO.getType());
         adoptionAnimal.setLocation(adoptionAnimalDTO.getLocation());
+        GeoPoint point = geoSearchService.resolve(adoptionAnimalDTO.getLatitude(), adoptionAnimalDTO.getLongitude(), adoptionAnimalDTO.getLocation());
+        adoptionAnimal.setLatitude(point == null ? null : point.getLatitude());
+        adoptionAnimal.setLongitude(point == null ? null : point.getLongitude());
         adoptionAnimal.setName(adoptionAnimalDTO.getName());
         adoptionAnimal.setPhysicalcondition(adoptionAnimalDTO.getPhysicalcondition());
         adoptionAnimal.setTraining(adoptionAnimalDTO.getTraining());
@@ -219,6 +384,10 @@ public class AdoptionAnimalServiceImplementation implements AdoptionAnimalServic
         adoptionAnimal.setMobile(adoptionAnimalDTO.getMobile());
 
         adoptionAnimalRepository.save(adoptionAnimal);
+        adoptionAnimalCache.invalidate(adoptionAnimal.getId());
+        adoptionSearchService.index(adoptionAnimal);
+        geoSearchService.indexAdoptionAnimal(adoptionAnimal);
+        animalMatchService.indexAdoptionAnimal(adoptionAnimal);
 
         return new ResponseEntity<>(mapToDTO(adoptionAnimal),HttpStatus.OK);
 
@@ -226,22 +395,45 @@ public class AdoptionAnimalServiceImplementation implements AdoptionAnimalServic
     }
 
     @Override
-    public String DeleteById(String id) {
-
-        AdoptionAnimal animal = adoptionAnimalRepository.findById(Long.valueOf(id)).get();
-        List<AdoptionRequest>animalRequestList = adoptionRequestRepository.findAllByPet(animal);
-
-        for (AdoptionRequest adoptionRequest : animalRequestList) {
-            adoptionRequest.setAdoptionseeker(null);
-            adoptionRequest.setPet(null);
-            adoptionRequestRepository.deleteById(adoptionRequest.getId());
+    @Transactional
+    public String DeleteById(String id, boolean soft) {
+
+        Long animalId = Long.valueOf(id);
+
+        // set-based: a constant number of statements however many requests the post has
+        int affected;
+        if (soft) {
+            affected = adoptionAnimalRepository.softDeleteById(animalId);
+        } else {
+            adoptionRequestRepository.deleteAllRequestsByPetId(animalId);
+            affected = adoptionAnimalRepository.deletePostById(animalId);
+        }
+        if (affected == 0) {
+            throw new ResourceNotFoundException("AdoptionAnimal", "id", animalId);
         }
 
-        animal.setUser(null);
-        animal.setOwner(null);
-        adoptionAnimalRepository.delete(animal);
+        // a rollback must leave the post in the indexes it is still in
+        afterCommit(() -> {
+            adoptionAnimalCache.invalidate(animalId);
+            adoptionSearchService.remove(animalId);
+            geoSearchService.removeAdoptionAnimal(animalId);
+            animalMatchService.removeAdoptionAnimal(animalId);
+        });
 
-        return "Post Deleted Successfully " + animal.getId();
+        return "Post Deleted Successfully " + animalId;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
 
 
@@ -1,69 +1,122 @@
 package com.adptapaw.backend.service.implementation;
 
+import com.adptapaw.backend.context.AbstractEmailContext;
 import com.adptapaw.backend.context.AccountPasswordResetEmailContext;
-import com.adptapaw.backend.context.GeneralPurposeEmailContext;
 import com.adptapaw.backend.entity.AdoptionAnimal;
 import com.adptapaw.backend.entity.AdoptionRequest;
-import com.adptapaw.backend.entity.Roles;
 import com.adptapaw.backend.entity.User;
+import com.adptapaw.backend.exception.BadRequestException;
+import com.adptapaw.backend.exception.ConflictException;
+import com.adptapaw.backend.exception.ForbiddenException;
+import com.adptapaw.backend.exception.ResourceNotFoundException;
 import com.adptapaw.backend.payload.adoption.*;
+import com.adptapaw.backend.payload.mapper.AdoptionMapper;
 import com.adptapaw.backend.repository.AdoptionAnimalRepository;
 import com.adptapaw.backend.repository.AdoptionRequestRepository;
 import com.adptapaw.backend.repository.UserRepository;
+import com.adptapaw.backend.repository.projection.PendingPetSummary;
 import com.adptapaw.backend.service.AdoptionRequestService;
+import com.adptapaw.backend.service.cache.DtoCache;
+import com.adptapaw.backend.service.pagination.KeysetPage;
+import com.adptapaw.backend.service.pagination.KeysetPaginator;
 import com.adptapaw.backend.service.email.EmailService;
-import org.modelmapper.ModelMapper;
+import com.adptapaw.backend.service.geo.GeoSearchService;
+import com.adptapaw.backend.service.matching.AnimalMatchService;
+import com.adptapaw.backend.service.moderation.ApprovalMails;
+import com.adptapaw.backend.service.search.AdoptionSearchService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import javax.mail.MessagingException;
+import javax.transaction.Transactional;
 import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
 public class AdoptionRequestServiceImplementation implements AdoptionRequestService {
-    private final ModelMapper mapper;
+
+    private static final Logger logger = LoggerFactory.getLogger(AdoptionRequestServiceImplementation.class);
+
+    private static final String ACTIVE_REQUEST_INDEX = "uq_adoptionrequests_active";
+
+    private final AdoptionMapper mapper;
     private final AdoptionRequestRepository adoptionRequestRepository;
 
     private final AdoptionAnimalRepository adoptionAnimalRepository;
 
-    private String currentRole ;
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
     private EmailService emailService;
 
-    public AdoptionRequestServiceImplementation(ModelMapper mapper, AdoptionRequestRepository adoptionRequestRepository,AdoptionAnimalRepository adoptionAnimalRepository) {
+    @Autowired
+    private KeysetPaginator keysetPaginator;
+
+    @Autowired
+    private AdoptionSearchService adoptionSearchService;
+
+    @Autowired
+    private GeoSearchService geoSearchService;
+
+    @Autowired
+    private AnimalMatchService animalMatchService;
+
+    @Autowired
+    private DtoCache<Long, AdoptionAnimalDTO> adoptionAnimalCache;
+
+    @Autowired
+    private ApprovalMails approvalMails;
+
+    public AdoptionRequestServiceImplementation(AdoptionMapper mapper, AdoptionRequestRepository adoptionRequestRepository,AdoptionAnimalRepository adoptionAnimalRepository) {
         this.mapper = mapper;
         this.adoptionRequestRepository = adoptionRequestRepository;
         this.adoptionAnimalRepository = adoptionAnimalRepository;
     }
 
     private AdoptionAnimalDTO mapToDTO(AdoptionAnimal adoptionAnimal){
-        return mapper.map(adoptionAnimal, AdoptionAnimalDTO.class);
+        return mapper.toDTO(adoptionAnimal);
     }
 
     private AdoptionRequestDTO mapToRequestDTO(AdoptionRequest adoptionRequest){
-        return mapper.map(adoptionRequest, AdoptionRequestDTO.class);
+        return mapper.toRequestDTO(adoptionRequest);
     }
 
     private AdoptionUserDTO mapTouserDTO(User user){
-        return mapper.map(user, AdoptionUserDTO.class);
+        return mapper.toUserDTO(user);
     }
 
     public ResponseEntity<?> createAdoptionRequest(String uid,String id, AdoptionRequestDTO adoptionRequestDTO) {
 
+        Long seekerId;
+        Long petId;
+        try {
+            seekerId = Long.valueOf(uid);
+            petId = Long.valueOf(id);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid ID format: " + uid + ", " + id);
+        }
+        // checked before loading anything or sending mail; the unique index catches races
+        if (adoptionRequestRepository.existsByAdoptionseekerIdAndPetIdAndRejectedFalse(seekerId, petId)) {
+            throw new ConflictException("You already have an adoption request for this pet");
+        }
+
         AdoptionRequest request = new AdoptionRequest();
         request.setStatus(false);
         Date date = new Date();
@@ -75,10 +128,10 @@ public class AdoptionRequestServiceImplementation implements AdoptionRequestServ
         request.setPickup(adoptionRequestDTO.getPickup());
         request.setHadpet(adoptionRequestDTO.getHadpet());
 
-        User user = (User)this.userRepository.findById(Long.valueOf(uid)).orElse(null);
+        User user = (User)this.userRepository.findById(seekerId).orElse(null);
         request.setAdoptionseeker(user);
 
-        AdoptionAnimal pet = (AdoptionAnimal)this.adoptionAnimalRepository.findById(Long.valueOf(id)).orElse(null);
+        AdoptionAnimal pet = (AdoptionAnimal)this.adoptionAnimalRepository.findById(petId).orElse(null);
         request.setPet(pet);
 
         assert user != null;
@@ -86,7 +139,15 @@ public class AdoptionRequestServiceImplementation implements AdoptionRequestServ
         if(Objects.equals(pet.getUser().getEmail(), user.getEmail())){
             return new ResponseEntity<>("You can't adopt your own animal", HttpStatus.BAD_REQUEST);
         }
-        this.adoptionRequestRepository.save(request);
+        try {
+            this.adoptionRequestRepository.save(request);
+        } catch (DataIntegrityViolationException e) {
+            String cause = e.getMostSpecificCause().getMessage();
+            if (cause != null && cause.contains(ACTIVE_REQUEST_INDEX)) {
+                throw new ConflictException("You already have an adoption request for this pet");
+            }
+            throw e;
+        }
 
         AccountPasswordResetEmailContext mail = new AccountPasswordResetEmailContext();
         mail.setFrom("77795@office.mans.org.pl");
@@ -110,14 +171,45 @@ public class AdoptionRequestServiceImplementation implements AdoptionRequestServ
     }
 
 
-    public AdoptionRequestListDTO getAllByCreator(String id) {
+    public AdoptionRequestListDTO getAllByCreator(String id, int pageNo, int pageSize, String sortBy, String sortDir, String cursor) {
 
-        User user  = userRepository.findById(Long.valueOf(id)).get();
-        List<AdoptionRequest> adoptionRequests = adoptionRequestRepository.findAllByAdoptionseeker(user);
+        Long userId;
+        try {
+            userId = Long.valueOf(id);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid user ID format: " + id);
+        }
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
+
+        if (cursor != null) {
+            Specification<AdoptionRequest> bySeeker = (root, query, cb) -> cb.equal(root.get("adoptionseeker"), user);
+            KeysetPage<AdoptionRequest> page = keysetPaginator.fetch(AdoptionRequest.class, bySeeker, AdoptionRequest.WITH_PET_AND_USERS,
+                    sortBy, sortDir, cursor, pageSize);
+            List<AdoptionRequestDTO> content = page.getContent().stream().map(this::mapToRequestDTO).collect(Collectors.toList());
+
+            AdoptionRequestListDTO adoptionRequestListDTO = new AdoptionRequestListDTO();
+            adoptionRequestListDTO.setContent(content);
+            adoptionRequestListDTO.setPageSize(pageSize);
+            adoptionRequestListDTO.setLast(page.isLast());
+            adoptionRequestListDTO.setNextCursor(page.getNextCursor());
+
+            return adoptionRequestListDTO;
+        }
+
+        Sort sort = sortDir.equalsIgnoreCase(Sort.Direction.ASC.name()) ? Sort.by(sortBy).ascending()
+                : Sort.by(sortBy).descending();
+
+        Page<AdoptionRequest> requests = adoptionRequestRepository.findByAdoptionseeker(user, PageRequest.of(pageNo, pageSize, sort));
 
-        List<AdoptionRequestDTO> content= adoptionRequests.stream().map(this::mapToRequestDTO).collect(Collectors.toList());
+        List<AdoptionRequestDTO> content= requests.getContent().stream().map(this::mapToRequestDTO).collect(Collectors.toList());
         AdoptionRequestListDTO adoptionRequestListDTO = new AdoptionRequestListDTO();
         adoptionRequestListDTO.setContent(content);
+        adoptionRequestListDTO.setPageNo(requests.getNumber());
+        adoptionRequestListDTO.setPageSize(requests.getSize());
+        adoptionRequestListDTO.setTotalElements(requests.getTotalElements());
+        adoptionRequestListDTO.setTotalPages(requests.getTotalPages());
+        adoptionRequestListDTO.setLast(requests.isLast());
         return adoptionRequestListDTO;
     }
 
@@ -132,96 +224,180 @@ public class AdoptionRequestServiceImplementation implements AdoptionRequestServ
         return mapToRequestDTO(adoptionRequest);
     }
 
+    /**
+     * Approval is a compare-and-set on the pet (still available, version
+     * unchanged) followed by the request itself and one statement rejecting
+     * every other pending request for the pet, all in one transaction. When
+     * two admins race on the same pet exactly one update matches; the other
+     * gets a 409 and nothing it touched is kept. Index, cache and email side
+     * effects only run once the transaction has committed.
+     */
     @Override
+    @Transactional
     public AdoptionRequestDTO approveRequest(String uid,String id) {
 
-        AdoptionRequest adoptionRequest = adoptionRequestRepository.findById(Long.valueOf(id)).get();
-        AdoptionAnimal animal  = adoptionAnimalRepository.findById(adoptionRequest.getPet().getId()).get();
-
-         try{
-             User user = userRepository.findById(Long.valueOf(uid)).get();
-
-
-                for (Roles authority : user.getRoles()) {
-                    currentRole = authority.getName();
-                }
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        boolean admin = auth != null && auth.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+        if (!admin) {
+            throw new ForbiddenException("Only admins can approve adoption requests");
+        }
 
-                if(currentRole.equals("ROLE_ADMIN")){
+        Long requestId;
+        try {
+            requestId = Long.valueOf(id);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid request ID format: " + id);
+        }
+        AdoptionRequest adoptionRequest = adoptionRequestRepository.findById(requestId)
+                .orElseThrow(() -> new ResourceNotFoundException("AdoptionRequest", "id", requestId));
+        if (Boolean.TRUE.equals(adoptionRequest.getStatus()) || Boolean.TRUE.equals(adoptionRequest.getRejected())) {
+            throw new ConflictException("Adoption request " + requestId + " is no longer pending");
+        }
+        AdoptionAnimal pet = adoptionRequest.getPet();
+        if (pet == null) {
+            throw new ResourceNotFoundException("AdoptionAnimal", "request", requestId);
+        }
+        Long petId = pet.getId();
 
-                     Date date = new Date();
-                     adoptionRequest.setStatus(true);
-                     adoptionRequest.setApproveddate(String.valueOf(date));
-                     adoptionRequestRepository.save(adoptionRequest);
+        if (adoptionAnimalRepository.markAdopted(petId, adoptionRequest.getAdoptionseeker(), pet.getVersion()) == 0) {
+            throw new ConflictException("Pet " + petId + " was adopted, removed or changed by someone else");
+        }
+        if (adoptionRequestRepository.markApproved(requestId, String.valueOf(new Date())) == 0) {
+            throw new ConflictException("Adoption request " + requestId + " is no longer pending");
+        }
+        int rejected = adoptionRequestRepository.rejectCompeting(petId, requestId);
+
+        // the bulk updates cleared the persistence context; read back what was written
+        AdoptionRequest approved = adoptionRequestRepository.findById(requestId).get();
+        AdoptionAnimal animal = approved.getPet();
+
+        afterCommit(() -> {
+            adoptionAnimalCache.invalidate(petId);
+            adoptionSearchService.index(animal);
+            geoSearchService.indexAdoptionAnimal(animal);
+            animalMatchService.indexAdoptionAnimal(animal);
+            sendApprovalMails(approved, animal);
+        });
+        logger.info("Adoption request {} approved for pet {}, {} competing requests rejected", requestId, petId, rejected);
+
+        return mapToRequestDTO(approved);
+    }
 
-                     animal.setAvailability(false);
-                     animal.setOwner(adoptionRequest.getAdoptionseeker());
-                     adoptionAnimalRepository.save(animal);
+    private void sendApprovalMails(AdoptionRequest adoptionRequest, AdoptionAnimal animal) {
+        for (AbstractEmailContext mail : approvalMails.adoptionApproved(adoptionRequest, animal)) {
+            try{
+                emailService.sendMail(mail);
+            }catch (MessagingException e){
+                e.printStackTrace();
+            }
+        }
+    }
 
-                    AccountPasswordResetEmailContext mail = new AccountPasswordResetEmailContext();
-                    mail.setFrom("77795@office.mans.org.pl");
-                    mail.setTemplateLocation("adoptionapproved.html");
-                    mail.setSubject("Congratulations! Your adoption request has been approved.");
-                    mail.setTo(adoptionRequest.getEmail());
-                    mail.put("name",animal.getOwner().getName());
-                    mail.put("pet",animal.getName());
-                    mail.put("owner",animal.getUser().getName());
-                    mail.put("mobile",animal.getMobile());
-                    mail.put("email",animal.getUser().getEmail());
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
 
-                    try{
-                        emailService.sendMail(mail);
+    @Override
+    public AdoptionRequestListDTO getAll(String id, int pageNo, int pageSize, String sortBy, String sortDir, String cursor) {
 
+        if (cursor != null) {
+            KeysetPage<AdoptionRequest> page = keysetPaginator.fetch(AdoptionRequest.class, sortBy, sortDir, cursor, pageSize);
+            List<AdoptionRequestDTO> content = page.getContent().stream().map(adoptionRequestsItem -> mapToRequestDTO(adoptionRequestsItem)).collect(Collectors.toList());
 
-                    }catch (MessagingException e){
-                        e.printStackTrace();
-                    }
+            AdoptionRequestListDTO adoptionRequestListDTO = new AdoptionRequestListDTO();
+            adoptionRequestListDTO.setContent(content);
+            adoptionRequestListDTO.setPageSize(pageSize);
+            adoptionRequestListDTO.setLast(page.isLast());
+            adoptionRequestListDTO.setNextCursor(page.getNextCursor());
 
-                    GeneralPurposeEmailContext mailToOwner = new GeneralPurposeEmailContext();
-                    mailToOwner.setFrom("adoptapawofficial@gmail.com");
-                    mailToOwner.setTemplateLocation("adoptionapprovedowner.html");
-                    mailToOwner.setSubject("We’ve found a suitable person to adopt your pet.");
-                    mailToOwner.setTo(animal.getUser().getEmail());
-                    mailToOwner.put("name",animal.getUser().getName());
-                    mailToOwner.put("pet",animal.getName());
-                    mailToOwner.put("seeker",animal.getOwner().getName());
-                    mailToOwner.put("mobile",adoptionRequest.getMobile());
-                    mailToOwner.put("email",adoptionRequest.getEmail());
+            return adoptionRequestListDTO;
+        }
 
-                    try{
-                        emailService.sendMail(mailToOwner);
+        Sort sort = sortDir.equalsIgnoreCase(Sort.Direction.ASC.name()) ? Sort.by(sortBy).ascending()
+                : Sort.by(sortBy).descending();
 
-                    }catch (MessagingException e){
-                        e.printStackTrace();
-                    }
+        Pageable pageable = PageRequest.of(pageNo, pageSize, sort);
 
-                     return mapToRequestDTO(adoptionRequest);
-                }
+        Page<AdoptionRequest> requests = adoptionRequestRepository.findAll(pageable);
 
+        List<AdoptionRequest> adoptionRequests = requests.getContent();
 
+        List<AdoptionRequestDTO> content= adoptionRequests.stream().map(adoptionRequestsItem -> mapToRequestDTO(adoptionRequestsItem)).collect(Collectors.toList());
 
-         }catch (UsernameNotFoundException e){
-             return null;
-         }
 
-         return null;
+        AdoptionRequestListDTO adoptionRequestListDTO = new AdoptionRequestListDTO();
+        adoptionRequestListDTO.setContent(content);
+        adoptionRequestListDTO.setPageNo(requests.getNumber());
+        adoptionRequestListDTO.setPageSize(requests.getSize());
+        adoptionRequestListDTO.setTotalElements(requests.getTotalElements());
+        adoptionRequestListDTO.setTotalPages(requests.getTotalPages());
+        adoptionRequestListDTO.setLast(requests.isLast());
 
+        return adoptionRequestListDTO;
     }
 
     @Override
-    public AdoptionRequestListDTO getAll(String id, int pageNo, int pageSize, String sortBy, String sortDir) {
-
-        Sort sort = sortDir.equalsIgnoreCase(Sort.Direction.ASC.name()) ? Sort.by(sortBy).ascending()
-                : Sort.by(sortBy).descending();
+    public AdoptionReviewQueueDTO getReviewQueue(int pageNo, int pageSize) {
 
-        Pageable pageable = PageRequest.of(pageNo, pageSize, sort);
+        if (pageNo < 0 || pageSize < 1) {
+            throw new BadRequestException("Invalid page request: pageNo " + pageNo + ", pageSize " + pageSize);
+        }
 
-        Page<AdoptionRequest> requests = adoptionRequestRepository.findAll(pageable);
+        // ordering (oldest pending request first) is part of the query itself
+        Page<PendingPetSummary> pets = adoptionRequestRepository.findPendingByPet(PageRequest.of(pageNo, pageSize));
+        long now = System.currentTimeMillis();
+
+        List<AdoptionReviewQueueItemDTO> content = pets.getContent().stream().map(pet -> {
+            AdoptionReviewQueueItemDTO item = new AdoptionReviewQueueItemDTO();
+            item.setPetId(pet.getPetId());
+            item.setPetName(pet.getPetName());
+            item.setType(pet.getType());
+            item.setImageone(pet.getImageone());
+            item.setAvailability(pet.getAvailability());
+            item.setPendingCount(pet.getPendingCount());
+            item.setOldestRequestedAt(pet.getOldestRequestedAt());
+            item.setOldestAgeSeconds(pet.getOldestRequestedAt() == null ? null
+                    : Math.max(0, (now - pet.getOldestRequestedAt().getTime()) / 1000));
+            return item;
+        }).collect(Collectors.toList());
+
+        AdoptionReviewQueueDTO adoptionReviewQueueDTO = new AdoptionReviewQueueDTO();
+        adoptionReviewQueueDTO.setContent(content);
+        adoptionReviewQueueDTO.setPageNo(pets.getNumber());
+        adoptionReviewQueueDTO.setPageSize(pets.getSize());
+        adoptionReviewQueueDTO.setTotalElements(pets.getTotalElements());
+        adoptionReviewQueueDTO.setTotalPages(pets.getTotalPages());
+        adoptionReviewQueueDTO.setLast(pets.isLast());
+        return adoptionReviewQueueDTO;
+    }
 
-        List<AdoptionRequest> adoptionRequests = requests.getContent();
+    @Override
+    public AdoptionRequestListDTO getPendingByPet(String petId, int pageNo, int pageSize) {
 
-        List<AdoptionRequestDTO> content= adoptionRequests.stream().map(adoptionRequestsItem -> mapToRequestDTO(adoptionRequestsItem)).collect(Collectors.toList());
+        Long id;
+        try {
+            id = Long.valueOf(petId);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid pet ID format: " + petId);
+        }
+        if (pageNo < 0 || pageSize < 1) {
+            throw new BadRequestException("Invalid page request: pageNo " + pageNo + ", pageSize " + pageSize);
+        }
 
+        Sort sort = Sort.by("requestedAt").ascending().and(Sort.by("id").ascending());
+        Page<AdoptionRequest> requests = adoptionRequestRepository.findByPetIdAndStatusFalseAndRejectedFalse(id, PageRequest.of(pageNo, pageSize, sort));
 
+        List<AdoptionRequestDTO> content = requests.getContent().stream().map(this::mapToRequestDTO).collect(Collectors.toList());
         AdoptionRequestListDTO adoptionRequestListDTO = new AdoptionRequestListDTO();
         adoptionRequestListDTO.setContent(content);
         adoptionRequestListDTO.setPageNo(requests.getNumber());
@@ -229,10 +405,6 @@ public class AdoptionRequestServiceImplementation implements AdoptionRequestServ
         adoptionRequestListDTO.setTotalElements(requests.getTotalElements());
         adoptionRequestListDTO.setTotalPages(requests.getTotalPages());
         adoptionRequestListDTO.setLast(requests.isLast());
-
         return adoptionRequestListDTO;
     }
-
-
 }
-
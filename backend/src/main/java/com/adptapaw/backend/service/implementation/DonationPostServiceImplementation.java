@@ -5,12 +5,20 @@ package com.adptapaw.backend.service.implementation;
 import com.adptapaw.backend.entity.Donation;
 import com.adptapaw.backend.entity.DonationPost;
 
+import com.adptapaw.backend.payload.donations.DonationPostCardDTO;
+import com.adptapaw.backend.payload.donations.DonationPostCardResponseDTO;
 import com.adptapaw.backend.payload.donations.DonationPostDTO;
 import com.adptapaw.backend.payload.donations.DonationPostResponseDTO;
+import com.adptapaw.backend.payload.mapper.DonationMapper;
 import com.adptapaw.backend.repository.DonationRepository;
 import com.adptapaw.backend.repository.DonationPostRepository;
 import com.adptapaw.backend.service.DonationPostService;
-import org.modelmapper.ModelMapper;
+import com.adptapaw.backend.service.cache.DtoCache;
+import com.adptapaw.backend.service.pagination.KeysetPage;
+import com.adptapaw.backend.service.pagination.KeysetPaginator;
+import com.adptapaw.backend.service.trending.ViewCounterService;
+import com.adptapaw.backend.service.trending.ViewTarget;
+import com.adptapaw.backend.utils.AdoptapawConstants;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -19,36 +27,49 @@ import org.springframework.stereotype.Service;
 
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class DonationPostServiceImplementation implements DonationPostService {
-    private ModelMapper mapper;
+
+    private static final String[] CARD_COLUMNS = {"id", "name", "type", "image", "location", "targetamount", "remainingamount"};
+
+    private DonationMapper mapper;
 
 
     private DonationPostRepository donationPostRepository;
     private DonationRepository donationRepository;
+    private KeysetPaginator keysetPaginator;
+    private DtoCache<Long, DonationPostDTO> donationPostCache;
+    private ViewCounterService viewCounterService;
 
 
 //    @Autowired
 //    private UserRepository userRepository;
 
 
-    public DonationPostServiceImplementation(ModelMapper mapper, DonationPostRepository donationPostRepository, DonationRepository donationGiverRepository) {
+    public DonationPostServiceImplementation(DonationMapper mapper, DonationPostRepository donationPostRepository, DonationRepository donationGiverRepository, KeysetPaginator keysetPaginator, DtoCache<Long, DonationPostDTO> donationPostCache,
+                                             ViewCounterService viewCounterService) {
         this.mapper = mapper;
         this.donationPostRepository = donationPostRepository;
         this.donationRepository = donationGiverRepository;
+        this.keysetPaginator = keysetPaginator;
+        this.donationPostCache = donationPostCache;
+        this.viewCounterService = viewCounterService;
     }
 
 
     private DonationPostDTO mapToDTO(DonationPost donationPost){
-        DonationPostDTO donationPostDTO = mapper.map(donationPost, DonationPostDTO.class);
+        DonationPostDTO donationPostDTO = mapper.toPostDTO(donationPost);
         return donationPostDTO;
     }
 
     // convert DTO to entity
     private DonationPost mapToEntity(DonationPostDTO donationPostDTO){
-        DonationPost donationPost = mapper.map(donationPostDTO, DonationPost.class);
+        DonationPost donationPost = mapper.toPostEntity(donationPostDTO);
         return donationPost;
     }
 
@@ -62,7 +83,38 @@ public class DonationPostServiceImplementation implements DonationPostService {
 
 
     @Override
-    public DonationPostResponseDTO getAllDonationsPosts(int pageNo, int pageSize, String sortBy, String sortDir) {
+    public DonationPostResponseDTO getAllDonationsPosts(int pageNo, int pageSize, String sortBy, String sortDir, String cursor) {
+
+        if (AdoptapawConstants.TRENDING_SORT.equalsIgnoreCase(sortBy)) {
+            Page<Long> trending = viewCounterService.trendingIds(ViewTarget.DONATION_POST, cursor, pageNo, pageSize);
+            Map<Long, DonationPost> byId = donationPostRepository.findAllById(trending.getContent()).stream()
+                    .collect(Collectors.toMap(DonationPost::getId, Function.identity()));
+            List<DonationPostDTO> content = trending.getContent().stream().map(byId::get).filter(Objects::nonNull)
+                    .map(donationPostItem -> mapToDTO(donationPostItem)).collect(Collectors.toList());
+
+            DonationPostResponseDTO donationPostResponse = new DonationPostResponseDTO();
+            donationPostResponse.setContent(content);
+            donationPostResponse.setPageNo(trending.getNumber());
+            donationPostResponse.setPageSize(trending.getSize());
+            donationPostResponse.setTotalElements(trending.getTotalElements());
+            donationPostResponse.setTotalPages(trending.getTotalPages());
+            donationPostResponse.setLast(trending.isLast());
+
+            return donationPostResponse;
+        }
+
+        if (cursor != null) {
+            KeysetPage<DonationPost> page = keysetPaginator.fetch(DonationPost.class, sortBy, sortDir, cursor, pageSize);
+            List<DonationPostDTO> content = page.getContent().stream().map(donationPostItem -> mapToDTO(donationPostItem)).collect(Collectors.toList());
+
+            DonationPostResponseDTO donationPostResponse = new DonationPostResponseDTO();
+            donationPostResponse.setContent(content);
+            donationPostResponse.setPageSize(pageSize);
+            donationPostResponse.setLast(page.isLast());
+            donationPostResponse.setNextCursor(page.getNextCursor());
+
+            return donationPostResponse;
+        }
 
         Sort sort = sortDir.equalsIgnoreCase(Sort.Direction.ASC.name()) ? Sort.by(sortBy).ascending()
                 : Sort.by(sortBy).descending();
@@ -85,6 +137,54 @@ public class DonationPostServiceImplementation implements DonationPostService {
         return donationPostResponse;
     }
 
+    @Override
+    public DonationPostCardResponseDTO getDonationPostCards(int pageNo, int pageSize, String sortBy, String sortDir, String cursor) {
+
+        if (AdoptapawConstants.TRENDING_SORT.equalsIgnoreCase(sortBy)) {
+            Page<Long> trending = viewCounterService.trendingIds(ViewTarget.DONATION_POST, cursor, pageNo, pageSize);
+            Map<Long, DonationPostCardDTO> cardsById = donationPostRepository.findCardsByIdIn(trending.getContent()).stream()
+                    .collect(Collectors.toMap(DonationPostCardDTO::getId, Function.identity()));
+
+            DonationPostCardResponseDTO donationPostCardResponse = new DonationPostCardResponseDTO();
+            donationPostCardResponse.setContent(trending.getContent().stream().map(cardsById::get).filter(Objects::nonNull).collect(Collectors.toList()));
+            donationPostCardResponse.setPageNo(trending.getNumber());
+            donationPostCardResponse.setPageSize(trending.getSize());
+            donationPostCardResponse.setTotalElements(trending.getTotalElements());
+            donationPostCardResponse.setTotalPages(trending.getTotalPages());
+            donationPostCardResponse.setLast(trending.isLast());
+
+            return donationPostCardResponse;
+        }
+
+        if (cursor != null) {
+            KeysetPage<DonationPostCardDTO> page = keysetPaginator.fetch(DonationPost.class, DonationPostCardDTO.class, CARD_COLUMNS, sortBy, sortDir, cursor, pageSize);
+
+            DonationPostCardResponseDTO donationPostCardResponse = new DonationPostCardResponseDTO();
+            donationPostCardResponse.setContent(page.getContent());
+            donationPostCardResponse.setPageSize(pageSize);
+            donationPostCardResponse.setLast(page.isLast());
+            donationPostCardResponse.setNextCursor(page.getNextCursor());
+
+            return donationPostCardResponse;
+        }
+
+        Sort sort = sortDir.equalsIgnoreCase(Sort.Direction.ASC.name()) ? Sort.by(sortBy).ascending()
+                : Sort.by(sortBy).descending();
+
+        Pageable pageable = PageRequest.of(pageNo, pageSize, sort);
+        Page<DonationPostCardDTO> cards = donationPostRepository.findAllCards(pageable);
+
+        DonationPostCardResponseDTO donationPostCardResponse = new DonationPostCardResponseDTO();
+        donationPostCardResponse.setContent(cards.getContent());
+        donationPostCardResponse.setPageNo(cards.getNumber());
+        donationPostCardResponse.setPageSize(cards.getSize());
+        donationPostCardResponse.setTotalElements(cards.getTotalElements());
+        donationPostCardResponse.setTotalPages(cards.getTotalPages());
+        donationPostCardResponse.setLast(cards.isLast());
+
+        return donationPostCardResponse;
+    }
+
     @Override
     public DonationPostDTO createDonationsPost(DonationPostDTO donationPostDTO) {
 
@@ -113,9 +213,8 @@ public class DonationPostServiceImplementation implements DonationPostService {
     @Override
     public DonationPostDTO getAllById(String id) {
 
-        DonationPost donationPost =donationPostRepository.findById(Long.valueOf(id)).get();
-
-        return mapToDTO(donationPost);
+        DonationPostDTO donationPostDTO = donationPostCache.get(Long.valueOf(id), postId -> mapToDTO(donationPostRepository.findById(postId).get()));
+        return donationPostDTO;
     }
 
     @Override
@@ -130,6 +229,7 @@ public class DonationPostServiceImplementation implements DonationPostService {
         feeds.setImage(donationPostDTO.getImage());
         feeds.setLocation(donationPostDTO.getLocation());
         donationPostRepository.save(feeds);
+        donationPostCache.invalidate(feeds.getId());
 
         return mapToDTO(feeds);
 
@@ -148,6 +248,7 @@ public class DonationPostServiceImplementation implements DonationPostService {
 
 
         donationPostRepository.delete(post);
+        donationPostCache.invalidate(post.getId());
         return "Post Deleted Successfully " + post.getId();
     }
 
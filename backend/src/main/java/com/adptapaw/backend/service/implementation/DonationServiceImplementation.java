@@ -10,12 +10,13 @@ import com.adptapaw.backend.payload.donations.DonationListDTO;
 import com.adptapaw.backend.payload.donations.DonationDTO;
 import com.adptapaw.backend.payload.donations.DonationUserDTO;
 import com.adptapaw.backend.payload.donations.DonationPostDTO;
+import com.adptapaw.backend.payload.mapper.DonationMapper;
 import com.adptapaw.backend.repository.DonationRepository;
 import com.adptapaw.backend.repository.DonationPostRepository;
 import com.adptapaw.backend.repository.UserRepository;
 import com.adptapaw.backend.service.DonationService;
+import com.adptapaw.backend.service.cache.DtoCache;
 import com.adptapaw.backend.service.email.EmailService;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -35,7 +36,7 @@ import java.util.stream.Collectors;
 
 @Service
 public class DonationServiceImplementation implements DonationService {
-    private final ModelMapper mapper;
+    private final DonationMapper mapper;
     private final DonationRepository donationRepository;
 
     private final DonationPostRepository donationPostRepository;
@@ -45,24 +46,27 @@ public class DonationServiceImplementation implements DonationService {
     @Autowired
     private EmailService emailService;
 
-    public DonationServiceImplementation(ModelMapper mapper, DonationRepository donationRepository, DonationPostRepository donationPostRepository) {
+    @Autowired
+    private DtoCache<Long, DonationPostDTO> donationPostCache;
+
+    public DonationServiceImplementation(DonationMapper mapper, DonationRepository donationRepository, DonationPostRepository donationPostRepository) {
         this.mapper = mapper;
         this.donationRepository = donationRepository;
         this.donationPostRepository = donationPostRepository;
     }
 
     private DonationPostDTO mapToDTO(DonationPost donationPost){
-        return mapper.map(donationPost, DonationPostDTO.class);
+        return mapper.toPostDTO(donationPost);
     }
 
 
 
     private DonationDTO mapToRequestDTO(Donation donation){
-        return mapper.map(donation, DonationDTO.class);
+        return mapper.toDonationDTO(donation);
     }
 
     private DonationUserDTO mapTouserDTO(User user){
-        return mapper.map(user, DonationUserDTO.class);
+        return mapper.toUserDTO(user);
     }
 
     public DonationDTO createDonation(String uid, String id, DonationDTO donationDTO) {
@@ -96,6 +100,7 @@ public class DonationServiceImplementation implements DonationService {
         donationpost.setRemainingamount(remainingamount);
         donationpost.setPeopledonated(peopledonated);
         this.donationPostRepository.save(donationpost);
+        donationPostCache.invalidate(donationpost.getId());
 
 
         this.donationRepository.save(request);
@@ -0,0 +1,135 @@
+package com.adptapaw.backend.service.implementation;
+
+import com.adptapaw.backend.repository.AdoptionAnimalRepository;
+import com.adptapaw.backend.repository.DonationPostRepository;
+import com.adptapaw.backend.repository.MissingAnimalRepository;
+import com.adptapaw.backend.service.ETagService;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+
+/**
+ * Builds HTTP validators from the @Version columns with a single scalar query,
+ * so a conditional GET can be answered with 304 before any entity is loaded
+ * or mapped. Detail tags are strong; list tags are weak because a page only
+ * changes in meaning, not necessarily byte for byte, when the table changes.
+ * A null tag means the entity does not exist and the normal path should run.
+ *
+ * List tags read a per-table generation from list_generations, so the check
+ * is a primary-key lookup however large the table grows. Triggers bump it
+ * for every transaction that changes a row, including writes made outside
+ * JPA (bulk import, moderation, archival). They are row-level constraint
+ * triggers deferred to commit: statements that touch no row bump nothing,
+ * the bump happens once per table per transaction, and the generation row
+ * is only locked while the writer commits rather than for its whole
+ * transaction, so concurrent writers do not queue behind each other. The
+ * trigger function is PL/pgSQL, which the init scripts cannot contain (they
+ * are split on ';'), so it is installed here.
+ */
+@Service
+public class ETagServiceImplementation implements ETagService {
+
+    private static final String ADOPTION = "adoption";
+    private static final String MISSING = "missing";
+    private static final String DONATION_POST = "donationpost";
+
+    private final AdoptionAnimalRepository adoptionAnimalRepository;
+    private final MissingAnimalRepository missingAnimalRepository;
+    private final DonationPostRepository donationPostRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    public ETagServiceImplementation(AdoptionAnimalRepository adoptionAnimalRepository, MissingAnimalRepository missingAnimalRepository,
+                                     DonationPostRepository donationPostRepository, JdbcTemplate jdbcTemplate) {
+        this.adoptionAnimalRepository = adoptionAnimalRepository;
+        this.missingAnimalRepository = missingAnimalRepository;
+        this.donationPostRepository = donationPostRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void installGenerationTriggers() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS list_generations (target varchar(32) PRIMARY KEY, generation bigint NOT NULL)");
+        // the first value is a timestamp, so a recreated row never repeats a generation a client may still hold;
+        // a transaction-local setting makes every row event after the first a no-op
+        jdbcTemplate.execute("CREATE OR REPLACE FUNCTION bump_list_generation() RETURNS trigger LANGUAGE plpgsql AS $$ BEGIN "
+                + "IF current_setting('list_generation.bumped_' || TG_ARGV[0], true) = 'on' THEN RETURN NULL; END IF; "
+                + "PERFORM set_config('list_generation.bumped_' || TG_ARGV[0], 'on', true); "
+                + "INSERT INTO list_generations (target, generation) VALUES (TG_ARGV[0], (extract(epoch FROM clock_timestamp()) * 1000)::bigint) "
+                + "ON CONFLICT (target) DO UPDATE SET generation = list_generations.generation + 1; "
+                + "RETURN NULL; END $$");
+        installTrigger("adoptionanimal", ADOPTION);
+        installTrigger("missinganimal", MISSING);
+        installTrigger("donationposts", DONATION_POST);
+    }
+
+    private void installTrigger(String table, String target) {
+        String name = "trg_" + table + "_list_generation";
+        String bump = " EXECUTE PROCEDURE bump_list_generation('" + target + "')";
+        // the statement-level trigger of earlier versions
+        jdbcTemplate.execute("DROP TRIGGER IF EXISTS " + name + " ON " + table);
+        jdbcTemplate.execute("DROP TRIGGER IF EXISTS " + name + "_write ON " + table);
+        jdbcTemplate.execute("DROP TRIGGER IF EXISTS " + name + "_update ON " + table);
+        jdbcTemplate.execute("DROP TRIGGER IF EXISTS " + name + "_truncate ON " + table);
+        jdbcTemplate.execute("CREATE CONSTRAINT TRIGGER " + name + "_write AFTER INSERT OR DELETE ON " + table
+                + " DEFERRABLE INITIALLY DEFERRED FOR EACH ROW" + bump);
+        jdbcTemplate.execute("CREATE CONSTRAINT TRIGGER " + name + "_update AFTER UPDATE ON " + table
+                + " DEFERRABLE INITIALLY DEFERRED FOR EACH ROW WHEN (OLD.* IS DISTINCT FROM NEW.*)" + bump);
+        // TRUNCATE has no row events; it is rare enough to bump immediately
+        jdbcTemplate.execute("CREATE TRIGGER " + name + "_truncate AFTER TRUNCATE ON " + table + " FOR EACH STATEMENT" + bump);
+    }
+
+    @Override
+    public String adoptionAnimalTag(String id) {
+        Long animalId = parseId(id);
+        return animalId == null ? null : strong(ADOPTION, animalId, adoptionAnimalRepository.findVersionById(animalId));
+    }
+
+    @Override
+    public String adoptionAnimalListTag() {
+        return weak(ADOPTION);
+    }
+
+    @Override
+    public String missingAnimalTag(String id) {
+        Long animalId = parseId(id);
+        return animalId == null ? null : strong(MISSING, animalId, missingAnimalRepository.findVersionById(animalId));
+    }
+
+    @Override
+    public String missingAnimalListTag() {
+        return weak(MISSING);
+    }
+
+    @Override
+    public String donationPostTag(String id) {
+        Long postId = parseId(id);
+        return postId == null ? null : strong(DONATION_POST, postId, donationPostRepository.findVersionById(postId));
+    }
+
+    @Override
+    public String donationPostListTag() {
+        return weak(DONATION_POST);
+    }
+
+    private Long parseId(String id) {
+        try {
+            return Long.valueOf(id);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private String strong(String prefix, Long id, Long version) {
+        if (version == null) {
+            return null;
+        }
+        return "\"" + prefix + "-" + id + "-v" + version + "\"";
+    }
+
+    private String weak(String target) {
+        List<Long> generation = jdbcTemplate.queryForList("SELECT generation FROM list_generations WHERE target = ?", Long.class, target);
+        return "W/\"" + target + "-g" + (generation.isEmpty() ? 0 : generation.get(0)) + "\"";
+    }
+}
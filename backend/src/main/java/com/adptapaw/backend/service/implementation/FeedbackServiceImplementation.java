@@ -6,9 +6,11 @@ import com.adptapaw.backend.entity.Feedback;
 import com.adptapaw.backend.payload.FeedbackDTO;
 
 import com.adptapaw.backend.payload.FeedbackListDTO;
+import com.adptapaw.backend.payload.mapper.FeedbackMapper;
 import com.adptapaw.backend.repository.FeedbackRepository;
 import com.adptapaw.backend.service.FeedbackService;
-import org.modelmapper.ModelMapper;
+import com.adptapaw.backend.service.pagination.KeysetPage;
+import com.adptapaw.backend.service.pagination.KeysetPaginator;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -21,16 +23,18 @@ import java.util.stream.Collectors;
 
 @Service
 public class FeedbackServiceImplementation implements FeedbackService {
-    private final ModelMapper mapper;
+    private final FeedbackMapper mapper;
     private final FeedbackRepository feedbackPageRepository;
+    private final KeysetPaginator keysetPaginator;
 
-    public FeedbackServiceImplementation(ModelMapper mapper, FeedbackRepository feedbackPageRepository) {
+    public FeedbackServiceImplementation(FeedbackMapper mapper, FeedbackRepository feedbackPageRepository, KeysetPaginator keysetPaginator) {
         this.mapper = mapper;
         this.feedbackPageRepository = feedbackPageRepository;
+        this.keysetPaginator = keysetPaginator;
     }
 
     private FeedbackDTO mapToFeedbackDTO(Feedback feedbackPage){
-        return mapper.map(feedbackPage, FeedbackDTO.class);
+        return mapper.toDTO(feedbackPage);
     }
 
     public FeedbackDTO createFeedback(FeedbackDTO feedbackPageDTO) {
@@ -53,7 +57,20 @@ public class FeedbackServiceImplementation implements FeedbackService {
         return mapToFeedbackDTO(feedbackPage);
     }
     @Override
-    public FeedbackListDTO getAllFeedbacks(int pageNo, int pageSize, String sortBy, String sortDir) {
+    public FeedbackListDTO getAllFeedbacks(int pageNo, int pageSize, String sortBy, String sortDir, String cursor) {
+
+        if (cursor != null) {
+            KeysetPage<Feedback> page = keysetPaginator.fetch(Feedback.class, sortBy, sortDir, cursor, pageSize);
+            List<FeedbackDTO> content = page.getContent().stream().map(feedbackItem -> mapToFeedbackDTO(feedbackItem)).collect(Collectors.toList());
+
+            FeedbackListDTO feedbackListDTO = new FeedbackListDTO();
+            feedbackListDTO.setContent(content);
+            feedbackListDTO.setPageSize(pageSize);
+            feedbackListDTO.setLast(page.isLast());
+            feedbackListDTO.setNextCursor(page.getNextCursor());
+
+            return feedbackListDTO;
+        }
 
 
         Sort sort = sortDir.equalsIgnoreCase(Sort.Direction.ASC.name()) ? Sort.by(sortBy).ascending()
@@ -8,14 +8,29 @@ import com.adptapaw.backend.entity.MissingRequest;
 import com.adptapaw.backend.entity.User;
 import com.adptapaw.backend.exception.BadRequestException;
 import com.adptapaw.backend.exception.ResourceNotFoundException;
+import com.adptapaw.backend.payload.mapper.MissingMapper;
 import com.adptapaw.backend.payload.missing.MissingAnimalDTO;
 import com.adptapaw.backend.payload.missing.MissingAnimalResponseDTO;
+import com.adptapaw.backend.payload.missing.MissingCardDTO;
+import com.adptapaw.backend.payload.missing.MissingCardResponseDTO;
+import com.adptapaw.backend.payload.missing.MissingTextSearchDTO;
+import com.adptapaw.backend.payload.missing.MissingTextSearchResponseDTO;
 import com.adptapaw.backend.payload.missing.MissingUserDTO;
 import com.adptapaw.backend.repository.MissingAnimalRepository;
 import com.adptapaw.backend.repository.MissingRequestRepository;
 import com.adptapaw.backend.repository.UserRepository;
+import com.adptapaw.backend.repository.projection.MissingAnimalTextMatch;
 import com.adptapaw.backend.service.MissingAnimalService;
-import org.modelmapper.ModelMapper;
+import com.adptapaw.backend.service.cache.DtoCache;
+import com.adptapaw.backend.service.feed.MissingFeedService;
+import com.adptapaw.backend.service.geo.GeoPoint;
+import com.adptapaw.backend.service.geo.GeoSearchService;
+import com.adptapaw.backend.service.imagematch.ImageMatchService;
+import com.adptapaw.backend.service.matching.AnimalMatchService;
+import com.adptapaw.backend.service.pagination.KeysetPage;
+import com.adptapaw.backend.service.pagination.KeysetPaginator;
+import com.adptapaw.backend.service.savedsearch.SavedSearchService;
+import com.adptapaw.backend.service.search.Snippets;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -26,7 +41,10 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import javax.transaction.Transactional;
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
@@ -34,7 +52,9 @@ import java.util.stream.Collectors;
 @Service
 public class MissingAnimalServiceImplementation implements MissingAnimalService {
 
-    private final ModelMapper mapper;
+    private static final String[] CARD_COLUMNS = {"id", "name", "type", "breed", "location", "image", "stillmissing", "datemissing"};
+
+    private final MissingMapper mapper;
 
     private final MissingAnimalRepository missingAnimalRepository;
 
@@ -44,21 +64,42 @@ public class MissingAnimalServiceImplementation implements MissingAnimalService
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private GeoSearchService geoSearchService;
+
+    @Autowired
+    private DtoCache<Long, MissingAnimalDTO> missingAnimalCache;
+
+    @Autowired
+    private KeysetPaginator keysetPaginator;
+
+    @Autowired
+    private SavedSearchService savedSearchService;
+
+    @Autowired
+    private ImageMatchService imageMatchService;
+
+    @Autowired
+    private AnimalMatchService animalMatchService;
 
-    public MissingAnimalServiceImplementation(ModelMapper mapper, MissingAnimalRepository missingAnimalRepository, MissingRequestRepository missingRequestRepository) {
+    @Autowired
+    private MissingFeedService missingFeedService;
+
+
+    public MissingAnimalServiceImplementation(MissingMapper mapper, MissingAnimalRepository missingAnimalRepository, MissingRequestRepository missingRequestRepository) {
         this.mapper = mapper;
         this.missingAnimalRepository = missingAnimalRepository;
         this.missingRequestRepository = missingRequestRepository;
     }
 
     private MissingAnimalDTO mapToDTO(MissingAnimal missingAnimal){
-        MissingAnimalDTO missingAnimalDTO = mapper.map(missingAnimal, MissingAnimalDTO.class);
+        MissingAnimalDTO missingAnimalDTO = mapper.toDTO(missingAnimal);
         return missingAnimalDTO;
     }
 
     // convert DTO to entity
     private MissingAnimal mapToEntity(MissingAnimalDTO missingAnimalDTO){
-        MissingAnimal missingAnimal = mapper.map(missingAnimalDTO, MissingAnimal.class);
+        MissingAnimal missingAnimal = mapper.toEntity(missingAnimalDTO);
         return missingAnimal;
     }
 
@@ -94,7 +135,20 @@ public class MissingAnimalServiceImplementation implements MissingAnimalService
 
 
     @Override
-    public MissingAnimalResponseDTO getAllMissingAnimals(int pageNo,  int pageSize, String sortBy,String sortDir) {
+    public MissingAnimalResponseDTO getAllMissingAnimals(int pageNo,  int pageSize, String sortBy,String sortDir, String cursor) {
+
+        if (cursor != null) {
+            KeysetPage<MissingAnimal> page = keysetPaginator.fetch(MissingAnimal.class, sortBy, sortDir, cursor, pageSize);
+            List<MissingAnimalDTO> content = page.getContent().stream().map(missingAnimalItem -> mapToDTO(missingAnimalItem)).collect(Collectors.toList());
+
+            MissingAnimalResponseDTO missingAnimalResponse = new MissingAnimalResponseDTO();
+            missingAnimalResponse.setContent(content);
+            missingAnimalResponse.setPageSize(pageSize);
+            missingAnimalResponse.setLast(page.isLast());
+            missingAnimalResponse.setNextCursor(page.getNextCursor());
+
+            return missingAnimalResponse;
+        }
 
         Sort sort = sortDir.equalsIgnoreCase(Sort.Direction.ASC.name()) ? Sort.by(sortBy).ascending()
                 : Sort.by(sortBy).descending();
@@ -117,6 +171,74 @@ public class MissingAnimalServiceImplementation implements MissingAnimalService
         return missingAnimalResponse;
     }
 
+    @Override
+    public MissingCardResponseDTO getMissingAnimalCards(int pageNo, int pageSize, String sortBy, String sortDir, String cursor) {
+
+        if (cursor != null) {
+            KeysetPage<MissingCardDTO> page = keysetPaginator.fetch(MissingAnimal.class, MissingCardDTO.class, CARD_COLUMNS, sortBy, sortDir, cursor, pageSize);
+
+            MissingCardResponseDTO missingCardResponse = new MissingCardResponseDTO();
+            missingCardResponse.setContent(page.getContent());
+            missingCardResponse.setPageSize(pageSize);
+            missingCardResponse.setLast(page.isLast());
+            missingCardResponse.setNextCursor(page.getNextCursor());
+
+            return missingCardResponse;
+        }
+
+        Sort sort = sortDir.equalsIgnoreCase(Sort.Direction.ASC.name()) ? Sort.by(sortBy).ascending()
+                : Sort.by(sortBy).descending();
+
+        Pageable pageable = PageRequest.of(pageNo, pageSize, sort);
+        Page<MissingCardDTO> cards = missingAnimalRepository.findAllCards(pageable);
+
+        MissingCardResponseDTO missingCardResponse = new MissingCardResponseDTO();
+        missingCardResponse.setContent(cards.getContent());
+        missingCardResponse.setPageNo(cards.getNumber());
+        missingCardResponse.setPageSize(cards.getSize());
+        missingCardResponse.setTotalElements(cards.getTotalElements());
+        missingCardResponse.setTotalPages(cards.getTotalPages());
+        missingCardResponse.setLast(cards.isLast());
+
+        return missingCardResponse;
+    }
+
+    @Override
+    public MissingTextSearchResponseDTO searchByText(String query, int pageNo, int pageSize) {
+
+        if (query == null || query.trim().isEmpty()) {
+            throw new BadRequestException("Search query is required");
+        }
+
+        Pageable pageable = PageRequest.of(pageNo, pageSize);
+        Page<MissingAnimalTextMatch> matches = missingAnimalRepository.searchByText(query.trim(), pageable);
+
+        List<MissingTextSearchDTO> content = matches.getContent().stream().map(match -> {
+            MissingTextSearchDTO missingTextSearchDTO = new MissingTextSearchDTO();
+            missingTextSearchDTO.setId(match.getId());
+            missingTextSearchDTO.setName(match.getName());
+            missingTextSearchDTO.setType(match.getType());
+            missingTextSearchDTO.setBreed(match.getBreed());
+            missingTextSearchDTO.setLocation(match.getLocation());
+            missingTextSearchDTO.setImage(match.getImage());
+            missingTextSearchDTO.setStillmissing(match.getStillmissing());
+            missingTextSearchDTO.setDatemissing(match.getDatemissing());
+            missingTextSearchDTO.setRank(match.getRank());
+            missingTextSearchDTO.setSnippet(Snippets.toSafeHtml(match.getSnippet()));
+            return missingTextSearchDTO;
+        }).collect(Collectors.toList());
+
+        MissingTextSearchResponseDTO missingTextSearchResponse = new MissingTextSearchResponseDTO();
+        missingTextSearchResponse.setContent(content);
+        missingTextSearchResponse.setPageNo(matches.getNumber());
+        missingTextSearchResponse.setPageSize(matches.getSize());
+        missingTextSearchResponse.setTotalElements(matches.getTotalElements());
+        missingTextSearchResponse.setTotalPages(matches.getTotalPages());
+        missingTextSearchResponse.setLast(matches.isLast());
+
+        return missingTextSearchResponse;
+    }
+
     @Override
     public MissingAnimalDTO createMissingAnimal(String id, MissingAnimalDTO missingAnimalDTO) {
 
@@ -128,6 +250,9 @@ public class MissingAnimalServiceImplementation implements MissingAnimalService
         animal.setGender(missingAnimalDTO.getGender());
         animal.setType(missingAnimalDTO.getType());
         animal.setLocation(missingAnimalDTO.getLocation());
+        GeoPoint point = geoSearchService.resolve(missingAnimalDTO.getLatitude(), missingAnimalDTO.getLongitude(), missingAnimalDTO.getLocation());
+        animal.setLatitude(point == null ? null : point.getLatitude());
+        animal.setLongitude(point == null ? null : point.getLongitude());
         animal.setName(missingAnimalDTO.getName());
         animal.setVaccine(missingAnimalDTO.getVaccine());
         animal.setStillmissing(true);
@@ -150,6 +275,11 @@ public class MissingAnimalServiceImplementation implements MissingAnimalService
         animal.setCreator(user);
 
         missingAnimalRepository.save(animal);
+        geoSearchService.indexMissingAnimal(animal);
+        imageMatchService.indexMissingAnimal(animal);
+        animalMatchService.indexMissingAnimal(animal);
+        savedSearchService.percolate(animal);
+        missingFeedService.publishMissingAnimal(animal);
 
         MissingUserDTO missingUserDTO = new MissingUserDTO();
 
@@ -157,6 +287,8 @@ public class MissingAnimalServiceImplementation implements MissingAnimalService
         missingUserDTO.setId(user.getId());
         missingAnimalDTO.setCreator(missingUserDTO);
         missingAnimalDTO.setId(animal.getId());
+        missingAnimalDTO.setLatitude(animal.getLatitude());
+        missingAnimalDTO.setLongitude(animal.getLongitude());
 
 
         return missingAnimalDTO;
@@ -166,9 +298,7 @@ public class MissingAnimalServiceImplementation implements MissingAnimalService
     @Override
     public MissingAnimalDTO getAllById(String id) {
 
-        MissingAnimal missingAnimal = missingAnimalRepository.findById(Long.valueOf(id)).get();
-
-        return mapToDTO(missingAnimal);
+        return missingAnimalCache.get(Long.valueOf(id), animalId -> mapToDTO(missingAnimalRepository.findById(animalId).get()));
     }
     @Override
     public MissingAnimalDTO updateById(String id, MissingAnimalDTO missingAnimalDTO) {
@@ -181,6 +311,9 @@ public class MissingAnimalServiceImplementation implements MissingAnimalService
         missingAnimal.setGender(missingAnimalDTO.getGender());
         missingAnimal.setType(missingAnimalDTO.getType());
         missingAnimal.setLocation(missingAnimalDTO.getLocation());
+        GeoPoint point = geoSearchService.resolve(missingAnimalDTO.getLatitude(), missingAnimalDTO.getLongitude(), missingAnimalDTO.getLocation());
+        missingAnimal.setLatitude(point == null ? null : point.getLatitude());
+        missingAnimal.setLongitude(point == null ? null : point.getLongitude());
         missingAnimal.setName(missingAnimalDTO.getName());
         missingAnimal.setVaccine(missingAnimalDTO.getVaccine());
         missingAnimal.setStillmissing(true);
@@ -191,25 +324,58 @@ public class MissingAnimalServiceImplementation implements MissingAnimalService
 
 
         missingAnimalRepository.save( missingAnimal);
+        missingAnimalCache.invalidate(missingAnimal.getId());
+        geoSearchService.indexMissingAnimal(missingAnimal);
+        imageMatchService.indexMissingAnimal(missingAnimal);
+        animalMatchService.indexMissingAnimal(missingAnimal);
 
         return mapToDTO(missingAnimal);
 
     }
 
     @Override
-    public String DeleteById(String id) {
-       
-        MissingAnimal animal = missingAnimalRepository.findById(Long.valueOf(id)).get();
-        List<MissingRequest>animalRequestList = missingRequestRepository.findAllByPet(animal);
-
-        for (MissingRequest missingRequest : animalRequestList) {
-            missingRequest.setPet(null);
-            missingRequestRepository.deleteById(missingRequest.getId());
+    @Transactional
+    public String DeleteById(String id, boolean soft) {
+
+        Long animalId = Long.valueOf(id);
+
+        // set-based: a constant number of statements however many sightings the post has
+        List<Long> sightingIds = missingRequestRepository.findIdsByPetId(animalId);
+        int affected;
+        if (soft) {
+            affected = missingAnimalRepository.softDeleteById(animalId);
+        } else {
+            missingRequestRepository.deleteAllRequestsByPetId(animalId);
+            affected = missingAnimalRepository.deletePostById(animalId);
+        }
+        if (affected == 0) {
+            throw new ResourceNotFoundException("MissingAnimal", "id", animalId);
         }
 
-        animal.setCreator(null);
-        missingAnimalRepository.delete(animal);
-        return "Post Deleted Successfully " + animal.getId();
+        // a rollback must leave the post in the indexes it is still in
+        afterCommit(() -> {
+            missingAnimalCache.invalidate(animalId);
+            geoSearchService.removeMissingAnimal(animalId);
+            imageMatchService.removeMissingAnimal(animalId);
+            animalMatchService.removeMissingAnimal(animalId);
+            for (Long sightingId : sightingIds) {
+                geoSearchService.removeSighting(sightingId);
+            }
+        });
+        return "Post Deleted Successfully " + animalId;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
 
 }
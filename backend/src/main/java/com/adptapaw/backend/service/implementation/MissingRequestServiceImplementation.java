@@ -2,9 +2,15 @@ package com.adptapaw.backend.service.implementation;
 
 
 
+import com.adptapaw.backend.context.AbstractEmailContext;
 import com.adptapaw.backend.context.GeneralPurposeEmailContext;
 import com.adptapaw.backend.entity.*;
 
+import com.adptapaw.backend.exception.BadRequestException;
+import com.adptapaw.backend.exception.ConflictException;
+import com.adptapaw.backend.exception.ResourceNotFoundException;
+import com.adptapaw.backend.payload.mapper.MissingMapper;
+import com.adptapaw.backend.payload.missing.ImageMatchDTO;
 import com.adptapaw.backend.payload.missing.MissingAnimalDTO;
 import com.adptapaw.backend.payload.missing.MissingRequestDTO;
 import com.adptapaw.backend.payload.missing.MissingRequestListDTO;
@@ -12,17 +18,27 @@ import com.adptapaw.backend.repository.MissingAnimalRepository;
 import com.adptapaw.backend.repository.MissingRequestRepository;
 import com.adptapaw.backend.repository.UserRepository;
 import com.adptapaw.backend.service.MissingRequestService;
+import com.adptapaw.backend.service.cache.DtoCache;
+import com.adptapaw.backend.service.pagination.KeysetPage;
+import com.adptapaw.backend.service.pagination.KeysetPaginator;
 import com.adptapaw.backend.service.email.EmailService;
-import org.modelmapper.ModelMapper;
+import com.adptapaw.backend.service.feed.MissingFeedService;
+import com.adptapaw.backend.service.geo.GeoPoint;
+import com.adptapaw.backend.service.geo.GeoSearchService;
+import com.adptapaw.backend.service.imagematch.ImageMatchService;
+import com.adptapaw.backend.service.matching.AnimalMatchService;
+import com.adptapaw.backend.service.moderation.ApprovalMails;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import javax.mail.MessagingException;
+import javax.transaction.Transactional;
 import java.util.Date;
 import java.util.List;
 import java.util.Objects;
@@ -30,30 +46,50 @@ import java.util.stream.Collectors;
 
 @Service
 public class MissingRequestServiceImplementation implements MissingRequestService {
-    private final ModelMapper mapper;
+    private final MissingMapper mapper;
     private final MissingRequestRepository missingRequestRepository;
 
     private final MissingAnimalRepository missingAnimalRepository;
     @Autowired
     private UserRepository userRepository;
-    private String currentRole ;
 
     @Autowired
     private EmailService emailService;
 
+    @Autowired
+    private KeysetPaginator keysetPaginator;
+
+    @Autowired
+    private GeoSearchService geoSearchService;
+
+    @Autowired
+    private DtoCache<Long, MissingAnimalDTO> missingAnimalCache;
+
+    @Autowired
+    private ApprovalMails approvalMails;
+
+    @Autowired
+    private ImageMatchService imageMatchService;
 
-    public MissingRequestServiceImplementation(ModelMapper mapper, MissingRequestRepository missingRequestRepository,MissingAnimalRepository missingAnimalRepository) {
+    @Autowired
+    private AnimalMatchService animalMatchService;
+
+    @Autowired
+    private MissingFeedService missingFeedService;
+
+
+    public MissingRequestServiceImplementation(MissingMapper mapper, MissingRequestRepository missingRequestRepository,MissingAnimalRepository missingAnimalRepository) {
         this.mapper = mapper;
         this.missingRequestRepository = missingRequestRepository;
         this.missingAnimalRepository = missingAnimalRepository;
     }
 
     private MissingAnimalDTO mapToDTO(MissingAnimal missingAnimal){
-        return mapper.map(missingAnimal, MissingAnimalDTO.class);
+        return mapper.toDTO(missingAnimal);
     }
 
     private MissingRequestDTO mapToRequestDTO(MissingRequest missingRequest){
-        return mapper.map(missingRequest, MissingRequestDTO.class);
+        return mapper.toRequestDTO(missingRequest);
     }
 
     public MissingRequestDTO createMissingRequest(String id, MissingRequestDTO missingRequestDTO) {
@@ -66,11 +102,16 @@ public class MissingRequestServiceImplementation implements MissingRequestServic
         request.setEmail(missingRequestDTO.getEmail());
         request.setMobile(missingRequestDTO.getMobile());
         request.setLocation(missingRequestDTO.getLocation());
+        GeoPoint point = geoSearchService.resolve(missingRequestDTO.getLatitude(), missingRequestDTO.getLongitude(), missingRequestDTO.getLocation());
+        request.setLatitude(point == null ? null : point.getLatitude());
+        request.setLongitude(point == null ? null : point.getLongitude());
         request.setImage(missingRequestDTO.getImage());
         MissingAnimal pet = (MissingAnimal)this.missingAnimalRepository.findById(Long.valueOf(id)).orElse(null);
         request.setPet(pet);
 
         this.missingRequestRepository.save(request);
+        geoSearchService.indexSighting(request);
+        List<ImageMatchDTO> matches = imageMatchService.matchSighting(request);
 
 
         GeneralPurposeEmailContext mail = new GeneralPurposeEmailContext();
@@ -88,7 +129,9 @@ public class MissingRequestServiceImplementation implements MissingRequestServic
             e.printStackTrace();
         }
 
-        return mapToRequestDTO(request);
+        MissingRequestDTO missingRequestResponse = mapToRequestDTO(request);
+        missingRequestResponse.setMatches(matches);
+        return missingRequestResponse;
     }
 
 
@@ -102,7 +145,31 @@ public class MissingRequestServiceImplementation implements MissingRequestServic
     }
 
     @Override
-    public MissingRequestListDTO getAll(String id, int pageNo, int pageSize, String sortBy, String sortDir) {
+    public List<ImageMatchDTO> getImageMatches(String id) {
+        Long requestId;
+        try {
+            requestId = Long.valueOf(id);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid request ID format: " + id);
+        }
+        return imageMatchService.matchesForRequest(requestId);
+    }
+
+    @Override
+    public MissingRequestListDTO getAll(String id, int pageNo, int pageSize, String sortBy, String sortDir, String cursor) {
+
+        if (cursor != null) {
+            KeysetPage<MissingRequest> page = keysetPaginator.fetch(MissingRequest.class, sortBy, sortDir, cursor, pageSize);
+            List<MissingRequestDTO> content = page.getContent().stream().map(missingRequestsItem -> mapToRequestDTO(missingRequestsItem)).collect(Collectors.toList());
+
+            MissingRequestListDTO missingRequestListDTO = new MissingRequestListDTO();
+            missingRequestListDTO.setContent(content);
+            missingRequestListDTO.setPageSize(pageSize);
+            missingRequestListDTO.setLast(page.isLast());
+            missingRequestListDTO.setNextCursor(page.getNextCursor());
+
+            return missingRequestListDTO;
+        }
 
         Sort sort = sortDir.equalsIgnoreCase(Sort.Direction.ASC.name()) ? Sort.by(sortBy).ascending()
                 : Sort.by(sortBy).descending();
@@ -126,72 +193,73 @@ public class MissingRequestServiceImplementation implements MissingRequestServic
 
         return missingRequestListDTO;
     }
+    /**
+     * The request is approved with a conditional update, so one rejected in
+     * bulk moderation, or approved concurrently, is a 409 instead of a second
+     * approval. Admin access is enforced on the controller.
+     */
     @Override
+    @Transactional
     public MissingRequestDTO approveInfo(String uid, String id) {
 
-        MissingRequest missingRequest = missingRequestRepository.findById(Long.valueOf(id)).get();
-        MissingAnimal animal  = missingAnimalRepository.findById(missingRequest.getPet().getId()).get();
-
-        try{
-            User user = userRepository.findById(Long.valueOf(uid)).get();
+        Long requestId;
+        try {
+            requestId = Long.valueOf(id);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid request ID format: " + id);
+        }
+        MissingRequest missingRequest = missingRequestRepository.findById(requestId)
+                .orElseThrow(() -> new ResourceNotFoundException("MissingRequest", "id", requestId));
+        if (missingRequest.getPet() == null) {
+            throw new ResourceNotFoundException("MissingAnimal", "request", requestId);
+        }
+        Long petId = missingRequest.getPet().getId();
 
+        // pet before request, the lock order bulk moderation uses
+        if (missingAnimalRepository.markFound(petId) == 0) {
+            throw new ResourceNotFoundException("MissingAnimal", "id", petId);
+        }
+        if (missingRequestRepository.markApproved(requestId, String.valueOf(new Date())) == 0) {
+            throw new ConflictException("Missing info request " + requestId + " is no longer pending");
+        }
 
-            for (Roles authority : user.getRoles()) {
-                currentRole = authority.getName();
+        // the bulk updates cleared the persistence context; read back what was written
+        MissingRequest approved = missingRequestRepository.findById(requestId).get();
+        MissingAnimal animal = approved.getPet();
+        List<Long> sightingIds = missingRequestRepository.findIdsByPetId(petId);
+
+        afterCommit(() -> {
+            missingAnimalCache.invalidate(petId);
+            geoSearchService.indexMissingAnimal(animal);
+            imageMatchService.removeMissingAnimal(petId);
+            animalMatchService.removeMissingAnimal(petId);
+            for (Long sightingId : sightingIds) {
+                geoSearchService.removeSighting(sightingId);
             }
+            missingFeedService.publishSighting(approved);
 
-            if(currentRole.equals("ROLE_ADMIN")){
-
-                Date date = new Date();
-                missingRequest.setStatus(true);
-                missingRequest.setApproveddate(String.valueOf(date));
-                missingRequestRepository.save(missingRequest);
-
-                animal.setStillmissing(false);
-                missingAnimalRepository.save(animal);
-
-                GeneralPurposeEmailContext mail = new GeneralPurposeEmailContext();
-                mail.setFrom("77795@office.mans.org.pl");
-                mail.setTemplateLocation("missinginformationverification.html");
-                mail.setSubject("Approval of missing information.");
-                mail.setTo(missingRequest.getEmail());
-                mail.put("name",missingRequest.getEmail().split("@")[0]);
-                mail.put("pet",missingRequest.getPet().getName());
-                mail.put("owner",animal.getCreator().getName());
-                mail.put("email",animal.getCreator().getEmail());
-
+            for (AbstractEmailContext mail : approvalMails.missingInfoApproved(approved, animal)) {
                 try{
                     emailService.sendMail(mail);
-
                 }catch (MessagingException e){
                     e.printStackTrace();
                 }
-
-                GeneralPurposeEmailContext mailtoowner = new GeneralPurposeEmailContext();
-                mailtoowner.setFrom("adoptapawofficial@gmail.com");
-                mailtoowner.setTemplateLocation("missinginformationverificationowner.html");
-                mailtoowner.setSubject("We’ve found information about your pet.");
-                mailtoowner.setTo(animal.getCreator().getEmail());
-                mailtoowner.put("name",animal.getCreator().getName());
-                mailtoowner.put("pet",missingRequest.getPet().getName());
-                mailtoowner.put("seeker",missingRequest.getEmail().split("@")[0]);
-                mailtoowner.put("email",missingRequest.getEmail());
-                mailtoowner.put("mobile",missingRequest.getMobile());
-
-                try{
-                    emailService.sendMail(mailtoowner);
-
-                }catch (MessagingException e){
-                    e.printStackTrace();
-                }
-
-                return mapToRequestDTO(missingRequest);
             }
-        }catch (UsernameNotFoundException e){
-            return null;
-        }
+        });
 
-        return null;
+        return mapToRequestDTO(approved);
+    }
 
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
 }
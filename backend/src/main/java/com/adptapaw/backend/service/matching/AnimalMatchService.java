@@ -0,0 +1,24 @@
+package com.adptapaw.backend.service.matching;
+
+import com.adptapaw.backend.entity.AdoptionAnimal;
+import com.adptapaw.backend.entity.MissingAnimal;
+import com.adptapaw.backend.payload.PossibleMatchDTO;
+
+import java.util.List;
+
+public interface AnimalMatchService {
+
+    void indexAdoptionAnimal(AdoptionAnimal adoptionAnimal);
+
+    void removeAdoptionAnimal(Long id);
+
+    void indexMissingAnimal(MissingAnimal missingAnimal);
+
+    void removeMissingAnimal(Long id);
+
+    List<PossibleMatchDTO> matchesForAdoptionAnimal(Long id, int limit);
+
+    List<PossibleMatchDTO> matchesForMissingAnimal(Long id, int limit);
+
+    void rebuild();
+}
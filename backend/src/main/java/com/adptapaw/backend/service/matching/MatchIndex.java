@@ -0,0 +1,197 @@
+package com.adptapaw.backend.service.matching;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keeps the scored pairs between found animals (adoption posts) and open
+ * missing reports. Each side is bucketed by blocking key, so indexing a post
+ * scores it only against the other side's posts in the buckets it probes,
+ * never against every post. Pairs at or above the minimum score are stored
+ * under both ids, which makes either side's ranked list a single map read
+ * and lets a re-indexed post drop its old pairs without a scan.
+ */
+public class MatchIndex {
+
+    private final MatchScorer scorer;
+
+    private final double minScore;
+
+    private final Side found = new Side();
+
+    private final Side missing = new Side();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public MatchIndex(MatchScorer scorer, double minScore) {
+        this.scorer = scorer;
+        this.minScore = minScore;
+    }
+
+    public void putFound(MatchProfile profile) {
+        put(found, missing, profile, true);
+    }
+
+    public void putMissing(MatchProfile profile) {
+        put(missing, found, profile, false);
+    }
+
+    public void removeFound(Long id) {
+        remove(found, missing, id);
+    }
+
+    public void removeMissing(Long id) {
+        remove(missing, found, id);
+    }
+
+    public List<Match> matchesForFound(Long id, int limit) {
+        return ranked(found, missing, id, limit);
+    }
+
+    public List<Match> matchesForMissing(Long id, int limit) {
+        return ranked(missing, found, id, limit);
+    }
+
+    public int foundSize() {
+        lock.readLock().lock();
+        try {
+            return found.profiles.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int missingSize() {
+        lock.readLock().lock();
+        try {
+            return missing.profiles.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void put(Side own, Side other, MatchProfile profile, boolean isFound) {
+        lock.writeLock().lock();
+        try {
+            unlink(own, other, profile.getId());
+            own.profiles.put(profile.getId(), profile);
+            for (String key : profile.blockingKeys()) {
+                own.blocks.computeIfAbsent(key, k -> new HashSet<>()).add(profile.getId());
+            }
+
+            Set<Long> candidates = new HashSet<>();
+            for (String key : profile.probeKeys()) {
+                candidates.addAll(other.blocks.getOrDefault(key, Collections.<Long>emptySet()));
+            }
+            Map<Long, Double> pairs = new HashMap<>();
+            for (Long candidateId : candidates) {
+                MatchProfile candidate = other.profiles.get(candidateId);
+                double score = isFound ? scorer.score(profile, candidate) : scorer.score(candidate, profile);
+                if (score >= minScore) {
+                    pairs.put(candidateId, score);
+                    other.pairs.computeIfAbsent(candidateId, k -> new HashMap<>()).put(profile.getId(), score);
+                }
+            }
+            if (!pairs.isEmpty()) {
+                own.pairs.put(profile.getId(), pairs);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void remove(Side own, Side other, Long id) {
+        lock.writeLock().lock();
+        try {
+            unlink(own, other, id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private List<Match> ranked(Side own, Side other, Long id, int limit) {
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> pairs = own.pairs.get(id);
+            if (pairs == null) {
+                return Collections.emptyList();
+            }
+            MatchProfile self = own.profiles.get(id);
+            List<Match> matches = new ArrayList<>(pairs.size());
+            for (Map.Entry<Long, Double> pair : pairs.entrySet()) {
+                MatchProfile profile = other.profiles.get(pair.getKey());
+                Double distanceKm = self.getPoint() == null || profile.getPoint() == null ? null
+                        : self.getPoint().distanceKm(profile.getPoint());
+                matches.add(new Match(profile, pair.getValue(), distanceKm));
+            }
+            // best score first, newer post first on ties
+            matches.sort((a, b) -> a.score != b.score ? Double.compare(b.score, a.score)
+                    : Long.compare(b.profile.getId(), a.profile.getId()));
+            return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void unlink(Side own, Side other, Long id) {
+        MatchProfile previous = own.profiles.remove(id);
+        if (previous == null) {
+            return;
+        }
+        for (String key : previous.blockingKeys()) {
+            Set<Long> ids = own.blocks.get(key);
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                own.blocks.remove(key);
+            }
+        }
+        Map<Long, Double> pairs = own.pairs.remove(id);
+        if (pairs == null) {
+            return;
+        }
+        for (Long otherId : pairs.keySet()) {
+            Map<Long, Double> reverse = other.pairs.get(otherId);
+            reverse.remove(id);
+            if (reverse.isEmpty()) {
+                other.pairs.remove(otherId);
+            }
+        }
+    }
+
+    private static class Side {
+        private final Map<Long, MatchProfile> profiles = new HashMap<>();
+        private final Map<String, Set<Long>> blocks = new HashMap<>();
+        private final Map<Long, Map<Long, Double>> pairs = new HashMap<>();
+    }
+
+    public static class Match {
+        private final MatchProfile profile;
+        private final double score;
+        private final Double distanceKm;
+
+        public Match(MatchProfile profile, double score, Double distanceKm) {
+            this.profile = profile;
+            this.score = score;
+            this.distanceKm = distanceKm;
+        }
+
+        public MatchProfile getProfile() {
+            return profile;
+        }
+
+        public double getScore() {
+            return score;
+        }
+
+        public Double getDistanceKm() {
+            return distanceKm;
+        }
+    }
+}
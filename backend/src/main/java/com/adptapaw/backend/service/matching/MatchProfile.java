@@ -0,0 +1,186 @@
+package com.adptapaw.backend.service.matching;
+
+import com.adptapaw.backend.service.geo.GeoPoint;
+import com.adptapaw.backend.service.search.FacetIndex;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The attributes of an adoption or missing-animal post that take part in
+ * matching, normalised once when the post is indexed.
+ */
+public class MatchProfile {
+
+    private static final String UNKNOWN = "unknown";
+
+    private static final Set<String> GENDERS = new LinkedHashSet<>(Arrays.asList("male", "female"));
+
+    private static final Map<String, String> COLOR_FAMILIES = new HashMap<>();
+
+    private static final Set<String> FAMILIES = new LinkedHashSet<>();
+
+    static {
+        family("black", "black", "ebony", "jet");
+        family("white", "white", "snow", "ivory");
+        family("grey", "grey", "gray", "silver", "blue", "slate", "smoke");
+        family("brown", "brown", "chocolate", "liver", "brindle", "chestnut", "mahogany", "sable");
+        family("orange", "orange", "ginger", "red", "rust", "copper", "marmalade");
+        family("cream", "cream", "golden", "gold", "yellow", "fawn", "beige", "tan", "buff", "apricot", "sand", "blonde");
+        family("mixed", "tabby", "calico", "tortoiseshell", "tortie", "tricolor", "tricolour", "merle", "spotted", "patched", "mixed", "multicolor", "multicolour");
+    }
+
+    private final Long id;
+    private final String name;
+    private final String type;
+    private final String gender;
+    private final String breed;
+    private final String color;
+    private final String location;
+    private final String image;
+    private final GeoPoint point;
+    private final Set<String> colorFamilies;
+    private final Set<String> breedTokens;
+
+    public MatchProfile(Long id, String name, String type, String gender, String breed, String color,
+                        String location, String image, Double latitude, Double longitude) {
+        this.id = id;
+        this.name = name;
+        this.type = FacetIndex.normalize(type);
+        this.gender = normalizeGender(gender);
+        this.breed = breed;
+        this.color = color;
+        this.location = location;
+        this.image = image;
+        this.point = GeoPoint.isValid(latitude, longitude) ? new GeoPoint(latitude, longitude) : null;
+        this.colorFamilies = colorFamilies(color);
+        this.breedTokens = tokens(breed);
+    }
+
+    /**
+     * Blocking keys: type + gender + colour family, one per combination. An
+     * unknown gender is filed under both genders and an unknown colour under
+     * its own bucket, so missing attributes widen the block instead of hiding
+     * the post.
+     */
+    public Set<String> blockingKeys() {
+        return keys(colorFamilies.isEmpty() ? Collections.singleton(UNKNOWN) : colorFamilies);
+    }
+
+    /**
+     * The keys to look up on the other side: this post's own keys plus the
+     * unknown-colour bucket, or every colour family when this post's colour
+     * is itself unknown.
+     */
+    public Set<String> probeKeys() {
+        Set<String> colors = new LinkedHashSet<>(colorFamilies.isEmpty() ? FAMILIES : colorFamilies);
+        colors.add(UNKNOWN);
+        return keys(colors);
+    }
+
+    private Set<String> keys(Set<String> colors) {
+        Set<String> keys = new LinkedHashSet<>();
+        String typeKey = type == null ? UNKNOWN : type;
+        for (String genderKey : gender == null ? GENDERS : Collections.singleton(gender)) {
+            for (String colorKey : colors) {
+                keys.add(typeKey + "|" + genderKey + "|" + colorKey);
+            }
+        }
+        return keys;
+    }
+
+    private static String normalizeGender(String gender) {
+        String normalized = FacetIndex.normalize(gender);
+        if (normalized == null || normalized.startsWith("unknown") || normalized.equals("n/a")) {
+            return null;
+        }
+        if (normalized.startsWith("m")) {
+            return "male";
+        }
+        if (normalized.startsWith("f")) {
+            return "female";
+        }
+        return normalized;
+    }
+
+    private static Set<String> colorFamilies(String color) {
+        Set<String> families = new LinkedHashSet<>();
+        for (String token : tokens(color)) {
+            String family = COLOR_FAMILIES.get(token);
+            if (family != null) {
+                families.add(family);
+            }
+        }
+        return families;
+    }
+
+    private static Set<String> tokens(String value) {
+        Set<String> tokens = new HashSet<>();
+        if (value == null) {
+            return tokens;
+        }
+        for (String token : value.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (token.length() > 1 && !"and".equals(token) && !"mix".equals(token)) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static void family(String family, String... words) {
+        FAMILIES.add(family);
+        for (String word : words) {
+            COLOR_FAMILIES.put(word, family);
+        }
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getGender() {
+        return gender;
+    }
+
+    public String getBreed() {
+        return breed;
+    }
+
+    public String getColor() {
+        return color;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public String getImage() {
+        return image;
+    }
+
+    public GeoPoint getPoint() {
+        return point;
+    }
+
+    public Set<String> getColorFamilies() {
+        return colorFamilies;
+    }
+
+    public Set<String> getBreedTokens() {
+        return breedTokens;
+    }
+}
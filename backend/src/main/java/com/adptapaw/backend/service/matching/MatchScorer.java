@@ -0,0 +1,68 @@
+package com.adptapaw.backend.service.matching;
+
+import java.util.Set;
+
+/**
+ * Weighted similarity between a found animal and a missing report, in
+ * [0, 1]. Type and gender are already equal (or unknown) inside a block, so
+ * the score ranks on breed words, colour families and distance. A component
+ * that is unknown on either side earns partial credit rather than a miss, so
+ * a sparse post can still surface, below posts that actually agree.
+ */
+public class MatchScorer {
+
+    private static final double UNKNOWN_CREDIT = 0.3;
+
+    private final double breedWeight;
+    private final double colorWeight;
+    private final double distanceWeight;
+    private final double distanceScaleKm;
+
+    public MatchScorer(double breedWeight, double colorWeight, double distanceWeight, double distanceScaleKm) {
+        this.breedWeight = breedWeight;
+        this.colorWeight = colorWeight;
+        this.distanceWeight = distanceWeight;
+        this.distanceScaleKm = distanceScaleKm;
+    }
+
+    public double score(MatchProfile found, MatchProfile missing) {
+        double total = breedWeight + colorWeight + distanceWeight;
+        if (total <= 0) {
+            return 0;
+        }
+        double score = breedWeight * containment(found.getBreedTokens(), missing.getBreedTokens())
+                + colorWeight * jaccard(found.getColorFamilies(), missing.getColorFamilies());
+        if (found.getPoint() != null && missing.getPoint() != null) {
+            score += distanceWeight * Math.exp(-found.getPoint().distanceKm(missing.getPoint()) / distanceScaleKm);
+        } else {
+            score += distanceWeight * UNKNOWN_CREDIT;
+        }
+        return score / total;
+    }
+
+    // breeds are often written shorter on one side ("labrador" vs "labrador retriever"), so the smaller set decides
+    private static double containment(Set<String> a, Set<String> b) {
+        if (a.isEmpty() || b.isEmpty()) {
+            return UNKNOWN_CREDIT;
+        }
+        return shared(a, b) / (double) Math.min(a.size(), b.size());
+    }
+
+    private static double jaccard(Set<String> a, Set<String> b) {
+        if (a.isEmpty() || b.isEmpty()) {
+            return UNKNOWN_CREDIT;
+        }
+        int shared = shared(a, b);
+        return shared / (double) (a.size() + b.size() - shared);
+    }
+
+    private static int shared(Set<String> a, Set<String> b) {
+        int shared = 0;
+        for (String token : a) {
+            if (b.contains(token)) {
+                shared++;
+            }
+        }
+        return shared;
+    }
+}
@@ -0,0 +1,144 @@
+package com.adptapaw.backend.service.matching.implementation;
+
+import com.adptapaw.backend.entity.AdoptionAnimal;
+import com.adptapaw.backend.entity.MissingAnimal;
+import com.adptapaw.backend.exception.BadRequestException;
+import com.adptapaw.backend.payload.PossibleMatchDTO;
+import com.adptapaw.backend.repository.AdoptionAnimalRepository;
+import com.adptapaw.backend.repository.MissingAnimalRepository;
+import com.adptapaw.backend.service.matching.AnimalMatchService;
+import com.adptapaw.backend.service.matching.MatchIndex;
+import com.adptapaw.backend.service.matching.MatchProfile;
+import com.adptapaw.backend.service.matching.MatchScorer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Cross-references adoption posts (found animals) with open missing reports.
+ * Posts are re-scored against their blocking buckets whenever they are
+ * created, edited or change state, so both ranked lists stay current without
+ * a batch job; the startup rebuild only loads what is already in the tables.
+ */
+@Service
+public class AnimalMatchServiceImplementation implements AnimalMatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnimalMatchServiceImplementation.class);
+
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    private static final int MAX_LIMIT = 50;
+
+    private final AdoptionAnimalRepository adoptionAnimalRepository;
+
+    private final MissingAnimalRepository missingAnimalRepository;
+
+    private final MatchIndex matchIndex;
+
+    public AnimalMatchServiceImplementation(AdoptionAnimalRepository adoptionAnimalRepository, MissingAnimalRepository missingAnimalRepository,
+                                            @Value("${matching.breed-weight:3}") double breedWeight,
+                                            @Value("${matching.color-weight:2}") double colorWeight,
+                                            @Value("${matching.distance-weight:2}") double distanceWeight,
+                                            @Value("${matching.distance-scale-km:25}") double distanceScaleKm,
+                                            @Value("${matching.min-score:0.5}") double minScore) {
+        this.adoptionAnimalRepository = adoptionAnimalRepository;
+        this.missingAnimalRepository = missingAnimalRepository;
+        this.matchIndex = new MatchIndex(new MatchScorer(breedWeight, colorWeight, distanceWeight, distanceScaleKm), minScore);
+    }
+
+    @Override
+    public void indexAdoptionAnimal(AdoptionAnimal adoptionAnimal) {
+        if (!Boolean.TRUE.equals(adoptionAnimal.getAvailability()) || Boolean.TRUE.equals(adoptionAnimal.getDeleted())) {
+            matchIndex.removeFound(adoptionAnimal.getId());
+            return;
+        }
+        matchIndex.putFound(new MatchProfile(adoptionAnimal.getId(), adoptionAnimal.getName(), adoptionAnimal.getType(),
+                adoptionAnimal.getGender(), adoptionAnimal.getBreed(), adoptionAnimal.getColor(), adoptionAnimal.getLocation(),
+                adoptionAnimal.getImageone(), adoptionAnimal.getLatitude(), adoptionAnimal.getLongitude()));
+    }
+
+    @Override
+    public void removeAdoptionAnimal(Long id) {
+        matchIndex.removeFound(id);
+    }
+
+    @Override
+    public void indexMissingAnimal(MissingAnimal missingAnimal) {
+        if (!Boolean.TRUE.equals(missingAnimal.getStillmissing()) || Boolean.TRUE.equals(missingAnimal.getDeleted())) {
+            matchIndex.removeMissing(missingAnimal.getId());
+            return;
+        }
+        matchIndex.putMissing(new MatchProfile(missingAnimal.getId(), missingAnimal.getName(), missingAnimal.getType(),
+                missingAnimal.getGender(), missingAnimal.getBreed(), missingAnimal.getColor(), missingAnimal.getLocation(),
+                missingAnimal.getImage(), missingAnimal.getLatitude(), missingAnimal.getLongitude()));
+    }
+
+    @Override
+    public void removeMissingAnimal(Long id) {
+        matchIndex.removeMissing(id);
+    }
+
+    @Override
+    public List<PossibleMatchDTO> matchesForAdoptionAnimal(Long id, int limit) {
+        return toDTOs(matchIndex.matchesForFound(id, checkLimit(limit)));
+    }
+
+    @Override
+    public List<PossibleMatchDTO> matchesForMissingAnimal(Long id, int limit) {
+        return toDTOs(matchIndex.matchesForMissing(id, checkLimit(limit)));
+    }
+
+    private static int checkLimit(int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new BadRequestException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        return limit;
+    }
+
+    private static List<PossibleMatchDTO> toDTOs(List<MatchIndex.Match> matches) {
+        return matches.stream().map(match -> {
+            MatchProfile profile = match.getProfile();
+            PossibleMatchDTO possibleMatchDTO = new PossibleMatchDTO();
+            possibleMatchDTO.setId(profile.getId());
+            possibleMatchDTO.setName(profile.getName());
+            possibleMatchDTO.setType(profile.getType());
+            possibleMatchDTO.setBreed(profile.getBreed());
+            possibleMatchDTO.setColor(profile.getColor());
+            possibleMatchDTO.setGender(profile.getGender());
+            possibleMatchDTO.setLocation(profile.getLocation());
+            possibleMatchDTO.setImage(profile.getImage());
+            possibleMatchDTO.setDistanceKm(match.getDistanceKm() == null ? null : Math.round(match.getDistanceKm() * 100) / 100.0);
+            possibleMatchDTO.setScore(Math.round(match.getScore() * 1000) / 1000.0);
+            return possibleMatchDTO;
+        }).collect(Collectors.toList());
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Page<MissingAnimal> missingAnimals;
+        int pageNo = 0;
+        do {
+            missingAnimals = missingAnimalRepository.findAll(PageRequest.of(pageNo++, REBUILD_BATCH_SIZE, Sort.by("id")));
+            missingAnimals.getContent().forEach(this::indexMissingAnimal);
+        } while (missingAnimals.hasNext());
+
+        Page<AdoptionAnimal> adoptionAnimals;
+        pageNo = 0;
+        do {
+            adoptionAnimals = adoptionAnimalRepository.findAll(PageRequest.of(pageNo++, REBUILD_BATCH_SIZE, Sort.by("id")));
+            adoptionAnimals.getContent().forEach(this::indexAdoptionAnimal);
+        } while (adoptionAnimals.hasNext());
+
+        logger.info("Match index built with {} found and {} missing animals", matchIndex.foundSize(), matchIndex.missingSize());
+    }
+}
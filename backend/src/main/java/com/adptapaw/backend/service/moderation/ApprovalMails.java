@@ -0,0 +1,76 @@
+package com.adptapaw.backend.service.moderation;
+
+import com.adptapaw.backend.context.AbstractEmailContext;
+import com.adptapaw.backend.context.AccountPasswordResetEmailContext;
+import com.adptapaw.backend.context.GeneralPurposeEmailContext;
+import com.adptapaw.backend.entity.AdoptionAnimal;
+import com.adptapaw.backend.entity.AdoptionRequest;
+import com.adptapaw.backend.entity.MissingAnimal;
+import com.adptapaw.backend.entity.MissingRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Builds the emails sent when a request is approved: one to the person who
+ * made the request and one to the person who posted the animal. Building is
+ * kept apart from sending so approvals can read everything they need inside
+ * their transaction and send afterwards.
+ */
+@Component
+public class ApprovalMails {
+
+    public List<AbstractEmailContext> adoptionApproved(AdoptionRequest adoptionRequest, AdoptionAnimal animal) {
+
+        AccountPasswordResetEmailContext mail = new AccountPasswordResetEmailContext();
+        mail.setFrom("77795@office.mans.org.pl");
+        mail.setTemplateLocation("adoptionapproved.html");
+        mail.setSubject("Congratulations! Your adoption request has been approved.");
+        mail.setTo(adoptionRequest.getEmail());
+        mail.put("name",animal.getOwner().getName());
+        mail.put("pet",animal.getName());
+        mail.put("owner",animal.getUser().getName());
+        mail.put("mobile",animal.getMobile());
+        mail.put("email",animal.getUser().getEmail());
+
+        GeneralPurposeEmailContext mailToOwner = new GeneralPurposeEmailContext();
+        mailToOwner.setFrom("adoptapawofficial@gmail.com");
+        mailToOwner.setTemplateLocation("adoptionapprovedowner.html");
+        mailToOwner.setSubject("We’ve found a suitable person to adopt your pet.");
+        mailToOwner.setTo(animal.getUser().getEmail());
+        mailToOwner.put("name",animal.getUser().getName());
+        mailToOwner.put("pet",animal.getName());
+        mailToOwner.put("seeker",animal.getOwner().getName());
+        mailToOwner.put("mobile",adoptionRequest.getMobile());
+        mailToOwner.put("email",adoptionRequest.getEmail());
+
+        return Arrays.asList(mail, mailToOwner);
+    }
+
+    public List<AbstractEmailContext> missingInfoApproved(MissingRequest missingRequest, MissingAnimal animal) {
+
+        GeneralPurposeEmailContext mail = new GeneralPurposeEmailContext();
+        mail.setFrom("77795@office.mans.org.pl");
+        mail.setTemplateLocation("missinginformationverification.html");
+        mail.setSubject("Approval of missing information.");
+        mail.setTo(missingRequest.getEmail());
+        mail.put("name",missingRequest.getEmail().split("@")[0]);
+        mail.put("pet",animal.getName());
+        mail.put("owner",animal.getCreator().getName());
+        mail.put("email",animal.getCreator().getEmail());
+
+        GeneralPurposeEmailContext mailtoowner = new GeneralPurposeEmailContext();
+        mailtoowner.setFrom("adoptapawofficial@gmail.com");
+        mailtoowner.setTemplateLocation("missinginformationverificationowner.html");
+        mailtoowner.setSubject("We’ve found information about your pet.");
+        mailtoowner.setTo(animal.getCreator().getEmail());
+        mailtoowner.put("name",animal.getCreator().getName());
+        mailtoowner.put("pet",animal.getName());
+        mailtoowner.put("seeker",missingRequest.getEmail().split("@")[0]);
+        mailtoowner.put("email",missingRequest.getEmail());
+        mailtoowner.put("mobile",missingRequest.getMobile());
+
+        return Arrays.asList(mail, mailtoowner);
+    }
+}
@@ -0,0 +1,9 @@
+package com.adptapaw.backend.service.moderation;
+
+import com.adptapaw.backend.payload.ModerationRequestDTO;
+import com.adptapaw.backend.payload.ModerationResultDTO;
+
+public interface ModerationService {
+
+    ModerationResultDTO moderate(ModerationRequestDTO moderationRequestDTO);
+}
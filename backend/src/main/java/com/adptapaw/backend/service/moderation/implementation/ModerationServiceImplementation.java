@@ -0,0 +1,420 @@
+package com.adptapaw.backend.service.moderation.implementation;
+
+import com.adptapaw.backend.context.AbstractEmailContext;
+import com.adptapaw.backend.entity.AdoptionAnimal;
+import com.adptapaw.backend.entity.AdoptionRequest;
+import com.adptapaw.backend.entity.MissingAnimal;
+import com.adptapaw.backend.entity.MissingRequest;
+import com.adptapaw.backend.exception.BadRequestException;
+import com.adptapaw.backend.payload.ModerationItemResultDTO;
+import com.adptapaw.backend.payload.ModerationRequestDTO;
+import com.adptapaw.backend.payload.ModerationResultDTO;
+import com.adptapaw.backend.payload.adoption.AdoptionAnimalDTO;
+import com.adptapaw.backend.payload.missing.MissingAnimalDTO;
+import com.adptapaw.backend.repository.AdoptionRequestRepository;
+import com.adptapaw.backend.repository.MissingRequestRepository;
+import com.adptapaw.backend.service.cache.DtoCache;
+import com.adptapaw.backend.service.email.EmailService;
+import com.adptapaw.backend.service.feed.MissingFeedService;
+import com.adptapaw.backend.service.geo.GeoSearchService;
+import com.adptapaw.backend.service.imagematch.ImageMatchService;
+import com.adptapaw.backend.service.matching.AnimalMatchService;
+import com.adptapaw.backend.service.moderation.ApprovalMails;
+import com.adptapaw.backend.service.moderation.ModerationService;
+import com.adptapaw.backend.service.search.AdoptionSearchService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PreDestroy;
+import javax.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Approves or rejects a list of adoption or missing-info requests in one
+ * transaction. State is read for the whole list with one locking select per
+ * table (pets before requests, in id order, the same order single approvals
+ * take their locks), and every change is one batched or set-based statement.
+ * Each id gets its own outcome, so one stale id does not fail the rest.
+ *
+ * Index and cache updates run after commit; the approval emails are handed
+ * to a single background sender as one batch so the admin does not wait on SMTP.
+ */
+@Service
+public class ModerationServiceImplementation implements ModerationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModerationServiceImplementation.class);
+
+    private static final String APPROVED = "approved";
+    private static final String REJECTED = "rejected";
+    private static final String NOT_FOUND = "not_found";
+    private static final String CONFLICT = "conflict";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    private final AdoptionRequestRepository adoptionRequestRepository;
+
+    private final MissingRequestRepository missingRequestRepository;
+
+    private final ApprovalMails approvalMails;
+
+    private final EmailService emailService;
+
+    private final AdoptionSearchService adoptionSearchService;
+
+    private final GeoSearchService geoSearchService;
+
+    private final ImageMatchService imageMatchService;
+
+    private final AnimalMatchService animalMatchService;
+
+    private final MissingFeedService missingFeedService;
+
+    private final DtoCache<Long, AdoptionAnimalDTO> adoptionAnimalCache;
+
+    private final DtoCache<Long, MissingAnimalDTO> missingAnimalCache;
+
+    private final ExecutorService mailSender = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "moderation-mail");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${moderation.max-batch-size:500}")
+    private int maxBatchSize;
+
+    public ModerationServiceImplementation(NamedParameterJdbcTemplate jdbcTemplate, AdoptionRequestRepository adoptionRequestRepository,
+                                           MissingRequestRepository missingRequestRepository, ApprovalMails approvalMails, EmailService emailService,
+                                           AdoptionSearchService adoptionSearchService, GeoSearchService geoSearchService, ImageMatchService imageMatchService,
+                                           AnimalMatchService animalMatchService, MissingFeedService missingFeedService,
+                                           DtoCache<Long, AdoptionAnimalDTO> adoptionAnimalCache, DtoCache<Long, MissingAnimalDTO> missingAnimalCache) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.adoptionRequestRepository = adoptionRequestRepository;
+        this.missingRequestRepository = missingRequestRepository;
+        this.approvalMails = approvalMails;
+        this.emailService = emailService;
+        this.adoptionSearchService = adoptionSearchService;
+        this.geoSearchService = geoSearchService;
+        this.imageMatchService = imageMatchService;
+        this.animalMatchService = animalMatchService;
+        this.missingFeedService = missingFeedService;
+        this.adoptionAnimalCache = adoptionAnimalCache;
+        this.missingAnimalCache = missingAnimalCache;
+    }
+
+    @Override
+    @Transactional
+    public ModerationResultDTO moderate(ModerationRequestDTO moderationRequestDTO) {
+
+        String type = normalize(moderationRequestDTO.getType());
+        String action = normalize(moderationRequestDTO.getAction());
+        if (!"adoption".equals(type) && !"missing".equals(type)) {
+            throw new BadRequestException("Unsupported request type: " + moderationRequestDTO.getType());
+        }
+        if (!"approve".equals(action) && !"reject".equals(action)) {
+            throw new BadRequestException("Unsupported moderation action: " + moderationRequestDTO.getAction());
+        }
+
+        Set<Long> ids = new LinkedHashSet<>();
+        if (moderationRequestDTO.getIds() != null) {
+            for (Long id : moderationRequestDTO.getIds()) {
+                if (id != null) {
+                    ids.add(id);
+                }
+            }
+        }
+        if (ids.isEmpty() || ids.size() > maxBatchSize) {
+            throw new BadRequestException("Between 1 and " + maxBatchSize + " request ids are required");
+        }
+
+        Map<Long, ModerationItemResultDTO> results = new LinkedHashMap<>();
+        for (Long id : ids) {
+            results.put(id, new ModerationItemResultDTO(id, NOT_FOUND, "Request not found"));
+        }
+        List<AbstractEmailContext> mails = new ArrayList<>();
+        List<Runnable> afterCommit = new ArrayList<>();
+
+        boolean approve = "approve".equals(action);
+        if ("adoption".equals(type)) {
+            moderateAdoption(ids, approve, results, mails, afterCommit);
+        } else {
+            moderateMissing(ids, approve, results, mails, afterCommit);
+        }
+
+        afterCommit(() -> {
+            for (Runnable update : afterCommit) {
+                update.run();
+            }
+            if (!mails.isEmpty()) {
+                mailSender.execute(() -> send(mails));
+            }
+        });
+
+        int succeeded = (int) results.values().stream()
+                .filter(result -> APPROVED.equals(result.getOutcome()) || REJECTED.equals(result.getOutcome())).count();
+        logger.info("Moderated {} {} requests ({}): {} succeeded", ids.size(), type, action, succeeded);
+        return new ModerationResultDTO(new ArrayList<>(results.values()), succeeded, ids.size() - succeeded);
+    }
+
+    private void moderateAdoption(Set<Long> ids, boolean approve, Map<Long, ModerationItemResultDTO> results,
+                                  List<AbstractEmailContext> mails, List<Runnable> afterCommit) {
+
+        List<RequestRow> rows = readRequests("adoptionrequests", "adoptionseeker_id", ids, false);
+        if (!approve) {
+            reject("adoptionrequests", rows, results);
+            return;
+        }
+
+        // pets first, then requests: the lock order approveRequest uses
+        Set<Long> petIds = new HashSet<>();
+        for (RequestRow row : rows) {
+            petIds.add(row.petId);
+        }
+        Set<Long> availablePets = lockPets("SELECT id FROM adoptionanimal WHERE id IN (:ids) AND deleted = false AND availability = true ORDER BY id FOR UPDATE", petIds);
+        Map<Long, RequestRow> locked = index(readRequests("adoptionrequests", "adoptionseeker_id", ids, true));
+
+        Map<Long, RequestRow> winners = new LinkedHashMap<>();
+        for (Long id : ids) {
+            RequestRow row = locked.get(id);
+            if (row == null || !pending(row, results)) {
+                continue;
+            }
+            if (!availablePets.contains(row.petId)) {
+                results.put(id, new ModerationItemResultDTO(id, CONFLICT, "Pet " + row.petId + " is no longer available"));
+            } else if (winners.containsKey(row.petId)) {
+                results.put(id, new ModerationItemResultDTO(id, CONFLICT,
+                        "Pet " + row.petId + " is adopted through request " + winners.get(row.petId).id + " in this batch"));
+            } else {
+                winners.put(row.petId, row);
+            }
+        }
+        if (winners.isEmpty()) {
+            return;
+        }
+
+        String approveddate = String.valueOf(new Date());
+        List<Object[]> petUpdates = new ArrayList<>(winners.size());
+        List<Object[]> requestUpdates = new ArrayList<>(winners.size());
+        List<Long> approvedIds = new ArrayList<>(winners.size());
+        for (RequestRow winner : winners.values()) {
+            petUpdates.add(new Object[]{winner.ownerId, winner.petId});
+            requestUpdates.add(new Object[]{approveddate, winner.id});
+            approvedIds.add(winner.id);
+        }
+        jdbcTemplate.getJdbcTemplate().batchUpdate(
+                "UPDATE adoptionanimal SET availability = false, owner_id = ?, version = version + 1 WHERE id = ?", petUpdates);
+        jdbcTemplate.getJdbcTemplate().batchUpdate(
+                "UPDATE adoptionrequests SET status = true, approveddate = ?, version = version + 1 WHERE id = ?", requestUpdates);
+        int rejected = jdbcTemplate.update("UPDATE adoptionrequests SET rejected = true, version = version + 1 " +
+                "WHERE pet_id IN (:petIds) AND id NOT IN (:approvedIds) AND status = false AND rejected = false",
+                new MapSqlParameterSource("petIds", winners.keySet()).addValue("approvedIds", approvedIds));
+        logger.debug("{} competing adoption requests rejected", rejected);
+
+        // nothing was loaded through JPA before the updates, so these reads see the new state
+        for (AdoptionRequest adoptionRequest : adoptionRequestRepository.findAllById(approvedIds)) {
+            AdoptionAnimal animal = adoptionRequest.getPet();
+            results.put(adoptionRequest.getId(), new ModerationItemResultDTO(adoptionRequest.getId(), APPROVED, null));
+            mails.addAll(approvalMails.adoptionApproved(adoptionRequest, animal));
+            afterCommit.add(() -> {
+                adoptionAnimalCache.invalidate(animal.getId());
+                adoptionSearchService.index(animal);
+                geoSearchService.indexAdoptionAnimal(animal);
+                animalMatchService.indexAdoptionAnimal(animal);
+            });
+        }
+    }
+
+    private void moderateMissing(Set<Long> ids, boolean approve, Map<Long, ModerationItemResultDTO> results,
+                                 List<AbstractEmailContext> mails, List<Runnable> afterCommit) {
+
+        List<RequestRow> rows = readRequests("missingrequests", null, ids, false);
+        if (!approve) {
+            reject("missingrequests", rows, results);
+            return;
+        }
+
+        Set<Long> petIds = new HashSet<>();
+        for (RequestRow row : rows) {
+            petIds.add(row.petId);
+        }
+        Set<Long> livePets = lockPets("SELECT id FROM missinganimal WHERE id IN (:ids) AND deleted = false ORDER BY id FOR UPDATE", petIds);
+        Map<Long, RequestRow> locked = index(readRequests("missingrequests", null, ids, true));
+
+        // several sightings of the same animal can all be confirmed
+        List<Object[]> requestUpdates = new ArrayList<>();
+        List<Long> approvedIds = new ArrayList<>();
+        Set<Long> foundPets = new LinkedHashSet<>();
+        String approveddate = String.valueOf(new Date());
+        for (Long id : ids) {
+            RequestRow row = locked.get(id);
+            if (row == null || !pending(row, results)) {
+                continue;
+            }
+            if (!livePets.contains(row.petId)) {
+                results.put(id, new ModerationItemResultDTO(id, CONFLICT, "Missing animal " + row.petId + " no longer exists"));
+                continue;
+            }
+            requestUpdates.add(new Object[]{approveddate, id});
+            approvedIds.add(id);
+            foundPets.add(row.petId);
+        }
+        if (approvedIds.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.getJdbcTemplate().batchUpdate(
+                "UPDATE missingrequests SET status = true, approveddate = ?, version = version + 1 WHERE id = ?", requestUpdates);
+        jdbcTemplate.update("UPDATE missinganimal SET stillmissing = false, version = version + 1 WHERE id IN (:ids)",
+                new MapSqlParameterSource("ids", foundPets));
+
+        Map<Long, MissingAnimal> animals = new HashMap<>();
+        for (MissingRequest missingRequest : missingRequestRepository.findAllById(approvedIds)) {
+            MissingAnimal animal = missingRequest.getPet();
+            animals.put(animal.getId(), animal);
+            results.put(missingRequest.getId(), new ModerationItemResultDTO(missingRequest.getId(), APPROVED, null));
+            mails.addAll(approvalMails.missingInfoApproved(missingRequest, animal));
+            afterCommit.add(() -> missingFeedService.publishSighting(missingRequest));
+        }
+        for (MissingAnimal animal : animals.values()) {
+            List<Long> sightings = missingRequestRepository.findIdsByPetId(animal.getId());
+            afterCommit.add(() -> {
+                missingAnimalCache.invalidate(animal.getId());
+                geoSearchService.indexMissingAnimal(animal);
+                imageMatchService.removeMissingAnimal(animal.getId());
+                animalMatchService.removeMissingAnimal(animal.getId());
+                for (Long sighting : sightings) {
+                    geoSearchService.removeSighting(sighting);
+                }
+            });
+        }
+    }
+
+    private List<RequestRow> readRequests(String table, String ownerColumn, Set<Long> ids, boolean lock) {
+        String sql = "SELECT id, pet_id, status, rejected, " + (ownerColumn == null ? "NULL" : ownerColumn) + " AS owner_id FROM " + table
+                + " WHERE id IN (:ids) ORDER BY id" + (lock ? " FOR UPDATE" : "");
+        return jdbcTemplate.query(sql, new MapSqlParameterSource("ids", ids), (rs, rowNum) -> {
+            RequestRow row = new RequestRow();
+            row.id = rs.getLong("id");
+            row.petId = (Long) rs.getObject("pet_id");
+            row.status = rs.getBoolean("status");
+            row.rejected = rs.getBoolean("rejected");
+            row.ownerId = (Long) rs.getObject("owner_id");
+            return row;
+        });
+    }
+
+    private Set<Long> lockPets(String sql, Set<Long> petIds) {
+        petIds.remove(null);
+        if (petIds.isEmpty()) {
+            return new HashSet<>();
+        }
+        return new HashSet<>(jdbcTemplate.queryForList(sql, new MapSqlParameterSource("ids", petIds), Long.class));
+    }
+
+    private void reject(String table, List<RequestRow> rows, Map<Long, ModerationItemResultDTO> results) {
+        List<Long> pending = new ArrayList<>();
+        for (RequestRow row : rows) {
+            if (pending(row, results)) {
+                pending.add(row.id);
+            }
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+        // re-checking the state in the statement makes a concurrent approval win cleanly
+        List<Long> rejected = jdbcTemplate.queryForList("UPDATE " + table + " SET rejected = true, version = version + 1 " +
+                "WHERE id IN (:ids) AND status = false AND rejected = false RETURNING id", new MapSqlParameterSource("ids", pending), Long.class);
+        Set<Long> done = new HashSet<>(rejected);
+        for (Long id : pending) {
+            results.put(id, done.contains(id)
+                    ? new ModerationItemResultDTO(id, REJECTED, null)
+                    : new ModerationItemResultDTO(id, CONFLICT, "Request is no longer pending"));
+        }
+    }
+
+    private boolean pending(RequestRow row, Map<Long, ModerationItemResultDTO> results) {
+        if (row.status) {
+            results.put(row.id, new ModerationItemResultDTO(row.id, CONFLICT, "Request is already approved"));
+            return false;
+        }
+        if (row.rejected) {
+            results.put(row.id, new ModerationItemResultDTO(row.id, CONFLICT, "Request is already rejected"));
+            return false;
+        }
+        if (row.petId == null) {
+            results.put(row.id, new ModerationItemResultDTO(row.id, CONFLICT, "Request has no pet"));
+            return false;
+        }
+        return true;
+    }
+
+    private Map<Long, RequestRow> index(List<RequestRow> rows) {
+        Map<Long, RequestRow> byId = new HashMap<>();
+        for (RequestRow row : rows) {
+            byId.put(row.id, row);
+        }
+        return byId;
+    }
+
+    private void send(List<AbstractEmailContext> mails) {
+        int failed = 0;
+        for (AbstractEmailContext mail : mails) {
+            try {
+                emailService.sendMail(mail);
+            } catch (Exception e) {
+                failed++;
+                logger.warn("Moderation email to {} failed: {}", mail.getTo(), e.getMessage());
+            }
+        }
+        logger.info("Sent {} of {} moderation emails", mails.size() - failed, mails.size());
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // let queued emails go out before the context closes
+        mailSender.shutdown();
+        mailSender.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class RequestRow {
+        private long id;
+        private Long petId;
+        private boolean status;
+        private boolean rejected;
+        private Long ownerId;
+    }
+}
@@ -0,0 +1,28 @@
+package com.adptapaw.backend.service.pagination;
+
+import java.util.List;
+
+public class KeysetPage<T> {
+
+    private final List<T> content;
+    private final boolean last;
+    private final String nextCursor;
+
+    public KeysetPage(List<T> content, boolean last, String nextCursor) {
+        this.content = content;
+        this.last = last;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public boolean isLast() {
+        return last;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
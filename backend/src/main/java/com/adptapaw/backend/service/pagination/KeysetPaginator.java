@@ -0,0 +1,251 @@
+package com.adptapaw.backend.service.pagination;
+
+import com.adptapaw.backend.exception.BadRequestException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ReflectionUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.SingularAttribute;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Seek-based pagination over (sortKey, id). Each page is a single bounded
+ * query continuing after the last row of the previous page, so deep pages
+ * cost the same as the first one and no count query is issued.
+ *
+ * Null sort values follow PostgreSQL ordering: last when ascending, first
+ * when descending.
+ */
+@Component
+public class KeysetPaginator {
+
+    private static final String NULL_VALUE = "n";
+    private static final String PRESENT_VALUE = "v";
+    private static final String SEPARATOR = "|";
+    private static final String FETCH_GRAPH_HINT = "javax.persistence.fetchgraph";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public <T> KeysetPage<T> fetch(Class<T> entityClass, String sortBy, String sortDir, String cursor, int pageSize) {
+        return fetch(entityClass, null, sortBy, sortDir, cursor, pageSize);
+    }
+
+    public <T> KeysetPage<T> fetch(Class<T> entityClass, Specification<T> filter, String sortBy, String sortDir, String cursor, int pageSize) {
+        return fetch(entityClass, entityClass, null, filter, null, sortBy, sortDir, cursor, pageSize);
+    }
+
+    /**
+     * Entity variant loading the associations of the named entity graph in
+     * the page query itself, so mapping the page does not select them row by row.
+     */
+    public <T> KeysetPage<T> fetch(Class<T> entityClass, Specification<T> filter, String entityGraph,
+                                   String sortBy, String sortDir, String cursor, int pageSize) {
+        return fetch(entityClass, entityClass, null, filter, entityGraph, sortBy, sortDir, cursor, pageSize);
+    }
+
+    /**
+     * Projected variant: selects only the given entity attributes and builds
+     * each row through the matching constructor of resultClass. The sort
+     * attribute and the id must be among the selected columns, under the same
+     * field names, so the next cursor can be read back from the last row.
+     */
+    public <T, R> KeysetPage<R> fetch(Class<T> entityClass, Class<R> resultClass, String[] columns,
+                                      String sortBy, String sortDir, String cursor, int pageSize) {
+        return fetch(entityClass, resultClass, columns, null, null, sortBy, sortDir, cursor, pageSize);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private <T, R> KeysetPage<R> fetch(Class<T> entityClass, Class<R> resultClass, String[] columns, Specification<T> filter,
+                                       String entityGraph, String sortBy, String sortDir, String cursor, int pageSize) {
+
+        if (pageSize < 1) {
+            throw new BadRequestException("Invalid page size: " + pageSize);
+        }
+
+        EntityType<T> entityType = entityManager.getMetamodel().entity(entityClass);
+        SingularAttribute<? super T, ?> idAttribute = idAttribute(entityType);
+        SingularAttribute<? super T, ?> sortAttribute = sortAttribute(entityType, sortBy);
+        boolean ascending = sortDir.equalsIgnoreCase(Sort.Direction.ASC.name());
+        boolean sortById = sortAttribute.getName().equals(idAttribute.getName());
+
+        if (columns != null && !(Arrays.asList(columns).contains(idAttribute.getName()) && Arrays.asList(columns).contains(sortAttribute.getName()))) {
+            throw new BadRequestException("Unsupported sort field: " + sortBy);
+        }
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<R> query = cb.createQuery(resultClass);
+        Root<T> root = query.from(entityClass);
+        Path<Comparable> id = root.get(idAttribute.getName());
+        Path<Comparable> key = root.get(sortAttribute.getName());
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter != null) {
+            Predicate predicate = filter.toPredicate(root, (CriteriaQuery<?>) query, cb);
+            if (predicate != null) {
+                predicates.add(predicate);
+            }
+        }
+
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] position = decode(cursor);
+            Comparable lastId = convert(position[0], idAttribute);
+
+            if (sortById) {
+                predicates.add(ascending ? cb.greaterThan(id, lastId) : cb.lessThan(id, lastId));
+            } else if (position[1].startsWith(PRESENT_VALUE)) {
+                Comparable lastKey = convert(position[1].substring(PRESENT_VALUE.length()), sortAttribute);
+                predicates.add(ascending
+                        ? cb.or(cb.greaterThan(key, lastKey), cb.and(cb.equal(key, lastKey), cb.greaterThan(id, lastId)), cb.isNull(key))
+                        : cb.or(cb.lessThan(key, lastKey), cb.and(cb.equal(key, lastKey), cb.lessThan(id, lastId))));
+            } else {
+                predicates.add(ascending
+                        ? cb.and(cb.isNull(key), cb.greaterThan(id, lastId))
+                        : cb.or(cb.and(cb.isNull(key), cb.lessThan(id, lastId)), cb.isNotNull(key)));
+            }
+        }
+
+        if (columns == null) {
+            query.select((Selection<? extends R>) root);
+        } else {
+            Selection<?>[] selections = new Selection<?>[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                selections[i] = root.get(columns[i]);
+            }
+            query.select(cb.construct(resultClass, selections));
+        }
+        query.where(predicates.toArray(new Predicate[0]));
+        if (sortById) {
+            query.orderBy(ascending ? cb.asc(id) : cb.desc(id));
+        } else {
+            query.orderBy(ascending ? cb.asc(key) : cb.desc(key), ascending ? cb.asc(id) : cb.desc(id));
+        }
+
+        TypedQuery<R> typedQuery = entityManager.createQuery(query).setMaxResults(pageSize + 1);
+        if (entityGraph != null) {
+            typedQuery.setHint(FETCH_GRAPH_HINT, entityManager.getEntityGraph(entityGraph));
+        }
+        List<R> rows = typedQuery.getResultList();
+
+        boolean last = rows.size() <= pageSize;
+        List<R> content = last ? rows : new ArrayList<>(rows.subList(0, pageSize));
+        String nextCursor = null;
+        if (!last) {
+            R tail = content.get(content.size() - 1);
+            Object lastId = columns == null ? read(tail, idAttribute) : read(tail, idAttribute.getName());
+            Object lastKey = sortById ? null : columns == null ? read(tail, sortAttribute) : read(tail, sortAttribute.getName());
+            nextCursor = encode(lastId, lastKey);
+        }
+
+        return new KeysetPage<>(content, last, nextCursor);
+    }
+
+    private <T> SingularAttribute<? super T, ?> idAttribute(EntityType<T> entityType) {
+        for (SingularAttribute<? super T, ?> attribute : entityType.getSingularAttributes()) {
+            if (attribute.isId()) {
+                return attribute;
+            }
+        }
+        throw new IllegalStateException("No id attribute on " + entityType.getName());
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> SingularAttribute<? super T, ?> sortAttribute(EntityType<T> entityType, String sortBy) {
+        Attribute<? super T, ?> attribute;
+        try {
+            attribute = entityType.getAttribute(sortBy);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Unsupported sort field: " + sortBy);
+        }
+        if (attribute.getPersistentAttributeType() != Attribute.PersistentAttributeType.BASIC
+                || !isSupportedType(attribute.getJavaType())) {
+            throw new BadRequestException("Unsupported sort field: " + sortBy);
+        }
+        return (SingularAttribute<? super T, ?>) attribute;
+    }
+
+    private boolean isSupportedType(Class<?> type) {
+        return type == String.class
+                || type == Long.class || type == long.class
+                || type == Integer.class || type == int.class
+                || type == Double.class || type == double.class
+                || type == Boolean.class || type == boolean.class;
+    }
+
+    @SuppressWarnings("rawtypes")
+    private Comparable convert(String value, Attribute<?, ?> attribute) {
+        Class<?> type = attribute.getJavaType();
+        try {
+            if (type == String.class) {
+                return value;
+            } else if (type == Long.class || type == long.class) {
+                return Long.valueOf(value);
+            } else if (type == Integer.class || type == int.class) {
+                return Integer.valueOf(value);
+            } else if (type == Double.class || type == double.class) {
+                return Double.valueOf(value);
+            } else {
+                return Boolean.valueOf(value);
+            }
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    private Object read(Object entity, Attribute<?, ?> attribute) {
+        Member member = attribute.getJavaMember();
+        if (member instanceof Field) {
+            ReflectionUtils.makeAccessible((Field) member);
+            return ReflectionUtils.getField((Field) member, entity);
+        }
+        ReflectionUtils.makeAccessible((Method) member);
+        return ReflectionUtils.invokeMethod((Method) member, entity);
+    }
+
+    private Object read(Object row, String fieldName) {
+        Field field = ReflectionUtils.findField(row.getClass(), fieldName);
+        if (field == null) {
+            throw new IllegalStateException("No field " + fieldName + " on " + row.getClass().getName());
+        }
+        ReflectionUtils.makeAccessible(field);
+        return ReflectionUtils.getField(field, row);
+    }
+
+    private String encode(Object id, Object key) {
+        String position = id + SEPARATOR + (key == null ? NULL_VALUE : PRESENT_VALUE + key);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decode(String cursor) {
+        String position;
+        try {
+            position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+        int separator = position.indexOf(SEPARATOR);
+        if (separator < 1 || separator == position.length() - 1) {
+            throw new BadRequestException("Invalid cursor");
+        }
+        return new String[]{position.substring(0, separator), position.substring(separator + 1)};
+    }
+}
@@ -0,0 +1,12 @@
+package com.adptapaw.backend.service.recommendation;
+
+import com.adptapaw.backend.payload.adoption.AdoptionCardDTO;
+
+import java.util.List;
+
+public interface RecommendationService {
+
+    List<AdoptionCardDTO> recommendFor(String email, int limit);
+
+    void rebuild();
+}
@@ -0,0 +1,282 @@
+package com.adptapaw.backend.service.recommendation.implementation;
+
+import com.adptapaw.backend.exception.BadRequestException;
+import com.adptapaw.backend.payload.adoption.AdoptionCardDTO;
+import com.adptapaw.backend.repository.AdoptionAnimalRepository;
+import com.adptapaw.backend.repository.AdoptionRequestRepository;
+import com.adptapaw.backend.repository.UserRepository;
+import com.adptapaw.backend.repository.projection.AdoptionAnimalFeatures;
+import com.adptapaw.backend.repository.projection.AdoptionRequestHistory;
+import com.adptapaw.backend.repository.projection.UserLocation;
+import com.adptapaw.backend.service.geo.GeoPoint;
+import com.adptapaw.backend.service.recommendation.RecommendationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Precomputes a top-K list of available adoption animals for every user with
+ * request history or a known location. A background job scores all users in
+ * parallel on a fork-join pool and swaps in the new lists at once, so serving
+ * a recommendation is a map lookup by email plus one card query by id.
+ *
+ * Score = share of the user's past requests matching the animal's type, breed
+ * and gender (weighted) + closeness to the user's location. Animals the user
+ * already requested or posted are skipped. Users without a list, including
+ * anonymous callers, get the newest available animals.
+ */
+@Service
+public class RecommendationServiceImplementation implements RecommendationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecommendationServiceImplementation.class);
+
+    private static final double TYPE_WEIGHT = 3.0;
+    private static final double BREED_WEIGHT = 2.0;
+    private static final double GENDER_WEIGHT = 1.0;
+    private static final double DISTANCE_WEIGHT = 2.0;
+
+    // users per leaf task; scoring one user is a full pass over the available animals
+    private static final int USERS_PER_TASK = 16;
+
+    private final AdoptionAnimalRepository adoptionAnimalRepository;
+    private final AdoptionRequestRepository adoptionRequestRepository;
+    private final UserRepository userRepository;
+    private final ForkJoinPool pool;
+
+    @Value("${recommendation.top-k:20}")
+    private int topK;
+
+    @Value("${recommendation.distance-scale-km:25}")
+    private double distanceScaleKm;
+
+    private volatile Map<String, long[]> recommendations = Collections.emptyMap();
+    private volatile long[] fallback = new long[0];
+
+    public RecommendationServiceImplementation(AdoptionAnimalRepository adoptionAnimalRepository, AdoptionRequestRepository adoptionRequestRepository,
+                                               UserRepository userRepository, @Value("${recommendation.parallelism:0}") int parallelism) {
+        this.adoptionAnimalRepository = adoptionAnimalRepository;
+        this.adoptionRequestRepository = adoptionRequestRepository;
+        this.userRepository = userRepository;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @Override
+    public List<AdoptionCardDTO> recommendFor(String email, int limit) {
+        if (limit < 1) {
+            throw new BadRequestException("Invalid limit: " + limit);
+        }
+        long[] ranked = email == null ? null : recommendations.get(email);
+        if (ranked == null) {
+            ranked = fallback;
+        }
+        List<Long> ids = new ArrayList<>(Math.min(limit, ranked.length));
+        for (int i = 0; i < ranked.length && ids.size() < limit; i++) {
+            ids.add(ranked[i]);
+        }
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // the lists are only as fresh as the last rebuild, so drop animals adopted or removed since
+        Map<Long, AdoptionCardDTO> cardsById = adoptionAnimalRepository.findCardsByIdIn(ids).stream()
+                .collect(Collectors.toMap(AdoptionCardDTO::getId, Function.identity()));
+        return ids.stream().map(cardsById::get)
+                .filter(card -> card != null && Boolean.TRUE.equals(card.getAvailability()))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Scheduled(initialDelayString = "${recommendation.initial-delay-ms:10000}", fixedDelayString = "${recommendation.refresh-interval-ms:900000}")
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+
+        List<AdoptionAnimalFeatures> animals = adoptionAnimalRepository.findAvailableFeatures();
+        Candidate[] candidates = new Candidate[animals.size()];
+        for (int i = 0; i < candidates.length; i++) {
+            candidates[i] = new Candidate(animals.get(i));
+        }
+
+        Map<Long, Profile> profiles = new HashMap<>();
+        for (AdoptionRequestHistory request : adoptionRequestRepository.findAllHistory()) {
+            profiles.computeIfAbsent(request.getSeekerId(), id -> new Profile(id, request.getSeekerEmail())).addRequest(request);
+        }
+        for (UserLocation user : userRepository.findAllLocated()) {
+            if (GeoPoint.isValid(user.getLatitude(), user.getLongitude())) {
+                profiles.computeIfAbsent(user.getId(), id -> new Profile(id, user.getEmail()))
+                        .location = new GeoPoint(user.getLatitude(), user.getLongitude());
+            }
+        }
+
+        Profile[] users = profiles.values().toArray(new Profile[0]);
+        Map<String, long[]> computed = new ConcurrentHashMap<>(Math.max(16, users.length * 2));
+        pool.invoke(new ScoreTask(users, candidates, computed, 0, users.length));
+
+        long[] newest = Arrays.stream(candidates).mapToLong(candidate -> candidate.id)
+                .boxed().sorted(Collections.reverseOrder()).limit(topK).mapToLong(Long::longValue).toArray();
+
+        recommendations = computed;
+        fallback = newest;
+        logger.info("Recommendations rebuilt for {} users over {} animals in {} ms",
+                users.length, candidates.length, System.currentTimeMillis() - started);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private long[] rank(Profile profile, Candidate[] candidates) {
+        PriorityQueue<Scored> best = new PriorityQueue<>(topK + 1);
+        for (Candidate candidate : candidates) {
+            if (profile.requested.contains(candidate.id) || Objects.equals(candidate.ownerId, profile.id)) {
+                continue;
+            }
+            double score = profile.score(candidate, distanceScaleKm);
+            if (best.size() < topK) {
+                best.add(new Scored(candidate.id, score));
+            } else if (Scored.compare(score, candidate.id, best.peek()) > 0) {
+                best.poll();
+                best.add(new Scored(candidate.id, score));
+            }
+        }
+        long[] ranked = new long[best.size()];
+        for (int i = ranked.length - 1; i >= 0; i--) {
+            ranked[i] = best.poll().id;
+        }
+        return ranked;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private final class ScoreTask extends RecursiveAction {
+
+        private final Profile[] users;
+        private final Candidate[] candidates;
+        private final Map<String, long[]> results;
+        private final int from;
+        private final int to;
+
+        private ScoreTask(Profile[] users, Candidate[] candidates, Map<String, long[]> results, int from, int to) {
+            this.users = users;
+            this.candidates = candidates;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= USERS_PER_TASK) {
+                for (int i = from; i < to; i++) {
+                    if (users[i].email != null) {
+                        results.put(users[i].email, rank(users[i], candidates));
+                    }
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ScoreTask(users, candidates, results, from, middle),
+                    new ScoreTask(users, candidates, results, middle, to));
+        }
+    }
+
+    private static final class Candidate {
+        private final long id;
+        private final String type;
+        private final String breed;
+        private final String gender;
+        private final GeoPoint location;
+        private final Long ownerId;
+
+        private Candidate(AdoptionAnimalFeatures animal) {
+            this.id = animal.getId();
+            this.type = normalize(animal.getType());
+            this.breed = normalize(animal.getBreed());
+            this.gender = normalize(animal.getGender());
+            this.location = GeoPoint.isValid(animal.getLatitude(), animal.getLongitude())
+                    ? new GeoPoint(animal.getLatitude(), animal.getLongitude()) : null;
+            this.ownerId = animal.getOwnerId();
+        }
+    }
+
+    private static final class Profile {
+        private final Long id;
+        private final String email;
+        private final Set<Long> requested = new HashSet<>();
+        private final Map<String, Integer> types = new LinkedHashMap<>();
+        private final Map<String, Integer> breeds = new LinkedHashMap<>();
+        private final Map<String, Integer> genders = new LinkedHashMap<>();
+        private int requests;
+        private GeoPoint location;
+
+        private Profile(Long id, String email) {
+            this.id = id;
+            this.email = email;
+        }
+
+        private void addRequest(AdoptionRequestHistory request) {
+            requested.add(request.getPetId());
+            types.merge(normalize(request.getType()), 1, Integer::sum);
+            breeds.merge(normalize(request.getBreed()), 1, Integer::sum);
+            genders.merge(normalize(request.getGender()), 1, Integer::sum);
+            requests++;
+        }
+
+        private double score(Candidate candidate, double distanceScaleKm) {
+            double score = 0;
+            if (requests > 0) {
+                score += TYPE_WEIGHT * types.getOrDefault(candidate.type, 0) / requests;
+                score += BREED_WEIGHT * breeds.getOrDefault(candidate.breed, 0) / requests;
+                score += GENDER_WEIGHT * genders.getOrDefault(candidate.gender, 0) / requests;
+            }
+            if (location != null && candidate.location != null) {
+                score += DISTANCE_WEIGHT * Math.exp(-location.distanceKm(candidate.location) / distanceScaleKm);
+            }
+            return score;
+        }
+    }
+
+    private static final class Scored implements Comparable<Scored> {
+        private final long id;
+        private final double score;
+
+        private Scored(long id, double score) {
+            this.id = id;
+            this.score = score;
+        }
+
+        // higher score first, newer animal first on ties
+        private static int compare(double score, long id, Scored other) {
+            int byScore = Double.compare(score, other.score);
+            return byScore != 0 ? byScore : Long.compare(id, other.id);
+        }
+
+        @Override
+        public int compareTo(Scored other) {
+            return compare(score, id, other);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.adptapaw.backend.service.savedsearch;
+
+import com.adptapaw.backend.service.search.FacetIndex;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Reverse index over stored queries: instead of running every saved query
+ * against a new document, the document's field values look up the queries
+ * that constrain those fields. A query is a conjunction of field = value
+ * predicates, so it matches when the number of its predicates hit equals the
+ * number it declares. Matching costs one posting lookup per document field
+ * plus the size of the hit lists, independent of how many queries are stored.
+ */
+public class PercolatorIndex {
+
+    private final Map<String, Map<String, Set<Long>>> postings = new HashMap<>();
+
+    private final Map<Long, Map<String, String>> queries = new HashMap<>();
+
+    // queries without predicates match every document
+    private final Set<Long> matchAll = new HashSet<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void put(Long queryId, Map<String, String> predicates) {
+        lock.writeLock().lock();
+        try {
+            unlink(queryId);
+            Map<String, String> normalized = new HashMap<>();
+            for (Map.Entry<String, String> predicate : predicates.entrySet()) {
+                String value = FacetIndex.normalize(predicate.getValue());
+                if (value != null) {
+                    normalized.put(predicate.getKey(), value);
+                }
+            }
+            queries.put(queryId, normalized);
+            if (normalized.isEmpty()) {
+                matchAll.add(queryId);
+                return;
+            }
+            for (Map.Entry<String, String> predicate : normalized.entrySet()) {
+                postings.computeIfAbsent(predicate.getKey(), field -> new HashMap<>())
+                        .computeIfAbsent(predicate.getValue(), value -> new HashSet<>())
+                        .add(queryId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long queryId) {
+        lock.writeLock().lock();
+        try {
+            unlink(queryId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Long> match(Map<String, String> document) {
+        lock.readLock().lock();
+        try {
+            Map<Long, Integer> hits = new HashMap<>();
+            for (Map.Entry<String, String> field : document.entrySet()) {
+                Map<String, Set<Long>> values = postings.get(field.getKey());
+                String value = FacetIndex.normalize(field.getValue());
+                if (values == null || value == null) {
+                    continue;
+                }
+                for (Long queryId : values.getOrDefault(value, Collections.<Long>emptySet())) {
+                    hits.merge(queryId, 1, Integer::sum);
+                }
+            }
+
+            List<Long> matched = new ArrayList<>(matchAll);
+            for (Map.Entry<Long, Integer> hit : hits.entrySet()) {
+                if (hit.getValue() == queries.get(hit.getKey()).size()) {
+                    matched.add(hit.getKey());
+                }
+            }
+            return matched;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return queries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void unlink(Long queryId) {
+        Map<String, String> previous = queries.remove(queryId);
+        if (previous == null) {
+            return;
+        }
+        matchAll.remove(queryId);
+        for (Map.Entry<String, String> predicate : previous.entrySet()) {
+            Map<String, Set<Long>> values = postings.get(predicate.getKey());
+            Set<Long> ids = values.get(predicate.getValue());
+            ids.remove(queryId);
+            if (ids.isEmpty()) {
+                values.remove(predicate.getValue());
+            }
+        }
+    }
+}
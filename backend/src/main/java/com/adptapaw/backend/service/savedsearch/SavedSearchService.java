@@ -0,0 +1,24 @@
+package com.adptapaw.backend.service.savedsearch;
+
+import com.adptapaw.backend.entity.AdoptionAnimal;
+import com.adptapaw.backend.entity.MissingAnimal;
+import com.adptapaw.backend.payload.SavedSearchDTO;
+
+import java.util.List;
+
+public interface SavedSearchService {
+
+    SavedSearchDTO createSavedSearch(SavedSearchDTO savedSearchDTO);
+
+    List<SavedSearchDTO> getMySavedSearches();
+
+    String deleteSavedSearch(String id);
+
+    void percolate(AdoptionAnimal adoptionAnimal);
+
+    void percolate(MissingAnimal missingAnimal);
+
+    void rebuild();
+
+    void sendDigests();
+}
@@ -0,0 +1,31 @@
+package com.adptapaw.backend.service.savedsearch;
+
+import com.adptapaw.backend.exception.BadRequestException;
+
+/**
+ * Listings a saved search can watch.
+ */
+public enum SavedSearchTarget {
+
+    ADOPTION("adoption"),
+    MISSING("missing");
+
+    private final String key;
+
+    SavedSearchTarget(String key) {
+        this.key = key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public static SavedSearchTarget fromKey(String key) {
+        for (SavedSearchTarget target : values()) {
+            if (target.key.equalsIgnoreCase(key == null ? "" : key.trim())) {
+                return target;
+            }
+        }
+        throw new BadRequestException("Unsupported saved search target: " + key);
+    }
+}
@@ -0,0 +1,373 @@
+package com.adptapaw.backend.service.savedsearch.implementation;
+
+import com.adptapaw.backend.context.SavedSearchDigestEmailContext;
+import com.adptapaw.backend.entity.AdoptionAnimal;
+import com.adptapaw.backend.entity.MissingAnimal;
+import com.adptapaw.backend.entity.SavedSearch;
+import com.adptapaw.backend.entity.SavedSearchNotification;
+import com.adptapaw.backend.entity.User;
+import com.adptapaw.backend.exception.BadRequestException;
+import com.adptapaw.backend.exception.ResourceNotFoundException;
+import com.adptapaw.backend.payload.SavedSearchDTO;
+import com.adptapaw.backend.repository.SavedSearchNotificationRepository;
+import com.adptapaw.backend.repository.SavedSearchRepository;
+import com.adptapaw.backend.repository.UserRepository;
+import com.adptapaw.backend.service.email.EmailService;
+import com.adptapaw.backend.service.savedsearch.PercolatorIndex;
+import com.adptapaw.backend.service.savedsearch.SavedSearchService;
+import com.adptapaw.backend.service.savedsearch.SavedSearchTarget;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import javax.mail.MessagingException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Saved searches are percolated: each new post is matched against a reverse
+ * index of the stored criteria once its transaction commits, and every hit is
+ * queued as a notification row. A scheduled job drains the queue into one
+ * digest email per user, so a burst of posts never turns into a burst of mail.
+ *
+ * Digests are sent on their own thread, not the shared scheduler's. A user
+ * whose digest fails has their rows retried with exponential back-off and
+ * dropped after saved-search.digest-max-attempts, and the run pages past them
+ * by id, so one bad address cannot hold up everyone queued behind it.
+ */
+@Service
+public class SavedSearchServiceImplementation implements SavedSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SavedSearchServiceImplementation.class);
+
+    private final SavedSearchRepository savedSearchRepository;
+
+    private final SavedSearchNotificationRepository notificationRepository;
+
+    private final UserRepository userRepository;
+
+    private final EmailService emailService;
+
+    // notifications are written from afterCommit, where the post's transaction is finished and cannot be joined
+    private final TransactionTemplate notificationTransaction;
+
+    // one run at a time, at most one more waiting; a tick that finds both taken is dropped
+    private final ThreadPoolExecutor digestSender = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(1), runnable -> {
+        Thread thread = new Thread(runnable, "saved-search-digest");
+        thread.setDaemon(true);
+        return thread;
+    }, new ThreadPoolExecutor.DiscardPolicy());
+
+    private volatile Map<SavedSearchTarget, PercolatorIndex> indexes = emptyIndexes();
+
+    // saved search id -> owner id, to skip a user's own posts and fan out notifications
+    private volatile Map<Long, Long> owners = new ConcurrentHashMap<>();
+
+    @Value("${saved-search.max-per-user:20}")
+    private int maxPerUser;
+
+    @Value("${saved-search.digest-batch-size:1000}")
+    private int digestBatchSize;
+
+    @Value("${saved-search.digest-max-attempts:5}")
+    private int digestMaxAttempts;
+
+    @Value("${saved-search.digest-retry-ms:900000}")
+    private long digestRetryMs;
+
+    public SavedSearchServiceImplementation(SavedSearchRepository savedSearchRepository, SavedSearchNotificationRepository notificationRepository,
+                                            UserRepository userRepository, EmailService emailService, PlatformTransactionManager transactionManager) {
+        this.savedSearchRepository = savedSearchRepository;
+        this.notificationRepository = notificationRepository;
+        this.userRepository = userRepository;
+        this.emailService = emailService;
+        this.notificationTransaction = new TransactionTemplate(transactionManager);
+        this.notificationTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public SavedSearchDTO createSavedSearch(SavedSearchDTO savedSearchDTO) {
+        User user = currentUser();
+        SavedSearchTarget target = SavedSearchTarget.fromKey(savedSearchDTO.getTarget());
+
+        SavedSearch savedSearch = new SavedSearch();
+        savedSearch.setTarget(target.getKey());
+        savedSearch.setType(trimToNull(savedSearchDTO.getType()));
+        savedSearch.setBreed(trimToNull(savedSearchDTO.getBreed()));
+        savedSearch.setGender(trimToNull(savedSearchDTO.getGender()));
+        savedSearch.setColor(trimToNull(savedSearchDTO.getColor()));
+        savedSearch.setLocation(trimToNull(savedSearchDTO.getLocation()));
+        savedSearch.setUser(user);
+
+        if (predicates(savedSearch).values().stream().allMatch(Objects::isNull)) {
+            throw new BadRequestException("A saved search needs at least one criterion");
+        }
+        if (savedSearchRepository.countByUser(user) >= maxPerUser) {
+            throw new BadRequestException("You can keep at most " + maxPerUser + " saved searches");
+        }
+
+        savedSearchRepository.save(savedSearch);
+        index(savedSearch, user.getId());
+        return mapToDTO(savedSearch);
+    }
+
+    @Override
+    public List<SavedSearchDTO> getMySavedSearches() {
+        return savedSearchRepository.findByUserOrderByIdDesc(currentUser()).stream()
+                .map(this::mapToDTO).collect(Collectors.toList());
+    }
+
+    @Override
+    public String deleteSavedSearch(String id) {
+        Long savedSearchId;
+        try {
+            savedSearchId = Long.valueOf(id);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid saved search ID format: " + id);
+        }
+        User user = currentUser();
+        SavedSearch savedSearch = savedSearchRepository.findById(savedSearchId)
+                .filter(search -> Objects.equals(search.getUser().getId(), user.getId()))
+                .orElseThrow(() -> new ResourceNotFoundException("SavedSearch", "id", savedSearchId));
+
+        savedSearchRepository.delete(savedSearch);
+        indexes.get(SavedSearchTarget.fromKey(savedSearch.getTarget())).remove(savedSearchId);
+        owners.remove(savedSearchId);
+        return "Deleted successfully";
+    }
+
+    @Override
+    public void percolate(AdoptionAnimal adoptionAnimal) {
+        Long creatorId = adoptionAnimal.getUser() == null ? null : adoptionAnimal.getUser().getId();
+        percolate(SavedSearchTarget.ADOPTION, adoptionAnimal.getId(), adoptionAnimal.getName(), creatorId,
+                document(adoptionAnimal.getType(), adoptionAnimal.getBreed(), adoptionAnimal.getGender(), adoptionAnimal.getColor(), adoptionAnimal.getLocation()));
+    }
+
+    @Override
+    public void percolate(MissingAnimal missingAnimal) {
+        Long creatorId = missingAnimal.getCreator() == null ? null : missingAnimal.getCreator().getId();
+        percolate(SavedSearchTarget.MISSING, missingAnimal.getId(), missingAnimal.getName(), creatorId,
+                document(missingAnimal.getType(), missingAnimal.getBreed(), missingAnimal.getGender(), missingAnimal.getColor(), missingAnimal.getLocation()));
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Map<SavedSearchTarget, PercolatorIndex> rebuilt = emptyIndexes();
+        Map<Long, Long> rebuiltOwners = new ConcurrentHashMap<>();
+        for (SavedSearch savedSearch : savedSearchRepository.findAllWithUser()) {
+            rebuilt.get(SavedSearchTarget.fromKey(savedSearch.getTarget())).put(savedSearch.getId(), predicates(savedSearch));
+            rebuiltOwners.put(savedSearch.getId(), savedSearch.getUser().getId());
+        }
+
+        indexes = rebuilt;
+        owners = rebuiltOwners;
+        logger.info("Saved search index rebuilt with {} queries", rebuiltOwners.size());
+    }
+
+    @Scheduled(initialDelayString = "${saved-search.digest-interval-ms:900000}", fixedDelayString = "${saved-search.digest-interval-ms:900000}")
+    public void scheduleDigests() {
+        // SMTP is slow and synchronous; keep it off the shared scheduler threads
+        digestSender.execute(this::sendDigests);
+    }
+
+    @Override
+    public void sendDigests() {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        long afterId = 0;
+        List<SavedSearchNotification> pending;
+        do {
+            pending = notificationRepository.findPending(afterId, digestMaxAttempts, now, PageRequest.of(0, digestBatchSize));
+            if (pending.isEmpty()) {
+                return;
+            }
+            afterId = pending.get(pending.size() - 1).getId();
+
+            Map<Long, List<SavedSearchNotification>> byUser = new LinkedHashMap<>();
+            for (SavedSearchNotification notification : pending) {
+                byUser.computeIfAbsent(notification.getUser().getId(), id -> new ArrayList<>()).add(notification);
+            }
+
+            List<Long> sent = new ArrayList<>();
+            for (List<SavedSearchNotification> notifications : byUser.values()) {
+                if (sendDigest(notifications)) {
+                    notifications.forEach(notification -> sent.add(notification.getId()));
+                } else {
+                    markFailed(notifications);
+                }
+            }
+            if (!sent.isEmpty()) {
+                notificationRepository.markSent(sent, new Timestamp(System.currentTimeMillis()));
+            }
+        } while (pending.size() == digestBatchSize);
+    }
+
+    // rows are retried after digest-retry-ms, doubling per failure; the last failure leaves them unsent for good
+    private void markFailed(List<SavedSearchNotification> notifications) {
+        int attempts = notifications.stream().mapToInt(SavedSearchNotification::getAttempts).max().orElse(0);
+        long backOff = digestRetryMs << Math.min(attempts, 16);
+        List<Long> ids = notifications.stream().map(SavedSearchNotification::getId).collect(Collectors.toList());
+        notificationRepository.markFailed(ids, new Timestamp(System.currentTimeMillis() + backOff));
+        if (attempts + 1 >= digestMaxAttempts) {
+            logger.warn("Giving up on {} saved search notifications for user {} after {} attempts",
+                    ids.size(), notifications.get(0).getUser().getId(), attempts + 1);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        digestSender.shutdownNow();
+    }
+
+    private boolean sendDigest(List<SavedSearchNotification> notifications) {
+        User user = notifications.get(0).getUser();
+
+        List<Map<String, Object>> matches = new ArrayList<>();
+        for (SavedSearchNotification notification : notifications) {
+            Map<String, Object> match = new HashMap<>();
+            match.put("postName", notification.getPostName());
+            match.put("postId", notification.getPostId());
+            match.put("target", notification.getTarget());
+            matches.add(match);
+        }
+
+        SavedSearchDigestEmailContext mail = new SavedSearchDigestEmailContext();
+        mail.init(user);
+        mail.setTo(user.getEmail());
+        mail.put("name", user.getName());
+        mail.put("matches", matches);
+
+        try {
+            emailService.sendMail(mail);
+            return true;
+        } catch (MessagingException | RuntimeException e) {
+            logger.warn("Saved search digest to user {} failed: {}", user.getId(), e.getMessage());
+            return false;
+        }
+    }
+
+    private void percolate(SavedSearchTarget target, Long postId, String postName, Long creatorId, Map<String, String> document) {
+        Runnable match = () -> notify(target, postId, postName, creatorId, document);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // the post only exists for other readers once the surrounding transaction commits
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    match.run();
+                }
+            });
+        } else {
+            match.run();
+        }
+    }
+
+    private void notify(SavedSearchTarget target, Long postId, String postName, Long creatorId, Map<String, String> document) {
+        try {
+            // one notification per user and post, however many of their searches matched
+            Map<Long, Long> searchByUser = new LinkedHashMap<>();
+            for (Long savedSearchId : indexes.get(target).match(document)) {
+                Long ownerId = owners.get(savedSearchId);
+                if (ownerId != null && !ownerId.equals(creatorId)) {
+                    searchByUser.putIfAbsent(ownerId, savedSearchId);
+                }
+            }
+            if (searchByUser.isEmpty()) {
+                return;
+            }
+
+            List<SavedSearchNotification> notifications = new ArrayList<>(searchByUser.size());
+            for (Map.Entry<Long, Long> hit : searchByUser.entrySet()) {
+                SavedSearchNotification notification = new SavedSearchNotification();
+                notification.setUser(userRepository.getReferenceById(hit.getKey()));
+                notification.setSavedSearchId(hit.getValue());
+                notification.setTarget(target.getKey());
+                notification.setPostId(postId);
+                notification.setPostName(postName == null ? "" : postName);
+                notifications.add(notification);
+            }
+            notificationTransaction.execute(status -> notificationRepository.saveAll(notifications));
+        } catch (RuntimeException e) {
+            // matching is best effort and must never fail the post that triggered it
+            logger.warn("Saved search matching for {} {} failed: {}", target.getKey(), postId, e.getMessage());
+        }
+    }
+
+    private void index(SavedSearch savedSearch, Long ownerId) {
+        indexes.get(SavedSearchTarget.fromKey(savedSearch.getTarget())).put(savedSearch.getId(), predicates(savedSearch));
+        owners.put(savedSearch.getId(), ownerId);
+    }
+
+    private static Map<SavedSearchTarget, PercolatorIndex> emptyIndexes() {
+        Map<SavedSearchTarget, PercolatorIndex> empty = new EnumMap<>(SavedSearchTarget.class);
+        for (SavedSearchTarget target : SavedSearchTarget.values()) {
+            empty.put(target, new PercolatorIndex());
+        }
+        return empty;
+    }
+
+    private Map<String, String> predicates(SavedSearch savedSearch) {
+        return document(savedSearch.getType(), savedSearch.getBreed(), savedSearch.getGender(), savedSearch.getColor(), savedSearch.getLocation());
+    }
+
+    private Map<String, String> document(String type, String breed, String gender, String color, String location) {
+        Map<String, String> fields = new HashMap<>();
+        fields.put("type", type);
+        fields.put("breed", breed);
+        fields.put("gender", gender);
+        fields.put("color", color);
+        fields.put("location", location);
+        return fields;
+    }
+
+    private User currentUser() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return userRepository.findByEmail(auth.getName())
+                .orElseThrow(() -> new ResourceNotFoundException("User", "email", auth.getName()));
+    }
+
+    private SavedSearchDTO mapToDTO(SavedSearch savedSearch) {
+        SavedSearchDTO savedSearchDTO = new SavedSearchDTO();
+        savedSearchDTO.setId(savedSearch.getId());
+        savedSearchDTO.setTarget(savedSearch.getTarget());
+        savedSearchDTO.setType(savedSearch.getType());
+        savedSearchDTO.setBreed(savedSearch.getBreed());
+        savedSearchDTO.setGender(savedSearch.getGender());
+        savedSearchDTO.setColor(savedSearch.getColor());
+        savedSearchDTO.setLocation(savedSearch.getLocation());
+        savedSearchDTO.setCreatedAt(savedSearch.getCreatedAt());
+        return savedSearchDTO;
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+}
@@ -0,0 +1,18 @@
+package com.adptapaw.backend.service.search;
+
+import com.adptapaw.backend.entity.AdoptionAnimal;
+import com.adptapaw.backend.payload.adoption.AdoptionSearchResponseDTO;
+
+import java.util.List;
+
+public interface AdoptionSearchService {
+
+    AdoptionSearchResponseDTO search(List<String> type, List<String> breed, List<String> gender, List<String> location,
+                                     List<String> availability, int pageNo, int pageSize, String sortBy, String sortDir);
+
+    void index(AdoptionAnimal adoptionAnimal);
+
+    void remove(Long id);
+
+    void rebuild();
+}
@@ -0,0 +1,270 @@
+package com.adptapaw.backend.service.search;
+
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * In-memory faceted index keeping one bitset per facet value.
+ * Documents live in slots; a query ANDs the OR-ed value bitsets of every
+ * filtered facet, so filtering and counting never touch the database.
+ *
+ * @param <T> the document type stored per slot
+ */
+public class FacetIndex<T> {
+
+    private final Map<String, Function<T, String>> facets;
+
+    private final Map<String, Map<String, BitSet>> postings = new HashMap<>();
+
+    private final Map<String, Map<String, String>> labels = new HashMap<>();
+
+    private final Map<Long, Integer> slotsById = new HashMap<>();
+
+    private final List<T> documents = new ArrayList<>();
+
+    private final List<Map<String, String>> valuesBySlot = new ArrayList<>();
+
+    private final BitSet live = new BitSet();
+
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public FacetIndex(Map<String, Function<T, String>> facets) {
+        this.facets = new LinkedHashMap<>(facets);
+        for (String facet : this.facets.keySet()) {
+            postings.put(facet, new HashMap<>());
+            labels.put(facet, new HashMap<>());
+        }
+    }
+
+    public static String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        String normalized = value.trim().toLowerCase(Locale.ROOT);
+        return normalized.isEmpty() ? null : normalized;
+    }
+
+    public void put(Long id, T document) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slotsById.get(id);
+            if (slot != null) {
+                unlink(slot);
+            } else {
+                slot = freeSlots.isEmpty() ? documents.size() : freeSlots.pop();
+                slotsById.put(id, slot);
+            }
+
+            Map<String, String> values = new HashMap<>();
+            for (Map.Entry<String, Function<T, String>> facet : facets.entrySet()) {
+                String label = facet.getValue().apply(document);
+                String value = normalize(label);
+                if (value == null) {
+                    continue;
+                }
+                values.put(facet.getKey(), value);
+                postings.get(facet.getKey()).computeIfAbsent(value, key -> new BitSet()).set(slot);
+                labels.get(facet.getKey()).putIfAbsent(value, label.trim());
+            }
+
+            if (slot == documents.size()) {
+                documents.add(document);
+                valuesBySlot.add(values);
+            } else {
+                documents.set(slot, document);
+                valuesBySlot.set(slot, values);
+            }
+            live.set(slot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slotsById.remove(id);
+            if (slot == null) {
+                return;
+            }
+            unlink(slot);
+            documents.set(slot, null);
+            valuesBySlot.set(slot, Collections.<String, String>emptyMap());
+            live.clear(slot);
+            freeSlots.push(slot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public T get(Long id) {
+        lock.readLock().lock();
+        try {
+            Integer slot = slotsById.get(id);
+            return slot == null ? null : documents.get(slot);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            for (String facet : facets.keySet()) {
+                postings.get(facet).clear();
+                labels.get(facet).clear();
+            }
+            slotsById.clear();
+            documents.clear();
+            valuesBySlot.clear();
+            live.clear();
+            freeSlots.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Filters, sorts and pages the index. Facet counts are disjunctive: the
+     * counts of a facet ignore that facet's own selection so the client can
+     * still offer the alternative values.
+     */
+    public Result<T> query(Map<String, ? extends Collection<String>> filters, Comparator<T> order, int pageNo, int pageSize) {
+        lock.readLock().lock();
+        try {
+            Map<String, BitSet> selections = new LinkedHashMap<>();
+            for (String facet : facets.keySet()) {
+                Collection<String> selected = filters == null ? null : filters.get(facet);
+                if (selected == null || selected.isEmpty()) {
+                    continue;
+                }
+                BitSet selection = new BitSet();
+                for (String value : selected) {
+                    BitSet posting = postings.get(facet).get(normalize(value));
+                    if (posting != null) {
+                        selection.or(posting);
+                    }
+                }
+                selections.put(facet, selection);
+            }
+
+            BitSet matched = (BitSet) live.clone();
+            for (BitSet selection : selections.values()) {
+                matched.and(selection);
+            }
+
+            Map<String, Map<String, Long>> counts = new LinkedHashMap<>();
+            BitSet scratch = new BitSet();
+            for (String facet : facets.keySet()) {
+                BitSet base = matched;
+                if (selections.containsKey(facet)) {
+                    base = (BitSet) live.clone();
+                    for (Map.Entry<String, BitSet> selection : selections.entrySet()) {
+                        if (!selection.getKey().equals(facet)) {
+                            base.and(selection.getValue());
+                        }
+                    }
+                }
+                counts.put(facet, countValues(facet, base, scratch));
+            }
+
+            List<T> hits = new ArrayList<>(matched.cardinality());
+            for (int slot = matched.nextSetBit(0); slot >= 0; slot = matched.nextSetBit(slot + 1)) {
+                hits.add(documents.get(slot));
+            }
+            if (order != null) {
+                hits.sort(order);
+            }
+
+            int from = Math.min(pageNo * pageSize, hits.size());
+            int to = Math.min(from + pageSize, hits.size());
+            return new Result<>(new ArrayList<>(hits.subList(from, to)), hits.size(), counts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<String, Long> countValues(String facet, BitSet base, BitSet scratch) {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>();
+        for (Map.Entry<String, BitSet> posting : postings.get(facet).entrySet()) {
+            scratch.clear();
+            scratch.or(base);
+            scratch.and(posting.getValue());
+            long count = scratch.cardinality();
+            if (count > 0) {
+                entries.add(new AbstractMap.SimpleEntry<>(labels.get(facet).get(posting.getKey()), count));
+            }
+        }
+        entries.sort(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.<String, Long>comparingByKey()));
+
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Map.Entry<String, Long> entry : entries) {
+            counts.put(entry.getKey(), entry.getValue());
+        }
+        return counts;
+    }
+
+    private void unlink(int slot) {
+        for (Map.Entry<String, String> value : valuesBySlot.get(slot).entrySet()) {
+            Map<String, BitSet> facetPostings = postings.get(value.getKey());
+            BitSet posting = facetPostings.get(value.getValue());
+            if (posting == null) {
+                continue;
+            }
+            posting.clear(slot);
+            if (posting.isEmpty()) {
+                facetPostings.remove(value.getValue());
+                labels.get(value.getKey()).remove(value.getValue());
+            }
+        }
+    }
+
+    public static class Result<T> {
+        private final List<T> content;
+        private final long totalElements;
+        private final Map<String, Map<String, Long>> facetCounts;
+
+        public Result(List<T> content, long totalElements, Map<String, Map<String, Long>> facetCounts) {
+            this.content = content;
+            this.totalElements = totalElements;
+            this.facetCounts = facetCounts;
+        }
+
+        public List<T> getContent() {
+            return content;
+        }
+
+        public long getTotalElements() {
+            return totalElements;
+        }
+
+        public Map<String, Map<String, Long>> getFacetCounts() {
+            return facetCounts;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.adptapaw.backend.service.search;
+
+import org.springframework.web.util.HtmlUtils;
+
+/**
+ * ts_headline copies the post's own text around its highlight tags, so the
+ * raw snippet is user-written HTML. Escaping it and then restoring only the
+ * highlight tags gives a snippet clients can render as HTML safely.
+ */
+public final class Snippets {
+
+    private static final String START = "<mark>";
+    private static final String STOP = "</mark>";
+
+    private Snippets() {
+    }
+
+    public static String toSafeHtml(String headline) {
+        if (headline == null) {
+            return null;
+        }
+        return HtmlUtils.htmlEscape(headline)
+                .replace(HtmlUtils.htmlEscape(START), START)
+                .replace(HtmlUtils.htmlEscape(STOP), STOP);
+    }
+}
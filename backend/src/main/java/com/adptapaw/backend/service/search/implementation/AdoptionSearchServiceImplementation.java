@@ -0,0 +1,171 @@
+package com.adptapaw.backend.service.search.implementation;
+
+import com.adptapaw.backend.entity.AdoptionAnimal;
+import com.adptapaw.backend.exception.BadRequestException;
+import com.adptapaw.backend.payload.adoption.AdoptionAnimalDTO;
+import com.adptapaw.backend.payload.adoption.AdoptionSearchResponseDTO;
+import com.adptapaw.backend.payload.mapper.AdoptionMapper;
+import com.adptapaw.backend.repository.AdoptionAnimalRepository;
+import com.adptapaw.backend.service.search.AdoptionSearchService;
+import com.adptapaw.backend.service.search.FacetIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+@Service
+public class AdoptionSearchServiceImplementation implements AdoptionSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdoptionSearchServiceImplementation.class);
+
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    private static final Map<String, Function<AdoptionAnimalDTO, String>> FACETS = new LinkedHashMap<>();
+
+    private static final Map<String, Function<AdoptionAnimalDTO, String>> SORT_KEYS = new HashMap<>();
+
+    static {
+        FACETS.put("type", AdoptionAnimalDTO::getType);
+        FACETS.put("breed", AdoptionAnimalDTO::getBreed);
+        FACETS.put("gender", AdoptionAnimalDTO::getGender);
+        FACETS.put("location", AdoptionAnimalDTO::getLocation);
+        FACETS.put("availability", animal -> animal.getAvailability() == null ? null : String.valueOf(animal.getAvailability()));
+
+        SORT_KEYS.put("name", AdoptionAnimalDTO::getName);
+        SORT_KEYS.put("breed", AdoptionAnimalDTO::getBreed);
+        SORT_KEYS.put("type", AdoptionAnimalDTO::getType);
+        SORT_KEYS.put("gender", AdoptionAnimalDTO::getGender);
+        SORT_KEYS.put("location", AdoptionAnimalDTO::getLocation);
+        SORT_KEYS.put("postedon", AdoptionAnimalDTO::getPostedon);
+    }
+
+    private final AdoptionMapper mapper;
+
+    private final AdoptionAnimalRepository adoptionAnimalRepository;
+
+    private final FacetIndex<AdoptionAnimalDTO> facetIndex = new FacetIndex<>(FACETS);
+
+    // ids indexed or removed by live traffic while rebuild() runs; the rebuild's older snapshot must not overwrite them
+    private Set<Long> writtenDuringRebuild;
+
+    public AdoptionSearchServiceImplementation(AdoptionMapper mapper, AdoptionAnimalRepository adoptionAnimalRepository) {
+        this.mapper = mapper;
+        this.adoptionAnimalRepository = adoptionAnimalRepository;
+    }
+
+    private AdoptionAnimalDTO mapToDTO(AdoptionAnimal adoptionAnimal){
+        return mapper.toDTO(adoptionAnimal);
+    }
+
+    @Override
+    public AdoptionSearchResponseDTO search(List<String> type, List<String> breed, List<String> gender, List<String> location,
+                                            List<String> availability, int pageNo, int pageSize, String sortBy, String sortDir) {
+
+        if (pageNo < 0 || pageSize < 1) {
+            throw new BadRequestException("Invalid page request: pageNo " + pageNo + ", pageSize " + pageSize);
+        }
+
+        Map<String, List<String>> filters = new HashMap<>();
+        filters.put("type", type);
+        filters.put("breed", breed);
+        filters.put("gender", gender);
+        filters.put("location", location);
+        filters.put("availability", availability);
+
+        FacetIndex.Result<AdoptionAnimalDTO> result = facetIndex.query(filters, comparator(sortBy, sortDir), pageNo, pageSize);
+
+        int totalPages = (int) ((result.getTotalElements() + pageSize - 1) / pageSize);
+
+        AdoptionSearchResponseDTO adoptionSearchResponse = new AdoptionSearchResponseDTO();
+        adoptionSearchResponse.setContent(result.getContent());
+        adoptionSearchResponse.setFacets(result.getFacetCounts());
+        adoptionSearchResponse.setPageNo(pageNo);
+        adoptionSearchResponse.setPageSize(pageSize);
+        adoptionSearchResponse.setTotalElements(result.getTotalElements());
+        adoptionSearchResponse.setTotalPages(totalPages);
+        adoptionSearchResponse.setLast(pageNo >= totalPages - 1);
+
+        return adoptionSearchResponse;
+    }
+
+    @Override
+    public void index(AdoptionAnimal adoptionAnimal) {
+        AdoptionAnimalDTO document = mapToDTO(adoptionAnimal);
+        synchronized (this) {
+            if (writtenDuringRebuild != null) {
+                writtenDuringRebuild.add(adoptionAnimal.getId());
+            }
+            facetIndex.put(adoptionAnimal.getId(), document);
+        }
+    }
+
+    @Override
+    public void remove(Long id) {
+        synchronized (this) {
+            if (writtenDuringRebuild != null) {
+                writtenDuringRebuild.add(id);
+            }
+            facetIndex.remove(id);
+        }
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        // filled in place: traffic is already being served, and its writes go to the same index
+        synchronized (this) {
+            writtenDuringRebuild = new HashSet<>();
+        }
+        try {
+            Page<AdoptionAnimal> batch;
+            int pageNo = 0;
+            do {
+                batch = adoptionAnimalRepository.findAll(PageRequest.of(pageNo++, REBUILD_BATCH_SIZE, Sort.by("id")));
+                for (AdoptionAnimal adoptionAnimal : batch.getContent()) {
+                    AdoptionAnimalDTO document = mapToDTO(adoptionAnimal);
+                    synchronized (this) {
+                        if (!writtenDuringRebuild.contains(adoptionAnimal.getId())) {
+                            facetIndex.put(adoptionAnimal.getId(), document);
+                        }
+                    }
+                }
+            } while (batch.hasNext());
+        } finally {
+            synchronized (this) {
+                writtenDuringRebuild = null;
+            }
+        }
+
+        logger.info("Adoption search index built with {} listings", facetIndex.size());
+    }
+
+    private Comparator<AdoptionAnimalDTO> comparator(String sortBy, String sortDir) {
+        Comparator<AdoptionAnimalDTO> byId = Comparator.comparing(AdoptionAnimalDTO::getId);
+        Comparator<AdoptionAnimalDTO> order;
+
+        if ("id".equalsIgnoreCase(sortBy)) {
+            order = byId;
+        } else {
+            Function<AdoptionAnimalDTO, String> key = SORT_KEYS.get(sortBy);
+            if (key == null) {
+                throw new BadRequestException("Unsupported sort field: " + sortBy);
+            }
+            order = Comparator.comparing(key, Comparator.nullsLast(Comparator.<String>naturalOrder())).thenComparing(byId);
+        }
+
+        return sortDir.equalsIgnoreCase(Sort.Direction.ASC.name()) ? order : order.reversed();
+    }
+}
@@ -0,0 +1,12 @@
+package com.adptapaw.backend.service.trending;
+
+import org.springframework.data.domain.Page;
+
+public interface ViewCounterService {
+
+    void recordView(ViewTarget target, Long id);
+
+    void flush();
+
+    Page<Long> trendingIds(ViewTarget target, String cursor, int pageNo, int pageSize);
+}
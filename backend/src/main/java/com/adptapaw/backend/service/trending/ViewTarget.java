@@ -0,0 +1,33 @@
+package com.adptapaw.backend.service.trending;
+
+/**
+ * Listings that can be sorted by trending, with the table and visibility
+ * filter the trending page is drawn from.
+ */
+public enum ViewTarget {
+
+    ADOPTION_ANIMAL("adoption", "adoptionanimal", "t.deleted = false"),
+    DONATION_POST("donationpost", "donationposts", null);
+
+    private final String key;
+    private final String table;
+    private final String filter;
+
+    ViewTarget(String key, String table, String filter) {
+        this.key = key;
+        this.table = table;
+        this.filter = filter;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public String getFilter() {
+        return filter;
+    }
+}
@@ -0,0 +1,107 @@
+package com.adptapaw.backend.service.trending.implementation;
+
+import com.adptapaw.backend.exception.BadRequestException;
+import com.adptapaw.backend.service.trending.ViewCounterService;
+import com.adptapaw.backend.service.trending.ViewTarget;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts detail views in striped in-memory counters and periodically folds
+ * them into view_counters with one batched upsert per listing type. A view
+ * that races with a flush may land in the next flush or, rarely, be dropped;
+ * popularity does not need exact counts.
+ *
+ * The decayed score is kept in log space (see db/trending-schema.sql), so a
+ * flush only has to combine the stored key with the new batch.
+ */
+@Service
+public class ViewCounterServiceImplementation implements ViewCounterService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ViewCounterServiceImplementation.class);
+
+    // log-sum-exp of the stored and the incoming key; exp() underflows to an error in PostgreSQL, so large gaps short-circuit
+    private static final String UPSERT_SQL =
+            "insert into view_counters (target, entity_id, views, trend_key) values (?, ?, ?, ?) "
+                    + "on conflict (target, entity_id) do update set views = view_counters.views + excluded.views, "
+                    + "trend_key = case when abs(view_counters.trend_key - excluded.trend_key) > 40 "
+                    + "then greatest(view_counters.trend_key, excluded.trend_key) "
+                    + "else greatest(view_counters.trend_key, excluded.trend_key) "
+                    + "+ ln(1 + exp(-abs(view_counters.trend_key - excluded.trend_key))) end";
+
+    private final Map<ViewTarget, ConcurrentHashMap<Long, LongAdder>> pending = new EnumMap<>(ViewTarget.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final double decayPerSecond;
+
+    public ViewCounterServiceImplementation(JdbcTemplate jdbcTemplate, @Value("${trending.half-life-hours:24}") double halfLifeHours) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.decayPerSecond = Math.log(2) / (halfLifeHours * 3600);
+        for (ViewTarget target : ViewTarget.values()) {
+            pending.put(target, new ConcurrentHashMap<>());
+        }
+    }
+
+    @Override
+    public void recordView(ViewTarget target, Long id) {
+        pending.get(target).computeIfAbsent(id, key -> new LongAdder()).increment();
+    }
+
+    @Override
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${trending.flush-interval-ms:30000}")
+    public synchronized void flush() {
+        double now = System.currentTimeMillis() / 1000.0;
+        for (Map.Entry<ViewTarget, ConcurrentHashMap<Long, LongAdder>> entry : pending.entrySet()) {
+            List<Object[]> batch = new ArrayList<>();
+            for (Map.Entry<Long, LongAdder> counter : entry.getValue().entrySet()) {
+                long views = counter.getValue().sumThenReset();
+                if (views == 0) {
+                    entry.getValue().remove(counter.getKey(), counter.getValue());
+                    continue;
+                }
+                batch.add(new Object[]{entry.getKey().getKey(), counter.getKey(), views, Math.log(views) + decayPerSecond * now});
+            }
+            if (batch.isEmpty()) {
+                continue;
+            }
+            try {
+                jdbcTemplate.batchUpdate(UPSERT_SQL, batch);
+            } catch (DataAccessException e) {
+                logger.warn("Dropping {} buffered {} view counts", batch.size(), entry.getKey().getKey(), e);
+            }
+        }
+    }
+
+    @Override
+    public Page<Long> trendingIds(ViewTarget target, String cursor, int pageNo, int pageSize) {
+        if (cursor != null) {
+            throw new BadRequestException("Cursor pagination is not supported for the trending sort");
+        }
+        String where = target.getFilter() == null ? "" : " where " + target.getFilter();
+        List<Long> ids = jdbcTemplate.queryForList(
+                "select t.id from " + target.getTable() + " t "
+                        + "left join view_counters v on v.target = ? and v.entity_id = t.id" + where
+                        + " order by v.trend_key desc nulls last, t.id desc limit ? offset ?",
+                Long.class, target.getKey(), pageSize, (long) pageNo * pageSize);
+        Long total = jdbcTemplate.queryForObject("select count(*) from " + target.getTable() + " t" + where, Long.class);
+        return new PageImpl<>(ids, PageRequest.of(pageNo, pageSize), total == null ? 0 : total);
+    }
+}
@@ -6,5 +6,15 @@ public class AdoptapawConstants {
     public  static final String DEFAULT_PAGE_SIZE = "8";
     public static final String DEFAULT_SORT_BY = "id";
     public static final String DEFAULT_SORT_DIRECTION = "asc";
+    public static final String TRENDING_SORT = "trending";
+    public static final String CARD_VIEW = "card";
+    public static final String FULL_VIEW = "full";
+    public static final String DEFAULT_RADIUS_KM = "10";
+    public static final String DEFAULT_NEARBY_LIMIT = "50";
+    public static final String DEFAULT_HEATMAP_ZOOM = "6";
+    public static final String DEFAULT_MATCH_LIMIT = "10";
+    public static final String DEFAULT_RECOMMENDATION_LIMIT = "10";
+    public static final String CSV_MEDIA_TYPE = "text/csv";
+    public static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
 
 }
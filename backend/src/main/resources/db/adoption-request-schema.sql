@@ -0,0 +1,20 @@
+-- One active (not rejected) adoption request per seeker and pet. Partial
+-- unique indexes cannot be declared through JPA, so the constraint lives here.
+-- The same index answers the existence check createAdoptionRequest runs
+-- before doing any other work.
+
+-- Duplicates from before the constraint: keep the approved request, or else
+-- the oldest one, and reject the rest so the index can be built.
+UPDATE adoptionrequests
+SET rejected = true, version = version + 1
+WHERE id IN (
+    SELECT id FROM (
+        SELECT id, row_number() OVER (PARTITION BY adoptionseeker_id, pet_id ORDER BY status DESC, id) AS rn
+        FROM adoptionrequests
+        WHERE rejected = false AND adoptionseeker_id IS NOT NULL AND pet_id IS NOT NULL
+    ) ranked
+    WHERE ranked.rn > 1
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_adoptionrequests_active ON adoptionrequests (adoptionseeker_id, pet_id)
+    WHERE rejected = false;
@@ -0,0 +1,38 @@
+-- Cold storage for resolved posts and requests. ArchiveServiceImplementation
+-- moves rows here in batches once they have been resolved for a while, so the
+-- hot tables (and their indexes) only hold what listings actually show.
+--
+-- Archive tables copy the column definitions of their hot table but no
+-- defaults, foreign keys or indexes: archived rows are written once, read
+-- only by history listings, and must survive their user or pet going away.
+-- Columns Hibernate adds to a hot table later are copied over on startup.
+
+-- When a row was first seen resolved (adopted, found, rejected or deleted).
+-- Stamped and cleared by the archival job; Hibernate does not map it.
+ALTER TABLE adoptionanimal ADD COLUMN IF NOT EXISTS resolved_at timestamp;
+ALTER TABLE missinganimal ADD COLUMN IF NOT EXISTS resolved_at timestamp;
+ALTER TABLE adoptionrequests ADD COLUMN IF NOT EXISTS resolved_at timestamp;
+ALTER TABLE missingrequests ADD COLUMN IF NOT EXISTS resolved_at timestamp;
+
+CREATE INDEX IF NOT EXISTS idx_adoptionanimal_resolved ON adoptionanimal (resolved_at) WHERE resolved_at IS NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_missinganimal_resolved ON missinganimal (resolved_at) WHERE resolved_at IS NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_adoptionrequests_resolved ON adoptionrequests (resolved_at) WHERE resolved_at IS NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_missingrequests_resolved ON missingrequests (resolved_at) WHERE resolved_at IS NOT NULL;
+
+CREATE TABLE IF NOT EXISTS adoptionanimal_archive (LIKE adoptionanimal);
+CREATE TABLE IF NOT EXISTS missinganimal_archive (LIKE missinganimal);
+CREATE TABLE IF NOT EXISTS adoptionrequests_archive (LIKE adoptionrequests);
+CREATE TABLE IF NOT EXISTS missingrequests_archive (LIKE missingrequests);
+
+ALTER TABLE adoptionanimal_archive ADD COLUMN IF NOT EXISTS archived_at timestamp NOT NULL DEFAULT now();
+ALTER TABLE missinganimal_archive ADD COLUMN IF NOT EXISTS archived_at timestamp NOT NULL DEFAULT now();
+ALTER TABLE adoptionrequests_archive ADD COLUMN IF NOT EXISTS archived_at timestamp NOT NULL DEFAULT now();
+ALTER TABLE missingrequests_archive ADD COLUMN IF NOT EXISTS archived_at timestamp NOT NULL DEFAULT now();
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_adoptionanimal_archive_id ON adoptionanimal_archive (id);
+CREATE UNIQUE INDEX IF NOT EXISTS uq_missinganimal_archive_id ON missinganimal_archive (id);
+CREATE UNIQUE INDEX IF NOT EXISTS uq_adoptionrequests_archive_id ON adoptionrequests_archive (id);
+CREATE UNIQUE INDEX IF NOT EXISTS uq_missingrequests_archive_id ON missingrequests_archive (id);
+
+CREATE INDEX IF NOT EXISTS idx_adoptionrequests_archive_pet ON adoptionrequests_archive (pet_id);
+CREATE INDEX IF NOT EXISTS idx_missingrequests_archive_pet ON missingrequests_archive (pet_id);
@@ -0,0 +1,18 @@
+-- Admin review queue over pending adoption requests. Approved and rejected
+-- rows are the bulk of the table and never reach the queue, so the index only
+-- covers pending rows and stays the size of the backlog, not of the history.
+-- Queue queries aggregate (pet_id, requested_at) straight from the index.
+
+-- superseded by idx_adoptionrequests_open once requests could be rejected
+DROP INDEX IF EXISTS idx_adoptionrequests_pending;
+
+CREATE INDEX IF NOT EXISTS idx_adoptionrequests_open ON adoptionrequests (pet_id, requested_at)
+    WHERE status = false AND rejected = false;
+
+-- Rows written before requested_at existed only carry requestdate, stored as
+-- java.util.Date#toString ("Sun Oct 18 10:15:30 UTC 2026"). Recover the
+-- timestamp from it once; the zone abbreviation is ignored.
+UPDATE adoptionrequests
+SET requested_at = to_timestamp(substring(requestdate from 5 for 15) || ' ' || right(requestdate, 4), 'Mon DD HH24:MI:SS YYYY')
+WHERE requested_at IS NULL
+  AND requestdate ~ '^[A-Z][a-z]{2} [A-Z][a-z]{2} [0-9]{2} [0-9]{2}:[0-9]{2}:[0-9]{2} [^ ]+ [0-9]{4}$';
@@ -0,0 +1,23 @@
+-- Full-text search columns maintained by PostgreSQL itself. Hibernate does not
+-- map them, so ddl-auto leaves them alone; every statement is idempotent and
+-- runs after Hibernate on startup.
+
+ALTER TABLE adoptionanimal ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('english', coalesce(name, '') || ' ' || coalesce(breed, '') || ' ' || coalesce(type, '')), 'A') ||
+        setweight(to_tsvector('english', coalesce(behaviour, '') || ' ' || coalesce(training, '')), 'B') ||
+        setweight(to_tsvector('english', coalesce(description, '')), 'C') ||
+        setweight(to_tsvector('english', coalesce(color, '') || ' ' || coalesce(location, '')), 'D')
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_adoptionanimal_search_vector ON adoptionanimal USING GIN (search_vector);
+
+ALTER TABLE missinganimal ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('english', coalesce(name, '') || ' ' || coalesce(breed, '') || ' ' || coalesce(type, '')), 'A') ||
+        setweight(to_tsvector('english', coalesce(specificattribute, '')), 'B') ||
+        setweight(to_tsvector('english', coalesce(accessorieslastworn, '')), 'C') ||
+        setweight(to_tsvector('english', coalesce(color, '') || ' ' || coalesce(location, '')), 'D')
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_missinganimal_search_vector ON missinganimal USING GIN (search_vector);
@@ -0,0 +1,17 @@
+-- View counters behind the "trending" listing sort. Rows are upserted in
+-- batches by ViewCounterServiceImplementation; nothing writes here per view.
+--
+-- trend_key is ln(sum over views of exp(lambda * t)), with t the view time in
+-- seconds and lambda = ln 2 / half-life. Ordering by it is the same as
+-- ordering by the exponentially decayed view count at any moment, but the key
+-- never has to be recomputed as time passes, so it can be indexed.
+
+CREATE TABLE IF NOT EXISTS view_counters (
+    target    varchar(32)      NOT NULL,
+    entity_id bigint           NOT NULL,
+    views     bigint           NOT NULL,
+    trend_key double precision NOT NULL,
+    PRIMARY KEY (target, entity_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_view_counters_trend ON view_counters (target, trend_key DESC);
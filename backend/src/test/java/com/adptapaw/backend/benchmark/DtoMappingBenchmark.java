@@ -0,0 +1,275 @@
+package com.adptapaw.backend.benchmark;
+
+import com.adptapaw.backend.entity.AdoptionAnimal;
+import com.adptapaw.backend.entity.AdoptionRequest;
+import com.adptapaw.backend.entity.Donation;
+import com.adptapaw.backend.entity.DonationPost;
+import com.adptapaw.backend.entity.Feedback;
+import com.adptapaw.backend.entity.MissingAnimal;
+import com.adptapaw.backend.entity.MissingRequest;
+import com.adptapaw.backend.entity.User;
+import com.adptapaw.backend.payload.FeedbackDTO;
+import com.adptapaw.backend.payload.adoption.AdoptionAnimalDTO;
+import com.adptapaw.backend.payload.adoption.AdoptionRequestDTO;
+import com.adptapaw.backend.payload.adoption.AdoptionUserDTO;
+import com.adptapaw.backend.payload.donations.DonationDTO;
+import com.adptapaw.backend.payload.donations.DonationPostDTO;
+import com.adptapaw.backend.payload.mapper.AdoptionMapper;
+import com.adptapaw.backend.payload.mapper.DonationMapper;
+import com.adptapaw.backend.payload.mapper.FeedbackMapper;
+import com.adptapaw.backend.payload.mapper.MissingMapper;
+import com.adptapaw.backend.payload.missing.MissingAnimalDTO;
+import com.adptapaw.backend.payload.missing.MissingRequestDTO;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the explicit payload mappers against the reflective ModelMapper
+ * they replaced, one pair of benchmarks per DTO type. Setup fails if the two
+ * ever disagree, so the numbers always compare identical output.
+ *
+ * Run with: mvn test-compile exec:java
+ * (exec-maven-plugin in the pom is configured with the test classpath and this main class)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DtoMappingBenchmark {
+
+    private final ModelMapper modelMapper = new ModelMapper();
+    private final AdoptionMapper adoptionMapper = new AdoptionMapper();
+    private final MissingMapper missingMapper = new MissingMapper();
+    private final DonationMapper donationMapper = new DonationMapper();
+    private final FeedbackMapper feedbackMapper = new FeedbackMapper();
+
+    private User user;
+    private AdoptionAnimal adoptionAnimal;
+    private AdoptionRequest adoptionRequest;
+    private MissingAnimal missingAnimal;
+    private MissingRequest missingRequest;
+    private DonationPost donationPost;
+    private Donation donation;
+    private Feedback feedback;
+
+    @Setup
+    public void setup() {
+        user = new User();
+        user.setId(7L);
+        user.setName("Jan Kowalski");
+        user.setUsername("jkowalski");
+        user.setEmail("jan@example.com");
+        user.setLocation("Warszawa");
+
+        adoptionAnimal = new AdoptionAnimal();
+        adoptionAnimal.setId(11L);
+        adoptionAnimal.setName("Burek");
+        adoptionAnimal.setBreed("Mixed");
+        adoptionAnimal.setTraining("House trained");
+        adoptionAnimal.setVaccine("Rabies");
+        adoptionAnimal.setColor("Brown");
+        adoptionAnimal.setImageone("https://example.com/1.jpg");
+        adoptionAnimal.setImagetwo("https://example.com/2.jpg");
+        adoptionAnimal.setDescription("Friendly and calm");
+        adoptionAnimal.setPhysicalcondition("Healthy");
+        adoptionAnimal.setLocation("Warszawa");
+        adoptionAnimal.setLatitude(52.2297);
+        adoptionAnimal.setLongitude(21.0122);
+        adoptionAnimal.setBehaviour("Good with kids");
+        adoptionAnimal.setFood("Dry food");
+        adoptionAnimal.setGender("Male");
+        adoptionAnimal.setType("Dog");
+        adoptionAnimal.setMobile("123456789");
+        adoptionAnimal.setPostedon("2022-07-01");
+        adoptionAnimal.setAvailability(true);
+        adoptionAnimal.setUser(user);
+
+        adoptionRequest = new AdoptionRequest();
+        adoptionRequest.setId(21L);
+        adoptionRequest.setRequestdate("2022-07-02");
+        adoptionRequest.setApproveddate("");
+        adoptionRequest.setStatus(false);
+        adoptionRequest.setRfa("Looking for a companion");
+        adoptionRequest.setHadpet(true);
+        adoptionRequest.setPickup(false);
+        adoptionRequest.setMobile("987654321");
+        adoptionRequest.setEmail("jan@example.com");
+        adoptionRequest.setAdoptionseeker(user);
+        adoptionRequest.setPet(adoptionAnimal);
+
+        missingAnimal = new MissingAnimal();
+        missingAnimal.setId(31L);
+        missingAnimal.setName("Mruczek");
+        missingAnimal.setBreed("European");
+        missingAnimal.setVaccine("None");
+        missingAnimal.setColor("Grey");
+        missingAnimal.setDatemissing("2022-06-30");
+        missingAnimal.setImage("https://example.com/3.jpg");
+        missingAnimal.setSpecificattribute("White paw");
+        missingAnimal.setLocation("Krakow");
+        missingAnimal.setLatitude(50.0647);
+        missingAnimal.setLongitude(19.9450);
+        missingAnimal.setAccessorieslastworn("Red collar");
+        missingAnimal.setRewards("200");
+        missingAnimal.setGender("Female");
+        missingAnimal.setType("Cat");
+        missingAnimal.setStillmissing(true);
+        missingAnimal.setCreator(user);
+
+        missingRequest = new MissingRequest();
+        missingRequest.setId(41L);
+        missingRequest.setRequestdate("2022-07-03");
+        missingRequest.setApproveddate("");
+        missingRequest.setStatus(false);
+        missingRequest.setLocation("Krakow");
+        missingRequest.setImage("https://example.com/4.jpg");
+        missingRequest.setMobile("555111222");
+        missingRequest.setEmail("finder@example.com");
+        missingRequest.setPet(missingAnimal);
+
+        donationPost = new DonationPost();
+        donationPost.setId(51L);
+        donationPost.setName("Shelter roof");
+        donationPost.setType("Shelter");
+        donationPost.setDescription("Repairing the shelter roof");
+        donationPost.setTargetamount(10000L);
+        donationPost.setRemainingamount(4000L);
+        donationPost.setPeopledonated(12L);
+        donationPost.setImage("https://example.com/5.jpg");
+        donationPost.setLocation("Gdansk");
+        donationPost.setCreationtime("2022-06-01");
+
+        donation = new Donation();
+        donation.setId(61L);
+        donation.setDonationdate("2022-07-04");
+        donation.setAmountofmoney(50L);
+        donation.setDonator(user);
+        donation.setDonationpost(donationPost);
+
+        feedback = new Feedback();
+        feedback.setId(71L);
+        feedback.setRating(5L);
+        feedback.setDescription("Great platform");
+        feedback.setFeedbackdate("2022-07-05");
+
+        verify(modelMapperAdoptionAnimal(), explicitAdoptionAnimal());
+        verify(modelMapperAdoptionRequest(), explicitAdoptionRequest());
+        verify(modelMapperAdoptionUser(), explicitAdoptionUser());
+        verify(modelMapperMissingAnimal(), explicitMissingAnimal());
+        verify(modelMapperMissingRequest(), explicitMissingRequest());
+        verify(modelMapperDonationPost(), explicitDonationPost());
+        verify(modelMapperDonation(), explicitDonation());
+        verify(modelMapperFeedback(), explicitFeedback());
+    }
+
+    private void verify(Object expected, Object actual) {
+        if (!Objects.equals(expected, actual)) {
+            throw new IllegalStateException("Mapper output differs: expected " + expected + " but was " + actual);
+        }
+    }
+
+    @Benchmark
+    public AdoptionAnimalDTO modelMapperAdoptionAnimal() {
+        return modelMapper.map(adoptionAnimal, AdoptionAnimalDTO.class);
+    }
+
+    @Benchmark
+    public AdoptionAnimalDTO explicitAdoptionAnimal() {
+        return adoptionMapper.toDTO(adoptionAnimal);
+    }
+
+    @Benchmark
+    public AdoptionRequestDTO modelMapperAdoptionRequest() {
+        return modelMapper.map(adoptionRequest, AdoptionRequestDTO.class);
+    }
+
+    @Benchmark
+    public AdoptionRequestDTO explicitAdoptionRequest() {
+        return adoptionMapper.toRequestDTO(adoptionRequest);
+    }
+
+    @Benchmark
+    public AdoptionUserDTO modelMapperAdoptionUser() {
+        return modelMapper.map(user, AdoptionUserDTO.class);
+    }
+
+    @Benchmark
+    public AdoptionUserDTO explicitAdoptionUser() {
+        return adoptionMapper.toUserDTO(user);
+    }
+
+    @Benchmark
+    public MissingAnimalDTO modelMapperMissingAnimal() {
+        return modelMapper.map(missingAnimal, MissingAnimalDTO.class);
+    }
+
+    @Benchmark
+    public MissingAnimalDTO explicitMissingAnimal() {
+        return missingMapper.toDTO(missingAnimal);
+    }
+
+    @Benchmark
+    public MissingRequestDTO modelMapperMissingRequest() {
+        return modelMapper.map(missingRequest, MissingRequestDTO.class);
+    }
+
+    @Benchmark
+    public MissingRequestDTO explicitMissingRequest() {
+        return missingMapper.toRequestDTO(missingRequest);
+    }
+
+    @Benchmark
+    public DonationPostDTO modelMapperDonationPost() {
+        return modelMapper.map(donationPost, DonationPostDTO.class);
+    }
+
+    @Benchmark
+    public DonationPostDTO explicitDonationPost() {
+        return donationMapper.toPostDTO(donationPost);
+    }
+
+    @Benchmark
+    public DonationDTO modelMapperDonation() {
+        return modelMapper.map(donation, DonationDTO.class);
+    }
+
+    @Benchmark
+    public DonationDTO explicitDonation() {
+        return donationMapper.toDonationDTO(donation);
+    }
+
+    @Benchmark
+    public FeedbackDTO modelMapperFeedback() {
+        return modelMapper.map(feedback, FeedbackDTO.class);
+    }
+
+    @Benchmark
+    public FeedbackDTO explicitFeedback() {
+        return feedbackMapper.toDTO(feedback);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(DtoMappingBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,162 @@
+package com.adptapaw.backend.repository;
+
+import com.adptapaw.backend.entity.AdoptionAnimal;
+import com.adptapaw.backend.entity.AdoptionRequest;
+import com.adptapaw.backend.entity.User;
+import com.adptapaw.backend.payload.adoption.AdoptionRequestDTO;
+import com.adptapaw.backend.payload.mapper.AdoptionMapper;
+import com.adptapaw.backend.service.pagination.KeysetPage;
+import com.adptapaw.backend.service.pagination.KeysetPaginator;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The "my adoption requests" page must load requests, pets and the users
+ * behind them in a fixed number of statements, however many rows it holds.
+ */
+@DataJpaTest
+@Import({KeysetPaginator.class, AdoptionMapper.class})
+@TestPropertySource(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.sql.init.mode=never",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class AdoptionRequestRepositoryTest {
+
+    private static final int REQUESTS = 12;
+    private static final int PAGE_SIZE = 5;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private AdoptionRequestRepository adoptionRequestRepository;
+
+    @Autowired
+    private KeysetPaginator keysetPaginator;
+
+    @Autowired
+    private AdoptionMapper mapper;
+
+    private User seeker;
+
+    @BeforeEach
+    void setUp() {
+        seeker = testEntityManager.persist(user("seeker"));
+        for (int i = 0; i < REQUESTS; i++) {
+            // a distinct poster per pet, so lazy loading would cost one query per row
+            User poster = testEntityManager.persist(user("poster" + i));
+            AdoptionAnimal pet = testEntityManager.persist(animal("pet" + i, poster));
+            testEntityManager.persist(request(seeker, pet));
+        }
+        testEntityManager.flush();
+        testEntityManager.clear();
+    }
+
+    @Test
+    void offsetPageLoadsGraphInBoundedQueries() {
+        Statistics statistics = statistics();
+
+        Page<AdoptionRequest> page = adoptionRequestRepository.findByAdoptionseeker(seeker,
+                PageRequest.of(0, PAGE_SIZE, Sort.by("id").ascending()));
+        List<AdoptionRequestDTO> content = page.getContent().stream().map(mapper::toRequestDTO).collect(Collectors.toList());
+
+        assertThat(content).hasSize(PAGE_SIZE);
+        assertThat(content).allSatisfy(dto -> assertThat(dto.getPet().getUser().getUsername()).startsWith("poster"));
+        assertThat(page.getTotalElements()).isEqualTo(REQUESTS);
+        // page select, count, one batched roles select
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void cursorPageLoadsGraphInBoundedQueries() {
+        Specification<AdoptionRequest> bySeeker = (root, query, cb) -> cb.equal(root.get("adoptionseeker"), seeker);
+        KeysetPage<AdoptionRequest> first = keysetPaginator.fetch(AdoptionRequest.class, bySeeker, AdoptionRequest.WITH_PET_AND_USERS,
+                "id", "asc", null, PAGE_SIZE);
+        testEntityManager.clear();
+
+        Statistics statistics = statistics();
+
+        KeysetPage<AdoptionRequest> second = keysetPaginator.fetch(AdoptionRequest.class, bySeeker, AdoptionRequest.WITH_PET_AND_USERS,
+                "id", "asc", first.getNextCursor(), PAGE_SIZE);
+        List<AdoptionRequestDTO> content = second.getContent().stream().map(mapper::toRequestDTO).collect(Collectors.toList());
+
+        assertThat(content).hasSize(PAGE_SIZE);
+        assertThat(content).allSatisfy(dto -> assertThat(dto.getPet().getUser().getUsername()).startsWith("poster"));
+        assertThat(content.get(0).getId()).isGreaterThan(first.getContent().get(PAGE_SIZE - 1).getId());
+        // page select, one batched roles select
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+
+    private static User user(String username) {
+        User user = new User();
+        user.setName(username);
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("secret");
+        user.setAccountVerified(true);
+        return user;
+    }
+
+    private static AdoptionAnimal animal(String name, User poster) {
+        AdoptionAnimal animal = new AdoptionAnimal();
+        animal.setName(name);
+        animal.setBreed("Labrador");
+        animal.setTraining("basic");
+        animal.setVaccine("yes");
+        animal.setColor("black");
+        animal.setDescription("friendly");
+        animal.setPhysicalcondition("healthy");
+        animal.setLocation("Dhaka");
+        animal.setBehaviour("calm");
+        animal.setFood("dry");
+        animal.setGender("male");
+        animal.setType("dog");
+        animal.setMobile("0100000000");
+        animal.setPostedon("today");
+        animal.setAvailability(true);
+        animal.setUser(poster);
+        return animal;
+    }
+
+    private static AdoptionRequest request(User seeker, AdoptionAnimal pet) {
+        AdoptionRequest request = new AdoptionRequest();
+        request.setRequestdate("today");
+        request.setApproveddate("");
+        request.setStatus(false);
+        request.setRfa("looking for a companion");
+        request.setHadpet(false);
+        request.setPickup(true);
+        request.setMobile("0100000001");
+        request.setEmail(seeker.getEmail());
+        request.setAdoptionseeker(seeker);
+        request.setPet(pet);
+        return request;
+    }
+}